@@ -2,8 +2,11 @@ package com.LIT.auth;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// Plus the shared components of modules/common
+@SpringBootApplication(scanBasePackages = {"com.LIT.auth", "com.LIT.common"})
+@EnableScheduling
 public class AuthApplication {
     public static void main(String[] args) {
         SpringApplication.run(AuthApplication.class, args);
@@ -0,0 +1,40 @@
+package com.LIT.auth.controller;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.LIT.auth.service.SigningKeyService;
+
+import lombok.extern.slf4j.Slf4j;
+
+@RestController
+@RequestMapping("/api/auth")
+@Slf4j
+public class KeySetController {
+
+    private final SigningKeyService signingKeyService;
+
+    private final String logHeader = "[KeySetController] - ";
+
+    @Autowired
+    public KeySetController(SigningKeyService signingKeyService) {
+        this.signingKeyService = signingKeyService;
+    }
+
+    // Public keys tokens are verified with (JWKS), the gateway caches them & verifies tokens on its own
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> getKeySet() {
+        log.debug(logHeader + "getKeySet: Key set requested");
+
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+            .body(signingKeyService.jwks());
+    }
+}
@@ -0,0 +1,92 @@
+package com.LIT.auth.controller;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.LIT.auth.model.dto.Req.RefreshRequest;
+import com.LIT.auth.model.entity.RevokedToken;
+import com.LIT.auth.service.TokenService;
+
+import lombok.extern.slf4j.Slf4j;
+
+@RestController
+@RequestMapping("/api/auth")
+@Slf4j
+public class TokenController {
+
+    private final TokenService tokenService;
+
+    private final String logHeader = "[TokenController] - ";
+
+    @Autowired
+    public TokenController(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    // New token pair for a refresh token (same body as /login), 401 if it's unknown, expired, revoked or used before
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, String>> refresh(@RequestBody RefreshRequest refreshRequest) {
+        log.info(logHeader + "refresh: Refresh request received");
+
+        return ResponseEntity.ok(tokenService.refresh(refreshRequest.getRefreshToken()));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestBody(required = false) RefreshRequest refreshRequest,
+                                       @RequestHeader(value = "Authorization", required = false) String authorization) {
+        log.info(logHeader + "logout: Logout request received");
+
+        String refreshToken = refreshRequest == null ? null : refreshRequest.getRefreshToken();
+        String accessToken = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        tokenService.logout(refreshToken, accessToken);
+
+        return ResponseEntity.noContent().build();
+    }
+
+    // Logs the user out everywhere
+    @PostMapping("/tokens/users/{userId}/revoke")
+    public ResponseEntity<Void> revokeUser(@PathVariable Long userId, @RequestHeader("X-User-Permissions") String permissions) {
+        log.info(logHeader + "revokeUser: Revoking the tokens of user: " + userId + " with permissions: " + permissions);
+
+        if(permissions == null || permissions.isEmpty()) {
+            log.error(logHeader + "revokeUser: ERROR! User permissions are not provided in the header");
+
+            return ResponseEntity.badRequest().build();
+        }
+
+        Set<String> userPermissions = Arrays.stream(permissions.split(",")).map(String::trim).collect(Collectors.toSet());
+
+        if(!userPermissions.contains("EMPLOYEE_MANAGEMENT")) {
+            log.error(logHeader + "revokeUser: ERROR! User does not have permission to revoke tokens. The user permissions is: " + permissions);
+            log.info(logHeader + "The needed permission is: 'EMPLOYEE_MANAGEMENT'");
+
+            return ResponseEntity.status(403).build();
+        }
+
+        tokenService.revokeUser(userId);
+
+        return ResponseEntity.noContent().build();
+    }
+
+    // The gateway's denylist feed: ids of revoked, not yet expired access tokens after 'after' (seq), oldest first
+    @GetMapping("/tokens/revoked")
+    public List<RevokedToken> getRevoked(@RequestParam(required = false) Long after, @RequestParam(required = false) Integer limit) {
+        log.debug(logHeader + "getRevoked: Revoked tokens after: {}", after);
+
+        return tokenService.revokedAfter(after, limit);
+    }
+}
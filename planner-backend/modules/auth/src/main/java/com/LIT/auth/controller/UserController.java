@@ -1,8 +1,11 @@
 package com.LIT.auth.controller;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,11 +14,15 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.LIT.common.model.dto.CursorPage;
 import com.LIT.auth.model.dto.Req.UserDTO;
 import com.LIT.auth.model.entity.User;
 import com.LIT.auth.service.UserService;
+import com.LIT.common.utilities.NdjsonStreams;
 
 import java.util.Arrays;
 import java.util.Set;
@@ -29,17 +36,41 @@ import lombok.extern.slf4j.Slf4j;
 public class UserController {
     private final UserService userService;
 
+    private final NdjsonStreams ndjsonStreams;
+
     private final String logHeader = "[UserController] - ";
 
-    public UserController(UserService userService) {
+    // The scheduler's user directory sends this instead of user permissions, empty: only user permissions are accepted
+    @Value("${auth.directory.service-token:}")
+    private String serviceToken = "";
+
+    public UserController(UserService userService, NdjsonStreams ndjsonStreams) {
         this.userService = userService;
+        this.ndjsonStreams = ndjsonStreams;
     }
 
+    // All users, or those having 'role' (role name) and/or whose name or email starts with 'q'
     @GetMapping
-    public List<UserDTO> getAllUsers() {
-        log.info(logHeader + "getAllUsers: Getting all users");
+    public List<UserDTO> getAllUsers(@RequestParam(required = false) String role, @RequestParam(required = false) String q) {
+        log.info(logHeader + "getAllUsers: Getting users with role: " + role + ", search: " + q);
+
+        return userService.getAllUsers(role, q);
+    }
+
+    // Keyset pages by id, pass the page's 'nextCursor' as 'after' to get the following one
+    @GetMapping("/page")
+    public CursorPage<UserDTO> getUsersPage(@RequestParam(required = false) Long after, @RequestParam(required = false) Integer limit) {
+        log.info(logHeader + "getUsersPage: Getting users after id: " + after);
+
+        return userService.getUsersPage(after, limit);
+    }
+
+    // All users as NDJSON, written while they are read from the database
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        log.info(logHeader + "streamAllUsers: Streaming all users");
 
-        return userService.getAllUsers();
+        return ndjsonStreams.response(userService::streamAllUsers);
     }
 
     private Set<String> getPermissions(String permissions) {
@@ -48,8 +79,21 @@ public class UserController {
                     .collect(Collectors.toSet());
     }
 
+    private boolean isScheduler(String token) {
+        return !serviceToken.isEmpty() && token != null
+            && MessageDigest.isEqual(serviceToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+
     @GetMapping("/{id}")    
-    public ResponseEntity<User> getUserById(@PathVariable Long id, @RequestHeader("X-User-Permissions") String permissions) {
+    public ResponseEntity<User> getUserById(@PathVariable Long id,
+                                            @RequestHeader(value = "X-Service-Token", required = false) String token,
+                                            @RequestHeader(value = "X-User-Permissions", required = false) String permissions) {
+        if(isScheduler(token)) {
+            log.debug(logHeader + "getUserById: Scheduler retrieves user info with the id: " + id);
+
+            return userService.getUserById(id).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        }
+
         log.info(logHeader + "getUserById: User with permissions: '" + permissions + "' wants to retrieve user info with the id: " + id);
 
         if(permissions == null || permissions.isEmpty()) {
@@ -74,6 +118,36 @@ public class UserController {
         return user.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    // Several users in one request (the scheduler's user directory), ids without a user are left out
+    @PostMapping("/batch")
+    public ResponseEntity<List<UserDTO>> getUsersByIds(@RequestBody List<Long> ids,
+                                                       @RequestHeader(value = "X-Service-Token", required = false) String token,
+                                                       @RequestHeader(value = "X-User-Permissions", required = false) String permissions) {
+        boolean scheduler = isScheduler(token);
+        log.info(logHeader + "getUsersByIds: " + (scheduler ? "Scheduler" : "User with permissions: '" + permissions + "'") + " wants to retrieve " + ids.size() + " users");
+
+        if(!scheduler && (permissions == null || permissions.isEmpty())) {
+            log.error(logHeader + "getUsersByIds: ERROR! User permissions is not provided in the header");
+
+            return ResponseEntity.badRequest().build();
+        }
+
+        if(!scheduler && !getPermissions(permissions).contains("EMPLOYEE_MANAGEMENT")) {
+            log.error(logHeader + "getUsersByIds: ERROR! User does not have permission to get users by id. The user permissions is: " + permissions);
+            log.info(logHeader + "The needed permission is: 'EMPLOYEE_MANAGEMENT'");
+
+            return ResponseEntity.status(403).build();
+        }
+
+        if(ids.size() > CursorPage.MAX_LIMIT) {
+            log.error(logHeader + "getUsersByIds: ERROR! At most " + CursorPage.MAX_LIMIT + " ids per request, got " + ids.size());
+
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(userService.getUsersByIds(ids));
+    }
+
     @PostMapping    
     public User createUser(@RequestBody User user) {
         log.info(logHeader + "createUser: Creating user: " + user);
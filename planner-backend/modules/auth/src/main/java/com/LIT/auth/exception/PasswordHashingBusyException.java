@@ -0,0 +1,8 @@
+package com.LIT.auth.exception;
+
+// The password hashing pool is full or didn't get to the request in time (503, the client may retry)
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.LIT.auth.model.dto.Req;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class RefreshRequest {
+    private String refreshToken;
+}
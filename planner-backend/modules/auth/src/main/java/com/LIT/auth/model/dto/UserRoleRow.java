@@ -0,0 +1,17 @@
+package com.LIT.auth.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// One row of the user listing: a user & one of its role ids (null for users without a role), projected straight from the query
+@Getter
+@AllArgsConstructor
+public class UserRoleRow {
+    private final Long id;
+    private final String email;
+    private final String username;
+    private final String address;
+    private final String phoneNum;
+    private final String googleId;
+    private final Long roleId;
+}
@@ -0,0 +1,64 @@
+package com.LIT.auth.model.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/*
+ * One refresh token (see TokenService). Only its SHA-256 is stored, the token itself is handed out once.
+ * Every refresh replaces the token with a new one of the same 'family'; a token that is used twice means it
+ * was copied, so its whole family is revoked.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "refresh_tokens", indexes = {
+    @Index(name = "idx_refresh_tokens_user", columnList = "userId"),
+    @Index(name = "idx_refresh_tokens_family", columnList = "family"),
+    @Index(name = "idx_refresh_tokens_expires", columnList = "expiresAt")
+})
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 36)
+    private String family;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    // Set once the token was exchanged for a new one
+    private Instant usedAt;
+
+    private Instant revokedAt;
+
+    // Id ('jti') & expiry of the access token handed out with this refresh token, denylisted on revocation
+    @Column(length = 36)
+    private String accessTokenId;
+
+    private Instant accessExpiresAt;
+}
@@ -0,0 +1,44 @@
+package com.LIT.auth.model.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/*
+ * An access token that was revoked before its expiry. The gateway reads these in 'seq' order
+ * (GET /api/auth/tokens/revoked) and keeps them in its denylist; rows are purged once the token expired.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "revoked_tokens", indexes = @Index(name = "idx_revoked_tokens_expires", columnList = "expiresAt"))
+public class RevokedToken {
+    // AUTO_INCREMENT: handed out at insert, committed in any order (the gateway reloads everything now and then)
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    // The access token's 'jti'
+    @Column(nullable = false, length = 36)
+    private String tokenId;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    @Column(nullable = false)
+    private Instant revokedAt;
+}
@@ -2,6 +2,10 @@ package com.LIT.auth.model.entity;
 
 import java.util.Set;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
@@ -18,7 +22,13 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+/*
+ * Second-level cached: a handful of rows, read with every user and rarely changed (RoleService evicts on changes).
+ * Regions & their limits are in application.conf.
+ */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Role.CACHE_REGION)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -26,6 +36,11 @@ import lombok.Setter;
 @Builder
 @Table(name = "roles")
 public class Role {
+    public static final String CACHE_REGION = "roles";
+    public static final String PERMISSIONS_CACHE_REGION = "role-permissions";
+    public static final String BY_NAME_CACHE_REGION = "roles-by-name";
+    public static final String ALL_CACHE_REGION = "roles-all";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -36,6 +51,7 @@ public class Role {
     @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(name = "role_permissions", joinColumns = @JoinColumn(name = "role_id"))
     @Column(name = "permission")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = PERMISSIONS_CACHE_REGION)
     private Set<String> permissions;
 
 
@@ -0,0 +1,49 @@
+package com.LIT.auth.model.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/*
+ * An RSA key pair tokens are signed with (see SigningKeyService). Kept in the database so every auth instance
+ * signs with the same key and publishes the same key set.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "signing_keys")
+public class SigningKey {
+    // The tokens' 'kid' header
+    @Id
+    @Column(length = 36)
+    private String kid;
+
+    // X.509 encoding, Base64
+    @Lob
+    @Column(nullable = false)
+    private String publicKey;
+
+    // PKCS#8 encoding, encrypted with auth's key encryption key (see SigningKeyService)
+    @Lob
+    @Column(nullable = false)
+    private String privateKey;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    // Signs from then on, until the next key's 'activeFrom'
+    @Column(nullable = false)
+    private Instant activeFrom;
+}
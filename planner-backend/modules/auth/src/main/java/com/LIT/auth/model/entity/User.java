@@ -2,12 +2,16 @@ package com.LIT.auth.model.entity;
 
 import java.util.Set;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
@@ -24,8 +28,11 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "users")
+// Prefix search on names in the user listing (emails have their unique index)
+@Table(name = "users", indexes = @Index(name = "idx_users_username", columnList = "username"))
 public class User {
+    public static final String ROLES_CACHE_REGION = "user-roles";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -54,6 +61,8 @@ public class User {
             joinColumns = @JoinColumn(name = "user_id"),
             inverseJoinColumns = @JoinColumn(name = "role_id")
     )
+    // Only the role ids per user are cached, the roles themselves come from Role's region
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ROLES_CACHE_REGION)
     private Set<Role> roles;
 
     @Override
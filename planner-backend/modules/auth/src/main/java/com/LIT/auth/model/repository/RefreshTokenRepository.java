@@ -0,0 +1,42 @@
+package com.LIT.auth.model.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.LIT.auth.model.entity.RefreshToken;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // Marks the token used, unless it already was (or got revoked): 1 for the one refresh that wins, 0 for a replay
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.usedAt = ?2 WHERE t.id = ?1 AND t.usedAt IS NULL AND t.revokedAt IS NULL")
+    int markUsed(Long id, Instant usedAt);
+
+    // Tokens of the family / user whose access token may still be out there
+    @Query("SELECT t FROM RefreshToken t WHERE t.family = ?1 AND t.accessExpiresAt > ?2")
+    List<RefreshToken> findByFamilyWithLiveAccess(String family, Instant now);
+
+    @Query("SELECT t FROM RefreshToken t WHERE t.userId = ?1 AND t.accessExpiresAt > ?2")
+    List<RefreshToken> findByUserWithLiveAccess(Long userId, Instant now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = ?2 WHERE t.family = ?1 AND t.revokedAt IS NULL")
+    int revokeFamily(String family, Instant revokedAt);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = ?2 WHERE t.userId = ?1 AND t.revokedAt IS NULL")
+    int revokeUser(Long userId, Instant revokedAt);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < ?1")
+    int deleteExpired(Instant now);
+}
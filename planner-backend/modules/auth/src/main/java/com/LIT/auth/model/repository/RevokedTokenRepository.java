@@ -0,0 +1,23 @@
+package com.LIT.auth.model.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.LIT.auth.model.entity.RevokedToken;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    // The denylist feed: revocations after 'seq' that haven't expired yet, oldest first
+    List<RevokedToken> findBySeqGreaterThanAndExpiresAtAfterOrderBySeqAsc(Long seq, Instant now, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt < ?1")
+    int deleteExpired(Instant now);
+}
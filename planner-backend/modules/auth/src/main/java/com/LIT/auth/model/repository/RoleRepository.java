@@ -1,19 +1,33 @@
 package com.LIT.auth.model.repository;
 
 
+import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.LIT.auth.model.entity.Role;
+
+import jakarta.persistence.QueryHint;
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
-    
+
+    // Query cache: only the matching id is kept, the role itself comes from Role's entity region
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Role.BY_NAME_CACHE_REGION)
+    })
     @Query("SELECT r FROM Role r WHERE r.name = ?1")
     Optional<Role> findByName(String name);
-}
-
-
 
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Role.ALL_CACHE_REGION)
+    })
+    @Override
+    List<Role> findAll();
+}
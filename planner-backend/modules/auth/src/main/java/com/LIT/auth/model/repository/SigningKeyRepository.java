@@ -0,0 +1,14 @@
+package com.LIT.auth.model.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.LIT.auth.model.entity.SigningKey;
+
+@Repository
+public interface SigningKeyRepository extends JpaRepository<SigningKey, String> {
+
+    List<SigningKey> findAllByOrderByActiveFromAsc();
+}
@@ -1,13 +1,25 @@
 package com.LIT.auth.model.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.LIT.auth.model.dto.UserRoleRow;
 import com.LIT.auth.model.entity.User;
 
+import jakarta.persistence.QueryHint;
+
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -19,4 +31,41 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByGoogleId(String googleId);
 
     Optional<User> findFirstByRoles_Name(String role);
+
+    // Rehash on login (from a hashing thread): only if the password wasn't changed meanwhile, returns 1 when stored
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = ?2 WHERE u.id = ?1 AND u.password = ?3")
+    int updatePasswordIfUnchanged(Long id, String newPassword, String oldPassword);
+
+    // Batch lookup, roles & their permissions in the same query
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.roles r LEFT JOIN FETCH r.permissions WHERE u.id IN ?1")
+    List<User> findWithRolesByIdIn(Collection<Long> ids);
+
+    /*
+     * User listing in one query: a row per user & role id, the roles themselves come from the (cached) role table.
+     * 'role' keeps the users having that role, with all of their roles. 'prefix' ends in '%' and matches the start
+     * of the name (idx_users_username) or the email (its unique index), '!' escapes wildcards typed by the user.
+     */
+    @Query("SELECT new com.LIT.auth.model.dto.UserRoleRow(u.id, u.email, u.username, u.address, u.phoneNum, u.googleId, r.id) " +
+           "FROM User u LEFT JOIN u.roles r " +
+           "WHERE (:role IS NULL OR u.id IN (SELECT m.id FROM User m JOIN m.roles mr WHERE mr.name = :role)) " +
+           "AND (:prefix IS NULL OR u.username LIKE :prefix ESCAPE '!' OR u.email LIKE :prefix ESCAPE '!') " +
+           "ORDER BY u.id")
+    List<UserRoleRow> findUserRoleRows(@Param("role") String role, @Param("prefix") String prefix);
+
+    // Keyset pages by id
+    List<User> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    /*
+     * Whole table as a cursor, rows are fetched from the database in batches while the stream is consumed.
+     * Roles & their permissions come in the same result: loading them per user would need other queries
+     * on the connection while the cursor is open, and the driver would have to buffer the rest of it first.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.roles r LEFT JOIN FETCH r.permissions ORDER BY u.id")
+    Stream<User> streamAll();
 }
@@ -7,7 +7,6 @@ import java.util.Optional;
 import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import com.LIT.auth.exception.InvalidCredentialsException;
@@ -17,7 +16,6 @@ import com.LIT.auth.model.entity.Role;
 import com.LIT.auth.model.entity.User;
 import com.LIT.auth.model.repository.RoleRepository;
 import com.LIT.auth.model.repository.UserRepository;
-import com.LIT.auth.utilities.JwtTokenUtil;
 
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
@@ -27,8 +25,8 @@ import lombok.extern.slf4j.Slf4j;
 public class AuthenticationService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
-    private final JwtTokenUtil jwtTokenUtil;
-    private final PasswordEncoder passwordEncoder;
+    private final TokenService tokenService;
+    private final PasswordHashingService passwordHashingService;
     private final UserService userService;
 
     private final String logHeader = "[AuthenticationService] - ";
@@ -36,13 +34,13 @@ public class AuthenticationService {
     @Autowired
     public AuthenticationService(UserRepository userRepository,
                                  RoleRepository roleRepository,
-                                 JwtTokenUtil jwtTokenUtil,
-                                 PasswordEncoder passwordEncoder,
+                                 TokenService tokenService,
+                                 PasswordHashingService passwordHashingService,
                                  UserService userService) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
-        this.jwtTokenUtil = jwtTokenUtil;
-        this.passwordEncoder = passwordEncoder;
+        this.tokenService = tokenService;
+        this.passwordHashingService = passwordHashingService;
         this.userService = userService;
     }
 
@@ -79,7 +77,7 @@ public class AuthenticationService {
             User admin = User.builder()
                     .email("admin@example.com")
                     .username("Admin Adminson")
-                    .password(passwordEncoder.encode("admin123"))
+                    .password("admin123")
                     .address("1234 Admin St")
                     .phoneNum("123-456-7890")
                     .roles(Set.of(adminRole))
@@ -88,7 +86,7 @@ public class AuthenticationService {
             User shiftSupervisor = User.builder()
                     .email("shiftsupervisor@example.com")
                     .username("Shift Supervisor Smith")
-                    .password(passwordEncoder.encode("shiftsuper123"))
+                    .password("shiftsuper123")
                     .address("1234 Shift Supervisor St")
                     .phoneNum("123-456-7890")
                     .roles(Set.of(shiftSupervisorRole))
@@ -97,7 +95,7 @@ public class AuthenticationService {
             User technician = User.builder()
                     .email("technician@example.com")
                     .username("Technician Mike")
-                    .password(passwordEncoder.encode("technician123"))
+                    .password("technician123")
                     .address("1234 Technician St")
                     .phoneNum("123-456-7890")
                     .roles(Set.of(technicianRole))
@@ -106,7 +104,7 @@ public class AuthenticationService {
             User tester = User.builder()
                     .email("tester@example.com")
                     .username("Tester Testerson")
-                    .password(passwordEncoder.encode("tester123"))
+                    .password("tester123")
                     .roles(Set.of(testerRole))
                     .address("1234 Tester St")
                     .phoneNum("123-456-7890")
@@ -115,7 +113,7 @@ public class AuthenticationService {
             User incidentManager= User.builder()
                     .email("incidentmanager@example.com")
                     .username("Incident Manager Luis")
-                    .password(passwordEncoder.encode("incidentmanage123"))
+                    .password("incidentmanage123")
                     .roles(Set.of(incidentManagerRole))
                     .address("1234 Incident Manager St")
                     .phoneNum("123-456-7890")
@@ -125,7 +123,7 @@ public class AuthenticationService {
             User trialDavid = User.builder()
                     .email("david@example.com")
                     .username("David Reichelt")
-                    .password(passwordEncoder.encode("david123"))
+                    .password("david123")
                     .roles(Set.of(adminRole))
                     .address("1234 David St")
                     .phoneNum("123-456-7890")
@@ -134,7 +132,7 @@ public class AuthenticationService {
             User trialTorsten = User.builder()
                     .email("torsten@example.com")
                     .username("Torsten Frost")
-                    .password(passwordEncoder.encode("torsten123"))
+                    .password("torsten123")
                     .roles(Set.of(adminRole))
                     .address("1234 Torsten St")
                     .phoneNum("123-456-7890")
@@ -142,54 +140,62 @@ public class AuthenticationService {
 
             List<User> generatedUsers = List.of(admin, shiftSupervisor, technician, tester, incidentManager, trialDavid, trialTorsten);
 
+            // Hashed in parallel on the hashing pool, the passwords above are replaced by their hashes
+            List<String> hashes = passwordHashingService.encodeAll(generatedUsers.stream().map(User::getPassword).toList());
+            for (int i = 0; i < generatedUsers.size(); i++) {
+                generatedUsers.get(i).setPassword(hashes.get(i));
+            }
+
             log.info(logHeader + "initializeDummyUsers: Users initialized. Saving to DB...");
             userRepository.saveAll(generatedUsers);
         }
     }
 
     public Map<String, String> login(LoginRequest loginRequest) {
-        log.info(logHeader + "login: Logging in user with email: " + loginRequest.getEmail() + " and password: " + loginRequest.getPassword());
+        // Never log the password (neither the request's nor the stored hash)
+        log.debug(logHeader + "login: Logging in user with email: {}", loginRequest.getEmail());
 
         Optional<User> userOptional = userRepository.findByEmail(loginRequest.getEmail());
 
         if (userOptional.isEmpty() ||
-            !passwordEncoder.matches(loginRequest.getPassword(), userOptional.get().getPassword())) {
-
-            log.error(logHeader + "login: Invalid credentials");
+            !passwordHashingService.matches(loginRequest.getPassword(), userOptional.get().getPassword())) {
 
             if(userOptional.isEmpty()) {
-                log.error(logHeader + "login: User not found");
+                log.warn(logHeader + "login: Invalid credentials, user not found: {}", loginRequest.getEmail());
             } else {
-                log.error(logHeader + "login: Password does not match. Optional: " + userOptional.get().getPassword() + " Request: " + loginRequest.getPassword());
+                log.warn(logHeader + "login: Invalid credentials, password does not match for: {}", loginRequest.getEmail());
             }
             throw new InvalidCredentialsException("Invalid credentials");
         }
         User user = userOptional.get();
-        //get the first one (this is assuming each user has AT LEAST one)
-        String role = user.getRoles().iterator().next().getName();
-        String permissions = String.join(",", user.getRoles().iterator().next().getPermissions());
-        String username = user.getUsername();
+        rehashIfOutdated(user, loginRequest.getPassword());
 
-        log.info(logHeader + "login: User found. Generating token...");
+        log.debug(logHeader + "login: User found. Generating tokens...");
 
-        // Generate token
-        String token = "Bearer " + jwtTokenUtil.generateToken(user.getEmail(), role, user.getId(), user.getUsername(), permissions);
-
-        Map<String, String> toReturn = new HashMap<>();
-        toReturn.put("token", token);
-        toReturn.put("email", user.getEmail());
-        toReturn.put("role", role);
-        toReturn.put("userId", user.getId().toString());
-        toReturn.put("username", username);
-        toReturn.put("permissions", permissions);
+        // Access & refresh token, the access token carries the first role (this is assuming each user has AT LEAST one)
+        Map<String, String> toReturn = tokenService.issue(user);
 
-        log.info(logHeader + "User " + user.getEmail() + " logged in successfully. Returnig token.");
+        log.info(logHeader + "login: User {} logged in successfully", user.getEmail());
 
         return toReturn;
     }
 
+    // Hashed with another BCrypt cost than configured: store a new hash, in the background (the login doesn't wait for it)
+    private void rehashIfOutdated(User user, String rawPassword) {
+        String oldHash = user.getPassword();
+        if (!passwordHashingService.needsRehash(oldHash)) {
+            return;
+        }
+
+        Long userId = user.getId();
+        passwordHashingService.rehashInBackground(rawPassword, newHash -> {
+            int updated = userRepository.updatePasswordIfUnchanged(userId, newHash, oldHash);
+            log.debug(logHeader + "rehashIfOutdated: Rehashed the password of user {} ({} row updated)", userId, updated);
+        });
+    }
+
     public Map<String, String> getForNewCommer(LoginRequest loginRequest) {
-        log.info(logHeader + "getForNewCommer: New user first login detected. Need to finalize registration.");
+        log.debug(logHeader + "getForNewCommer: New user first login detected. Need to finalize registration.");
 
         Optional<User> userOptional = userRepository.findByEmail(loginRequest.getEmail());
 
@@ -211,7 +217,7 @@ public class AuthenticationService {
 
     // Fulfill registration
     public Map<String, String> register(RegisterRequest registerRequest) {
-        log.info(logHeader + "register: Fulfilling registration  user with email: " + registerRequest.getEmail());
+        log.debug(logHeader + "register: Fulfilling registration of user with email: {}", registerRequest.getEmail());
 
         Optional<User> userOptional = userRepository.findByEmail(registerRequest.getEmail());
 
@@ -222,31 +228,18 @@ public class AuthenticationService {
         
         // Update with new password
         User newUser = userOptional.get();
-        newUser.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
+        newUser.setPassword(passwordHashingService.encode(registerRequest.getPassword()));
 
-        log.info(logHeader + "register: Saving user to DB with updated password...");
+        log.debug(logHeader + "register: Saving user to DB with updated password...");
 
         userRepository.save(newUser);
 
-        // Build metadata to finish the login
-        String role = newUser.getRoles().iterator().next().getName();
-        String permissions = String.join(",", newUser.getRoles().iterator().next().getPermissions());
-        String username = newUser.getUsername();
-
-        log.info(logHeader + "login: newUser found. Generating token...");
+        log.debug(logHeader + "register: newUser found. Generating tokens...");
 
-        // Generate token
-        String token = "Bearer " + jwtTokenUtil.generateToken(newUser.getEmail(), role, newUser.getId(), newUser.getUsername(), permissions);
+        // Build metadata to finish the login
+        Map<String, String> toReturn = tokenService.issue(newUser);
 
-        Map<String, String> toReturn = new HashMap<>();
-        toReturn.put("token", token);
-        toReturn.put("email", newUser.getEmail());
-        toReturn.put("role", role);
-        toReturn.put("userId", newUser.getId().toString());
-        toReturn.put("username", username);
-        toReturn.put("permissions", permissions);
-
-        log.info(logHeader + "newUser " + newUser.getEmail() + " logged in successfully. Returnig token.");
+        log.info(logHeader + "register: User {} registered & logged in successfully", newUser.getEmail());
 
         return toReturn;
 }
@@ -0,0 +1,197 @@
+package com.LIT.auth.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.LIT.auth.exception.PasswordHashingBusyException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * BCrypt hashing & checking on a pool of its own ('threads', one per CPU by default) instead of the request threads.
+ * At most 'max-queued' hashes wait for it, a request that can't be queued or isn't done within 'max-wait' gets
+ * PasswordHashingBusyException (503) instead of piling up behind the others.
+ *  - Hashes made with another BCrypt cost than 'bcrypt-strength' are rehashed on the next successful login.
+ *  - Metrics: auth.password.hashing (time per hash, by operation), auth.password.hashing.wait (time queued),
+ *    auth.password.hashing.queued & .active (gauges), auth.password.hashing.rejected.
+ */
+@Service
+@Slf4j
+public class PasswordHashingService {
+
+    private final String logHeader = "[PasswordHashingService] - ";
+
+    // $2a$10$... -> 10
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d{2})\\$");
+
+    private final PasswordEncoder passwordEncoder;
+    private final int strength;
+    private final Duration maxWait;
+
+    private final ThreadPoolExecutor workers;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    @Autowired
+    public PasswordHashingService(PasswordEncoder passwordEncoder, MeterRegistry meterRegistry,
+                                  @Value("${auth.hashing.bcrypt-strength:10}") int strength,
+                                  @Value("${auth.hashing.threads:0}") int threads,
+                                  @Value("${auth.hashing.max-queued:64}") int maxQueued,
+                                  @Value("${auth.hashing.max-wait:5s}") Duration maxWait) {
+        this.passwordEncoder = passwordEncoder;
+        this.strength = strength;
+        this.maxWait = maxWait;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(1, maxQueued)), runnable -> {
+            Thread thread = new Thread(runnable, "password-hasher-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.encodeTimer = Timer.builder("auth.password.hashing").tag("operation", "encode")
+            .description("Time to hash a password").register(meterRegistry);
+        this.matchesTimer = Timer.builder("auth.password.hashing").tag("operation", "matches")
+            .description("Time to check a password against its hash").register(meterRegistry);
+        this.waitTimer = Timer.builder("auth.password.hashing.wait")
+            .description("Time a hash waited for a hashing thread").register(meterRegistry);
+        this.rejected = Counter.builder("auth.password.hashing.rejected")
+            .description("Hashes turned down, the pool was full or too slow").register(meterRegistry);
+
+        Gauge.builder("auth.password.hashing.queued", workers, pool -> pool.getQueue().size())
+            .description("Hashes waiting for a hashing thread").register(meterRegistry);
+        Gauge.builder("auth.password.hashing.active", workers, ThreadPoolExecutor::getActiveCount)
+            .description("Hashes being computed").register(meterRegistry);
+
+        log.info(logHeader + "BCrypt strength {}, {} hashing threads, at most {} queued", strength, poolSize, maxQueued);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    public String encode(String rawPassword) {
+        return await(submit(encodeTimer, () -> passwordEncoder.encode(rawPassword)));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return await(submit(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    // All hashed at once (as many in parallel as there are threads), in the same order
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<Future<String>> hashes = new ArrayList<>();
+        for (String rawPassword : rawPasswords) {
+            hashes.add(submit(encodeTimer, () -> passwordEncoder.encode(rawPassword)));
+        }
+
+        List<String> encoded = new ArrayList<>();
+        for (Future<String> hash : hashes) {
+            encoded.add(await(hash));
+        }
+        return encoded;
+    }
+
+    // Hashed with another cost than the configured one (or not a BCrypt hash at all)
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return !matcher.find() || Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    /*
+     * Hashes 'rawPassword' again in the background and hands the new hash to 'store'. Only while no other hash
+     * waits for the pool: logins go first, a skipped rehash is tried again on the next login.
+     */
+    public void rehashInBackground(String rawPassword, Consumer<String> store) {
+        if (!workers.getQueue().isEmpty()) {
+            log.debug(logHeader + "rehashInBackground: Pool busy, skipping the rehash");
+            return;
+        }
+
+        try {
+            workers.execute(() -> {
+                try {
+                    store.accept(encodeTimer.record(() -> passwordEncoder.encode(rawPassword)));
+                } catch (RuntimeException e) {
+                    log.warn(logHeader + "rehashInBackground: Rehash failed: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug(logHeader + "rehashInBackground: Pool full, skipping the rehash");
+        }
+    }
+
+    private <T> Future<T> submit(Timer timer, Callable<T> hash) {
+        long queuedAt = System.nanoTime();
+
+        try {
+            return workers.submit(() -> {
+                waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(hash);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn(logHeader + "submit: Hashing pool full ({} queued), turning the request down", workers.getQueue().size());
+            throw new PasswordHashingBusyException("Too many logins at once, please try again");
+        }
+    }
+
+    private <T> T await(Future<T> result) {
+        try {
+            return result.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+
+        } catch (TimeoutException e) {
+            // Still queued: taken out again, nobody waits for it anymore
+            result.cancel(true);
+            if (result instanceof Runnable task) {
+                workers.remove(task);
+            }
+            rejected.increment();
+            log.warn(logHeader + "await: No hash within {}, turning the request down", maxWait);
+            throw new PasswordHashingBusyException("Too many logins at once, please try again");
+
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("Interrupted while waiting for the password hash");
+
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.LIT.auth.service;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.LIT.auth.model.entity.Role;
+import com.LIT.auth.model.entity.User;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Drops roles from Hibernate's second-level cache after they were written. Hibernate already keeps its
+ * cache in step with changes made through this module, this also covers what it can't see (e.g. rows
+ * changed in the database by hand, then a role saved here). The cache is per instance: other instances
+ * see a change once their entries expire (AUTH_ROLE_CACHE_TTL, application.conf).
+ */
+@Component
+@Slf4j
+public class RoleCacheEvictor {
+
+    private final String logHeader = "[RoleCacheEvictor] - ";
+
+    private final Cache cache;
+
+    @Autowired
+    public RoleCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    // Role & its permissions changed, lookups by name may find another role now
+    public void roleChanged(Long roleId) {
+        log.debug(logHeader + "roleChanged: Evicting role {}", roleId);
+
+        if (roleId != null) {
+            cache.evictEntityData(Role.class, roleId);
+            cache.evictCollectionData(Role.class.getName() + ".permissions", roleId);
+        }
+        cache.evictQueryRegion(Role.BY_NAME_CACHE_REGION);
+        cache.evictQueryRegion(Role.ALL_CACHE_REGION);
+    }
+
+    // A deleted role may still be listed in users' cached role sets
+    public void roleDeleted(Long roleId) {
+        roleChanged(roleId);
+        cache.evictCollectionData(User.class.getName() + ".roles");
+    }
+}
@@ -20,11 +20,14 @@ import lombok.extern.slf4j.Slf4j;
 public class RoleService {
     private final RoleRepository roleRepository;
 
+    private final RoleCacheEvictor roleCacheEvictor;
+
     private final String logHeader = "[RoleService] - ";
 
     @Autowired
-    public RoleService(RoleRepository roleRepository) {
+    public RoleService(RoleRepository roleRepository, RoleCacheEvictor roleCacheEvictor) {
         this.roleRepository = roleRepository;
+        this.roleCacheEvictor = roleCacheEvictor;
     }
 
     public List<Role> getAllRoles() {
@@ -39,12 +42,15 @@ public class RoleService {
 
     public Role createRole(Role role) {
         log.info(logHeader + "createRole: Creating role: " + role);
-        return roleRepository.save(role);
+        Role saved = roleRepository.save(role);
+        roleCacheEvictor.roleChanged(saved.getId());
+        return saved;
     }
 
     public void deleteRole(Long id) {
         log.info(logHeader + "deleteRole: Deleting role by id: " + id);
         roleRepository.deleteById(id);
+        roleCacheEvictor.roleDeleted(id);
     }
 
     public Optional<Role> updateRolePermissions(Long id, Set<String> permissions) {
@@ -54,6 +60,7 @@ public class RoleService {
         role.ifPresent(r -> {
             r.setPermissions(permissions);
             roleRepository.save(r);
+            roleCacheEvictor.roleChanged(id);
         });
 
         return role;
@@ -0,0 +1,69 @@
+package com.LIT.auth.service;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * The scheduler caches users (email, name, roles). When a user is created, changed or deleted here,
+ * its cached copy is evicted so the scheduler asks again. Fire and forget: the scheduler's cache TTL
+ * covers an eviction that gets lost, and a slow scheduler doesn't hold up user changes.
+ * Evictions are authorized with the shared 'service-token' (X-Service-Token), not with made-up user permissions.
+ */
+@Component
+@Slf4j
+public class SchedulerDirectoryNotifier {
+
+    private final String logHeader = "[SchedulerDirectoryNotifier] - ";
+
+    private final RestClient restClient;
+
+    private final boolean enabled;
+
+    public SchedulerDirectoryNotifier(@Value("${address.scheduler.url}") String schedulerUrl,
+                                      @Value("${auth.directory.notify-scheduler:true}") boolean enabled,
+                                      @Value("${auth.directory.service-token:}") String serviceToken) {
+        HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofSeconds(5));
+
+        this.restClient = RestClient.builder()
+            .baseUrl(schedulerUrl)
+            .requestFactory(requestFactory)
+            .defaultHeader("X-Service-Token", serviceToken)
+            .build();
+        this.enabled = enabled && !serviceToken.isEmpty();
+
+        if (enabled && !this.enabled) {
+            log.warn(logHeader + "No auth.directory.service-token configured, the scheduler's user cache only expires by its TTL");
+        }
+    }
+
+    public void userChanged(Long userId) {
+        if (!enabled || userId == null) {
+            return;
+        }
+
+        Thread.ofVirtual().name("scheduler-directory-evict-" + userId).start(() -> {
+            try {
+                restClient.delete()
+                    .uri("/api/scheduler/directory/users/{id}", userId)
+                    .retrieve()
+                    .toBodilessEntity();
+                log.debug(logHeader + "userChanged: Evicted user {} from the scheduler's cache", userId);
+
+            } catch (RuntimeException e) {
+                log.warn(logHeader + "userChanged: Couldn't evict user {} from the scheduler's cache: {}", userId, e.getMessage());
+            }
+        });
+    }
+}
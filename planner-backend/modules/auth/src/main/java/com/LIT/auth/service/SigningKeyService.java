@@ -0,0 +1,319 @@
+package com.LIT.auth.service;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Service;
+
+import com.LIT.auth.model.entity.SigningKey;
+import com.LIT.auth.model.repository.SigningKeyRepository;
+import com.auth0.jwt.algorithms.Algorithm;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * RS256 signing keys with rotation. The newest key whose 'activeFrom' has passed signs, the others only verify:
+ *  - every 'rotation-interval' a new key is created 'publish-ahead' before it starts signing, so the gateway has it
+ *    in its key set (GET /api/auth/.well-known/jwks.json) by the time the first token signed with it shows up,
+ *  - a replaced key stays published until the last token it signed has expired (access token TTL), then it's deleted.
+ * Keys live in 'signing_keys' (shared by all auth instances), each instance checks for new ones every 'check-interval'.
+ * The private keys are stored encrypted (AES-GCM, the key id as associated data) with a key derived from 'kek', which
+ * only auth is given: the other modules reach the same database, but can't sign with what they read there. Rows
+ * written before that are encrypted in place by the next rotateIfDue().
+ */
+@Service
+@Slf4j
+public class SigningKeyService implements SchedulingConfigurer {
+
+    private final String logHeader = "[SigningKeyService] - ";
+
+    // A loaded key, with the algorithm that signs with it
+    public record ActiveKey(String kid, RSAPublicKey publicKey, RSAPrivateKey privateKey, Instant activeFrom, Algorithm algorithm) {
+
+        public static ActiveKey of(String kid, RSAPublicKey publicKey, RSAPrivateKey privateKey, Instant activeFrom) {
+            return new ActiveKey(kid, publicKey, privateKey, activeFrom, Algorithm.RSA256(publicKey, privateKey));
+        }
+    }
+
+    private final SigningKeyRepository signingKeyRepository;
+
+    @Value("${jwt.signing.key-size:2048}")
+    private int keySize = 2048;
+
+    @Value("${jwt.signing.rotation-interval:30d}")
+    private Duration rotationInterval = Duration.ofDays(30);
+
+    @Value("${jwt.signing.publish-ahead:1h}")
+    private Duration publishAhead = Duration.ofHours(1);
+
+    @Value("${jwt.signing.check-interval:10m}")
+    private Duration checkInterval = Duration.ofMinutes(10);
+
+    // Replaced keys verify for this long (plus a few minutes for clocks that are off)
+    @Value("${jwt.access-token-ttl:15m}")
+    private Duration accessTokenTtl = Duration.ofMinutes(15);
+
+    private static final Duration CLOCK_SKEW = Duration.ofMinutes(5);
+
+    // Encrypts the private keys at rest, auth's own secret (JWT_SIGNING_KEK)
+    @Value("${jwt.signing.kek:}")
+    private String kek = "";
+
+    private static final int MIN_KEK_LENGTH = 32;
+
+    // Prefix of an encrypted private key: Base64 of IV (12 bytes) + ciphertext
+    private static final String ENCRYPTED = "aes-gcm:";
+
+    private static final int IV_LENGTH = 12;
+
+    private final SecureRandom random = new SecureRandom();
+
+    // Unknown 'kid's reload the keys (another instance may have rotated), at most this often
+    private static final Duration MIN_RELOAD_INTERVAL = Duration.ofSeconds(10);
+
+    // Oldest first
+    private volatile List<ActiveKey> keys = List.of();
+
+    private volatile Instant loadedAt = Instant.EPOCH;
+
+    @Autowired
+    public SigningKeyService(SigningKeyRepository signingKeyRepository) {
+        this.signingKeyRepository = signingKeyRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (kek == null || kek.length() < MIN_KEK_LENGTH) {
+            throw new IllegalStateException("jwt.signing.kek (JWT_SIGNING_KEK) must be set to a secret of at least " + MIN_KEK_LENGTH + " characters");
+        }
+        rotateIfDue();
+    }
+
+    // Registered here rather than with @Scheduled so the interval can be a duration like the rest of the configuration
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(this::rotateIfDue, checkInterval);
+    }
+
+    // The key that signs now
+    public ActiveKey current() {
+        Instant now = Instant.now();
+        ActiveKey current = null;
+        for (ActiveKey key : keys) {
+            if (!key.activeFrom().isAfter(now)) {
+                current = key;
+            }
+        }
+
+        if (current == null) {
+            throw new IllegalStateException("No signing key is active");
+        }
+        return current;
+    }
+
+    public RSAPublicKey publicKey(String kid) {
+        ActiveKey key = find(kid);
+        if (key == null && kid != null) {
+            key = reloadFor(kid);
+        }
+        return key == null ? null : key.publicKey();
+    }
+
+    // The published key set (RFC 7517): every key that signs, will sign, or signed tokens that haven't expired
+    public Map<String, Object> jwks() {
+        List<Map<String, String>> published = new ArrayList<>();
+        for (ActiveKey key : keys) {
+            Map<String, String> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "RSA");
+            jwk.put("use", "sig");
+            jwk.put("alg", "RS256");
+            jwk.put("kid", key.kid());
+            jwk.put("n", base64Url(key.publicKey().getModulus()));
+            jwk.put("e", base64Url(key.publicKey().getPublicExponent()));
+            published.add(jwk);
+        }
+        return Map.of("keys", published);
+    }
+
+    public synchronized void rotateIfDue() {
+        try {
+            Instant now = Instant.now();
+            List<SigningKey> stored = signingKeyRepository.findAllByOrderByActiveFromAsc();
+
+            for (SigningKey key : stored) {
+                if (!key.getPrivateKey().startsWith(ENCRYPTED)) {
+                    key.setPrivateKey(encrypt(key.getKid(), Base64.getDecoder().decode(key.getPrivateKey())));
+                    signingKeyRepository.save(key);
+                    log.info(logHeader + "rotateIfDue: Signing key {} was stored unencrypted, encrypted it", key.getKid());
+                }
+            }
+
+            // Replaced long enough ago that nothing it signed is still valid
+            for (int i = 0; i + 1 < stored.size(); i++) {
+                Instant replacedAt = stored.get(i + 1).getActiveFrom();
+                if (!replacedAt.isAfter(now) && replacedAt.plus(accessTokenTtl).plus(CLOCK_SKEW).isBefore(now)) {
+                    log.info(logHeader + "rotateIfDue: Deleting signing key {}, replaced at {}", stored.get(i).getKid(), replacedAt);
+                    signingKeyRepository.delete(stored.get(i));
+                }
+            }
+
+            SigningKey newest = stored.isEmpty() ? null : stored.get(stored.size() - 1);
+            if (newest == null) {
+                signingKeyRepository.save(generate(now, now));
+                log.info(logHeader + "rotateIfDue: No signing key yet, created one");
+
+            } else if (!newest.getActiveFrom().plus(rotationInterval).minus(publishAhead).isAfter(now)) {
+                // Overdue (auth was down): the current key keeps signing until the new one is published
+                Instant activeFrom = newest.getActiveFrom().plus(rotationInterval);
+                if (activeFrom.isBefore(now.plus(publishAhead))) {
+                    activeFrom = now.plus(publishAhead);
+                }
+                signingKeyRepository.save(generate(now, activeFrom));
+                log.info(logHeader + "rotateIfDue: Created the next signing key, signs from {}", activeFrom);
+            }
+
+        } catch (RuntimeException e) {
+            // Another instance may have rotated at the same time, its key is loaded below
+            log.warn(logHeader + "rotateIfDue: Couldn't rotate the signing keys: {}", e.getMessage());
+        }
+
+        load();
+    }
+
+    private synchronized void load() {
+        List<ActiveKey> loaded = new ArrayList<>();
+        for (SigningKey key : signingKeyRepository.findAllByOrderByActiveFromAsc()) {
+            loaded.add(decode(key));
+        }
+        keys = List.copyOf(loaded);
+        loadedAt = Instant.now();
+
+        log.debug(logHeader + "load: {} signing keys loaded", loaded.size());
+    }
+
+    private synchronized ActiveKey reloadFor(String kid) {
+        ActiveKey key = find(kid);
+        if (key == null && Instant.now().isAfter(loadedAt.plus(MIN_RELOAD_INTERVAL))) {
+            load();
+            key = find(kid);
+        }
+        return key;
+    }
+
+    private ActiveKey find(String kid) {
+        for (ActiveKey key : keys) {
+            if (key.kid().equals(kid)) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    private SigningKey generate(Instant now, Instant activeFrom) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(keySize);
+            KeyPair pair = generator.generateKeyPair();
+
+            String kid = UUID.randomUUID().toString();
+            return SigningKey.builder()
+                .kid(kid)
+                .publicKey(Base64.getEncoder().encodeToString(pair.getPublic().getEncoded()))
+                .privateKey(encrypt(kid, pair.getPrivate().getEncoded()))
+                .createdAt(now)
+                .activeFrom(activeFrom)
+                .build();
+
+        } catch (GeneralSecurityException e) {
+            // Every JVM ships RSA
+            throw new IllegalStateException("RSA not available", e);
+        }
+    }
+
+    private ActiveKey decode(SigningKey key) {
+        try {
+            KeyFactory factory = KeyFactory.getInstance("RSA");
+            RSAPublicKey publicKey = (RSAPublicKey) factory.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(key.getPublicKey())));
+            byte[] encoded = key.getPrivateKey().startsWith(ENCRYPTED)
+                ? decrypt(key.getKid(), key.getPrivateKey())
+                : Base64.getDecoder().decode(key.getPrivateKey());
+            RSAPrivateKey privateKey = (RSAPrivateKey) factory.generatePrivate(new PKCS8EncodedKeySpec(encoded));
+            return ActiveKey.of(key.getKid(), publicKey, privateKey, key.getActiveFrom());
+
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Signing key " + key.getKid() + " can't be read", e);
+        }
+    }
+
+    private String encrypt(String kid, byte[] privateKey) {
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, keyEncryptionKey(), new GCMParameterSpec(128, iv));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            byte[] encrypted = cipher.doFinal(privateKey);
+
+            return ENCRYPTED + Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + encrypted.length).put(iv).put(encrypted).array());
+
+        } catch (GeneralSecurityException e) {
+            // Every JVM ships AES-GCM
+            throw new IllegalStateException("Signing key " + kid + " can't be encrypted", e);
+        }
+    }
+
+    // Fails (AEADBadTagException) with another 'kek', or when the row was tampered with or copied to another kid
+    private byte[] decrypt(String kid, String stored) throws GeneralSecurityException {
+        byte[] bytes = Base64.getDecoder().decode(stored.substring(ENCRYPTED.length()));
+
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, keyEncryptionKey(), new GCMParameterSpec(128, bytes, 0, IV_LENGTH));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        return cipher.doFinal(bytes, IV_LENGTH, bytes.length - IV_LENGTH);
+    }
+
+    // AES-256 key from the configured secret
+    private SecretKey keyEncryptionKey() throws GeneralSecurityException {
+        return new SecretKeySpec(MessageDigest.getInstance("SHA-256").digest(kek.getBytes(StandardCharsets.UTF_8)), "AES");
+    }
+
+    // Unsigned big-endian, without the sign byte BigInteger adds
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
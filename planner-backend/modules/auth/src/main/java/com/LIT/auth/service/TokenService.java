@@ -0,0 +1,256 @@
+package com.LIT.auth.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.LIT.auth.exception.InvalidCredentialsException;
+import com.LIT.auth.model.entity.RefreshToken;
+import com.LIT.auth.model.entity.RevokedToken;
+import com.LIT.auth.model.entity.Role;
+import com.LIT.auth.model.entity.User;
+import com.LIT.auth.model.repository.RefreshTokenRepository;
+import com.LIT.auth.model.repository.RevokedTokenRepository;
+import com.LIT.auth.model.repository.UserRepository;
+import com.LIT.auth.utilities.JwtTokenUtil;
+import com.auth0.jwt.interfaces.DecodedJWT;
+
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Access & refresh tokens:
+ *  - Access tokens are short-lived JWTs ('jwt.access-token-ttl') with an id ('jti'), checked by the gateway on its own.
+ *  - Refresh tokens are random strings, stored as SHA-256 only, good for 'jwt.refresh-token-ttl'. Each refresh hands
+ *    out a new pair and uses up the old refresh token; using it again revokes everything issued from that login.
+ *  - Revoking (logout, reuse, deleted user) stores the ids of access tokens that haven't expired yet in 'revoked_tokens',
+ *    the gateway keeps them in its denylist until they expire.
+ */
+@Service
+@Slf4j
+public class TokenService implements SchedulingConfigurer {
+
+    private static final int REFRESH_TOKEN_BYTES = 32;
+
+    private static final int MAX_FEED_LIMIT = 1000;
+
+    private final String logHeader = "[TokenService] - ";
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final UserRepository userRepository;
+    private final JwtTokenUtil jwtTokenUtil;
+    private final TransactionTemplate transactionTemplate;
+
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${jwt.refresh-token-ttl:14d}")
+    private Duration refreshTokenTtl = Duration.ofDays(14);
+
+    @Value("${auth.tokens.purge-interval:1h}")
+    private Duration purgeInterval = Duration.ofHours(1);
+
+    @Autowired
+    public TokenService(RefreshTokenRepository refreshTokenRepository,
+                        RevokedTokenRepository revokedTokenRepository,
+                        UserRepository userRepository,
+                        JwtTokenUtil jwtTokenUtil,
+                        PlatformTransactionManager transactionManager) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.userRepository = userRepository;
+        this.jwtTokenUtil = jwtTokenUtil;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Registered here rather than with @Scheduled so the interval can be a duration like the rest of the configuration
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(this::purgeExpired, purgeInterval);
+    }
+
+    // New login: a token pair of a new family, plus what the client shows about the user (same body as /login)
+    public Map<String, String> issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    /*
+     * Exchanges a refresh token for a new pair of the same family. The claims are read from the user again, so
+     * role & permission changes show up on the next refresh. A refresh token that was already used revokes its family.
+     */
+    @Transactional(noRollbackFor = InvalidCredentialsException.class)
+    public Map<String, String> refresh(String rawRefreshToken) {
+        RefreshToken refreshToken = find(rawRefreshToken);
+        Instant now = Instant.now();
+
+        if (refreshToken.getRevokedAt() != null || refreshToken.getExpiresAt().isBefore(now)) {
+            log.debug(logHeader + "refresh: Refresh token {} is revoked or expired", refreshToken.getId());
+            throw new InvalidCredentialsException("Invalid refresh token");
+        }
+
+        // Conditional update: of two refreshes with the same token only one gets through
+        if (refreshTokenRepository.markUsed(refreshToken.getId(), now) == 0) {
+            log.warn(logHeader + "refresh: Refresh token {} of user {} was used twice, revoking its family", refreshToken.getId(), refreshToken.getUserId());
+            revokeFamily(refreshToken.getFamily(), now);
+            throw new InvalidCredentialsException("Refresh token was already used, please log in again");
+        }
+
+        User user = userRepository.findById(refreshToken.getUserId()).orElse(null);
+        if (user == null || user.getRoles() == null || user.getRoles().isEmpty()) {
+            log.warn(logHeader + "refresh: User {} no longer exists or has no role", refreshToken.getUserId());
+            revokeFamily(refreshToken.getFamily(), now);
+            throw new InvalidCredentialsException("Invalid refresh token");
+        }
+
+        log.debug(logHeader + "refresh: Refreshing the tokens of user {}", user.getId());
+        return issue(user, refreshToken.getFamily());
+    }
+
+    // Ends the login the refresh token belongs to, and the access token the request came with. Unknown tokens are ignored.
+    @Transactional
+    public void logout(String rawRefreshToken, String accessToken) {
+        Instant now = Instant.now();
+        Set<String> denylisted = new HashSet<>();
+
+        if (rawRefreshToken != null && !rawRefreshToken.isBlank()) {
+            refreshTokenRepository.findByTokenHash(hash(rawRefreshToken))
+                .ifPresent(refreshToken -> denylisted.addAll(revokeFamily(refreshToken.getFamily(), now)));
+        }
+
+        if (accessToken != null) {
+            DecodedJWT decoded = jwtTokenUtil.verify(accessToken);
+            if (decoded != null && decoded.getId() != null && !denylisted.contains(decoded.getId())) {
+                denylist(decoded.getId(), decoded.getExpiresAtAsInstant(), now);
+            }
+        }
+    }
+
+    // Every login of the user (deleted, locked out, ...): its refresh tokens stop working, its access tokens are denylisted
+    @Transactional
+    public void revokeUser(Long userId) {
+        Instant now = Instant.now();
+
+        List<RefreshToken> live = refreshTokenRepository.findByUserWithLiveAccess(userId, now);
+        live.forEach(refreshToken -> denylist(refreshToken.getAccessTokenId(), refreshToken.getAccessExpiresAt(), now));
+        int revoked = refreshTokenRepository.revokeUser(userId, now);
+
+        log.info(logHeader + "revokeUser: Revoked {} refresh tokens & {} access tokens of user {}", revoked, live.size(), userId);
+    }
+
+    // The denylist feed for the gateway: revocations after 'after' whose token hasn't expired yet
+    public List<RevokedToken> revokedAfter(Long after, Integer limit) {
+        int pageSize = limit == null ? MAX_FEED_LIMIT : Math.max(1, Math.min(limit, MAX_FEED_LIMIT));
+        return revokedTokenRepository.findBySeqGreaterThanAndExpiresAtAfterOrderBySeqAsc(after == null ? 0L : after, Instant.now(), Limit.of(pageSize));
+    }
+
+    public void purgeExpired() {
+        Instant now = Instant.now();
+
+        int[] purged = transactionTemplate.execute(status -> new int[] {
+            refreshTokenRepository.deleteExpired(now),
+            revokedTokenRepository.deleteExpired(now)
+        });
+
+        log.debug(logHeader + "purgeExpired: Purged {} refresh tokens & {} revoked tokens", purged[0], purged[1]);
+    }
+
+    private Map<String, String> issue(User user, String family) {
+        // Same as before: the first role is the one the token carries (each user has at least one)
+        Role role = user.getRoles().iterator().next();
+        String permissions = String.join(",", role.getPermissions());
+
+        Instant now = Instant.now();
+        String accessTokenId = UUID.randomUUID().toString();
+        String accessToken = jwtTokenUtil.generateToken(user.getEmail(), role.getName(), user.getId(), user.getUsername(), permissions, accessTokenId);
+
+        byte[] bytes = new byte[REFRESH_TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String rawRefreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+            .tokenHash(hash(rawRefreshToken))
+            .userId(user.getId())
+            .family(family)
+            .createdAt(now)
+            .expiresAt(now.plus(refreshTokenTtl))
+            .accessTokenId(accessTokenId)
+            .accessExpiresAt(now.plus(jwtTokenUtil.getAccessTokenTtl()))
+            .build());
+
+        Map<String, String> toReturn = new HashMap<>();
+        toReturn.put("token", "Bearer " + accessToken);
+        toReturn.put("refreshToken", rawRefreshToken);
+        toReturn.put("expiresIn", String.valueOf(jwtTokenUtil.getAccessTokenTtl().toSeconds()));
+        toReturn.put("email", user.getEmail());
+        toReturn.put("role", role.getName());
+        toReturn.put("userId", user.getId().toString());
+        toReturn.put("username", user.getUsername());
+        toReturn.put("permissions", permissions);
+
+        return toReturn;
+    }
+
+    private RefreshToken find(String rawRefreshToken) {
+        if (rawRefreshToken == null || rawRefreshToken.isBlank()) {
+            throw new InvalidCredentialsException("Invalid refresh token");
+        }
+
+        return refreshTokenRepository.findByTokenHash(hash(rawRefreshToken))
+            .orElseThrow(() -> new InvalidCredentialsException("Invalid refresh token"));
+    }
+
+    // Returns the ids of the access tokens it denylisted
+    private Set<String> revokeFamily(String family, Instant now) {
+        Set<String> denylisted = new HashSet<>();
+        for (RefreshToken refreshToken : refreshTokenRepository.findByFamilyWithLiveAccess(family, now)) {
+            denylist(refreshToken.getAccessTokenId(), refreshToken.getAccessExpiresAt(), now);
+            denylisted.add(refreshToken.getAccessTokenId());
+        }
+        refreshTokenRepository.revokeFamily(family, now);
+        return denylisted;
+    }
+
+    // Already expired tokens are rejected anyway, no need to list them
+    private void denylist(String tokenId, Instant expiresAt, Instant now) {
+        if (tokenId == null || expiresAt == null || !expiresAt.isAfter(now)) {
+            return;
+        }
+
+        revokedTokenRepository.save(RevokedToken.builder()
+            .tokenId(tokenId)
+            .expiresAt(expiresAt)
+            .revokedAt(now)
+            .build());
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM ships SHA-256
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,64 +1,142 @@
 package com.LIT.auth.service;
 
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ArrayList;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.LIT.auth.model.entity.User;
 import com.LIT.auth.model.entity.Role;
+import com.LIT.common.model.dto.CursorPage;
 import com.LIT.auth.model.dto.Req.UserDTO;
+import com.LIT.auth.model.dto.UserRoleRow;
+import com.LIT.auth.model.repository.RoleRepository;
 import com.LIT.auth.model.repository.UserRepository;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
 @Slf4j
 public class UserService {
     private final UserRepository userRepository;
+
+    private final RoleRepository roleRepository;
     
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+
+    private final SchedulerDirectoryNotifier schedulerDirectoryNotifier;
+
+    private final TokenService tokenService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     private final String logHeader = "[UserService] - ";
 
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, RoleRepository roleRepository, PasswordHashingService passwordHashingService, SchedulerDirectoryNotifier schedulerDirectoryNotifier, TokenService tokenService) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.roleRepository = roleRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.schedulerDirectoryNotifier = schedulerDirectoryNotifier;
+        this.tokenService = tokenService;
     }
 
 
-    public List<UserDTO> getAllUsers() {
-        log.info(logHeader + "getAllUsers: Getting all users");
+    /*
+     * User listing without loading User entities: one query for the users & their role ids, the roles (with their
+     * permissions) are looked up in the role table, which comes from the second-level cache. 'role' (a role name)
+     * and 'search' (start of the name or email) are optional filters.
+     */
+    @Transactional(readOnly = true)
+    public List<UserDTO> getAllUsers(String role, String search) {
+        log.debug(logHeader + "getAllUsers: Getting users (role: {}, search: {})", role, search);
+
+        Map<Long, Role> roles = roleRepository.findAll()
+                .stream()
+                .collect(Collectors.toMap(Role::getId, Function.identity()));
+
+        String filterRole = role == null || role.isBlank() ? null : role.trim();
+        String prefix = search == null || search.isBlank() ? null : escapeLike(search.trim()) + "%";
+
+        // Rows come ordered by user, one per role
+        Map<Long, UserDTO> users = new LinkedHashMap<>();
+        for (UserRoleRow row : userRepository.findUserRoleRows(filterRole, prefix)) {
+            UserDTO userDTO = users.computeIfAbsent(row.getId(), id -> UserDTO.builder()
+                    .id(row.getId())
+                    .email(row.getEmail())
+                    .username(row.getUsername())
+                    .address(row.getAddress())
+                    .phoneNum(row.getPhoneNum())
+                    .googleId(row.getGoogleId())
+                    .roles(new LinkedHashSet<>())
+                    .build());
+
+            if (row.getRoleId() != null && roles.containsKey(row.getRoleId())) {
+                userDTO.getRoles().add(roles.get(row.getRoleId()));
+            }
+        }
+
+        log.debug(logHeader + "getAllUsers: Returning {} users", users.size());
+        return new ArrayList<>(users.values());
+    }
 
-        List<User> users = userRepository.findAll();
+    // LIKE wildcards typed into the search are matched as themselves ('!' is the query's escape character)
+    private static String escapeLike(String text) {
+        return text.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
 
-        log.info(logHeader + "getAlylUsers: Found " + users.size() + " users");
+    // Keyset page by id, 'after' is the last id of the previous page (the page's 'nextCursor')
+    @Transactional(readOnly = true)
+    public CursorPage<UserDTO> getUsersPage(Long after, Integer requestedLimit) {
+        log.debug(logHeader + "getUsersPage: Getting users after id {} (limit: {})", after, requestedLimit);
 
-        List<UserDTO> userDTOs = new ArrayList<>();
+        int limit = CursorPage.limit(requestedLimit);
+        List<UserDTO> userDTOs = userRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(limit + 1))
+                .stream()
+                .map(this::toDTO)
+                .toList();
+
+        return CursorPage.of(userDTOs, limit, userDTO -> String.valueOf(userDTO.getId()));
+    }
 
-        for(User user : users){
-            UserDTO userDTO = UserDTO.builder()
-                    .id(user.getId())
-                    .email(user.getEmail())
-                    .username(user.getUsername())
-                    .address(user.getAddress())
-                    .phoneNum(user.getPhoneNum())
-                    .googleId(user.getGoogleId())
-                    .roles(user.getRoles())
-                    .build();
+    // Every user, one at a time (NDJSON export). Users are detached once handed over, the persistence context doesn't grow
+    @Transactional(readOnly = true)
+    public void streamAllUsers(Consumer<UserDTO> sink) {
+        log.debug(logHeader + "streamAllUsers: Streaming all users");
 
-            userDTOs.add(userDTO);
+        try (Stream<User> users = userRepository.streamAll()) {
+            users.forEach(user -> {
+                sink.accept(toDTO(user));
+                entityManager.detach(user);
+            });
         }
+    }
 
-        log.info(logHeader + "getAllUsers: Returning " + userDTOs.size() + " users");
+    // Several users at once (scheduler's user directory), ids without a user are left out
+    @Transactional(readOnly = true)
+    public List<UserDTO> getUsersByIds(List<Long> ids) {
+        log.debug(logHeader + "getUsersByIds: Getting {} users", ids.size());
 
-        return userDTOs;
+        return userRepository.findWithRolesByIdIn(ids)
+                .stream()
+                .map(this::toDTO)
+                .toList();
     }
 
     public Optional<User> getUserById(Long id) {
@@ -73,7 +151,7 @@ public class UserService {
         User toSave = User.builder()
                 .email(user.getEmail())
                 .username(user.getUsername())
-                .password(passwordEncoder.encode(user.getPassword()))
+                .password(passwordHashingService.encode(user.getPassword()))
                 .address(user.getAddress())
                 .phoneNum(user.getPhoneNum())
                 .googleId(user.getGoogleId())
@@ -81,6 +159,7 @@ public class UserService {
                 .build();
 
         userRepository.save(toSave);
+        schedulerDirectoryNotifier.userChanged(toSave.getId());
 
         Optional<User> exists = userRepository.findByEmail(toSave.getEmail());
         User toRet = exists.get();
@@ -132,6 +211,7 @@ public class UserService {
         }
 
         userRepository.save(user);
+        schedulerDirectoryNotifier.userChanged(user.getId());
 
         log.info(logHeader + "updateUser: User updated: " + user);
         return toUpdate;
@@ -139,7 +219,10 @@ public class UserService {
 
     public void deleteUser(Long id) {
         log.info(logHeader + "deleteUser: Deleting user by id: " + id);
+        // Its tokens stop working now, not when they expire
+        tokenService.revokeUser(id);
         userRepository.deleteById(id);
+        schedulerDirectoryNotifier.userChanged(id);
     }
 
     public User registerUser(String email, String username, String password) {
@@ -147,12 +230,14 @@ public class UserService {
         User user = User.builder()
                 .email(email)
                 .username(username)
-                .password(passwordEncoder.encode(password))
+                .password(passwordHashingService.encode(password))
                 .build();
 
         if (userRepository != null) {
             log.info(logHeader + "registerUser: Saving user: " + user);
-            return userRepository.save(user);
+            User saved = userRepository.save(user);
+            schedulerDirectoryNotifier.userChanged(saved.getId());
+            return saved;
         }
 
         log.error(logHeader + "registerUser: User repository is null");
@@ -163,4 +248,16 @@ public class UserService {
         log.info(logHeader + "authenticate: Authenticating user: " + user);
         return user.getPassword().equals(password);
     }
+
+    private UserDTO toDTO(User user) {
+        return UserDTO.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .username(user.getUsername())
+                .address(user.getAddress())
+                .phoneNum(user.getPhoneNum())
+                .googleId(user.getGoogleId())
+                .roles(user.getRoles())
+                .build();
+    }
 }
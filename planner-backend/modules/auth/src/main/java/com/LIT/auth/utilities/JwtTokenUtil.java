@@ -1,12 +1,22 @@
 package com.LIT.auth.utilities;
 
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
 import java.sql.Date;
+import java.time.Duration;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.LIT.auth.service.SigningKeyService;
+import com.LIT.auth.service.SigningKeyService.ActiveKey;
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.auth0.jwt.interfaces.RSAKeyProvider;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -14,17 +24,57 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class JwtTokenUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
-
     private String logHeader = "[JwtTokenUtil] - ";
 
-    private static final long EXPIRATION_TIME = 3600000; // 1 hour
+    // Short-lived: a revoked token is only denylisted until it expires, clients renew it with their refresh token
+    @Value("${jwt.access-token-ttl:15m}")
+    private Duration accessTokenTtl = Duration.ofMinutes(15);
+
+    /*
+     * RS256: tokens are signed with the current key of SigningKeyService and carry its id ('kid'), anyone can
+     * verify them with the published key set. Verification here looks the key up by that id.
+     */
+    private final SigningKeyService signingKeyService;
+
+    private final JWTVerifier verifier;
+
+    @Autowired
+    public JwtTokenUtil(SigningKeyService signingKeyService) {
+        this.signingKeyService = signingKeyService;
+        this.verifier = JWT.require(Algorithm.RSA256(new RSAKeyProvider() {
+            @Override
+            public RSAPublicKey getPublicKeyById(String kid) {
+                return signingKeyService.publicKey(kid);
+            }
+
+            @Override
+            public RSAPrivateKey getPrivateKey() {
+                return null;
+            }
+
+            @Override
+            public String getPrivateKeyId() {
+                return null;
+            }
+        })).build();
+    }
+
+    public Duration getAccessTokenTtl() {
+        return accessTokenTtl;
+    }
 
     public String generateToken(String email, String role, Long userId, String username, String permissions) {
+        return generateToken(email, role, userId, username, permissions, null);
+    }
+
+    // 'tokenId' becomes the token's 'jti', the id it is revoked by (see TokenService)
+    public String generateToken(String email, String role, Long userId, String username, String permissions, String tokenId) {
         log.info(logHeader + "generateToken: Generating token for user: " + email);        
+        ActiveKey key = signingKeyService.current();
         return JWT.create()
+                .withKeyId(key.kid())
                 .withIssuer("LIT - auth0")
+                .withJWTId(tokenId)
                 .withSubject(email)
                 .withClaim("userEmail", email)
                 .withClaim("role", role)
@@ -32,8 +82,8 @@ public class JwtTokenUtil {
                 .withClaim("userId", userId)
                 .withClaim("permissions", permissions)
                 .withIssuedAt(new Date(System.currentTimeMillis()))
-                .withExpiresAt(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .sign(Algorithm.HMAC256(secret));
+                .withExpiresAt(new Date(System.currentTimeMillis() + accessTokenTtl.toMillis()))
+                .sign(key.algorithm());
     }
 
     public String extractEmail(String token) {
@@ -61,10 +111,21 @@ public class JwtTokenUtil {
         return JWT.decode(token).getClaim("permissions").asString();
     }
 
+    // Signature & expiry checked, null if the token isn't valid
+    public DecodedJWT verify(String token) {
+        try {
+            return verifier.verify(token);
+
+        } catch (JWTVerificationException e) {
+            log.debug(logHeader + "verify: Token is invalid: {}", e.getMessage());
+            return null;
+        }
+    }
+
     public boolean validateToken(String token) {
         log.info(logHeader + "validateToken: Validating token");
         try {
-            JWT.require(Algorithm.HMAC256(secret)).build().verify(token);
+            verifier.verify(token);
 
             log.info(logHeader + "validateToken: Token is valid");
             return true;
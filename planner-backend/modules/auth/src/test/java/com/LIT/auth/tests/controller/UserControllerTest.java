@@ -1,25 +1,35 @@
 package com.LIT.auth.tests.controller;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.web.servlet.MockMvc;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import org.springframework.http.MediaType;
+
 import com.LIT.auth.controller.UserController;
+import com.LIT.auth.model.dto.Req.UserDTO;
 import com.LIT.auth.service.UserService;
+import com.LIT.common.utilities.NdjsonStreams;
 
-@WebMvcTest(UserController.class)
+@WebMvcTest(controllers = UserController.class, properties = "auth.directory.service-token=scheduler-token")
 @AutoConfigureMockMvc(addFilters = false)
+@Import(NdjsonStreams.class)
 class UserControllerTest {
 
     @Autowired
@@ -103,6 +113,85 @@ class UserControllerTest {
                   .header("X-User-Permissions", "SWAP_PROPOSAL,CALENDAR_VIEW,SHIFT_PROPOSAL")
         )
         .andExpect(status().isForbidden());
-    }   
+    }
+
+    /*
+     * Batch lookup for the scheduler's user directory (needs EMPLOYEE_MANAGEMENT like a single lookup)
+     */
+    @Test
+    @DisplayName("POST /api/auth/users/batch returns the known users")
+    void getUsersByIdsShouldReturnKnownUsers() throws Exception {
+        Mockito.when(userService.getUsersByIds(anyList())).thenReturn(List.of(
+            UserDTO.builder().id(1L).email("anna@example.com").username("anna").build(),
+            UserDTO.builder().id(3L).email("ben@example.com").username("ben").build()));
+
+        mockMvc.perform(
+                post("/api/auth/users/batch")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content("[1, 2, 3]")
+                  .header("X-User-Permissions", "EMPLOYEE_MANAGEMENT")
+        )
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(2))
+        .andExpect(jsonPath("$[1].email").value("ben@example.com"));
+    }
+
+    @Test
+    @DisplayName("POST /api/auth/users/batch without EMPLOYEE_MANAGEMENT should fail with 403")
+    void getUsersByIdsWithoutPermissionShouldReturnForbidden() throws Exception {
+        mockMvc.perform(
+                post("/api/auth/users/batch")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content("[1, 2, 3]")
+                  .header("X-User-Permissions", "SWAP_PROPOSAL,CALENDAR_VIEW,SHIFT_PROPOSAL")
+        )
+        .andExpect(status().isForbidden());
+    }
 
+    @Test
+    @DisplayName("POST /api/auth/users/batch with the scheduler's service token needs no user permissions")
+    void getUsersByIdsWithServiceTokenShouldReturnKnownUsers() throws Exception {
+        Mockito.when(userService.getUsersByIds(anyList())).thenReturn(List.of(
+            UserDTO.builder().id(1L).email("anna@example.com").username("anna").build()));
+
+        mockMvc.perform(
+                post("/api/auth/users/batch")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content("[1]")
+                  .header("X-Service-Token", "scheduler-token")
+        )
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].email").value("anna@example.com"));
+    }
+
+    @Test
+    @DisplayName("POST /api/auth/users/batch with a wrong service token should fail with 400")
+    void getUsersByIdsWithWrongServiceTokenShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(
+                post("/api/auth/users/batch")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content("[1]")
+                  .header("X-Service-Token", "guessed")
+        )
+        .andExpect(status().isBadRequest());
+    }
+
+    /*
+     * User listing, filtered by role & name/email prefix
+     */
+    @Test
+    @DisplayName("GET /api/auth/users passes the role and search filters on")
+    void getAllUsersShouldPassFilters() throws Exception {
+        Mockito.when(userService.getAllUsers("Technician", "an")).thenReturn(List.of(
+            UserDTO.builder().id(1L).email("anna@example.com").username("anna").build()));
+
+        mockMvc.perform(
+                get("/api/auth/users")
+                  .param("role", "Technician")
+                  .param("q", "an")
+        )
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(1))
+        .andExpect(jsonPath("$[0].email").value("anna@example.com"));
+    }
 }
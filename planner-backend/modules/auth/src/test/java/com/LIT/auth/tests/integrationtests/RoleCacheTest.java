@@ -0,0 +1,117 @@
+package com.LIT.auth.tests.integrationtests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.LIT.auth.model.entity.Role;
+import com.LIT.auth.model.repository.RoleRepository;
+import com.LIT.auth.service.RoleCacheEvictor;
+import com.LIT.auth.service.RoleService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/*
+ * Role's second-level cache on an embedded H2 database, counted with Hibernate's statistics.
+ * No test transaction: every repository call gets its own session, like the requests do, so reads after the
+ * first one can only come from the second-level cache.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({RoleService.class, RoleCacheEvictor.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class RoleCacheTest {
+
+    @Autowired
+    private RoleService roleService;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Long roleId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Role role = Role.builder().name("NURSE").permissions(new HashSet<>(Set.of("CALENDAR_VIEW"))).build();
+        roleId = roleService.createRole(role).getId();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        roleRepository.deleteAll();
+    }
+
+    private CacheRegionStatistics roles() {
+        return statistics.getDomainDataRegionStatistics(Role.CACHE_REGION);
+    }
+
+    //Checks that a role is read from the database once and from the cache afterwards
+    @Test
+    void testRoleIsServedFromTheCache() {
+        roleService.getRoleById(roleId);
+        roleService.getRoleById(roleId);
+        roleService.getRoleById(roleId);
+
+        assertEquals(1, roles().getMissCount(), "Only the first read should miss");
+        assertEquals(2, roles().getHitCount(), "The reads after it should hit");
+        assertEquals(1, statistics.getEntityLoadCount(), "The role should be loaded from the database once");
+    }
+
+    //Checks that new permissions are read from the database right away instead of the cached ones
+    @Test
+    void testUpdateRolePermissionsEvictsTheRole() {
+        roleService.getRoleById(roleId);
+        roleService.getRoleById(roleId);
+        assertEquals(1, roles().getHitCount());
+
+        roleService.updateRolePermissions(roleId, new HashSet<>(Set.of("CALENDAR_VIEW", "SHIFT_MANAGEMENT")));
+        statistics.clear();
+
+        Role updated = roleService.getRoleById(roleId).orElseThrow();
+
+        assertEquals(Set.of("CALENDAR_VIEW", "SHIFT_MANAGEMENT"), updated.getPermissions());
+        assertEquals(0, roles().getHitCount(), "The cached role should be gone");
+        assertEquals(1, roles().getMissCount());
+
+        roleService.getRoleById(roleId);
+        assertEquals(1, roles().getHitCount(), "The reloaded role should be cached again");
+    }
+
+    //Checks that a deleted role is neither cached nor found by name through the query cache
+    @Test
+    void testDeleteRoleEvictsTheRoleAndItsQueries() {
+        roleRepository.findByName("NURSE");
+        roleRepository.findByName("NURSE");
+        assertEquals(1, statistics.getQueryRegionStatistics(Role.BY_NAME_CACHE_REGION).getHitCount());
+
+        roleService.deleteRole(roleId);
+        statistics.clear();
+
+        assertFalse(entityManagerFactory.unwrap(SessionFactory.class).getCache().containsEntity(Role.class, roleId));
+        assertTrue(roleRepository.findByName("NURSE").isEmpty(), "The cached query result should be gone");
+        assertTrue(roleService.getRoleById(roleId).isEmpty());
+        assertEquals(0, statistics.getQueryRegionStatistics(Role.BY_NAME_CACHE_REGION).getHitCount());
+        assertEquals(0, roles().getHitCount());
+    }
+}
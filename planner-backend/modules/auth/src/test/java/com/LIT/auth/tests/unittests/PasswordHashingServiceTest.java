@@ -0,0 +1,98 @@
+package com.LIT.auth.tests.unittests;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.LIT.auth.exception.PasswordHashingBusyException;
+import com.LIT.auth.service.PasswordHashingService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PasswordHashingService hashing;
+
+    @AfterEach
+    void tearDown() {
+        if (hashing != null) {
+            hashing.shutdown();
+        }
+    }
+
+    @Test
+    void encodesAndMatchesOnThePool() {
+        hashing = new PasswordHashingService(new BCryptPasswordEncoder(4), meterRegistry, 4, 2, 8, Duration.ofSeconds(5));
+
+        List<String> hashes = hashing.encodeAll(List.of("admin123", "tester123"));
+
+        assertTrue(hashing.matches("admin123", hashes.get(0)));
+        assertTrue(hashing.matches("tester123", hashes.get(1)));
+        assertFalse(hashing.matches("admin123", hashes.get(1)));
+        assertEquals(3, meterRegistry.get("auth.password.hashing").tag("operation", "matches").timer().count());
+    }
+
+    // Hashes of another cost than the configured one are rehashed on login
+    @Test
+    void needsRehashWhenTheCostChanged() {
+        hashing = new PasswordHashingService(new BCryptPasswordEncoder(5), meterRegistry, 5, 1, 8, Duration.ofSeconds(5));
+
+        assertFalse(hashing.needsRehash(new BCryptPasswordEncoder(5).encode("admin123")));
+        assertTrue(hashing.needsRehash(new BCryptPasswordEncoder(4).encode("admin123")));
+        assertTrue(hashing.needsRehash("plain"));
+    }
+
+    // One thread, one queue slot: a third hash is turned down instead of waiting
+    @Test
+    void turnsDownHashesBeyondTheQueue() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slowEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return true;
+            }
+        };
+        hashing = new PasswordHashingService(slowEncoder, meterRegistry, 10, 1, 1, Duration.ofSeconds(5));
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        callers.submit(() -> hashing.encode("first"));
+        callers.submit(() -> hashing.encode("second"));
+
+        // Wait until the first one runs & the second one waits
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("auth.password.hashing.queued").gauge().value() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThrows(PasswordHashingBusyException.class, () -> hashing.encode("third"));
+        assertEquals(1.0, meterRegistry.get("auth.password.hashing.rejected").counter().count());
+
+        release.countDown();
+        callers.shutdown();
+        assertTrue(callers.awaitTermination(5, TimeUnit.SECONDS));
+    }
+}
@@ -21,6 +21,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.LIT.auth.model.entity.Role;
 import com.LIT.auth.model.repository.RoleRepository;
+import com.LIT.auth.service.RoleCacheEvictor;
 import com.LIT.auth.service.RoleService;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,6 +30,9 @@ public class RoleTest {
     @Mock
     private RoleRepository roleRepository;
 
+    @Mock
+    private RoleCacheEvictor roleCacheEvictor;
+
     @InjectMocks
     private RoleService roleService;
 
@@ -72,6 +76,7 @@ public class RoleTest {
         assertNotNull(savedRole);
         assertEquals("ADMIN", savedRole.getName());
         verify(roleRepository, times(1)).save(role);
+        verify(roleCacheEvictor, times(1)).roleChanged(1L);
     }
 
     @Test
@@ -81,6 +86,7 @@ public class RoleTest {
         roleService.deleteRole(1L);
 
         verify(roleRepository, times(1)).deleteById(1L);
+        verify(roleCacheEvictor, times(1)).roleDeleted(1L);
     }
 
     @Test
@@ -104,6 +110,7 @@ public class RoleTest {
 
         verify(roleRepository, times(1)).findById(1L);
         verify(roleRepository, times(1)).save(role);
+        verify(roleCacheEvictor, times(1)).roleChanged(1L);
     }
 
     @Test
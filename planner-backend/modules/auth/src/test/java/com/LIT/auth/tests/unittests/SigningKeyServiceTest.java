@@ -0,0 +1,154 @@
+package com.LIT.auth.tests.unittests;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.Mock;
+import static org.mockito.Mockito.lenient;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.LIT.auth.model.entity.SigningKey;
+import com.LIT.auth.model.repository.SigningKeyRepository;
+import com.LIT.auth.service.SigningKeyService;
+import com.LIT.auth.utilities.JwtTokenUtil;
+
+@ExtendWith(MockitoExtension.class)
+public class SigningKeyServiceTest {
+
+    @Mock
+    private SigningKeyRepository signingKeyRepository;
+
+    // What the repository holds
+    private final List<SigningKey> stored = new ArrayList<>();
+
+    private SigningKeyService signingKeyService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(signingKeyRepository.findAllByOrderByActiveFromAsc()).thenAnswer(invocation ->
+            stored.stream().sorted(Comparator.comparing(SigningKey::getActiveFrom)).toList());
+        lenient().when(signingKeyRepository.save(any(SigningKey.class))).thenAnswer(invocation -> {
+            // Saving a stored key updates it
+            if (!stored.contains(invocation.<SigningKey>getArgument(0))) {
+                stored.add(invocation.getArgument(0));
+            }
+            return invocation.getArgument(0);
+        });
+        lenient().doAnswer(invocation -> stored.remove(invocation.<SigningKey>getArgument(0)))
+            .when(signingKeyRepository).delete(any(SigningKey.class));
+
+        signingKeyService = new SigningKeyService(signingKeyRepository);
+        // Small keys, the tests only need them to sign & verify
+        ReflectionTestUtils.setField(signingKeyService, "keySize", 1024);
+        ReflectionTestUtils.setField(signingKeyService, "kek", KEK);
+    }
+
+    private static final String KEK = "a-test-key-encryption-key-of-32-chars";
+
+    // The database holds no usable private key: it's encrypted, and only reads back with auth's key encryption key
+    @Test
+    void privateKeyIsStoredEncrypted() throws Exception {
+        signingKeyService.init();
+        SigningKey stored = this.stored.get(0);
+
+        assertTrue(stored.getPrivateKey().startsWith("aes-gcm:"));
+        String plain = Base64.getEncoder().encodeToString(signingKeyService.current().privateKey().getEncoded());
+        assertNotEquals(plain, stored.getPrivateKey());
+
+        SigningKeyService otherKek = new SigningKeyService(signingKeyRepository);
+        ReflectionTestUtils.setField(otherKek, "kek", "another-key-encryption-key-of-32-chars");
+        assertThrows(IllegalStateException.class, otherKek::init, "Another key encryption key shouldn't read the key");
+
+        SigningKeyService noKek = new SigningKeyService(signingKeyRepository);
+        assertThrows(IllegalStateException.class, noKek::init, "Auth shouldn't start without a key encryption key");
+    }
+
+    // Keys stored before encryption are encrypted in place and keep signing
+    @Test
+    void plaintextKeyIsEncryptedInPlace() {
+        signingKeyService.init();
+        SigningKey key = stored.get(0);
+        String kid = key.getKid();
+        key.setPrivateKey(Base64.getEncoder().encodeToString(signingKeyService.current().privateKey().getEncoded()));
+
+        signingKeyService.rotateIfDue();
+
+        assertTrue(key.getPrivateKey().startsWith("aes-gcm:"));
+        assertEquals(kid, signingKeyService.current().kid());
+    }
+
+    // First start: a key that signs right away, and tokens signed with it verify by its 'kid'
+    @Test
+    void firstKeyIsCreatedAndSigns() {
+        signingKeyService.init();
+
+        assertEquals(1, stored.size());
+        assertEquals(stored.get(0).getKid(), signingKeyService.current().kid());
+
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil(signingKeyService);
+        String token = jwtTokenUtil.generateToken("anna@example.com", "Admin", 7L, "Anna", "EMPLOYEE_MANAGEMENT", "jti-1");
+        assertNotNull(jwtTokenUtil.verify(token));
+    }
+
+    // The next key is published ahead of time, the current one keeps signing until then
+    @Test
+    void nextKeyIsPublishedBeforeItSigns() {
+        Instant now = Instant.now();
+        signingKeyService.init();
+        SigningKey first = stored.get(0);
+        String firstKid = first.getKid();
+
+        // 30 days minus 30 minutes old: inside the 1 hour publish-ahead window
+        first.setActiveFrom(now.minus(Duration.ofDays(30)).plus(Duration.ofMinutes(30)));
+        signingKeyService.rotateIfDue();
+
+        assertEquals(2, stored.size());
+        assertEquals(firstKid, signingKeyService.current().kid(), "The new key shouldn't sign before its activeFrom");
+        assertTrue(stored.get(1).getActiveFrom().isAfter(now));
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, String>> published = (List<Map<String, String>>) signingKeyService.jwks().get("keys");
+        assertEquals(2, published.size(), "Both keys should be in the key set");
+        assertEquals("RS256", published.get(0).get("alg"));
+    }
+
+    // A replaced key is kept while tokens it signed may still be valid, then deleted
+    @Test
+    void replacedKeyIsDeletedAfterTheTokenTtl() {
+        Instant now = Instant.now();
+        signingKeyService.init();
+        SigningKey old = stored.get(0);
+        old.setActiveFrom(now.minus(Duration.ofDays(40)));
+
+        // Encrypted keys are bound to their kid, the copy is stored like before encryption (and encrypted in place)
+        String plain = Base64.getEncoder().encodeToString(signingKeyService.current().privateKey().getEncoded());
+        stored.add(SigningKey.builder().kid("replacement").publicKey(old.getPublicKey()).privateKey(plain)
+            .createdAt(now).activeFrom(now.minus(Duration.ofMinutes(10))).build());
+        signingKeyService.rotateIfDue();
+
+        assertEquals(2, stored.size(), "Tokens of the old key may still be valid");
+        assertEquals("replacement", signingKeyService.current().kid());
+
+        stored.get(1).setActiveFrom(now.minus(Duration.ofMinutes(30)));
+        signingKeyService.rotateIfDue();
+
+        assertEquals(1, stored.size());
+        assertNull(signingKeyService.publicKey(old.getKid()));
+    }
+}
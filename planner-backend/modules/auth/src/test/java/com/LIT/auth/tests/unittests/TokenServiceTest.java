@@ -0,0 +1,176 @@
+package com.LIT.auth.tests.unittests;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.LIT.auth.exception.InvalidCredentialsException;
+import com.LIT.auth.model.entity.RefreshToken;
+import com.LIT.auth.model.entity.RevokedToken;
+import com.LIT.auth.model.entity.Role;
+import com.LIT.auth.model.entity.User;
+import com.LIT.auth.model.repository.RefreshTokenRepository;
+import com.LIT.auth.model.repository.RevokedTokenRepository;
+import com.LIT.auth.model.repository.UserRepository;
+import com.LIT.auth.service.SigningKeyService;
+import com.LIT.auth.service.TokenService;
+import com.LIT.auth.utilities.JwtTokenUtil;
+import com.auth0.jwt.JWT;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private SigningKeyService signingKeyService;
+
+    private JwtTokenUtil jwtTokenUtil;
+
+    private TokenService tokenService;
+
+    private final User anna = User.builder().id(7L).email("anna@example.com").username("Anna")
+        .roles(Set.of(Role.builder().id(1L).name("Admin").permissions(Set.of("EMPLOYEE_MANAGEMENT")).build())).build();
+
+    @BeforeEach
+    void setUp() throws NoSuchAlgorithmException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair pair = generator.generateKeyPair();
+        SigningKeyService.ActiveKey key = SigningKeyService.ActiveKey.of("test-key", (RSAPublicKey) pair.getPublic(), (RSAPrivateKey) pair.getPrivate(), Instant.EPOCH);
+
+        lenient().when(signingKeyService.current()).thenReturn(key);
+        lenient().when(signingKeyService.publicKey("test-key")).thenReturn(key.publicKey());
+
+        jwtTokenUtil = new JwtTokenUtil(signingKeyService);
+        tokenService = new TokenService(refreshTokenRepository, revokedTokenRepository, userRepository, jwtTokenUtil, transactionManager);
+    }
+
+    // Login: an access token with an id & a refresh token that is only stored as a hash
+    @Test
+    void issueStoresOnlyTheRefreshTokenHash() {
+        Map<String, String> tokens = tokenService.issue(anna);
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+
+        String accessTokenId = JWT.decode(tokens.get("token").substring(7)).getId();
+        assertEquals(accessTokenId, saved.getValue().getAccessTokenId());
+        assertEquals(64, saved.getValue().getTokenHash().length());
+        assertNotEquals(tokens.get("refreshToken"), saved.getValue().getTokenHash());
+        assertEquals("900", tokens.get("expiresIn"));
+        assertEquals("Admin", tokens.get("role"));
+    }
+
+    // A refresh hands out a new pair of the same family
+    @Test
+    void refreshRotatesWithinTheFamily() {
+        RefreshToken current = refreshToken("family-1", null);
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.markUsed(eq(1L), any())).thenReturn(1);
+        when(userRepository.findById(7L)).thenReturn(Optional.of(anna));
+
+        Map<String, String> tokens = tokenService.refresh("raw-refresh-token");
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals("family-1", saved.getValue().getFamily());
+        assertTrue(tokens.get("token").startsWith("Bearer "));
+        verify(refreshTokenRepository, never()).revokeFamily(anyString(), any());
+    }
+
+    // Using a refresh token twice revokes its family and denylists the access tokens still out there
+    @Test
+    void refreshWithUsedTokenRevokesTheFamily() {
+        RefreshToken replayed = refreshToken("family-1", Instant.now().minusSeconds(30));
+        RefreshToken successor = refreshToken("family-1", null);
+        successor.setAccessTokenId("access-2");
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(replayed));
+        when(refreshTokenRepository.markUsed(eq(1L), any())).thenReturn(0);
+        when(refreshTokenRepository.findByFamilyWithLiveAccess(eq("family-1"), any())).thenReturn(List.of(successor));
+
+        assertThrows(InvalidCredentialsException.class, () -> tokenService.refresh("raw-refresh-token"));
+
+        ArgumentCaptor<RevokedToken> revoked = ArgumentCaptor.forClass(RevokedToken.class);
+        verify(revokedTokenRepository).save(revoked.capture());
+        assertEquals("access-2", revoked.getValue().getTokenId());
+        verify(refreshTokenRepository).revokeFamily(eq("family-1"), any());
+    }
+
+    // Logging out after the access token expired (idle client) still ends the login the refresh token belongs to
+    @Test
+    void logoutWithExpiredAccessTokenRevokesTheFamily() {
+        ReflectionTestUtils.setField(jwtTokenUtil, "accessTokenTtl", Duration.ofSeconds(-60));
+        String expired = jwtTokenUtil.generateToken(anna.getEmail(), "Admin", 7L, "Anna", "EMPLOYEE_MANAGEMENT", "access-1");
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(refreshToken("family-1", null)));
+
+        tokenService.logout("raw-refresh-token", expired);
+
+        verify(refreshTokenRepository).revokeFamily(eq("family-1"), any());
+        verify(revokedTokenRepository, never()).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void revokeUserDenylistsLiveAccessTokens() {
+        RefreshToken live = refreshToken("family-1", null);
+        when(refreshTokenRepository.findByUserWithLiveAccess(eq(7L), any())).thenReturn(List.of(live));
+
+        tokenService.revokeUser(7L);
+
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+        verify(refreshTokenRepository).revokeUser(eq(7L), any());
+    }
+
+    private RefreshToken refreshToken(String family, Instant usedAt) {
+        Instant now = Instant.now();
+        return RefreshToken.builder()
+            .id(1L)
+            .tokenHash("hash")
+            .userId(7L)
+            .family(family)
+            .createdAt(now.minusSeconds(60))
+            .expiresAt(now.plusSeconds(3600))
+            .usedAt(usedAt)
+            .accessTokenId("access-1")
+            .accessExpiresAt(now.plusSeconds(600))
+            .build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.LIT.auth.tests.unittests;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.isNull;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.LIT.auth.model.dto.Req.UserDTO;
+import com.LIT.auth.model.dto.UserRoleRow;
+import com.LIT.auth.model.entity.Role;
+import com.LIT.auth.model.repository.RoleRepository;
+import com.LIT.auth.model.repository.UserRepository;
+import com.LIT.auth.service.SchedulerDirectoryNotifier;
+import com.LIT.auth.service.TokenService;
+import com.LIT.auth.service.UserService;
+
+@ExtendWith(MockitoExtension.class)
+public class UserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    @Mock
+    private SchedulerDirectoryNotifier schedulerDirectoryNotifier;
+
+    @Mock
+    private TokenService tokenService;
+
+    @InjectMocks
+    private UserService userService;
+
+    private final Role admin = Role.builder().id(1L).name("Admin").permissions(Set.of("ROLE_MANAGEMENT")).build();
+    private final Role technician = Role.builder().id(2L).name("Technician").permissions(Set.of("CALENDAR_VIEW")).build();
+
+    // A row per user & role, grouped back into one user with its roles from the role table
+    @Test
+    void getAllUsersGroupsRowsByUser() {
+        when(roleRepository.findAll()).thenReturn(List.of(admin, technician));
+        when(userRepository.findUserRoleRows(isNull(), isNull())).thenReturn(List.of(
+            new UserRoleRow(1L, "anna@example.com", "Anna", null, null, null, 1L),
+            new UserRoleRow(1L, "anna@example.com", "Anna", null, null, null, 2L),
+            new UserRoleRow(2L, "ben@example.com", "Ben", null, null, null, null)));
+
+        List<UserDTO> users = userService.getAllUsers(null, " ");
+
+        assertEquals(2, users.size());
+        assertEquals(Set.of(admin, technician), users.get(0).getRoles());
+        assertSame(admin, users.get(0).getRoles().iterator().next());
+        assertTrue(users.get(1).getRoles().isEmpty());
+    }
+
+    // The search is a prefix, LIKE wildcards typed into it are escaped
+    @Test
+    void getAllUsersSearchesByEscapedPrefix() {
+        when(roleRepository.findAll()).thenReturn(List.of(admin, technician));
+        when(userRepository.findUserRoleRows("Technician", "50!%!_x%")).thenReturn(List.of());
+
+        List<UserDTO> users = userService.getAllUsers("Technician", " 50%_x ");
+
+        assertTrue(users.isEmpty());
+        verify(userRepository).findUserRoleRows("Technician", "50!%!_x%");
+    }
+
+    // A deleted user's tokens are revoked right away
+    @Test
+    void deleteUserRevokesItsTokens() {
+        userService.deleteUser(3L);
+
+        verify(tokenService).revokeUser(3L);
+        verify(userRepository).deleteById(3L);
+    }
+}
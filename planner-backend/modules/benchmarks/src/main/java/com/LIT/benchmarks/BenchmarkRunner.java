@@ -0,0 +1,131 @@
+package com.LIT.benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Main class of benchmarks.jar: the usual JMH command line, with
+ *  - the GC profiler on unless other profilers are asked for (allocation rate & bytes per operation),
+ *  - the results written as JSON (jmh-result.json, or -rff <file>), the format '--baseline' reads back,
+ *  - '--baseline <file.json>': after the run, every score next to the same benchmark's score in that earlier result.
+ */
+public final class BenchmarkRunner {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(List.of(args));
+        String baseline = null;
+
+        int at = jmhArgs.indexOf("--baseline");
+        if (at >= 0) {
+            if (at + 1 >= jmhArgs.size()) {
+                throw new IllegalArgumentException("--baseline needs the JSON result of an earlier run");
+            }
+            baseline = jmhArgs.remove(at + 1);
+            jmhArgs.remove(at);
+        }
+
+        CommandLineOptions commandLine = new CommandLineOptions(jmhArgs.toArray(String[]::new));
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListWithParams()
+            || commandLine.shouldListProfilers() || commandLine.shouldListResultFormats()) {
+            Main.main(jmhArgs.toArray(String[]::new));
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (commandLine.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+
+        Collection<RunResult> results;
+        try {
+            results = new Runner(options.build()).run();
+
+        } catch (RunnerException e) {
+            // Like JMH's own main: the reason, not a stack trace (e.g. a pattern that matches no benchmark)
+            System.err.println("ERROR: " + e);
+            System.exit(1);
+            return;
+        }
+
+        if (baseline != null) {
+            compare(baseline, results);
+        }
+    }
+
+    private static void compare(String baselineFile, Collection<RunResult> results) throws Exception {
+        Map<String, JsonNode> baseline = new HashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(new File(baselineFile))) {
+            Map<String, String> params = new TreeMap<>();
+            run.path("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+            baseline.put(key(run.get("benchmark").asText(), run.get("mode").asText(), params), run);
+        }
+
+        System.out.println();
+        System.out.println("Compared to " + baselineFile + " (score change, then allocation per operation):");
+
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            Map<String, String> paramValues = new TreeMap<>();
+            for (String param : params.getParamsKeys()) {
+                paramValues.put(param, params.getParam(param));
+            }
+
+            String name = key(params.getBenchmark(), params.getMode().shortLabel(), paramValues);
+            JsonNode before = baseline.get(name);
+            Result<?> score = result.getPrimaryResult();
+
+            if (before == null) {
+                System.out.printf(Locale.ROOT, "%-90s %14.3f %-8s (not in the baseline)%n", name, score.getScore(), score.getScoreUnit());
+                continue;
+            }
+
+            double beforeScore = before.path("primaryMetric").path("score").asDouble();
+            String allocation = "";
+            Result<?> allocated = result.getSecondaryResults().get(ALLOCATION);
+            JsonNode allocatedBefore = before.path("secondaryMetrics").path(ALLOCATION).path("score");
+            if (allocated != null && allocatedBefore.isNumber()) {
+                allocation = String.format(Locale.ROOT, "  %.0f -> %.0f B/op", allocatedBefore.asDouble(), allocated.getScore());
+            }
+
+            System.out.printf(Locale.ROOT, "%-90s %14.3f -> %14.3f %-8s %+7.1f%%%s%n", name, beforeScore, score.getScore(),
+                              score.getScoreUnit(), change(beforeScore, score.getScore()), allocation);
+        }
+    }
+
+    private static String key(String benchmark, String mode, Map<String, String> params) {
+        return benchmark + " " + mode + (params.isEmpty() ? "" : " " + params);
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) / before * 100;
+    }
+}
@@ -0,0 +1,97 @@
+package com.LIT.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.LIT.scheduler.service.ShiftConflictIndex;
+
+/*
+ * "Does this employee already work then?" answered by the in-memory ShiftConflictIndex, as for every assignment,
+ * shift proposal & swap proposal. 'employees' employees with one 8 hour shift a day (rotating early / late / night)
+ * over 'days' days, plus an assignment to a colleague's shift every 5th day. The windows asked for are 8 hours long,
+ * about half of them clash.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ConflictDetectionBenchmark {
+
+    private static final LocalDateTime FIRST_DAY = LocalDateTime.of(2025, 3, 3, 0, 0);
+    private static final int QUERIES = 4096;
+
+    @Param({"200", "2000"})
+    private int employees;
+
+    @Param("90")
+    private int days;
+
+    private ShiftConflictIndex index;
+
+    private long[] queryEmployees;
+    private LocalDateTime[] queryStarts;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        index = new ShiftConflictIndex();
+        ShiftConflictIndex.State state = index.startLoading();
+
+        long shiftId = 0;
+        long assignmentId = 0;
+        for (int day = 0; day < days; day++) {
+            for (long employee = 1; employee <= employees; employee++) {
+                LocalDateTime start = FIRST_DAY.plusDays(day).plusHours(6 + 8 * ((day / 7 + employee) % 3));
+                state.shiftSaved(++shiftId, employee, start, start.plusHours(8));
+
+                if ((day + employee) % 5 == 0) {
+                    // The colleague's shift on the same day
+                    long colleague = employee % employees + 1;
+                    LocalDateTime colleagueStart = FIRST_DAY.plusDays(day).plusHours(6 + 8 * ((day / 7 + colleague) % 3));
+                    state.assignmentSaved(++assignmentId, employee, (long) day * employees + colleague, colleagueStart, colleagueStart.plusHours(8));
+                }
+            }
+        }
+        index.finishLoading(state, FIRST_DAY);
+
+        Random random = new Random(42);
+        queryEmployees = new long[QUERIES];
+        queryStarts = new LocalDateTime[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queryEmployees[i] = 1 + random.nextInt(employees);
+            queryStarts[i] = FIRST_DAY.plusDays(random.nextInt(days)).plusHours(random.nextInt(24));
+        }
+    }
+
+    @Benchmark
+    public Optional<List<Long>> findOverlapping() {
+        int query = next++ & (QUERIES - 1);
+        LocalDateTime start = queryStarts[query];
+        return index.findOverlapping(queryEmployees[query], start, start.plusHours(8), null);
+    }
+
+    // The same check for a shift that is moved: the shift itself must not count as a clash
+    @Benchmark
+    public Optional<List<Long>> findOverlappingExcludingShift() {
+        int query = next++ & (QUERIES - 1);
+        LocalDateTime start = queryStarts[query];
+        return index.findOverlapping(queryEmployees[query], start, start.plusHours(8), (long) query);
+    }
+}
@@ -0,0 +1,59 @@
+package com.LIT.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.LIT.scheduler.model.entity.Shift;
+import com.LIT.scheduler.model.entity.ShiftAssignment;
+import com.LIT.scheduler.model.enums.AssignmentStatus;
+
+/*
+ * Test data shared by the benchmarks, always the same for the same size
+ */
+final class Fixtures {
+
+    static final LocalDateTime FIRST_DAY = LocalDateTime.of(2025, 3, 3, 0, 0);
+
+    private static final String[] TITLES = {"Early", "Late", "Night"};
+    private static final String[] ROLES = {"Nurse", "Doctor", "Technician"};
+
+    private Fixtures() {
+    }
+
+    // 'count' shifts of 50 employees, one 8 hour shift per employee & day (ids from 1, no database involved)
+    static List<Shift> shifts(int count) {
+        List<Shift> shifts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long employee = i % 50 + 1;
+            int shiftOfDay = (int) ((i / 50 + employee) % 3);
+            LocalDateTime start = FIRST_DAY.plusDays(i / 50).plusHours(6 + 8 * shiftOfDay);
+
+            shifts.add(Shift.builder()
+                .id((long) i + 1)
+                .shiftOwnerId(employee)
+                .shiftOwnerName("Employee " + employee)
+                .shiftOwnerRole(ROLES[(int) (employee % ROLES.length)])
+                .title(TITLES[shiftOfDay])
+                .minimumStaff(i % 4 == 0 ? 2 : null)
+                .startTime(start)
+                .endTime(start.plusHours(8))
+                .build());
+        }
+        return shifts;
+    }
+
+    // One assignment per shift, for the next employee
+    static List<ShiftAssignment> assignments(List<Shift> shifts) {
+        List<ShiftAssignment> assignments = new ArrayList<>(shifts.size());
+        for (Shift shift : shifts) {
+            assignments.add(ShiftAssignment.builder()
+                .id(shift.getId())
+                .userId(shift.getShiftOwnerId() % 50 + 1)
+                .shift(shift)
+                .status(shift.getId() % 3 == 0 ? AssignmentStatus.PENDING : AssignmentStatus.CONFIRMED)
+                .build());
+        }
+        return assignments;
+    }
+}
@@ -0,0 +1,114 @@
+package com.LIT.benchmarks;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.LIT.logicGate.utilities.JwtTokenUtil;
+import com.LIT.logicGate.utilities.TokenClaims;
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.RSAKeyProvider;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/*
+ * Token checks of the logic gate (JwtTokenUtil), done for every request that passes it:
+ *  - verifyCached: a token seen before, answered from the verified-token cache
+ *  - verifyUncached: RS256 signature & expiry checked and the claims decoded (tokens cycle through more than the cache holds)
+ *  - decodeClaim: reading a claim without verifying (the extract* methods)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class JwtBenchmark {
+
+    private static final String KID = "benchmark-key";
+    private static final int TOKENS = 1024;
+
+    private JwtTokenUtil cachingUtil;
+    private JwtTokenUtil uncachedUtil;
+
+    private String token;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() throws NoSuchAlgorithmException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair pair = generator.generateKeyPair();
+
+        // Auth's key as the gateway would have it from the key set, plus the private key to sign the tokens
+        RSAKeyProvider keyProvider = new RSAKeyProvider() {
+            @Override
+            public RSAPublicKey getPublicKeyById(String kid) {
+                return KID.equals(kid) ? (RSAPublicKey) pair.getPublic() : null;
+            }
+
+            @Override
+            public RSAPrivateKey getPrivateKey() {
+                return (RSAPrivateKey) pair.getPrivate();
+            }
+
+            @Override
+            public String getPrivateKeyId() {
+                return KID;
+            }
+        };
+
+        cachingUtil = new JwtTokenUtil(keyProvider, 10_000, new SimpleMeterRegistry());
+        uncachedUtil = new JwtTokenUtil(keyProvider, 1, new SimpleMeterRegistry());
+
+        // Signed the way auth issues them
+        Algorithm algorithm = Algorithm.RSA256(keyProvider);
+        tokens = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            tokens[i] = JWT.create()
+                .withIssuer("LIT - auth0")
+                .withSubject("employee" + i + "@example.org")
+                .withClaim("userEmail", "employee" + i + "@example.org")
+                .withClaim("role", "Employee")
+                .withClaim("userName", "employee" + i)
+                .withClaim("userId", (long) i)
+                .withClaim("permissions", "CALENDAR_VIEW,SHIFT_PROPOSAL,SWAP_PROPOSAL")
+                .withIssuedAt(new Date())
+                .withExpiresAt(new Date(System.currentTimeMillis() + 3600000))
+                .sign(algorithm);
+        }
+        token = tokens[0];
+    }
+
+    @Benchmark
+    public TokenClaims verifyCached() {
+        return cachingUtil.verify(token);
+    }
+
+    @Benchmark
+    public TokenClaims verifyUncached() {
+        return uncachedUtil.verify(tokens[next++ & (TOKENS - 1)]);
+    }
+
+    @Benchmark
+    public String decodeClaim() {
+        return cachingUtil.extractPermissions(tokens[next++ & (TOKENS - 1)]);
+    }
+}
@@ -0,0 +1,88 @@
+package com.LIT.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.LIT.scheduler.mapper.ShiftAssignmentMapper;
+import com.LIT.scheduler.mapper.ShiftMapper;
+import com.LIT.scheduler.model.dto.ShiftAssignmentDTO;
+import com.LIT.scheduler.model.dto.ShiftDTO;
+import com.LIT.scheduler.model.entity.Shift;
+import com.LIT.scheduler.model.entity.ShiftAssignment;
+
+/*
+ * Entity <-> DTO conversion of a page of 'size' shifts / assignments (ShiftMapper, ShiftAssignmentMapper)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class MapperBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    private List<Shift> shifts;
+    private List<ShiftDTO> shiftDTOs;
+    private List<ShiftAssignment> assignments;
+    private List<ShiftAssignmentDTO> assignmentDTOs;
+
+    @Setup
+    public void setUp() {
+        shifts = Fixtures.shifts(size);
+        shiftDTOs = shifts.stream().map(ShiftMapper::toDTO).toList();
+        assignments = Fixtures.assignments(shifts);
+        assignmentDTOs = assignments.stream().map(ShiftAssignmentMapper::toDTO).toList();
+    }
+
+    @Benchmark
+    public List<ShiftDTO> shiftToDTO() {
+        List<ShiftDTO> dtos = new ArrayList<>(shifts.size());
+        for (Shift shift : shifts) {
+            dtos.add(ShiftMapper.toDTO(shift));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public List<Shift> shiftToEntity() {
+        List<Shift> entities = new ArrayList<>(shiftDTOs.size());
+        for (ShiftDTO dto : shiftDTOs) {
+            entities.add(ShiftMapper.toEntity(dto));
+        }
+        return entities;
+    }
+
+    @Benchmark
+    public List<ShiftAssignmentDTO> assignmentToDTO() {
+        List<ShiftAssignmentDTO> dtos = new ArrayList<>(assignments.size());
+        for (ShiftAssignment assignment : assignments) {
+            dtos.add(ShiftAssignmentMapper.toDTO(assignment));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public List<ShiftAssignment> assignmentToEntity() {
+        List<ShiftAssignment> entities = new ArrayList<>(assignmentDTOs.size());
+        for (int i = 0; i < assignmentDTOs.size(); i++) {
+            entities.add(ShiftAssignmentMapper.toEntity(assignmentDTOs.get(i), shifts.get(i)));
+        }
+        return entities;
+    }
+}
@@ -0,0 +1,71 @@
+package com.LIT.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.LIT.scheduler.model.entity.Shift;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/*
+ * JSON of a list of 'size' shifts, as the shift endpoints answer it. The mapper is set up like Spring Boot's
+ * (JavaTimeModule, ISO dates), 'writerFor' is the variant with the serializer resolved once up front.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ShiftSerializationBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter listWriter;
+    private List<Shift> shifts;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+            .build();
+        listWriter = objectMapper.writerFor(new TypeReference<List<Shift>>() {});
+
+        shifts = Fixtures.shifts(size);
+        json = objectMapper.writeValueAsBytes(shifts);
+    }
+
+    @Benchmark
+    public byte[] writeShifts() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(shifts);
+    }
+
+    @Benchmark
+    public byte[] writeShiftsWithWriterFor() throws JsonProcessingException {
+        return listWriter.writeValueAsBytes(shifts);
+    }
+
+    @Benchmark
+    public List<Shift> readShifts() throws Exception {
+        return objectMapper.readValue(json, new TypeReference<List<Shift>>() {});
+    }
+}
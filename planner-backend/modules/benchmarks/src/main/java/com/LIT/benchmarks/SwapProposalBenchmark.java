@@ -0,0 +1,183 @@
+package com.LIT.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import com.LIT.scheduler.SchedulerApplication;
+import com.LIT.scheduler.model.dto.AuthUserDTO;
+import com.LIT.scheduler.model.entity.Shift;
+import com.LIT.scheduler.model.entity.SwapProposal;
+import com.LIT.scheduler.model.enums.ShiftProposalStatus;
+import com.LIT.scheduler.model.repository.ShiftRepository;
+import com.LIT.scheduler.model.repository.SwapProposalRepository;
+import com.LIT.scheduler.service.AuthUserService;
+import com.LIT.scheduler.service.SwapProposalService;
+
+/*
+ * SwapProposalService.acceptShiftChange in the whole scheduler (Spring context, JPA, change feed, notification outbox)
+ * on an in-memory H2 database. 'PAIRS' pairs of employees with one shift each, among BACKGROUND_SHIFTS shifts of others.
+ * Each pair is swapped and swapped back in turn, so every call does the same work. The auth module is replaced by
+ * a fixed directory, emails stay in the outbox (dispatcher off), and the feed & outbox are emptied between iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class SwapProposalBenchmark {
+
+    private static final int PAIRS = 100;
+    private static final int BACKGROUND_SHIFTS = 5000;
+
+    private ConfigurableApplicationContext context;
+    private SwapProposalService swapProposalService;
+    private JdbcTemplate jdbcTemplate;
+
+    private long[] proposalIds;
+    private long[] requesters;
+    private long[] swapEmployees;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        // As command line arguments: the scheduler's application.yml would win over default properties
+        context = new SpringApplicationBuilder(SchedulerApplication.class, FixedDirectory.class)
+            .run(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--spring.datasource.url=jdbc:h2:mem:scheduler-benchmark;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driverClassName=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.org.springframework=WARN",
+                "--logging.level.com.zaxxer.hikari=WARN",
+                "--scheduler.notifications.enabled=false",
+                "--scheduler.staffing.enabled=false");
+
+        swapProposalService = context.getBean(SwapProposalService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        ShiftRepository shiftRepository = context.getBean(ShiftRepository.class);
+        SwapProposalRepository proposalRepository = context.getBean(SwapProposalRepository.class);
+
+        List<Shift> background = new ArrayList<>(BACKGROUND_SHIFTS);
+        for (Shift shift : Fixtures.shifts(BACKGROUND_SHIFTS)) {
+            shift.setId(null);
+            shift.setShiftOwnerId(1000 + shift.getShiftOwnerId());
+            background.add(shift);
+        }
+        shiftRepository.saveAll(background);
+
+        proposalIds = new long[PAIRS];
+        requesters = new long[PAIRS];
+        swapEmployees = new long[PAIRS];
+        for (int pair = 0; pair < PAIRS; pair++) {
+            long requester = 2L * pair + 1;
+            long swapEmployee = 2L * pair + 2;
+            LocalDateTime start = Fixtures.FIRST_DAY.plusDays(pair % 30).plusHours(6);
+
+            Shift requesterShift = shiftRepository.save(shift(requester, "Early", start));
+            shiftRepository.save(shift(swapEmployee, "Late", start.plusHours(8)));
+
+            SwapProposal proposal = proposalRepository.save(SwapProposal.builder()
+                .employeeId(requester)
+                .currentShiftId(requesterShift.getId())
+                .employeeRole("Nurse")
+                .proposedTitle("Late")
+                .proposedStartTime(start.plusHours(8))
+                .proposedEndTime(start.plusHours(16))
+                .status(ShiftProposalStatus.PROPOSED)
+                .build());
+
+            proposalIds[pair] = proposal.getId();
+            requesters[pair] = requester;
+            swapEmployees[pair] = swapEmployee;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void emptyFeedAndOutbox() {
+        jdbcTemplate.update("DELETE FROM change_feed");
+        jdbcTemplate.update("DELETE FROM notification_outbox");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // Swaps a pair, the next call swaps it back (the requester's shift moves to whoever is passed in, and back)
+    @Benchmark
+    public SwapProposal acceptShiftChange() {
+        int call = next++;
+        int pair = (call >> 1) % PAIRS;
+        long swapEmployee = (call & 1) == 0 ? swapEmployees[pair] : requesters[pair];
+        return swapProposalService.acceptShiftChange(proposalIds[pair], swapEmployee);
+    }
+
+    private static Shift shift(long owner, String title, LocalDateTime start) {
+        return Shift.builder()
+            .shiftOwnerId(owner)
+            .shiftOwnerName("Employee " + owner)
+            .shiftOwnerRole("Nurse")
+            .title(title)
+            .startTime(start)
+            .endTime(start.plusHours(8))
+            .build();
+    }
+
+    /*
+     * The auth module's user directory, without the network: every id is a known user
+     */
+    @Configuration
+    static class FixedDirectory {
+
+        @Bean
+        @Primary
+        AuthUserService fixedAuthUserService() {
+            return new AuthUserService(new RestTemplate()) {
+                @Override
+                public Map<Long, AuthUserDTO> getUsersById(Collection<Long> userIds) {
+                    Map<Long, AuthUserDTO> users = new HashMap<>();
+                    for (Long userId : userIds) {
+                        if (userId != null) {
+                            AuthUserDTO user = new AuthUserDTO();
+                            user.setId(userId);
+                            user.setEmail("employee" + userId + "@example.org");
+                            user.setUsername("employee" + userId);
+                            users.put(userId, user);
+                        }
+                    }
+                    return users;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.LIT.common.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Only active in virtual-thread mode (spring.threads.virtual.enabled=true).
+ * Listens to the JFR 'jdk.VirtualThreadPinned' event: a virtual thread that blocks inside a synchronized block / native frame
+ * keeps its carrier thread, which silently brings back the thread-per-request limits.
+ * Every pinning above the threshold is timed as 'jvm.threads.virtual.pinned' and reported in the log with the frame that pinned it.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private final String logHeader = "[VirtualThreadPinningMonitor] - ";
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final int REPORTED_FRAMES = 8;
+
+    // After the first report, the same pinning location is only logged again every REPORT_EVERY occurrences
+    private static final int REPORT_EVERY = 100;
+
+    private final Duration threshold;
+
+    private final Timer pinnedTimer;
+
+    private final Map<String, LongAdder> occurrencesByLocation = new ConcurrentHashMap<>();
+
+    private RecordingStream recordingStream;
+
+    @Autowired
+    public VirtualThreadPinningMonitor(@Value("${virtual-threads.pinning.threshold:20ms}") Duration threshold, MeterRegistry meterRegistry) {
+        this.threshold = threshold;
+        this.pinnedTimer = Timer.builder("jvm.threads.virtual.pinned")
+            .description("Time virtual threads spent pinned to their carrier thread")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::report);
+        recordingStream.startAsync();
+
+        log.info(logHeader + "Virtual threads enabled, reporting pinning longer than " + threshold.toMillis() + " ms");
+    }
+
+    @PreDestroy
+    public void stop() {
+        if(recordingStream != null){
+            recordingStream.close();
+        }
+    }
+
+    private void report(RecordedEvent event) {
+        pinnedTimer.record(event.getDuration());
+
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        String location = frames.isEmpty() ? "unknown" : describe(frames.get(0));
+
+        LongAdder occurrences = occurrencesByLocation.computeIfAbsent(location, key -> new LongAdder());
+        occurrences.increment();
+
+        long seen = occurrences.sum();
+        if(seen != 1 && seen % REPORT_EVERY != 0){
+            return;
+        }
+
+        StringBuilder trace = new StringBuilder();
+        for(int i = 0; i < Math.min(REPORTED_FRAMES, frames.size()); i++){
+            trace.append("\n\tat ").append(describe(frames.get(i)));
+        }
+
+        log.warn(logHeader + "Virtual thread pinned for " + event.getDuration().toMillis() + " ms (seen " + seen + "x at this location):" + trace);
+    }
+
+    private String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
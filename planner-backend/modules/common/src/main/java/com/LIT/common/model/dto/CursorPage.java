@@ -0,0 +1,40 @@
+package com.LIT.common.model.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+ * One page of a keyset-paginated list. 'nextCursor' is passed back as 'after' to get the following page,
+ * it's null on the last page. Pages are read with limit + 1 rows to know whether another one follows.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private final List<T> items;
+
+    private final String nextCursor;
+
+    public static int limit(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_LIMIT;
+        }
+
+        return Math.max(1, Math.min(requested, MAX_LIMIT));
+    }
+
+    // 'rows' holds up to limit + 1 entries, the extra one only tells that there's a next page
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, String> cursorOf) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(items, cursorOf.apply(items.get(limit - 1)));
+    }
+}
@@ -0,0 +1,76 @@
+package com.LIT.common.utilities;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/*
+ * NDJSON responses (one JSON object per line) written while the rows are read, nothing is collected in between.
+ * 'source' pushes the rows into the given consumer, typically a @Transactional(readOnly = true) service method
+ * walking a Stream query: it runs on the async request thread, after the controller returned.
+ */
+@Component
+public class NdjsonStreams {
+
+    // The servlet stream is flushed every so many rows so the client gets them early, not once per row
+    private static final int FLUSH_EVERY = 200;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectWriter rowWriter;
+
+    @Autowired
+    public NdjsonStreams(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public <T> ResponseEntity<StreamingResponseBody> response(Consumer<Consumer<T>> source) {
+        StreamingResponseBody body = out -> write(out, source);
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(body);
+    }
+
+    private <T> void write(OutputStream out, Consumer<Consumer<T>> source) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Rows are newline terminated, not space separated (Jackson's default between root values)
+            generator.setRootValueSeparator(null);
+
+            int[] written = {0};
+
+            try {
+                source.accept(row -> {
+                    try {
+                        rowWriter.writeValue(generator, row);
+                        generator.writeRaw('\n');
+
+                        if (++written[0] % FLUSH_EVERY == 0) {
+                            generator.flush();
+                        }
+
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.LIT.loadtest;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Closed-loop load: 'concurrency' virtual users (virtual threads), each sending one request of the mix after the other,
+ * as a random employee, until the time is up. Latency is from sending the request to having read the whole answer.
+ */
+@Slf4j
+final class LoadDriver {
+
+    private final String logHeader = "[LoadDriver] - ";
+
+    static final String LOGIN_BURST = "login-burst";
+
+    private final GatewayClient client;
+    private final TestData data;
+    private final LoadTestOptions options;
+
+    // The mix as cumulative weights, picked by one random number
+    private final List<Scenario> scenarios = new ArrayList<>();
+    private final int[] cumulativeWeights;
+
+    LoadDriver(GatewayClient client, TestData data, LoadTestOptions options) {
+        this.client = client;
+        this.data = data;
+        this.options = options;
+
+        List<Integer> cumulative = new ArrayList<>();
+        int total = 0;
+        for (Map.Entry<Scenario, Integer> entry : options.mix.entrySet()) {
+            if (entry.getValue() > 0) {
+                total += entry.getValue();
+                scenarios.add(entry.getKey());
+                cumulative.add(total);
+            }
+        }
+        cumulativeWeights = cumulative.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // 'loginBurst' logins released at the same moment
+    RouteStats loginBurst() throws InterruptedException {
+        RouteStats stats = new RouteStats(LOGIN_BURST, Scenario.LOGIN.route);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < options.loginBurst; i++) {
+                TestData.Employee employee = data.employees.get(i % data.employees.size());
+                Scenario.Call call = new Scenario.Call(client, data, employee, null, new SplittableRandom(i));
+
+                users.submit(() -> {
+                    start.await();
+                    send(Scenario.LOGIN, call, stats);
+                    return null;
+                });
+            }
+            start.countDown();
+        }
+
+        log.info(logHeader + "loginBurst: {} logins, p99 {} ms", stats.count(), stats.percentile(99));
+        return stats;
+    }
+
+    Map<Scenario, RouteStats> run(Duration duration) throws InterruptedException {
+        Map<Scenario, RouteStats> stats = new EnumMap<>(Scenario.class);
+        for (Scenario scenario : Scenario.values()) {
+            stats.put(scenario, new RouteStats(scenario.key, scenario.route));
+        }
+
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int user = 0; user < options.concurrency; user++) {
+                SplittableRandom random = new SplittableRandom(31L * user + System.nanoTime());
+                users.submit(() -> {
+                    virtualUser(random, deadline, stats);
+                    return null;
+                });
+            }
+        }
+
+        // Scenarios that never ran (not in the mix) stay out of the result
+        stats.values().removeIf(route -> route.count() == 0);
+        return stats;
+    }
+
+    private void virtualUser(SplittableRandom random, long deadline, Map<Scenario, RouteStats> stats) throws InterruptedException {
+        while (System.nanoTime() < deadline) {
+            Scenario scenario = pick(random);
+            TestData.OpenProposal proposal = null;
+
+            if (scenario == Scenario.ACCEPT) {
+                proposal = data.openProposals.poll();
+                if (proposal == null) {
+                    scenario = Scenario.PROPOSE;
+                }
+            }
+
+            TestData.Employee employee = data.employees.get(random.nextInt(data.employees.size()));
+            send(scenario, new Scenario.Call(client, data, employee, proposal, random), stats.get(scenario));
+
+            if (!options.think.isZero()) {
+                Thread.sleep(options.think);
+            }
+        }
+    }
+
+    private void send(Scenario scenario, Scenario.Call call, RouteStats stats) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            GatewayClient.Response response = scenario.send(call);
+            stats.record(System.nanoTime() - start, response.status());
+
+            if (response.ok()) {
+                scenario.succeeded(call, response);
+            } else {
+                stats.failed(response.status() + ": " + abbreviate(new String(response.body())));
+            }
+
+        } catch (IOException e) {
+            stats.record(System.nanoTime() - start, 0);
+            stats.failed(e.toString());
+        }
+    }
+
+    private Scenario pick(SplittableRandom random) {
+        int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (draw < cumulativeWeights[i]) {
+                return scenarios.get(i);
+            }
+        }
+        return scenarios.get(scenarios.size() - 1);
+    }
+
+    private static String abbreviate(String body) {
+        return body.length() > 300 ? body.substring(0, 300) + "..." : body;
+    }
+}
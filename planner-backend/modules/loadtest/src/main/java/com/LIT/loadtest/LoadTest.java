@@ -0,0 +1,212 @@
+package com.LIT.loadtest;
+
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Main class of loadtest.jar: starts the local stack, seeds it, runs the login burst and the mix, and checks the
+ * result against the thresholds (and the baseline). Written to <out>: result.json, one percentile distribution
+ * per route in histograms/ (HdrHistogram's .hgrm format, milliseconds) and the services' logs in logs/.
+ * Exit code 0: within all limits, 1: a limit broken, 2: the run itself failed.
+ */
+@Slf4j
+public final class LoadTest {
+
+    private static final String logHeader = "[LoadTest] - ";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    static int run(String[] args) {
+        LoadTestOptions options;
+        Thresholds thresholds;
+        JsonNode baseline = null;
+
+        try {
+            options = LoadTestOptions.parse(args);
+            if (options == null) {
+                System.out.println(LoadTestOptions.USAGE);
+                return 0;
+            }
+
+            thresholds = Thresholds.load(options.thresholds);
+            if (options.baseline != null) {
+                baseline = GatewayClient.JSON.readTree(options.baseline.toFile());
+            }
+
+        } catch (Exception e) {
+            System.err.println("ERROR: " + e.getMessage());
+            System.err.println(LoadTestOptions.USAGE);
+            return 2;
+        }
+
+        LocalStack stack = new LocalStack(options);
+        Runtime.getRuntime().addShutdownHook(new Thread(stack::close));
+
+        try (stack) {
+            stack.start();
+
+            GatewayClient client = new GatewayClient(stack.url(Service.GATEWAY));
+            TestData data = new Seeder(client, options).seed();
+            LoadDriver driver = new LoadDriver(client, data, options);
+
+            if (!options.warmup.isZero()) {
+                log.info(logHeader + "run: Warming up for {}", options.warmup);
+                driver.run(options.warmup);
+            }
+
+            ServiceMetrics metrics = new ServiceMetrics(stack, data.supervisorToken);
+            metrics.before();
+            int emailsBefore = stack.receivedEmails();
+
+            Map<String, RouteStats> routes = new LinkedHashMap<>();
+            Map<String, Duration> elapsed = new LinkedHashMap<>();
+
+            if (options.loginBurst > 0) {
+                long start = System.nanoTime();
+                RouteStats burst = driver.loginBurst();
+                routes.put(burst.name, burst);
+                elapsed.put(burst.name, Duration.ofNanos(System.nanoTime() - start));
+            }
+
+            log.info(logHeader + "run: Running the mix {} with {} virtual users for {}", options.mix, options.concurrency, options.duration);
+            long start = System.nanoTime();
+            Map<Scenario, RouteStats> mix = driver.run(options.duration);
+            Duration mixElapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            for (RouteStats route : mix.values()) {
+                routes.put(route.name, route);
+                elapsed.put(route.name, mixElapsed);
+            }
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("startedAt", Instant.now().minus(mixElapsed).toString());
+            result.put("options", options(options));
+            result.put("routes", routes(routes, elapsed));
+            result.put("services", metrics.after());
+            result.put("emailsReceived", stack.receivedEmails() - emailsBefore);
+
+            JsonNode resultTree = GatewayClient.JSON.valueToTree(result);
+            List<String> violations = thresholds.check(resultTree, baseline);
+            result.put("violations", violations);
+            result.put("passed", violations.isEmpty());
+
+            write(options.out, result, routes);
+            summary(System.out, resultTree.path("routes"), violations, options.out);
+
+            return violations.isEmpty() ? 0 : 1;
+
+        } catch (Exception e) {
+            log.error(logHeader + "run: Load test failed: {}", e.toString(), e);
+            return 2;
+        }
+    }
+
+    private static Map<String, Object> options(LoadTestOptions options) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("duration", options.duration.toString());
+        values.put("warmup", options.warmup.toString());
+        values.put("concurrency", options.concurrency);
+        values.put("think", options.think.toString());
+
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        options.mix.forEach((scenario, weight) -> mix.put(scenario.key, weight));
+        values.put("mix", mix);
+
+        values.put("loginBurst", options.loginBurst);
+        values.put("users", options.users);
+        values.put("shiftsPerUser", options.shiftsPerUser);
+        values.put("backgroundShifts", options.backgroundShifts);
+        values.put("heap", options.heap);
+        values.put("gatewayRuntime", options.gatewayRuntime);
+        values.put("processors", Runtime.getRuntime().availableProcessors());
+        return values;
+    }
+
+    private static Map<String, Object> routes(Map<String, RouteStats> routes, Map<String, Duration> elapsed) {
+        Map<String, Object> values = new LinkedHashMap<>();
+
+        routes.forEach((name, route) -> {
+            double seconds = elapsed.get(name).toNanos() / 1e9;
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("route", route.route);
+            stats.put("count", route.count());
+            stats.put("errors", route.errors());
+            stats.put("errorRate", route.count() == 0 ? 0.0 : route.errors() * 100.0 / route.count());
+            stats.put("throughput", route.count() / seconds);
+            stats.put("mean", route.latencies().getMean() / 1000.0);
+            stats.put("p50", route.percentile(50));
+            stats.put("p90", route.percentile(90));
+            stats.put("p95", route.percentile(95));
+            stats.put("p99", route.percentile(99));
+            stats.put("max", route.latencies().getMaxValue() / 1000.0);
+            stats.put("statuses", route.statuses());
+            if (route.firstError() != null) {
+                stats.put("firstError", route.firstError());
+            }
+            values.put(name, stats);
+        });
+
+        return values;
+    }
+
+    private static void write(Path out, Map<String, Object> result, Map<String, RouteStats> routes) throws Exception {
+        Path histograms = Files.createDirectories(out.resolve("histograms"));
+
+        GatewayClient.JSON.writer().with(SerializationFeature.INDENT_OUTPUT).writeValue(out.resolve("result.json").toFile(), result);
+
+        for (RouteStats route : routes.values()) {
+            try (PrintStream file = new PrintStream(histograms.resolve(route.name + ".hgrm").toFile())) {
+                route.latencies().outputPercentileDistribution(file, 1000.0);
+            }
+        }
+    }
+
+    private static void summary(PrintStream out, JsonNode routes, List<String> violations, Path dir) {
+        out.println();
+        out.printf(Locale.ROOT, "%-12s %8s %7s %9s %9s %9s %9s %9s%n", "route", "count", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, JsonNode> entry : routes.properties()) {
+            JsonNode route = entry.getValue();
+            out.printf(Locale.ROOT, "%-12s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n", entry.getKey(), route.path("count").asLong(),
+                       route.path("errors").asLong(), route.path("throughput").asDouble(), route.path("p50").asDouble(),
+                       route.path("p95").asDouble(), route.path("p99").asDouble(), route.path("max").asDouble());
+            if (route.has("firstError")) {
+                failures.add(entry.getKey() + ": " + route.path("firstError").asText());
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            out.println();
+            out.println("First failure per route:");
+            failures.forEach(failure -> out.println("  " + failure));
+        }
+
+        out.println();
+        if (violations.isEmpty()) {
+            out.println("PASSED, all limits kept. Details in " + dir.resolve("result.json"));
+        } else {
+            out.println("FAILED, " + violations.size() + " limit(s) broken:");
+            violations.forEach(violation -> out.println("  " + violation));
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.LIT.loadtest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+ * Command line of the load test, see USAGE
+ */
+final class LoadTestOptions {
+
+    static final String USAGE = """
+        java -jar modules/loadtest/target/loadtest.jar [options]
+
+          --duration <time>            measured run of the mix (default 60s)
+          --warmup <time>              mix run before it, not recorded (default 15s)
+          --concurrency <n>            virtual users, each sending one request after the other (default 16)
+          --think <time>               pause of a virtual user between two requests (default 0ms)
+          --mix <scenario=weight,...>  share of each scenario (default login=5,calendar=60,propose=20,accept=15)
+          --login-burst <n>            logins sent all at once before the mix, e.g. at shift change (default 50, 0: none)
+
+          --users <n>                  employees created in the auth module (default 40)
+          --shifts-per-user <n>        their shifts, one per day from this week's Monday (default 20)
+          --background-shifts <n>      shifts of employees outside the auth module, for volume (default 5000)
+
+          --thresholds <file>          limits to check (default: default-thresholds.properties in the jar)
+          --baseline <file>            result.json of an earlier run, checked against the 'regression.*' limits
+          --out <dir>                  result, histograms & service logs (default loadtest-results)
+
+          --modules <dir>              planner-backend/modules, where the services' jars are built (default: next to this jar)
+          --heap <size>                -Xmx of every service (default 384m)
+          --gateway-runtime <runtime>  servlet or reactive (default servlet)
+          --service-property <service>:<key>=<value>
+                                       extra Spring property for auth, scheduler, statistics, gateway or all (repeatable)
+          --startup-timeout <time>     for all services to answer (default 5m)
+        """;
+
+    Duration duration = Duration.ofSeconds(60);
+    Duration warmup = Duration.ofSeconds(15);
+    int concurrency = 16;
+    Duration think = Duration.ZERO;
+    Map<Scenario, Integer> mix = parseMix("login=5,calendar=60,propose=20,accept=15");
+    int loginBurst = 50;
+
+    int users = 40;
+    int shiftsPerUser = 20;
+    int backgroundShifts = 5000;
+
+    Path thresholds;
+    Path baseline;
+    Path out = Path.of("loadtest-results");
+
+    Path modules;
+    String heap = "384m";
+    String gatewayRuntime = "servlet";
+    Map<Service, List<String>> serviceProperties = new EnumMap<>(Service.class);
+    Duration startupTimeout = Duration.ofMinutes(5);
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            if (name.equals("-h") || name.equals("--help")) {
+                return null;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException(name + " needs a value");
+            }
+            String value = args[++i];
+
+            switch (name) {
+                case "--duration" -> options.duration = duration(value);
+                case "--warmup" -> options.warmup = duration(value);
+                case "--concurrency" -> options.concurrency = positive(name, value);
+                case "--think" -> options.think = duration(value);
+                case "--mix" -> options.mix = parseMix(value);
+                case "--login-burst" -> options.loginBurst = Integer.parseInt(value);
+                case "--users" -> options.users = positive(name, value);
+                case "--shifts-per-user" -> options.shiftsPerUser = positive(name, value);
+                case "--background-shifts" -> options.backgroundShifts = Integer.parseInt(value);
+                case "--thresholds" -> options.thresholds = existing(value);
+                case "--baseline" -> options.baseline = existing(value);
+                case "--out" -> options.out = Path.of(value);
+                case "--modules" -> options.modules = existing(value);
+                case "--heap" -> options.heap = value;
+                case "--gateway-runtime" -> options.gatewayRuntime = value;
+                case "--service-property" -> options.addServiceProperty(value);
+                case "--startup-timeout" -> options.startupTimeout = duration(value);
+                default -> throw new IllegalArgumentException("Unknown option " + name);
+            }
+        }
+
+        if (options.modules == null) {
+            options.modules = defaultModulesDir();
+        }
+        if (options.shiftsPerUser > 28) {
+            throw new IllegalArgumentException("--shifts-per-user is at most 28 (one shift per day over four weeks)");
+        }
+        return options;
+    }
+
+    // "login=5,calendar=60", scenarios left out don't run
+    static Map<Scenario, Integer> parseMix(String value) {
+        Map<Scenario, Integer> mix = new LinkedHashMap<>();
+
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Mix entries look like 'calendar=60', not '" + part + "'");
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight for " + pair[0]);
+            }
+            mix.put(Scenario.of(pair[0].trim()), weight);
+        }
+
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("The mix has no scenario with a weight above 0");
+        }
+        return mix;
+    }
+
+    // 500ms, 30s, 5m, 1h (plain numbers are seconds)
+    static Duration duration(String value) {
+        String text = value.trim().toLowerCase(Locale.ROOT);
+
+        if (text.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2)));
+        }
+        if (text.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(text.substring(0, text.length() - 1)));
+        }
+        if (text.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(text.substring(0, text.length() - 1)));
+        }
+        if (text.endsWith("h")) {
+            return Duration.ofHours(Long.parseLong(text.substring(0, text.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(text));
+    }
+
+    private void addServiceProperty(String value) {
+        int colon = value.indexOf(':');
+        if (colon < 0 || value.indexOf('=', colon) < 0) {
+            throw new IllegalArgumentException("--service-property looks like 'scheduler:scheduler.notifications.enabled=false'");
+        }
+
+        String target = value.substring(0, colon);
+        String property = "--" + value.substring(colon + 1);
+
+        if (target.equalsIgnoreCase("all")) {
+            for (Service service : Service.values()) {
+                serviceProperties.computeIfAbsent(service, s -> new ArrayList<>()).add(property);
+            }
+        } else {
+            serviceProperties.computeIfAbsent(Service.of(target), s -> new ArrayList<>()).add(property);
+        }
+    }
+
+    // target/loadtest.jar -> ../.. is modules/loadtest -> its parent is modules/
+    private static Path defaultModulesDir() {
+        try {
+            Path jar = Path.of(LoadTestOptions.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            Path modules = jar.getParent().getParent().getParent();
+            if (Files.isDirectory(modules.resolve("scheduler"))) {
+                return modules;
+            }
+        } catch (Exception e) {
+            // fall through to the working directory
+        }
+        return Path.of("modules");
+    }
+
+    private static int positive(String name, String value) {
+        int number = Integer.parseInt(value);
+        if (number < 1) {
+            throw new IllegalArgumentException(name + " must be at least 1");
+        }
+        return number;
+    }
+
+    private static Path existing(String value) {
+        Path path = Path.of(value);
+        if (!Files.exists(path)) {
+            throw new IllegalArgumentException(value + " doesn't exist");
+        }
+        return path;
+    }
+}
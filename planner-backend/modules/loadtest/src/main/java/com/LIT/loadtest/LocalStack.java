@@ -0,0 +1,247 @@
+package com.LIT.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.h2.tools.Server;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Everything the services need on one machine, without network:
+ *  - the shared 'planner' database: an in-memory H2, served over TCP from this JVM
+ *  - an SMTP server (GreenMail) that takes the scheduler's emails
+ *  - auth, scheduler, statistics & the logic gate, each from its executable jar in its own JVM on a free local port
+ * The services get the H2 driver on their class path (loader.path) and the H2 dialect, the rest of their configuration
+ * is their own application.yml. Their output goes to <out>/logs.
+ */
+@Slf4j
+final class LocalStack implements AutoCloseable {
+
+    private final String logHeader = "[LocalStack] - ";
+
+    private static final String LAUNCHER = "org.springframework.boot.loader.launch.PropertiesLauncher";
+
+    private final LoadTestOptions options;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+
+    private final Map<Service, Integer> ports = new EnumMap<>(Service.class);
+    private final Map<Service, Process> processes = new EnumMap<>(Service.class);
+    private final Set<Integer> usedPorts = new HashSet<>();
+
+    private Server database;
+    private GreenMail smtp;
+    private String databaseUrl;
+    private boolean closed;
+
+    LocalStack(LoadTestOptions options) {
+        this.options = options;
+    }
+
+    void start() throws Exception {
+        for (Service service : Service.values()) {
+            Path jar = jar(service);
+            if (!Files.isRegularFile(jar)) {
+                throw new IllegalStateException(jar + " is missing, build the modules first: mvn -Ploadtest package -DskipTests");
+            }
+            ports.put(service, freePort());
+        }
+
+        Path logs = Files.createDirectories(options.out.resolve("logs"));
+
+        int databasePort = freePort();
+        database = Server.createTcpServer("-tcpPort", String.valueOf(databasePort), "-ifNotExists").start();
+        databaseUrl = "jdbc:h2:tcp://localhost:" + databasePort + "/mem:planner;DB_CLOSE_DELAY=-1";
+        log.info(logHeader + "start: Database at {}", databaseUrl);
+
+        // Takes any login, the scheduler logs in with the account of its application.yml (mail health check included)
+        smtp = new GreenMail(new ServerSetup(freePort(), "127.0.0.1", ServerSetup.PROTOCOL_SMTP))
+            .withConfiguration(GreenMailConfiguration.aConfig().withDisabledAuthentication());
+        smtp.start();
+        log.info(logHeader + "start: SMTP server on port {}", smtp.getSmtp().getPort());
+
+        // Tables first (auth & scheduler), then the modules that read them or route to them
+        launch(Service.AUTH, logs);
+        launch(Service.SCHEDULER, logs);
+        awaitReady(Service.AUTH, Service.SCHEDULER);
+
+        launch(Service.STATISTICS, logs);
+        launch(Service.GATEWAY, logs);
+        awaitReady(Service.STATISTICS, Service.GATEWAY);
+    }
+
+    String url(Service service) {
+        return "http://127.0.0.1:" + ports.get(service);
+    }
+
+    int receivedEmails() {
+        return smtp.getReceivedMessages().length;
+    }
+
+    // Also run by the shutdown hook (Ctrl-C), the service JVMs mustn't outlive the load test
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        // The gate first, the database last
+        List<Service> order = new ArrayList<>(List.of(Service.values()));
+        Collections.reverse(order);
+
+        for (Service service : order) {
+            Process process = processes.get(service);
+            if (process != null && process.isAlive()) {
+                process.destroy();
+            }
+        }
+        for (Process process : processes.values()) {
+            try {
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+
+        if (smtp != null) {
+            smtp.stop();
+        }
+        if (database != null) {
+            database.stop();
+        }
+    }
+
+    private void launch(Service service, Path logs) throws IOException {
+        List<String> command = new ArrayList<>(List.of(
+            Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+            "-Xmx" + options.heap,
+            "-Dloader.path=" + h2Jar(),
+            "-cp", jar(service).toString(),
+            LAUNCHER));
+
+        command.add("--server.port=" + ports.get(service));
+        command.add("--spring.main.banner-mode=off");
+        for (Service other : Service.values()) {
+            command.add("--address." + other.address + ".url=" + url(other));
+        }
+
+        if (service != Service.GATEWAY) {
+            command.add("--spring.datasource.url=" + databaseUrl);
+            command.add("--spring.datasource.driverClassName=org.h2.Driver");
+            command.add("--spring.datasource.username=sa");
+            command.add("--spring.datasource.password=");
+            command.add("--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect");
+        }
+
+        // Framework noise off (SQL, pool debug output), the modules' own logging stays as configured
+        command.add("--spring.jpa.show-sql=false");
+        command.add("--logging.level.org.springframework=WARN");
+        command.add("--logging.level.com.zaxxer.hikari=WARN");
+
+        switch (service) {
+            case SCHEDULER -> {
+                command.add("--spring.mail.host=127.0.0.1");
+                command.add("--spring.mail.port=" + smtp.getSmtp().getPort());
+                command.add("--spring.mail.properties.mail.smtp.auth=false");
+                command.add("--spring.mail.properties.mail.smtp.starttls.enable=false");
+            }
+            case STATISTICS -> {
+                command.add("--stats.archive.dir=" + options.out.resolve("work/shift-archive").toAbsolutePath());
+                command.add("--stats.reports.dir=" + options.out.resolve("work/reports").toAbsolutePath());
+            }
+            case GATEWAY -> command.add("--spring.main.web-application-type=" + options.gatewayRuntime);
+            default -> {
+            }
+        }
+
+        command.addAll(options.serviceProperties.getOrDefault(service, List.of()));
+
+        Path logFile = logs.resolve(service.key() + ".log");
+        Process process = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(logFile.toFile())
+            .start();
+
+        processes.put(service, process);
+        log.info(logHeader + "launch: Started {} (pid {}) on port {}, log in {}", service.key(), process.pid(), ports.get(service), logFile);
+    }
+
+    // Health of the modules, the gate answers its own /api/hello (its actuator is behind the token check)
+    private void awaitReady(Service... services) throws InterruptedException {
+        long deadline = System.nanoTime() + options.startupTimeout.toNanos();
+
+        for (Service service : services) {
+            URI probe = URI.create(url(service) + (service == Service.GATEWAY ? "/api/hello" : "/actuator/health"));
+
+            while (true) {
+                Process process = processes.get(service);
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(service.key() + " stopped during startup (exit code " + process.exitValue()
+                                                    + "), see " + options.out.resolve("logs/" + service.key() + ".log"));
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException(service.key() + " didn't answer within " + options.startupTimeout);
+                }
+
+                try {
+                    HttpResponse<Void> response = http.send(HttpRequest.newBuilder(probe).timeout(Duration.ofSeconds(2)).build(),
+                                                            HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == 200) {
+                        log.info(logHeader + "awaitReady: {} is up", service.key());
+                        break;
+                    }
+                } catch (IOException e) {
+                    // not listening yet
+                }
+                Thread.sleep(500);
+            }
+        }
+    }
+
+    private Path jar(Service service) {
+        return options.modules.resolve(service.module).resolve("target").resolve(service.module + "-1.0-SNAPSHOT.jar").toAbsolutePath();
+    }
+
+    // The driver this JVM serves the database with, target/lib/h2-*.jar
+    private static Path h2Jar() {
+        try {
+            return Path.of(org.h2.Driver.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (Exception e) {
+            throw new IllegalStateException("Can't locate the H2 jar", e);
+        }
+    }
+
+    // Free now, and not handed out before (the system may offer a port again once its probe socket is closed)
+    private int freePort() throws IOException {
+        while (true) {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                if (usedPorts.add(socket.getLocalPort())) {
+                    return socket.getLocalPort();
+                }
+            }
+        }
+    }
+}
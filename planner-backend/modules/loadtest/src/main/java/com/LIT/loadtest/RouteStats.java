@@ -0,0 +1,73 @@
+package com.LIT.loadtest;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/*
+ * Latencies (microseconds, 3 significant digits) & answers of one route, recorded by all virtual users at once.
+ * A call that got no answer at all (timeout, refused connection) counts as status 0.
+ */
+final class RouteStats {
+
+    final String name;
+    final String route;
+
+    private final Histogram latencies = new ConcurrentHistogram(3);
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    // The first failure, for the report (what went wrong is rarely different for the rest)
+    private final AtomicReference<String> firstError = new AtomicReference<>();
+
+    RouteStats(String name, String route) {
+        this.name = name;
+        this.route = route;
+    }
+
+    void record(long nanos, int status) {
+        latencies.recordValue(Math.max(1, nanos / 1000));
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    void failed(String error) {
+        firstError.compareAndSet(null, error);
+    }
+
+    String firstError() {
+        return firstError.get();
+    }
+
+    Histogram latencies() {
+        return latencies;
+    }
+
+    long count() {
+        return latencies.getTotalCount();
+    }
+
+    long errors() {
+        long errors = 0;
+        for (Map.Entry<Integer, LongAdder> status : statuses.entrySet()) {
+            if (status.getKey() < 200 || status.getKey() >= 300) {
+                errors += status.getValue().sum();
+            }
+        }
+        return errors;
+    }
+
+    Map<Integer, Long> statuses() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        statuses.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+
+    // Milliseconds at the given percentile
+    double percentile(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,118 @@
+package com.LIT.loadtest;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/*
+ * The requests of the mix, each one call through the logic gate as the frontend makes it:
+ *  - login: an employee logs in again (BCrypt check & new token)
+ *  - calendar: a week of the calendar, the employee's own shifts or the whole team's in turn
+ *  - propose: the employee asks to move one of their shifts (conflict check, proposal & change feed entry)
+ *  - accept: a supervisor accepts a waiting proposal with another employee (swap, change feed, notification emails)
+ */
+enum Scenario {
+
+    LOGIN("login", "POST /api/auth/login") {
+        @Override
+        GatewayClient.Response send(Call call) throws IOException, InterruptedException {
+            Map<String, String> body = Map.of("email", call.employee().email, "password", call.employee().password);
+            return call.client().post("/api/auth/login", null, body);
+        }
+
+        @Override
+        void succeeded(Call call, GatewayClient.Response response) throws IOException {
+            call.employee().token = response.json().path("token").asText();
+        }
+    },
+
+    CALENDAR("calendar", "GET /api/scheduler/shifts/range") {
+        @Override
+        GatewayClient.Response send(Call call) throws IOException, InterruptedException {
+            LocalDateTime from = call.data().calendarStart.plusWeeks(call.random().nextInt(4));
+            String path = "/api/scheduler/shifts/range?from=" + ISO.format(from) + "&to=" + ISO.format(from.plusWeeks(1));
+            if (call.random().nextBoolean()) {
+                path += "&ownerId=" + call.employee().id;
+            }
+            return call.client().get(path, call.employee().token);
+        }
+    },
+
+    PROPOSE("propose", "POST /api/scheduler/swap-proposals/request-change") {
+        @Override
+        GatewayClient.Response send(Call call) throws IOException, InterruptedException {
+            TestData.Employee employee = call.employee();
+            RandomGenerator random = call.random();
+
+            // A year after the seeded calendar nobody works yet, so the conflict check always lets it through
+            LocalDateTime start = call.data().calendarStart.plusYears(1).plusDays(random.nextInt(28)).plusHours(random.nextInt(16));
+
+            Map<String, Object> proposal = new LinkedHashMap<>();
+            proposal.put("employeeId", employee.id);
+            proposal.put("currentShiftId", employee.shiftIds.get(random.nextInt(employee.shiftIds.size())));
+            proposal.put("employeeRole", Seeder.ROLE);
+            proposal.put("proposedTitle", "Swap");
+            proposal.put("proposedStartTime", start);
+            proposal.put("proposedEndTime", start.plusHours(8));
+
+            return call.client().post("/api/scheduler/swap-proposals/request-change", employee.token, proposal);
+        }
+
+        @Override
+        void succeeded(Call call, GatewayClient.Response response) throws IOException {
+            call.data().openProposals.add(new TestData.OpenProposal(response.json().path("id").asLong(), call.employee().id));
+        }
+    },
+
+    // Needs a waiting proposal (Call.proposal), the driver proposes instead while there is none
+    ACCEPT("accept", "PUT /api/scheduler/swap-proposals/{id}/accept-change/{employee}") {
+        @Override
+        GatewayClient.Response send(Call call) throws IOException, InterruptedException {
+            TestData.OpenProposal proposal = call.proposal();
+
+            // Anyone but the requester, every employee keeps owning shifts since a swap only trades them
+            TestData.Employee swapEmployee;
+            do {
+                swapEmployee = call.data().employees.get(call.random().nextInt(call.data().employees.size()));
+            } while (swapEmployee.id == proposal.employeeId() && call.data().employees.size() > 1);
+
+            return call.client().put("/api/scheduler/swap-proposals/" + proposal.id() + "/accept-change/" + swapEmployee.id,
+                                     call.data().supervisorToken, null);
+        }
+    };
+
+    private static final DateTimeFormatter ISO = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    // Name in the mix, the thresholds & the result
+    final String key;
+
+    // What it calls, for the report
+    final String route;
+
+    Scenario(String key, String route) {
+        this.key = key;
+        this.route = route;
+    }
+
+    record Call(GatewayClient client, TestData data, TestData.Employee employee, TestData.OpenProposal proposal, RandomGenerator random) {
+    }
+
+    abstract GatewayClient.Response send(Call call) throws IOException, InterruptedException;
+
+    // After a 2xx answer
+    void succeeded(Call call, GatewayClient.Response response) throws IOException {
+    }
+
+    static Scenario of(String key) {
+        for (Scenario scenario : values()) {
+            if (scenario.key.equals(key.toLowerCase(Locale.ROOT))) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("Unknown scenario '" + key + "', expected one of login, calendar, propose, accept");
+    }
+}
@@ -0,0 +1,165 @@
+package com.LIT.loadtest;
+
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Seeds the started stack through the logic gate, like an administrator would:
+ *  - 'users' employees in the auth module (role Technician), each logged in once
+ *  - four weeks of shifts from this week's Monday: 'shiftsPerUser' per employee and 'backgroundShifts' of employees the
+ *    auth module doesn't know (volume for the calendar & the conflict index), imported with /shifts/bulk
+ *  - a first batch of swap proposals for the accept scenario
+ * The auth module creates its dummy users (admin@example.com, ...) on startup, the admin is the supervisor here.
+ */
+@Slf4j
+final class Seeder {
+
+    private final String logHeader = "[Seeder] - ";
+
+    static final String ROLE = "Technician";
+    static final String PASSWORD = "loadtest123";
+
+    private static final String SUPERVISOR_EMAIL = "admin@example.com";
+    private static final String SUPERVISOR_PASSWORD = "admin123";
+
+    private static final int DAYS = 28;
+    private static final int IMPORT_CHUNK = 1000;
+    private static final long BACKGROUND_OWNERS_FROM = 1_000_000L;
+    private static final String[] TITLES = {"Early", "Late", "Night"};
+
+    private static final DateTimeFormatter ISO = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private final GatewayClient client;
+    private final LoadTestOptions options;
+
+    Seeder(GatewayClient client, LoadTestOptions options) {
+        this.client = client;
+        this.options = options;
+    }
+
+    TestData seed() throws IOException, InterruptedException {
+        LocalDateTime monday = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+
+        String supervisorToken = login(SUPERVISOR_EMAIL, SUPERVISOR_PASSWORD);
+        long roleId = roleId(supervisorToken);
+
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < options.users; i++) {
+            Map<String, Object> user = new LinkedHashMap<>();
+            user.put("email", email(i));
+            user.put("username", "loadtest.user" + i);
+            user.put("password", PASSWORD);
+            user.put("roles", List.of(Map.of("id", roleId)));
+
+            userIds.add(expect(client.post("/api/auth/users", supervisorToken, user), "create user " + email(i)).path("id").asLong());
+        }
+        log.info(logHeader + "seed: Created {} employees", userIds.size());
+
+        importShifts(supervisorToken, shifts(userIds, monday));
+
+        List<TestData.Employee> employees = new ArrayList<>();
+        for (int i = 0; i < userIds.size(); i++) {
+            String token = login(email(i), PASSWORD);
+
+            List<Long> shiftIds = new ArrayList<>();
+            String range = "/api/scheduler/shifts/range?from=" + ISO.format(monday) + "&to=" + ISO.format(monday.plusDays(DAYS))
+                           + "&ownerId=" + userIds.get(i);
+            for (JsonNode shift : expect(client.get(range, token), "calendar of " + email(i))) {
+                shiftIds.add(shift.path("id").asLong());
+            }
+
+            employees.add(new TestData.Employee(userIds.get(i), email(i), PASSWORD, shiftIds, token));
+        }
+
+        TestData data = new TestData(supervisorToken, employees, monday);
+
+        // Enough waiting proposals that the first accepts don't fall back to proposing
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < Math.max(options.concurrency * 2, 20); i++) {
+            Scenario.Call call = new Scenario.Call(client, data, employees.get(i % employees.size()), null, random);
+            GatewayClient.Response response = Scenario.PROPOSE.send(call);
+            expect(response, "swap proposal");
+            Scenario.PROPOSE.succeeded(call, response);
+        }
+        log.info(logHeader + "seed: {} swap proposals waiting", data.openProposals.size());
+
+        return data;
+    }
+
+    // One shift a day per employee, Early / Late / Night by employee so that the rows never overlap
+    private List<Map<String, Object>> shifts(List<Long> userIds, LocalDateTime monday) {
+        List<Map<String, Object>> shifts = new ArrayList<>();
+
+        for (int i = 0; i < userIds.size(); i++) {
+            for (int day = 0; day < options.shiftsPerUser; day++) {
+                shifts.add(shift(userIds.get(i), "loadtest.user" + i, i % 3, monday.plusDays(day)));
+            }
+        }
+
+        for (int n = 0; n < options.backgroundShifts; n++) {
+            long owner = BACKGROUND_OWNERS_FROM + n / DAYS;
+            shifts.add(shift(owner, "employee" + owner, (int) (owner % 3), monday.plusDays(n % DAYS)));
+        }
+        return shifts;
+    }
+
+    private static Map<String, Object> shift(long ownerId, String ownerName, int slot, LocalDateTime day) {
+        LocalDateTime start = day.plusHours(6 + 8L * slot);
+
+        Map<String, Object> shift = new LinkedHashMap<>();
+        shift.put("title", TITLES[slot]);
+        shift.put("shiftOwnerId", ownerId);
+        shift.put("shiftOwnerName", ownerName);
+        shift.put("shiftOwnerRole", ROLE);
+        shift.put("startTime", start);
+        shift.put("endTime", start.plusHours(8));
+        return shift;
+    }
+
+    private void importShifts(String token, List<Map<String, Object>> shifts) throws IOException, InterruptedException {
+        for (int from = 0; from < shifts.size(); from += IMPORT_CHUNK) {
+            List<Map<String, Object>> chunk = shifts.subList(from, Math.min(from + IMPORT_CHUNK, shifts.size()));
+            expect(client.post("/api/scheduler/shifts/bulk", token, chunk), "shift import");
+        }
+        log.info(logHeader + "importShifts: Imported {} shifts", shifts.size());
+    }
+
+    private long roleId(String token) throws IOException, InterruptedException {
+        for (JsonNode role : expect(client.get("/api/auth/roles", token), "roles")) {
+            if (ROLE.equals(role.path("name").asText())) {
+                return role.path("id").asLong();
+            }
+        }
+        throw new IllegalStateException("The auth module has no role '" + ROLE + "'");
+    }
+
+    private String login(String email, String password) throws IOException, InterruptedException {
+        return expect(client.post("/api/auth/login", null, Map.of("email", email, "password", password)), "login of " + email)
+            .path("token").asText();
+    }
+
+    private static JsonNode expect(GatewayClient.Response response, String what) throws IOException {
+        if (!response.ok()) {
+            throw new IllegalStateException("Seeding failed, " + what + " answered " + response.status() + ": "
+                                            + new String(response.body()));
+        }
+        return response.json();
+    }
+
+    private static String email(int i) {
+        return "loadtest.user" + i + "@example.com";
+    }
+}
@@ -0,0 +1,39 @@
+package com.LIT.loadtest;
+
+import java.util.Locale;
+
+/*
+ * The four modules the load test starts, in start order: the statistics module reads the scheduler's tables at
+ * startup and the gate is only useful once the others answer
+ */
+enum Service {
+
+    AUTH("auth", "auth"),
+    SCHEDULER("scheduler", "scheduler"),
+    STATISTICS("statistics", "stats"),
+    GATEWAY("logicGate", "logicGate");
+
+    // Directory below modules/ (and name of the jar in its target/)
+    final String module;
+
+    // Key of the module's url under 'address.*' in every application.yml
+    final String address;
+
+    Service(String module, String address) {
+        this.module = module;
+        this.address = address;
+    }
+
+    String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    static Service of(String key) {
+        for (Service service : values()) {
+            if (service.key().equalsIgnoreCase(key) || service.module.equalsIgnoreCase(key)) {
+                return service;
+            }
+        }
+        throw new IllegalArgumentException("Unknown service '" + key + "', expected one of auth, scheduler, statistics, gateway");
+    }
+}
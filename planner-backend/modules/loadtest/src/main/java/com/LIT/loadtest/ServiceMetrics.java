@@ -0,0 +1,111 @@
+package com.LIT.loadtest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/*
+ * The services' own view of the run, from their /actuator/metrics: read before & after the measured run.
+ * Counters and timers (COUNT, TOTAL, TOTAL_TIME) are reported as what the run added, gauges (VALUE) and
+ * MAX as read at the end. Metrics a service doesn't have (e.g. no pool in the gate) are left out.
+ */
+final class ServiceMetrics {
+
+    private static final List<String> COMMON = List.of(
+        "http.server.requests", "process.cpu.usage", "jvm.memory.used", "jvm.gc.pause", "jvm.threads.live");
+
+    private static final List<String> DATABASE = List.of(
+        "hikaricp.connections.active", "hikaricp.connections.pending", "hikaricp.connections.acquire");
+
+    private static final Map<Service, List<String>> OWN = Map.of(
+        Service.AUTH, List.of("auth.password.hashing", "auth.password.hashing.wait", "auth.password.hashing.rejected"),
+        Service.SCHEDULER, List.of("scheduler.conflicts.checks", "scheduler.notifications.sent", "upstream.pool.pending"),
+        Service.STATISTICS, List.of(),
+        Service.GATEWAY, List.of("upstream.pool.leased", "upstream.pool.pending", "cache.gets"));
+
+    private static final Set<String> CUMULATIVE = Set.of("COUNT", "TOTAL", "TOTAL_TIME");
+
+    private final LocalStack stack;
+    private final String gatewayToken;
+
+    // Service -> metric -> statistic -> value
+    private Map<Service, Map<String, Map<String, Double>>> before;
+
+    ServiceMetrics(LocalStack stack, String gatewayToken) {
+        this.stack = stack;
+        this.gatewayToken = gatewayToken;
+    }
+
+    void before() throws InterruptedException {
+        before = read();
+    }
+
+    Map<String, Map<String, Map<String, Double>>> after() throws InterruptedException {
+        Map<Service, Map<String, Map<String, Double>>> after = read();
+        Map<String, Map<String, Map<String, Double>>> result = new LinkedHashMap<>();
+
+        after.forEach((service, metrics) -> {
+            Map<String, Map<String, Double>> serviceResult = new LinkedHashMap<>();
+
+            metrics.forEach((metric, statistics) -> {
+                Map<String, Double> earlier = before.getOrDefault(service, Map.of()).getOrDefault(metric, Map.of());
+                Map<String, Double> values = new LinkedHashMap<>();
+
+                statistics.forEach((statistic, value) ->
+                    values.put(statistic, CUMULATIVE.contains(statistic) ? value - earlier.getOrDefault(statistic, 0.0) : value));
+                serviceResult.put(metric, values);
+            });
+
+            result.put(service.key(), serviceResult);
+        });
+
+        return result;
+    }
+
+    private Map<Service, Map<String, Map<String, Double>>> read() throws InterruptedException {
+        Map<Service, Map<String, Map<String, Double>>> all = new EnumMap<>(Service.class);
+
+        for (Service service : Service.values()) {
+            // The gate checks tokens on every path, its actuator included
+            GatewayClient client = new GatewayClient(stack.url(service));
+            String token = service == Service.GATEWAY ? gatewayToken : null;
+
+            Map<String, Map<String, Double>> metrics = new LinkedHashMap<>();
+            for (String metric : names(service)) {
+                try {
+                    GatewayClient.Response response = client.get("/actuator/metrics/" + metric, token);
+                    if (!response.ok()) {
+                        continue;
+                    }
+
+                    Map<String, Double> statistics = new LinkedHashMap<>();
+                    for (JsonNode measurement : response.json().path("measurements")) {
+                        statistics.put(measurement.path("statistic").asText(), measurement.path("value").asDouble());
+                    }
+                    metrics.put(metric, statistics);
+
+                } catch (IOException e) {
+                    // service gone, nothing to report for it
+                }
+            }
+            all.put(service, metrics);
+        }
+
+        return all;
+    }
+
+    private static List<String> names(Service service) {
+        List<String> names = new ArrayList<>(COMMON);
+        if (service != Service.GATEWAY) {
+            names.addAll(DATABASE);
+        }
+        names.addAll(OWN.get(service));
+        return names;
+    }
+}
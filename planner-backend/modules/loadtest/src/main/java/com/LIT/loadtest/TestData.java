@@ -0,0 +1,47 @@
+package com.LIT.loadtest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/*
+ * What the seeding left behind for the scenarios: employees that can log in (with their shifts), a supervisor
+ * token for accepting swaps, and the swap proposals still waiting for a decision
+ */
+final class TestData {
+
+    static final class Employee {
+        final long id;
+        final String email;
+        final String password;
+        final List<Long> shiftIds;
+
+        // Replaced by every successful login of the employee
+        volatile String token;
+
+        Employee(long id, String email, String password, List<Long> shiftIds, String token) {
+            this.id = id;
+            this.email = email;
+            this.password = password;
+            this.shiftIds = shiftIds;
+            this.token = token;
+        }
+    }
+
+    record OpenProposal(long id, long employeeId) {
+    }
+
+    final String supervisorToken;
+    final List<Employee> employees;
+
+    // Monday of the seeded calendar, four weeks from there
+    final LocalDateTime calendarStart;
+
+    final ConcurrentLinkedQueue<OpenProposal> openProposals = new ConcurrentLinkedQueue<>();
+
+    TestData(String supervisorToken, List<Employee> employees, LocalDateTime calendarStart) {
+        this.supervisorToken = supervisorToken;
+        this.employees = employees;
+        this.calendarStart = calendarStart;
+    }
+}
@@ -0,0 +1,133 @@
+package com.LIT.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/*
+ * Limits a run has to stay within, from a properties file (see default-thresholds.properties):
+ *  - <route>.<p50|p90|p95|p99|max>: latency in ms, <route>.error-rate: failed share in percent, '*' for every route
+ *  - regression.<p50|p90|p95|p99|max|throughput>: how much worse than --baseline a route may get, in percent
+ *  - metric.<service>.<metric>.<STATISTIC>: upper limit of a service metric as the result reports it
+ */
+final class Thresholds {
+
+    static final List<String> LATENCIES = List.of("p50", "p90", "p95", "p99", "max");
+
+    private static final String ALL_ROUTES = "*";
+
+    private final Properties limits = new Properties();
+
+    static Thresholds load(Path file) throws IOException {
+        Thresholds thresholds = new Thresholds();
+
+        if (file == null) {
+            try (InputStream defaults = Thresholds.class.getResourceAsStream("/default-thresholds.properties")) {
+                thresholds.limits.load(defaults);
+            }
+        } else {
+            try (Reader reader = Files.newBufferedReader(file)) {
+                thresholds.limits.load(reader);
+            }
+        }
+        return thresholds;
+    }
+
+    // Everything the result breaks, empty if the run passed
+    List<String> check(JsonNode result, JsonNode baseline) {
+        List<String> violations = new ArrayList<>();
+
+        for (Map.Entry<String, JsonNode> route : result.path("routes").properties()) {
+            String name = route.getKey();
+            JsonNode current = route.getValue();
+
+            for (String latency : LATENCIES) {
+                Double limit = limit(name, latency);
+                if (limit != null && current.path(latency).asDouble() > limit) {
+                    violations.add(String.format(Locale.ROOT, "%s %s: %.1f ms, limit %.1f ms", name, latency,
+                                                 current.path(latency).asDouble(), limit));
+                }
+            }
+
+            Double errorLimit = limit(name, "error-rate");
+            if (errorLimit != null && current.path("errorRate").asDouble() > errorLimit) {
+                violations.add(String.format(Locale.ROOT, "%s error rate: %.2f%%, limit %.2f%%", name,
+                                             current.path("errorRate").asDouble(), errorLimit));
+            }
+
+            if (baseline != null && baseline.path("routes").has(name)) {
+                regressions(name, current, baseline.path("routes").path(name), violations);
+            }
+        }
+
+        for (String key : limits.stringPropertyNames()) {
+            if (key.startsWith("metric.")) {
+                metric(key, result.path("services"), violations);
+            }
+        }
+
+        return violations;
+    }
+
+    private void regressions(String name, JsonNode current, JsonNode before, List<String> violations) {
+        for (String latency : LATENCIES) {
+            Double allowed = number("regression." + latency);
+            double then = before.path(latency).asDouble();
+            double now = current.path(latency).asDouble();
+
+            if (allowed != null && then > 0 && (now - then) / then * 100 > allowed) {
+                violations.add(String.format(Locale.ROOT, "%s %s: %.1f ms, %+.1f%% against the baseline's %.1f ms (at most +%.0f%%)",
+                                             name, latency, now, (now - then) / then * 100, then, allowed));
+            }
+        }
+
+        Double allowed = number("regression.throughput");
+        double then = before.path("throughput").asDouble();
+        double now = current.path("throughput").asDouble();
+
+        if (allowed != null && then > 0 && (then - now) / then * 100 > allowed) {
+            violations.add(String.format(Locale.ROOT, "%s throughput: %.1f/s, %.1f%% below the baseline's %.1f/s (at most %.0f%%)",
+                                         name, now, (then - now) / then * 100, then, allowed));
+        }
+    }
+
+    // metric.<service>.<metric name with dots>.<STATISTIC>
+    private void metric(String key, JsonNode services, List<String> violations) {
+        String rest = key.substring("metric.".length());
+        int firstDot = rest.indexOf('.');
+        int lastDot = rest.lastIndexOf('.');
+        if (firstDot < 0 || lastDot <= firstDot) {
+            throw new IllegalArgumentException("Metric limits look like 'metric.scheduler.hikaricp.connections.pending.VALUE', not '" + key + "'");
+        }
+
+        String service = rest.substring(0, firstDot);
+        String metric = rest.substring(firstDot + 1, lastDot);
+        String statistic = rest.substring(lastDot + 1);
+
+        JsonNode value = services.path(service).path(metric).path(statistic);
+        double limit = number(key);
+
+        if (value.isNumber() && value.asDouble() > limit) {
+            violations.add(String.format(Locale.ROOT, "%s %s %s: %.3f, limit %.3f", service, metric, statistic, value.asDouble(), limit));
+        }
+    }
+
+    private Double limit(String route, String what) {
+        Double own = number(route + "." + what);
+        return own != null ? own : number(ALL_ROUTES + "." + what);
+    }
+
+    private Double number(String key) {
+        String value = limits.getProperty(key);
+        return value == null || value.isBlank() ? null : Double.valueOf(value.trim());
+    }
+}
@@ -2,8 +2,11 @@ package com.LIT.logicGate;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// Plus the shared virtual thread pinning monitor (modules/common)
+@SpringBootApplication(scanBasePackages = {"com.LIT.logicGate", "com.LIT.common.config"})
+@EnableScheduling
 public class LogicGate {
     public static void main(String[] args) {
         SpringApplication.run(LogicGate.class, args);
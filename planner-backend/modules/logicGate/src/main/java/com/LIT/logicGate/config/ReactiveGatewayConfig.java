@@ -0,0 +1,84 @@
+package com.LIT.logicGate.config;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsConfigurationSource;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+
+import com.LIT.logicGate.utilities.AccessLog;
+import com.LIT.logicGate.utilities.GateRoutes;
+import com.LIT.logicGate.utilities.JwtTokenUtil;
+import com.LIT.logicGate.utilities.ReactiveAccessLogFilter;
+import com.LIT.logicGate.utilities.ReactiveJwtAuthenticationFilter;
+import com.LIT.logicGate.utilities.RevokedTokens;
+import com.LIT.logicGate.utilities.ReactiveUpstreamClients;
+import com.LIT.logicGate.utilities.UpstreamPool.UpstreamPoolSettings;
+
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Reactive runtime of the gate (spring.main.web-application-type=reactive / LOGIC_GATE_RUNTIME=reactive).
+ * Mirrors SecurityConfig & RestTemplateConfig on Netty: same token checks, same CORS rules, no sessions.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+@EnableWebFluxSecurity
+public class ReactiveGatewayConfig {
+
+    // Tomcat is on the classpath for the servlet runtime and would otherwise be picked as the reactive server too
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, JwtTokenUtil jwtTokenUtil, RevokedTokens revokedTokens) {
+
+        log.info("Reactive security filter chain set up");
+
+        http.csrf(ServerHttpSecurity.CsrfSpec::disable)
+            .cors(cors -> cors.configurationSource(reactiveCorsConfigurationSource()))
+            .addFilterAt(new ReactiveJwtAuthenticationFilter(jwtTokenUtil, revokedTokens), SecurityWebFiltersOrder.AUTHENTICATION)
+            .authorizeExchange(exchanges -> exchanges
+                .anyExchange().permitAll()
+            )
+            .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+            .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+            .securityContextRepository(NoOpServerSecurityContextRepository.getInstance());         // Stateless
+
+        return http.build();
+    }
+
+    @Bean
+    public CorsConfigurationSource reactiveCorsConfigurationSource() {
+        CorsConfiguration configuration = new CorsConfiguration();
+        configuration.setAllowedOrigins(List.of("*"));
+        configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedHeaders(List.of("*"));
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", configuration);
+        return source;
+    }
+
+    // Picked up as a plain WebFilter, ordered ahead of the security chain
+    @Bean
+    public ReactiveAccessLogFilter reactiveAccessLogFilter(AccessLog accessLog) {
+        return new ReactiveAccessLogFilter(accessLog);
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReactiveUpstreamClients reactiveUpstreamClients(UpstreamPoolSettings settings) {
+        return new ReactiveUpstreamClients(GateRoutes.MODULES, settings);
+    }
+}
@@ -1,17 +1,48 @@
 package com.LIT.logicGate.config;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
-import org.springframework.web.client.RestTemplate;
+
+import com.LIT.logicGate.utilities.GateRoutes;
+import com.LIT.logicGate.utilities.UpstreamClients;
+import com.LIT.logicGate.utilities.UpstreamPool.UpstreamPoolSettings;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 public class RestTemplateConfig {
+
+    @Value("${upstream.http.connect-timeout:2s}")
+    private Duration connectTimeout;
+
+    @Value("${upstream.http.read-timeout:30s}")
+    private Duration readTimeout;
+
+    @Value("${upstream.http.pool-acquire-timeout:5s}")
+    private Duration poolAcquireTimeout;
+
+    @Value("${upstream.http.idle-eviction:30s}")
+    private Duration idleEviction;
+
+    @Value("${upstream.http.keep-alive:60s}")
+    private Duration keepAlive;
+
+    @Value("${upstream.http.max-connections:200}")
+    private int maxConnections;
+
+    // Shared by both runtimes, the reactive gate builds its own Netty pools from the same settings
     @Bean
-    public RestTemplate restTemplate() {
-        RestTemplate restTemplate = new RestTemplate();
-        restTemplate.getMessageConverters().add(new MappingJackson2HttpMessageConverter());
+    public UpstreamPoolSettings upstreamPoolSettings() {
+        return new UpstreamPoolSettings(connectTimeout, readTimeout, poolAcquireTimeout, idleEviction, keepAlive, maxConnections);
+    }
 
-        return restTemplate;
+    @Bean(destroyMethod = "close")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public UpstreamClients upstreamClients(UpstreamPoolSettings settings, MeterRegistry meterRegistry) {
+        return new UpstreamClients(GateRoutes.MODULES, settings, meterRegistry);
     }
 }
@@ -3,6 +3,7 @@ package com.LIT.logicGate.config;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -23,6 +24,7 @@ import com.LIT.logicGate.utilities.JwtAuthenticationFilter;
 import lombok.extern.slf4j.Slf4j;
 
 @Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Slf4j
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
@@ -1,36 +1,50 @@
 package com.LIT.logicGate.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
 import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.ContentCachingRequestWrapper;
+import org.springframework.web.client.RestClientException;
+
+import com.LIT.logicGate.utilities.AccessLog;
+import com.LIT.logicGate.utilities.AccessRecord;
+import com.LIT.logicGate.utilities.GateRoutes;
+import com.LIT.logicGate.utilities.UpstreamClients;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 
 
 @RestController
 @RequestMapping("/api")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Slf4j
 public class LogicGateController {
 
     private final String logHeader = "[LogicGateController] - ";
 
+    // Host, Content-Length & Expect belong to the client's connection and are recomputed for the upstream one
+    private static final Set<String> RECOMPUTED_REQUEST_HEADERS = Set.of("host", "content-length", "expect");
+
     /*
      * Addresses
      */
-    private RestTemplate restTemplate;
+    private UpstreamClients upstreamClients;
 
     @Value("${address.auth.url}")
     private String authUrl;
@@ -42,129 +56,196 @@ public class LogicGateController {
     private String statsUrl;
 
     @Autowired
-    public LogicGateController(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    public LogicGateController(UpstreamClients upstreamClients) {
+        this.upstreamClients = upstreamClients;
     }
 
 
     @GetMapping("/hello")
     public String hello() {
-        log.info(logHeader + "hello: Hello from logicGate module!");
+        log.debug(logHeader + "hello: Hello from logicGate module!");
         return "Hello from logicGate module!";
     }
 
     @GetMapping("/test")
     public String test() {
-        log.info(logHeader + "test: Test from logicGate module! JWT is working!");
+        log.debug(logHeader + "test: Test from logicGate module! JWT is working!");
         return "Test from logicGate module! JWT is working!";
     }
-    
+
     /*
      * Forward endpoints
      */
     @RequestMapping("/auth/**")
-    public ResponseEntity<?> forwardToAuth(HttpServletRequest request, @RequestBody(required = false) String requestBody) {
-        log.info(logHeader + "Forwarding request to auth: " + request.getRequestURI());
-        
-        if(requestBody != null){
-            log.info(logHeader + "Forwarding request to Auth with the following body: " + requestBody);    
-        }
-
-        String targetUrl = authUrl + request.getRequestURI();
-        log.info(logHeader + "Target url: " + targetUrl);
-
-        return forwardGate(request, targetUrl, requestBody, "Auth");
-
+    public void forwardToAuth(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        forwardGate(request, response, buildTargetUrl(authUrl, request), "Auth");
     }
 
     @RequestMapping("/scheduler/**")
-    public ResponseEntity<?> forwardToScheduler(HttpServletRequest request, @RequestBody(required = false) String requestBody) {
-        log.info(logHeader + "Forwarding request to scheduler: " + request.getRequestURI());
-
-        String targetUrl = schedulerUrl + request.getRequestURI();
-        
-        log.info(logHeader + "Target url: " + targetUrl);
-        return forwardGate(request, targetUrl, requestBody, "Scheduler");
-
+    public void forwardToScheduler(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        forwardGate(request, response, buildTargetUrl(schedulerUrl, request), "Scheduler");
     }
 
     @RequestMapping("/stats/**")
-    public ResponseEntity<?> forwardToStats(HttpServletRequest request, @RequestBody(required = false) String requestBody) {
-
-        log.info(logHeader + "Forwarding request to statistics: " + request.getRequestURI());
-        String targetUrl = statsUrl + request.getRequestURI();
-
-        log.info(logHeader + "Target url: " + targetUrl);
-        return forwardGate(request, targetUrl, requestBody, "Statistics");
-
+    public void forwardToStats(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        forwardGate(request, response, buildTargetUrl(statsUrl, request), "Statistics");
     }
 
-    
-    public ResponseEntity<?> forwardGate(HttpServletRequest request, String targetUrl, String requestBody, String destinationModule){
-        log.info(logHeader + "Forwarding request to " + destinationModule + "\nTarget url: " + targetUrl + "\nWith the body: " + requestBody);
-
-        ContentCachingRequestWrapper requestWrap = new ContentCachingRequestWrapper(request);
-        
-        log.info(logHeader + "Request is authenticated, proceeding with request. " + requestWrap.getMethod() + " " + requestWrap.getRequestURI() + " " + requestWrap.getAttributeNames() + " " + requestWrap.getAttribute("userEmail") + " " + requestWrap.getAttribute("role"));
+    /*
+     * Streams the request to the destination module and the answer back to the client.
+     * Bodies are piped in chunks between the servlet streams and the upstream connection, they are never held whole in memory.
+     * Upstream status codes & headers are passed through as they are.
+     */
+    public void forwardGate(HttpServletRequest request, HttpServletResponse response, String targetUrl, String destinationModule) throws IOException {
+        log.debug(logHeader + "Forwarding '{}' request to {}, target url: {}", request.getMethod(), destinationModule, targetUrl);
 
-        HttpHeaders headers = getHeaders(requestWrap);
+        // Filled in for the access log (see AccessLogFilter)
+        AccessRecord record = (AccessRecord) request.getAttribute(AccessLog.ATTRIBUTE);
+        if(record != null){
+            record.setModule(destinationModule);
+        }
 
-        log.info(logHeader + "Request is being sent to: '" + targetUrl + "'\nProtocol: " + request.getMethod() + "\nHeaders: " + headers + "\nBody: " + requestBody + "\n");
-        
+        HttpHeaders headers = getHeaders(request);
 
         // Add the role as attribute for the request -> turn into header
-        String role = (String) requestWrap.getAttribute("role");
-        String userName = (String) requestWrap.getAttribute("userName");
-        Long userId = (Long) requestWrap.getAttribute("userId");
-        String permissions = (String) requestWrap.getAttribute("permissions");
-        
+        String role = (String) request.getAttribute("role");
+        String userName = (String) request.getAttribute("userName");
+        Long userId = (Long) request.getAttribute("userId");
+        String permissions = (String) request.getAttribute("permissions");
+
         if(role != null){
-            headers.set("X-User-Role", role);
+            headers.set(GateRoutes.ROLE_HEADER, role);
         }
 
         if(userName != null){
-            headers.set("X-User-Name", userName);
+            headers.set(GateRoutes.NAME_HEADER, userName);
         }
 
         if(userId != null){
-            headers.set("X-User-Id", userId.toString());
+            headers.set(GateRoutes.ID_HEADER, userId.toString());
         }
 
         if(permissions != null){
-            headers.set("X-User-Permissions", permissions);
+            headers.set(GateRoutes.PERMISSIONS_HEADER, permissions);
         }
-        
-        // Form entity to send for the request
-        HttpEntity<?> httpEntity = new HttpEntity<>(requestBody, headers);
+
+        log.debug(logHeader + "Upstream request headers: {}", headers);
+
+        boolean hasBody = hasBody(request);
+        long upstreamStart = System.nanoTime();
 
         // Forward the request
         try {
-
-            ResponseEntity<String> response = restTemplate.exchange(
-                targetUrl,
+            upstreamClients.forModule(destinationModule).execute(
+                URI.create(targetUrl),
                 HttpMethod.valueOf(request.getMethod()),
-                httpEntity,
-                String.class
+                upstreamRequest -> {
+                    upstreamRequest.getHeaders().putAll(headers);
+
+                    if(!hasBody){
+                        return;
+                    }
+
+                    InputStream requestBody = request.getInputStream();
+
+                    if(upstreamRequest instanceof StreamingHttpOutputMessage streamingRequest){
+                        streamingRequest.setBody(upstreamBody -> countBytesIn(record, requestBody.transferTo(upstreamBody)));
+
+                    } else {
+                        countBytesIn(record, requestBody.transferTo(upstreamRequest.getBody()));
+                    }
+                },
+                upstreamResponse -> {
+                    if(record != null){
+                        record.setUpstreamNanos(System.nanoTime() - upstreamStart);
+                    }
+
+                    response.setStatus(upstreamResponse.getStatusCode().value());
+                    copyResponseHeaders(upstreamResponse.getHeaders(), response);
+
+                    long bytesOut = upstreamResponse.getBody().transferTo(response.getOutputStream());
+
+                    if(record != null){
+                        record.addBytesOut(bytesOut);
+                    }
+
+                    log.debug(logHeader + "Response from '{}': {} ({} bytes)", destinationModule, upstreamResponse.getStatusCode(), bytesOut);
+                    return null;
+                }
             );
 
-            log.info(logHeader + "Response from '" + destinationModule + "': " + response.getBody());
-    
-            return new ResponseEntity<>(response.getBody(), response.getStatusCode());
-            
-        } catch (Exception e) {
-            log.error(logHeader + "An error occurred while forwarding the request: " + e.getMessage());
-            return ResponseEntity.status(500).body("An error occurred while forwarding the request.");
+        } catch (RestClientException e) {
+            log.error(logHeader + "An error occurred while forwarding the request to {}: {}", destinationModule, e.getMessage());
 
+            // Once the upstream answer started flowing the status is already on the wire, nothing left to report
+            if(!response.isCommitted()){
+                response.reset();
+                response.setStatus(500);
+                response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+                response.getWriter().write("An error occurred while forwarding the request.");
+            }
         }
     }
 
     public HttpHeaders getHeaders(HttpServletRequest request) {
         HttpHeaders headers = new HttpHeaders();
 
-        Collections.list(request.getHeaderNames())
-            .forEach(headerName -> headers.add(headerName, request.getHeader(headerName)));
-        headers.setContentType(MediaType.APPLICATION_JSON);
+        Collections.list(request.getHeaderNames()).forEach(headerName -> {
+            if(GateRoutes.isHopByHop(headerName) || RECOMPUTED_REQUEST_HEADERS.contains(headerName.toLowerCase()) || GateRoutes.isClientIdentityHeader(headerName)){
+                return;
+            }
+
+            headers.addAll(headerName, Collections.list(request.getHeaders(headerName)));
+        });
+
+        if(request.getContentLengthLong() >= 0){
+            headers.setContentLength(request.getContentLengthLong());
+        }
+
+        if(headers.getContentType() == null){
+            headers.setContentType(MediaType.APPLICATION_JSON);
+        }
 
         return headers;
     }
-}
\ No newline at end of file
+
+    private void copyResponseHeaders(HttpHeaders upstreamHeaders, HttpServletResponse response) {
+        for(Map.Entry<String, List<String>> header : upstreamHeaders.entrySet()){
+            if(GateRoutes.isHopByHop(header.getKey())){
+                continue;
+            }
+
+            // setHeader first so the upstream value replaces anything the gate's own filters put there
+            boolean first = true;
+            for(String value : header.getValue()){
+                if(first){
+                    response.setHeader(header.getKey(), value);
+                    first = false;
+
+                } else {
+                    response.addHeader(header.getKey(), value);
+                }
+            }
+        }
+    }
+
+    private String buildTargetUrl(String moduleUrl, HttpServletRequest request) {
+        String queryString = request.getQueryString();
+
+        if(queryString == null){
+            return moduleUrl + request.getRequestURI();
+        }
+
+        return moduleUrl + request.getRequestURI() + "?" + queryString;
+    }
+
+    private void countBytesIn(AccessRecord record, long bytes) {
+        if(record != null){
+            record.addBytesIn(bytes);
+        }
+    }
+
+    private boolean hasBody(HttpServletRequest request) {
+        return request.getContentLengthLong() > 0 || request.getHeader(HttpHeaders.TRANSFER_ENCODING) != null;
+    }
+}
@@ -0,0 +1,217 @@
+package com.LIT.logicGate.controller;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.LIT.logicGate.utilities.AccessLog;
+import com.LIT.logicGate.utilities.AccessRecord;
+import com.LIT.logicGate.utilities.GateRoutes;
+import com.LIT.logicGate.utilities.ReactiveUpstreamClients;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/*
+ * Event-loop version of LogicGateController, same routes & forwarding rules.
+ * Bodies flow as DataBuffer streams in both directions: Netty only reads more from one side once the other side accepted
+ * what it already got, so a slow client or module throttles the transfer instead of filling the gate's memory.
+ */
+@RestController
+@RequestMapping("/api")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+public class ReactiveLogicGateController {
+
+    private final String logHeader = "[ReactiveLogicGateController] - ";
+
+    // Host & Expect belong to the client's connection. Content-Length is kept: the body is relayed byte for byte
+    private static final Set<String> CONNECTION_REQUEST_HEADERS = Set.of("host", "expect");
+
+    private final ReactiveUpstreamClients upstreamClients;
+
+    @Value("${address.auth.url}")
+    private String authUrl;
+
+    @Value("${address.scheduler.url}")
+    private String schedulerUrl;
+
+    @Value("${address.stats.url}")
+    private String statsUrl;
+
+    @Autowired
+    public ReactiveLogicGateController(ReactiveUpstreamClients upstreamClients) {
+        this.upstreamClients = upstreamClients;
+    }
+
+
+    @GetMapping("/hello")
+    public String hello() {
+        log.debug(logHeader + "hello: Hello from logicGate module!");
+        return "Hello from logicGate module!";
+    }
+
+    @GetMapping("/test")
+    public String test() {
+        log.debug(logHeader + "test: Test from logicGate module! JWT is working!");
+        return "Test from logicGate module! JWT is working!";
+    }
+
+    /*
+     * Forward endpoints
+     */
+    @RequestMapping("/auth/**")
+    public Mono<Void> forwardToAuth(ServerWebExchange exchange) {
+        return forwardGate(exchange, authUrl, "Auth");
+    }
+
+    @RequestMapping("/scheduler/**")
+    public Mono<Void> forwardToScheduler(ServerWebExchange exchange) {
+        return forwardGate(exchange, schedulerUrl, "Scheduler");
+    }
+
+    @RequestMapping("/stats/**")
+    public Mono<Void> forwardToStats(ServerWebExchange exchange) {
+        return forwardGate(exchange, statsUrl, "Statistics");
+    }
+
+    public Mono<Void> forwardGate(ServerWebExchange exchange, String moduleUrl, String destinationModule) {
+        ServerHttpRequest request = exchange.getRequest();
+        ServerHttpResponse response = exchange.getResponse();
+
+        URI targetUri = buildTargetUri(moduleUrl, request);
+        log.debug(logHeader + "Forwarding '{}' request to {}, target url: {}", request.getMethod(), destinationModule, targetUri);
+
+        // Filled in for the access log (see ReactiveAccessLogFilter)
+        AccessRecord record = exchange.getAttribute(AccessLog.ATTRIBUTE);
+        if(record != null){
+            record.setModule(destinationModule);
+        }
+
+        WebClient.RequestBodySpec upstreamRequest = upstreamClients.forModule(destinationModule)
+            .method(request.getMethod())
+            .uri(targetUri)
+            .headers(headers -> copyRequestHeaders(exchange, headers));
+
+        WebClient.RequestHeadersSpec<?> withBody = hasBody(request)
+            ? upstreamRequest.body(BodyInserters.fromDataBuffers(request.getBody().doOnNext(buffer -> {
+                if(record != null){
+                    record.addBytesIn(buffer.readableByteCount());
+                }
+            })))
+            : upstreamRequest;
+
+        long upstreamStart = System.nanoTime();
+
+        return withBody.exchangeToMono(upstreamResponse -> {
+                if(record != null){
+                    record.setUpstreamNanos(System.nanoTime() - upstreamStart);
+                }
+
+                response.setStatusCode(upstreamResponse.statusCode());
+                copyResponseHeaders(upstreamResponse.headers().asHttpHeaders(), response.getHeaders());
+
+                log.debug(logHeader + "Response from '{}': {}", destinationModule, upstreamResponse.statusCode());
+
+                return response.writeWith(upstreamResponse.bodyToFlux(DataBuffer.class).doOnNext(buffer -> {
+                    if(record != null){
+                        record.addBytesOut(buffer.readableByteCount());
+                    }
+                }));
+            })
+            .onErrorResume(e -> {
+                log.error(logHeader + "An error occurred while forwarding the request to {}: {}", destinationModule, e.getMessage());
+
+                // Once the upstream answer started flowing the status is already on the wire, nothing left to report
+                if(response.isCommitted()){
+                    return Mono.error(e);
+                }
+
+                response.getHeaders().clear();
+                response.setStatusCode(HttpStatus.INTERNAL_SERVER_ERROR);
+                response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+
+                DataBuffer body = response.bufferFactory().wrap("An error occurred while forwarding the request.".getBytes(StandardCharsets.UTF_8));
+                return response.writeWith(Mono.just(body));
+            });
+    }
+
+    private void copyRequestHeaders(ServerWebExchange exchange, HttpHeaders headers) {
+        exchange.getRequest().getHeaders().forEach((headerName, values) -> {
+            if(GateRoutes.isHopByHop(headerName) || CONNECTION_REQUEST_HEADERS.contains(headerName.toLowerCase()) || GateRoutes.isClientIdentityHeader(headerName)){
+                return;
+            }
+
+            headers.addAll(headerName, values);
+        });
+
+        if(headers.getContentType() == null){
+            headers.setContentType(MediaType.APPLICATION_JSON);
+        }
+
+        // Identity from the verified token (see ReactiveJwtAuthenticationFilter)
+        String role = exchange.getAttribute("role");
+        String userName = exchange.getAttribute("userName");
+        Long userId = exchange.getAttribute("userId");
+        String permissions = exchange.getAttribute("permissions");
+
+        if(role != null){
+            headers.set(GateRoutes.ROLE_HEADER, role);
+        }
+
+        if(userName != null){
+            headers.set(GateRoutes.NAME_HEADER, userName);
+        }
+
+        if(userId != null){
+            headers.set(GateRoutes.ID_HEADER, userId.toString());
+        }
+
+        if(permissions != null){
+            headers.set(GateRoutes.PERMISSIONS_HEADER, permissions);
+        }
+    }
+
+    private void copyResponseHeaders(HttpHeaders upstreamHeaders, HttpHeaders responseHeaders) {
+        for(Map.Entry<String, List<String>> header : upstreamHeaders.entrySet()){
+            if(GateRoutes.isHopByHop(header.getKey())){
+                continue;
+            }
+
+            // put replaces anything the gate's own filters set under the same name
+            responseHeaders.put(header.getKey(), header.getValue());
+        }
+    }
+
+    private URI buildTargetUri(String moduleUrl, ServerHttpRequest request) {
+        String rawQuery = request.getURI().getRawQuery();
+
+        if(rawQuery == null){
+            return URI.create(moduleUrl + request.getURI().getRawPath());
+        }
+
+        return URI.create(moduleUrl + request.getURI().getRawPath() + "?" + rawQuery);
+    }
+
+    private boolean hasBody(ServerHttpRequest request) {
+        return request.getHeaders().getContentLength() > 0 || request.getHeaders().containsKey(HttpHeaders.TRANSFER_ENCODING);
+    }
+}
@@ -0,0 +1,49 @@
+package com.LIT.logicGate.utilities;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/*
+ * Outermost filter of the servlet gate: opens the access record before security runs (so rejected requests are logged too)
+ * and writes it once the response is complete.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private final AccessLog accessLog;
+
+    @Autowired
+    public AccessLogFilter(AccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        AccessRecord record = accessLog.start(request.getMethod(), request.getRequestURI());
+        request.setAttribute(AccessLog.ATTRIBUTE, record);
+
+        try {
+            chain.doFilter(request, response);
+
+        } finally {
+            record.setStatus(response.getStatus());
+            record.setUserId((Long) request.getAttribute("userId"));
+            accessLog.write(record);
+        }
+    }
+}
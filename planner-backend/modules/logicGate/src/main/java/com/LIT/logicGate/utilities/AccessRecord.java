@@ -0,0 +1,47 @@
+package com.LIT.logicGate.utilities;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/*
+ * What the access log writes for one request. Created by the access log filter, filled in along the way
+ * (filter: identity, controller: module, upstream latency & bytes) and written once the response is done.
+ * Plain fields, no strings built until the record is written.
+ */
+@Getter
+@Setter
+public class AccessRecord {
+
+    private final String method;
+
+    private final String path;
+
+    private final long startNanos;
+
+    private String module;
+
+    private int status;
+
+    // Time until the module's response headers arrived, -1 if the request never reached a module
+    private long upstreamNanos = -1;
+
+    private long bytesIn;
+
+    private long bytesOut;
+
+    private Long userId;
+
+    public AccessRecord(String method, String path, long startNanos) {
+        this.method = method;
+        this.path = path;
+        this.startNanos = startNanos;
+    }
+
+    public void addBytesIn(long bytes) {
+        bytesIn += bytes;
+    }
+
+    public void addBytesOut(long bytes) {
+        bytesOut += bytes;
+    }
+}
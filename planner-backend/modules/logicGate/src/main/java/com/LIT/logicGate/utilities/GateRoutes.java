@@ -0,0 +1,58 @@
+package com.LIT.logicGate.utilities;
+
+import java.util.List;
+import java.util.Set;
+
+/*
+ * Routing & header rules shared by both runtimes of the gate (servlet & reactive)
+ */
+public final class GateRoutes {
+
+    // Destination modules, each gets its own upstream pool
+    public static final List<String> MODULES = List.of("Auth", "Scheduler", "Statistics");
+
+    /*
+     * Hop-by-hop headers (RFC 9110 7.6.1) only make sense on a single connection, so they're never relayed.
+     */
+    public static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+        "connection", "keep-alive", "proxy-authenticate", "proxy-authorization",
+        "te", "trailer", "trailers", "transfer-encoding", "upgrade"
+    );
+
+    // Identity headers are derived from the verified token only, never from what the client sent
+    public static final String IDENTITY_HEADER_PREFIX = "x-user-";
+
+    public static final String ROLE_HEADER = "X-User-Role";
+    public static final String NAME_HEADER = "X-User-Name";
+    public static final String ID_HEADER = "X-User-Id";
+    public static final String PERMISSIONS_HEADER = "X-User-Permissions";
+
+    // Auth's refresh & logout (they carry a refresh token instead) and its public keys, matched exactly
+    public static final Set<String> TOKEN_OPTIONAL_ENDPOINTS = Set.of("/api/auth/refresh", "/api/auth/logout");
+    public static final String JWKS_ENDPOINT = "/api/auth/.well-known/jwks.json";
+
+    private GateRoutes() {
+    }
+
+    // Login / registration endpoints, auth's refresh & logout and its public keys are the only ones reachable without a token
+    public static boolean isOpenEndpoint(String uri) {
+        return uri.endsWith("/login") || uri.endsWith("/register") || uri.endsWith("/newcommer") || uri.endsWith("/hello")
+            || TOKEN_OPTIONAL_ENDPOINTS.contains(uri) || JWKS_ENDPOINT.equals(uri);
+    }
+
+    /*
+     * Refresh & logout are how a client gets rid of (or replaces) an expired or revoked access token, so they go through
+     * even when the token sent along doesn't verify, just without the identity headers. Auth checks the refresh token.
+     */
+    public static boolean isTokenOptionalEndpoint(String uri) {
+        return TOKEN_OPTIONAL_ENDPOINTS.contains(uri);
+    }
+
+    public static boolean isHopByHop(String headerName) {
+        return HOP_BY_HOP_HEADERS.contains(headerName.toLowerCase());
+    }
+
+    public static boolean isClientIdentityHeader(String headerName) {
+        return headerName.toLowerCase().startsWith(IDENTITY_HEADER_PREFIX);
+    }
+}
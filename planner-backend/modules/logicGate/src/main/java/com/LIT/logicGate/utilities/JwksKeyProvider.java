@@ -0,0 +1,180 @@
+package com.LIT.logicGate.utilities;
+
+import java.math.BigInteger;
+import java.net.http.HttpClient;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import com.auth0.jwt.interfaces.RSAKeyProvider;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * The public keys auth signs tokens with, read from its key set (JWKS, 'jwt.jwks.url') so the gateway verifies
+ * tokens on its own. Read again every 'refresh-interval', and right away when a token names a key that isn't known
+ * yet (auth rotated early or the gateway started before auth), at most every MIN_RELOAD_INTERVAL so made up key ids
+ * can't flood auth. While auth can't be reached the keys read last stay in use.
+ */
+@Component
+@Slf4j
+public class JwksKeyProvider implements RSAKeyProvider, SchedulingConfigurer {
+
+    // The parts of a JWK (RFC 7517) needed for an RSA key
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Jwk(String kty, String kid, String n, String e) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record KeySet(List<Jwk> keys) {
+    }
+
+    private static final Duration MIN_RELOAD_INTERVAL = Duration.ofSeconds(10);
+
+    private final String logHeader = "[JwksKeyProvider] - ";
+
+    private final RestClient restClient;
+    private final String jwksUrl;
+
+    private final Counter failures;
+
+    @Value("${jwt.jwks.refresh-interval:10m}")
+    private Duration refreshInterval = Duration.ofMinutes(10);
+
+    private volatile Map<String, RSAPublicKey> keys = Map.of();
+
+    private volatile Instant fetchedAt = Instant.EPOCH;
+
+    // A lock rather than synchronized: request threads wait here during a fetch, virtual ones shouldn't pin their carrier
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Autowired
+    public JwksKeyProvider(@Value("${jwt.jwks.url:${address.auth.url}/api/auth/.well-known/jwks.json}") String jwksUrl, MeterRegistry meterRegistry) {
+        this.jwksUrl = jwksUrl;
+
+        HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofSeconds(5));
+
+        this.restClient = RestClient.builder()
+            .requestFactory(requestFactory)
+            .build();
+
+        this.failures = Counter.builder("jwt.jwks.fetch.failures")
+            .description("Key set reads that couldn't reach auth").register(meterRegistry);
+        Gauge.builder("jwt.jwks.keys", this, provider -> provider.keys.size())
+            .description("Token signing keys known to the gateway").register(meterRegistry);
+    }
+
+    // Registered here rather than with @Scheduled so the interval can be a duration like the rest of the configuration
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(this::refresh, refreshInterval);
+    }
+
+    @Override
+    public RSAPublicKey getPublicKeyById(String kid) {
+        if (kid == null) {
+            return null;
+        }
+
+        RSAPublicKey key = keys.get(kid);
+        return key != null ? key : reloadFor(kid);
+    }
+
+    // Only verifies, the gateway never signs
+    @Override
+    public RSAPrivateKey getPrivateKey() {
+        return null;
+    }
+
+    @Override
+    public String getPrivateKeyId() {
+        return null;
+    }
+
+    public void refresh() {
+        lock.lock();
+        try {
+            fetchedAt = Instant.now();
+            KeySet keySet = restClient.get().uri(jwksUrl).retrieve().body(KeySet.class);
+
+            Map<String, RSAPublicKey> fetched = new HashMap<>();
+            if (keySet != null && keySet.keys() != null) {
+                for (Jwk jwk : keySet.keys()) {
+                    RSAPublicKey key = decode(jwk);
+                    if (key != null) {
+                        fetched.put(jwk.kid(), key);
+                    }
+                }
+            }
+            keys = Map.copyOf(fetched);
+
+            log.debug(logHeader + "refresh: {} signing keys known", fetched.size());
+
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn(logHeader + "refresh: Couldn't read the key set from auth: {}", e.getMessage());
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private RSAPublicKey reloadFor(String kid) {
+        lock.lock();
+        try {
+            RSAPublicKey key = keys.get(kid);
+            if (key == null && Instant.now().isAfter(fetchedAt.plus(MIN_RELOAD_INTERVAL))) {
+                log.debug(logHeader + "reloadFor: Unknown key {}, reading the key set again", kid);
+                refresh();
+                key = keys.get(kid);
+            }
+            return key;
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Keys of other types (or broken ones) are skipped, tokens signed with them fail verification
+    private RSAPublicKey decode(Jwk jwk) {
+        if (!"RSA".equals(jwk.kty()) || jwk.kid() == null || jwk.n() == null || jwk.e() == null) {
+            return null;
+        }
+
+        try {
+            BigInteger modulus = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.n()));
+            BigInteger exponent = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.e()));
+            return (RSAPublicKey) KeyFactory.getInstance("RSA").generatePublic(new RSAPublicKeySpec(modulus, exponent));
+
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            log.warn(logHeader + "decode: Key {} can't be read: {}", jwk.kid(), e.getMessage());
+            return null;
+        }
+    }
+}
@@ -4,12 +4,12 @@ import java.io.IOException;
 import java.util.Collections;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.springframework.web.util.ContentCachingRequestWrapper;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -18,16 +18,20 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenUtil jwtTokenUtil;
 
+    private final RevokedTokens revokedTokens;
+
     private final String logHeader = "[JwtAuthenticationFilter] - ";
 
     @Autowired
-    public JwtAuthenticationFilter(JwtTokenUtil jwtTokenUtil) {
+    public JwtAuthenticationFilter(JwtTokenUtil jwtTokenUtil, RevokedTokens revokedTokens) {
         this.jwtTokenUtil = jwtTokenUtil;
+        this.revokedTokens = revokedTokens;
     }
 
     @Override
@@ -35,16 +39,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
 
-        log.info(logHeader + "doFilterInternal: Filtering request");
-
-        // Since request is moved around, wrap it, and then verify it
-        ContentCachingRequestWrapper requestWrap = new ContentCachingRequestWrapper(request);
-
-        log.info(logHeader + "Request: '" + requestWrap.getMethod() + "' " + requestWrap.getRequestURI());
-
-        String authHeader = requestWrap.getHeader("Authorization");
+        // The request is passed on unwrapped: its body is streamed straight through to the destination module
+        log.debug(logHeader + "doFilterInternal: Filtering '{}' {}", request.getMethod(), request.getRequestURI());
 
-        log.info(logHeader + "Auth header: " + authHeader);
+        String authHeader = request.getHeader("Authorization");
         
         /*
          * Catch cases where there's no token provided -> its either invalid req or user is not logged in
@@ -52,15 +50,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Catch the login / registration
         if(authHeader == null) {
 
-            if(requestWrap.getRequestURI().endsWith("/login") || requestWrap.getRequestURI().endsWith("/register") || requestWrap.getRequestURI().endsWith("/newcommer") || requestWrap.getRequestURI().endsWith("/hello")) {
-                log.info(logHeader + "No token provided, but it's a login / register request -> proceed");
+            if(GateRoutes.isOpenEndpoint(request.getRequestURI())) {
+                log.debug(logHeader + "No token provided, but it's a login / register request -> proceed");
 
-                chain.doFilter(requestWrap, response);
+                chain.doFilter(request, response);
                 return;
             }
             
             // If not any of those, then invalid -> reject
-            log.error(logHeader + "No token provided, rejecting request");
+            log.warn(logHeader + "No token provided, rejecting request to {}", request.getRequestURI());
             response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "No token provided");
             return;
         }
@@ -68,46 +66,53 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // there IS a token -> Accessed after system auth -> IN system
         if (authHeader.startsWith("Bearer ")) {
             // Analyze token's validity
-            log.info(logHeader + "Token provided, checking validity");
 
             String token = authHeader.substring(7); //remove "Bearer " prefix
 
-            if (!jwtTokenUtil.validateToken(token)) {
-                log.error(logHeader + "Invalid token provided, rejecting request");
-                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid token");
+            // Verified once, then served from the cache until the token expires.
+            // The denylist is checked on every request, cached claims included: a token can be revoked after it was verified
+            TokenClaims claims = jwtTokenUtil.verify(token);
+            String rejection = claims == null ? "Invalid token"
+                : revokedTokens.isRevoked(claims.getTokenId()) ? "Token revoked" : null;
+
+            if (rejection != null) {
+                if (GateRoutes.isTokenOptionalEndpoint(request.getRequestURI())) {
+                    log.debug(logHeader + "{} on {}, passed on without identity", rejection, request.getRequestURI());
+
+                    chain.doFilter(request, response);
+                    return;
+                }
+
+                log.warn(logHeader + "{}, rejecting request to {}", rejection, request.getRequestURI());
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, rejection);
                 return;
             }
 
-            String userEmail = jwtTokenUtil.extractEmail(token);
-            String role = "ROLE_" + jwtTokenUtil.extractRole(token);
-            Long userId = jwtTokenUtil.extractUserId(token);
-            String userName = jwtTokenUtil.extractUsername(token);
-            String permissions = jwtTokenUtil.extractPermissions(token);
+            String userEmail = claims.getEmail();
+            String role = "ROLE_" + claims.getRole();
+            Long userId = claims.getUserId();
+            String userName = claims.getUserName();
+            String permissions = claims.getPermissions();
 
-            log.info(logHeader + "User: " + userEmail + " has role: " + role + " and id: " + userId);
-            log.info(logHeader + "Token is valid, proceeding with request");
 
             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                     userEmail, null, Collections.singletonList(new SimpleGrantedAuthority(role)));
                     
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
-            requestWrap.setAttribute("userEmail", userEmail);
-            requestWrap.setAttribute("userName", userName);
-            requestWrap.setAttribute("role", role);
-            requestWrap.setAttribute("userId", userId);
-            requestWrap.setAttribute("permissions", permissions);
-
-            log.info(logHeader + "User: " + userEmail + " is authenticated");
-            log.info(logHeader + "User has role: '" + role + "' and permissions: '" + permissions + "'");
+            request.setAttribute("userEmail", userEmail);
+            request.setAttribute("userName", userName);
+            request.setAttribute("role", role);
+            request.setAttribute("userId", userId);
+            request.setAttribute("permissions", permissions);
 
-            log.info(logHeader + "Request is authenticated, proceeding with request. " + requestWrap.getMethod() + " " + requestWrap.getRequestURI() + " " + requestWrap.getAttributeNames() + " " + requestWrap.getAttribute("userEmail") + " " + requestWrap.getAttribute("role"));
+            log.debug(logHeader + "User {} (id {}) is authenticated with role '{}' and permissions '{}'", userEmail, userId, role, permissions);
 
-            chain.doFilter(requestWrap, response);
+            chain.doFilter(request, response);
 
         } else {
             // If not any of those, then invalid -> reject
-            log.error(logHeader + "There was an issue reading your token, please try again: '" + authHeader + "'");
+            log.warn(logHeader + "Authorization header is not a bearer token, rejecting request to {}", request.getRequestURI());
             response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "There was an issue reading your token, please try again: '" + authHeader + "'");
             return;
         
@@ -1,76 +1,157 @@
 package com.LIT.logicGate.utilities;
 
-import java.sql.Date;
-
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
-
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.auth0.jwt.interfaces.RSAKeyProvider;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 
 @Component
 @Slf4j
 public class JwtTokenUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
-
-    private String logHeader = "[JwtTokenUtil] - ";
+    private final String logHeader = "[JwtTokenUtil] - ";
 
+    // Longest a token without 'exp' stays cached
     private static final long EXPIRATION_TIME = 3600000; // 1 hour
 
-    public String generateToken(String email, String role, Long userId, String username, String permissions) {
-        log.info(logHeader + "generateToken: Generating token for user: " + email);        
-        return JWT.create()
-                .withIssuer("LIT - auth0")
-                .withSubject(email)
-                .withClaim("userEmail", email)
-                .withClaim("role", role)
-                .withClaim("userName", username)
-                .withClaim("userId", userId)
-                .withClaim("permissions", permissions)
-                .withIssuedAt(new Date(System.currentTimeMillis()))
-                .withExpiresAt(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .sign(Algorithm.HMAC256(secret));
+    /*
+     * Verification: one verifier for the lifetime of the app (it's immutable & thread safe), RS256 with auth's
+     * public keys (JwksKeyProvider, looked up by the token's 'kid'), so the gateway needs no secret of auth's.
+     * Plus the claims of already verified tokens, kept until the token's own expiry.
+     * Keys are SHA-256 hashes so the cache never holds usable tokens.
+     */
+    private final JWTVerifier verifier;
+
+    private final Cache<String, TokenClaims> verifiedTokens;
+
+    @Autowired
+    public JwtTokenUtil(RSAKeyProvider keyProvider, @Value("${jwt.cache.max-size:10000}") long cacheMaxSize, MeterRegistry meterRegistry) {
+        this.verifier = JWT.require(Algorithm.RSA256(keyProvider)).build();
+
+        // Tokens without 'exp' never expire on their own, those are re-verified at least every EXPIRATION_TIME
+        this.verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .expireAfter(new Expiry<String, TokenClaims>() {
+                @Override
+                public long expireAfterCreate(String tokenHash, TokenClaims claims, long currentTime) {
+                    if(claims.getExpiresAt() == null){
+                        return Duration.ofMillis(EXPIRATION_TIME).toNanos();
+                    }
+
+                    return Math.max(0, Duration.between(Instant.now(), claims.getExpiresAt()).toNanos());
+                }
+
+                @Override
+                public long expireAfterUpdate(String tokenHash, TokenClaims claims, long currentTime, long currentDuration) {
+                    return expireAfterCreate(tokenHash, claims, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String tokenHash, TokenClaims claims, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified-tokens");
+    }
+
+    /*
+     * Verifies the token once (signature + expiry) and returns its claims, or null if it's not valid.
+     * Later calls with the same token are answered from the cache until the token expires.
+     * Invalid tokens are never cached, so garbage tokens can't push out valid ones.
+     */
+    public TokenClaims verify(String token) {
+        String tokenHash = hash(token);
+
+        TokenClaims cached = verifiedTokens.getIfPresent(tokenHash);
+        if(cached != null){
+            return cached;
+        }
+
+        try {
+            DecodedJWT decoded = verifier.verify(token);
+
+            TokenClaims claims = new TokenClaims(
+                decoded.getClaim("userEmail").asString(),
+                decoded.getClaim("role").asString(),
+                decoded.getClaim("userId").asLong(),
+                decoded.getClaim("userName").asString(),
+                decoded.getClaim("permissions").asString(),
+                decoded.getExpiresAtAsInstant(),
+                decoded.getId()
+            );
+
+            verifiedTokens.put(tokenHash, claims);
+            log.debug(logHeader + "verify: Token is valid, claims cached until {}", claims.getExpiresAt());
+
+            return claims;
+
+        } catch (JWTVerificationException e) {
+            log.warn(logHeader + "verify: Token is invalid: {}", e.getMessage());
+            return null;
+        }
     }
 
     public String extractEmail(String token) {
-        log.info(logHeader + "extractEmail: Extracting email from token");
+        log.debug(logHeader + "extractEmail: Extracting email from token");
         return JWT.decode(token).getClaim("userEmail").asString();
     }
 
     public String extractRole(String token) {
-        log.info(logHeader + "extractRole: Extracting role from token");
+        log.debug(logHeader + "extractRole: Extracting role from token");
         return JWT.decode(token).getClaim("role").asString();
     }
 
     public Long extractUserId(String token) {
-        log.info(logHeader + "extractUserId: Extracting userId from token");
+        log.debug(logHeader + "extractUserId: Extracting userId from token");
         return JWT.decode(token).getClaim("userId").asLong();
     }
 
     public String extractUsername(String token) {
-        log.info(logHeader + "extractUsername: Extracting username from token");
+        log.debug(logHeader + "extractUsername: Extracting username from token");
         return JWT.decode(token).getClaim("userName").asString();
     }
 
     public String extractPermissions(String token) {
-        log.info(logHeader + "extractPermissions: Extracting permissions from token");
+        log.debug(logHeader + "extractPermissions: Extracting permissions from token");
         return JWT.decode(token).getClaim("permissions").asString();
     }
 
     public boolean validateToken(String token) {
-        log.info(logHeader + "validateToken: Validating token");
+        log.debug(logHeader + "validateToken: Validating token");
+        return verify(token) != null;
+    }
+
+    private String hash(String token) {
         try {
-            JWT.require(Algorithm.HMAC256(secret)).build().verify(token);
-            log.info(logHeader + "Token is valid");
-            return true;
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
 
-        } catch (Exception e) {
-            log.error(logHeader + "Token is invalid");
-            return false;
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM ships SHA-256
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
 }
@@ -0,0 +1,50 @@
+package com.LIT.logicGate.utilities;
+
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/*
+ * Reactive counterpart of AccessLogFilter, runs ahead of the security chain.
+ * The record is written when the exchange completes, errors & cancelled (client gone) exchanges included.
+ */
+public class ReactiveAccessLogFilter implements WebFilter, Ordered {
+
+    private final AccessLog accessLog;
+
+    public ReactiveAccessLogFilter(AccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        AccessRecord record = accessLog.start(exchange.getRequest().getMethod().name(), exchange.getRequest().getPath().value());
+        exchange.getAttributes().put(AccessLog.ATTRIBUTE, record);
+
+        return chain.filter(exchange)
+            .doFinally(signal -> {
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+
+                // Errors reach the exception handlers only after this filter, their status isn't set yet
+                if(status == null){
+                    record.setStatus(signal == SignalType.ON_ERROR ? 500 : 200);
+
+                } else {
+                    record.setStatus(status.value());
+                }
+
+                record.setUserId(exchange.getAttribute("userId"));
+                accessLog.write(record);
+            });
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
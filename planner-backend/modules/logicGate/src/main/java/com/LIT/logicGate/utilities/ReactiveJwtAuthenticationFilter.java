@@ -0,0 +1,122 @@
+package com.LIT.logicGate.utilities;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/*
+ * Same checks as JwtAuthenticationFilter, for the reactive runtime.
+ * The verified identity goes into the exchange attributes (same names as the servlet request attributes),
+ * ReactiveLogicGateController turns them into the X-User-* headers.
+ * Not a @Component: it's only added to the security chain in ReactiveGatewayConfig.
+ */
+@Slf4j
+public class ReactiveJwtAuthenticationFilter implements WebFilter {
+
+    private final JwtTokenUtil jwtTokenUtil;
+
+    private final RevokedTokens revokedTokens;
+
+    private final String logHeader = "[ReactiveJwtAuthenticationFilter] - ";
+
+    public ReactiveJwtAuthenticationFilter(JwtTokenUtil jwtTokenUtil, RevokedTokens revokedTokens) {
+        this.jwtTokenUtil = jwtTokenUtil;
+        this.revokedTokens = revokedTokens;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String uri = request.getPath().value();
+
+        log.debug(logHeader + "filter: Filtering '{}' {}", request.getMethod(), uri);
+
+        String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        /*
+         * No token -> only login / registration get through
+         */
+        if(authHeader == null) {
+
+            if(GateRoutes.isOpenEndpoint(uri)) {
+                log.debug(logHeader + "No token provided, but it's a login / register request -> proceed");
+                return chain.filter(exchange);
+            }
+
+            log.warn(logHeader + "No token provided, rejecting request to {}", uri);
+            return reject(exchange, "No token provided");
+        }
+
+        if(!authHeader.startsWith("Bearer ")) {
+            log.warn(logHeader + "Authorization header is not a bearer token, rejecting request to {}", uri);
+            return reject(exchange, "There was an issue reading your token, please try again: '" + authHeader + "'");
+        }
+
+        String token = authHeader.substring(7); //remove "Bearer " prefix
+
+        TokenClaims claims = jwtTokenUtil.verify(token);
+        String rejection = claims == null ? "Invalid token"
+            : revokedTokens.isRevoked(claims.getTokenId()) ? "Token revoked" : null;
+
+        if (rejection != null) {
+            if (GateRoutes.isTokenOptionalEndpoint(uri)) {
+                log.debug(logHeader + "{} on {}, passed on without identity", rejection, uri);
+                return chain.filter(exchange);
+            }
+
+            log.warn(logHeader + "{}, rejecting request to {}", rejection, uri);
+            return reject(exchange, rejection);
+        }
+
+        String userEmail = claims.getEmail();
+        String role = "ROLE_" + claims.getRole();
+        Long userId = claims.getUserId();
+        String userName = claims.getUserName();
+        String permissions = claims.getPermissions();
+
+        // Attribute maps don't take null values
+        putIfPresent(exchange, "userEmail", userEmail);
+        putIfPresent(exchange, "userName", userName);
+        putIfPresent(exchange, "role", role);
+        putIfPresent(exchange, "userId", userId);
+        putIfPresent(exchange, "permissions", permissions);
+
+        log.debug(logHeader + "User {} (id {}) is authenticated with role '{}' and permissions '{}'", userEmail, userId, role, permissions);
+
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                userEmail, null, Collections.singletonList(new SimpleGrantedAuthority(role)));
+
+        return chain.filter(exchange)
+            .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+    }
+
+    private void putIfPresent(ServerWebExchange exchange, String name, Object value) {
+        if(value != null){
+            exchange.getAttributes().put(name, value);
+        }
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, String message) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+
+        DataBuffer body = response.bufferFactory().wrap(message.getBytes(StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(body));
+    }
+}
@@ -0,0 +1,73 @@
+package com.LIT.logicGate.utilities;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.LIT.logicGate.utilities.UpstreamPool.UpstreamPoolSettings;
+
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/*
+ * Reactive counterpart of UpstreamClients: one non-blocking WebClient per destination module, each on its own Netty connection pool.
+ * Requests waiting for a connection don't hold a thread, they're queued until one frees up or the acquire timeout hits.
+ * Pool usage is published by reactor-netty as 'reactor.netty.connection.provider.*', tagged with the pool name 'upstream-<route>'.
+ */
+@Slf4j
+public class ReactiveUpstreamClients implements AutoCloseable {
+
+    private final String logHeader = "[ReactiveUpstreamClients] - ";
+
+    private final Map<String, ConnectionProvider> providers = new LinkedHashMap<>();
+
+    private final Map<String, WebClient> clients = new LinkedHashMap<>();
+
+    public ReactiveUpstreamClients(Collection<String> modules, UpstreamPoolSettings settings) {
+        for(String module : modules){
+            String route = module.toLowerCase();
+
+            ConnectionProvider provider = ConnectionProvider.builder("upstream-" + route)
+                .maxConnections(settings.getMaxConnections())
+                .pendingAcquireTimeout(settings.getPoolAcquireTimeout())
+                .pendingAcquireMaxCount(-1)                                 // bounded by the acquire timeout, like the servlet pools
+                .maxIdleTime(settings.getIdleEviction())
+                .evictInBackground(settings.getIdleEviction())
+                .metrics(true)
+                .build();
+
+            HttpClient httpClient = HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) settings.getConnectTimeout().toMillis())
+                .responseTimeout(settings.getReadTimeout())
+                .followRedirect(false)
+                .compress(false);
+
+            providers.put(module, provider);
+            clients.put(module, WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build());
+
+            log.info(logHeader + "Pool for '" + route + "': max " + settings.getMaxConnections() + " connections");
+        }
+    }
+
+    public WebClient forModule(String module) {
+        WebClient client = clients.get(module);
+
+        if(client == null){
+            throw new IllegalArgumentException("No upstream pool configured for module: " + module);
+        }
+
+        return client;
+    }
+
+    @Override
+    public void close() {
+        providers.values().forEach(ConnectionProvider::dispose);
+    }
+}
@@ -0,0 +1,136 @@
+package com.LIT.logicGate.utilities;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * The gateway's copy of the revoked access tokens (by 'jti'), filled by RevokedTokensSync from auth.
+ * A Bloom filter answers the usual case (token not revoked) without touching the exact set; only its hits are
+ * looked up in the exact set (id -> expiry). Both hold at most 'max-entries' ids, revocations only live as long as
+ * the access token would (15 minutes by default), so that bound is rarely reached. If it is, the ids that didn't fit
+ * are only in the Bloom filter and its hits are rejected (fail closed) until expired ids make room and a full reload
+ * brings the exact set back.
+ * Written by the sync thread only, read by every request.
+ */
+@Component
+@Slf4j
+public class RevokedTokens {
+
+    private final String logHeader = "[RevokedTokens] - ";
+
+    // Exact ids, the Bloom filter over them, and whether ids were left out of the exact set
+    private record Denylist(Map<String, Instant> exact, BloomFilter filter, boolean overflowed) {
+    }
+
+    private final int maxEntries;
+    private final double falsePositiveRate;
+
+    private final Counter rejected;
+
+    private volatile Denylist denylist;
+
+    @Autowired
+    public RevokedTokens(@Value("${jwt.denylist.max-entries:100000}") int maxEntries,
+                         @Value("${jwt.denylist.false-positive-rate:0.01}") double falsePositiveRate,
+                         MeterRegistry meterRegistry) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.falsePositiveRate = falsePositiveRate;
+        this.denylist = new Denylist(new ConcurrentHashMap<>(), new BloomFilter(this.maxEntries, falsePositiveRate), false);
+
+        this.rejected = Counter.builder("jwt.denylist.rejected")
+            .description("Requests turned down because their token was revoked").register(meterRegistry);
+        Gauge.builder("jwt.denylist.size", this, RevokedTokens::size)
+            .description("Revoked tokens held by the gateway").register(meterRegistry);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+
+        Denylist current = denylist;
+        if (!current.filter().mightContain(tokenId)) {
+            return false;
+        }
+
+        Instant expiresAt = current.exact().get(tokenId);
+        boolean revoked = expiresAt != null ? expiresAt.isAfter(Instant.now()) : current.overflowed();
+        if (revoked) {
+            rejected.increment();
+        }
+        return revoked;
+    }
+
+    public void add(String tokenId, Instant expiresAt) {
+        add(denylist, tokenId, expiresAt);
+    }
+
+    // Swaps in a denylist of exactly these ids (a full reload from auth)
+    public void replaceAll(Map<String, Instant> revoked) {
+        Denylist fresh = new Denylist(new ConcurrentHashMap<>(), new BloomFilter(maxEntries, falsePositiveRate), false);
+        for (Map.Entry<String, Instant> entry : revoked.entrySet()) {
+            fresh = add(fresh, entry.getKey(), entry.getValue());
+        }
+        denylist = fresh;
+
+        log.debug(logHeader + "replaceAll: Denylist reloaded with {} ids", fresh.exact().size());
+    }
+
+    /*
+     * Drops expired ids. The Bloom filter can't forget them, so it is built again from the ids that are left.
+     * Not while ids were left out of the exact set (they'd be lost): returns true then, the caller reloads
+     * everything from auth instead.
+     */
+    public boolean purgeExpired() {
+        Denylist current = denylist;
+        Instant now = Instant.now();
+
+        boolean removed = current.exact().values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        if (removed && !current.overflowed()) {
+            BloomFilter filter = new BloomFilter(maxEntries, falsePositiveRate);
+            current.exact().keySet().forEach(filter::put);
+            denylist = new Denylist(current.exact(), filter, current.overflowed());
+        }
+
+        return current.overflowed();
+    }
+
+    public int size() {
+        return denylist.exact().size();
+    }
+
+    private Denylist add(Denylist target, String tokenId, Instant expiresAt) {
+        if (tokenId == null || expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            return target;
+        }
+
+        // Exact set first: a reader that sees the filter bit finds the id too
+        if (target.exact().size() < maxEntries || target.exact().containsKey(tokenId)) {
+            target.exact().put(tokenId, expiresAt);
+            target.filter().put(tokenId);
+            return target;
+        }
+
+        target.filter().put(tokenId);
+        if (target.overflowed()) {
+            return target;
+        }
+
+        log.warn(logHeader + "add: Denylist is full ({} ids), rejecting every token the Bloom filter matches until there is room", maxEntries);
+        Denylist overflowed = new Denylist(target.exact(), target.filter(), true);
+        if (target == denylist) {
+            denylist = overflowed;
+        }
+        return overflowed;
+    }
+}
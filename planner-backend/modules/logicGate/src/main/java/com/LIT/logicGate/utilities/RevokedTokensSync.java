@@ -0,0 +1,159 @@
+package com.LIT.logicGate.utilities;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Keeps RevokedTokens in step with auth's revocations (GET /api/auth/tokens/revoked):
+ *  - every 'sync-interval' the revocations after the last one seen, page by page until an empty one (auth may
+ *    return fewer than 'page-size' per page, it caps them at 1000),
+ *  - every 'full-sync-interval' (and after the denylist overflowed) all of them again. Revocations are numbered
+ *    when inserted but may commit out of order, so one can land behind the last one seen; the full reload catches it.
+ * While auth can't be reached the denylist stays as it is and the next sync picks up where this one stopped.
+ */
+@Component
+@Slf4j
+public class RevokedTokensSync implements SchedulingConfigurer {
+
+    // One entry of auth's feed
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record RevokedToken(long seq, String tokenId, Instant expiresAt) {
+    }
+
+    private static final ParameterizedTypeReference<List<RevokedToken>> PAGE = new ParameterizedTypeReference<>() {
+    };
+
+    private final String logHeader = "[RevokedTokensSync] - ";
+
+    private final RevokedTokens revokedTokens;
+    private final RestClient restClient;
+
+    private final Counter failures;
+
+    @Value("${jwt.denylist.sync-interval:5s}")
+    private Duration syncInterval = Duration.ofSeconds(5);
+
+    @Value("${jwt.denylist.full-sync-interval:5m}")
+    private Duration fullSyncInterval = Duration.ofMinutes(5);
+
+    @Value("${jwt.denylist.page-size:1000}")
+    private int pageSize = 1000;
+
+    // Last revocation applied, only touched by the sync thread
+    private long lastSeq = 0;
+
+    @Autowired
+    public RevokedTokensSync(RevokedTokens revokedTokens, @Value("${address.auth.url}") String authUrl, MeterRegistry meterRegistry) {
+        this.revokedTokens = revokedTokens;
+
+        HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofSeconds(5));
+
+        this.restClient = RestClient.builder()
+            .baseUrl(authUrl)
+            .requestFactory(requestFactory)
+            .build();
+
+        this.failures = Counter.builder("jwt.denylist.sync.failures")
+            .description("Denylist syncs that couldn't reach auth").register(meterRegistry);
+    }
+
+    // Registered here rather than with @Scheduled so the intervals can be durations like the rest of the configuration
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(this::sync, syncInterval);
+        taskRegistrar.addFixedDelayTask(this::reload, fullSyncInterval);
+    }
+
+    // Also run by the full reload, so both never touch the denylist at the same time
+    public synchronized void sync() {
+        try {
+            if (revokedTokens.purgeExpired()) {
+                reloadAll();
+                return;
+            }
+
+            int added = 0;
+            List<RevokedToken> page;
+            long after;
+            do {
+                after = lastSeq;
+                page = fetch(after);
+                for (RevokedToken revoked : page) {
+                    revokedTokens.add(revoked.tokenId(), revoked.expiresAt());
+                    lastSeq = Math.max(lastSeq, revoked.seq());
+                }
+                added += page.size();
+            } while (lastSeq > after);
+
+            if (added > 0) {
+                log.debug(logHeader + "sync: {} new revocations, {} revoked tokens held", added, revokedTokens.size());
+            }
+
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn(logHeader + "sync: Couldn't read the revoked tokens from auth: {}", e.getMessage());
+        }
+    }
+
+    public synchronized void reload() {
+        try {
+            reloadAll();
+
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn(logHeader + "reload: Couldn't read the revoked tokens from auth: {}", e.getMessage());
+        }
+    }
+
+    private void reloadAll() {
+        Map<String, Instant> all = new HashMap<>();
+        long seq = 0;
+
+        List<RevokedToken> page;
+        long after;
+        do {
+            after = seq;
+            page = fetch(after);
+            for (RevokedToken revoked : page) {
+                all.put(revoked.tokenId(), revoked.expiresAt());
+                seq = Math.max(seq, revoked.seq());
+            }
+        } while (seq > after);
+
+        revokedTokens.replaceAll(all);
+        lastSeq = seq;
+    }
+
+    private List<RevokedToken> fetch(long after) {
+        List<RevokedToken> page = restClient.get()
+            .uri("/api/auth/tokens/revoked?after={after}&limit={limit}", after, pageSize)
+            .retrieve()
+            .body(PAGE);
+
+        return page == null ? List.of() : page;
+    }
+}
@@ -0,0 +1,29 @@
+package com.LIT.logicGate.utilities;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+ * Claims of a token that passed verification, decoded once and handed to the filters as is
+ */
+@Getter
+@AllArgsConstructor
+public class TokenClaims {
+
+    private final String email;
+
+    private final String role;
+
+    private final Long userId;
+
+    private final String userName;
+
+    private final String permissions;
+
+    private final Instant expiresAt;
+
+    // 'jti', what the token is revoked by (null for tokens issued without one)
+    private final String tokenId;
+}
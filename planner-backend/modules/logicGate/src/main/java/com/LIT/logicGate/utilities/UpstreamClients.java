@@ -0,0 +1,71 @@
+package com.LIT.logicGate.utilities;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.web.client.RestTemplate;
+
+import com.LIT.logicGate.utilities.UpstreamPool.UpstreamPoolSettings;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * One pooled client per destination module (Auth, Scheduler, Statistics).
+ * Pool usage is published per route as 'upstream.pool.leased' / 'upstream.pool.pending' / 'upstream.pool.available'
+ */
+@Slf4j
+public class UpstreamClients implements AutoCloseable {
+
+    private final String logHeader = "[UpstreamClients] - ";
+
+    private final Map<String, UpstreamPool> pools = new LinkedHashMap<>();
+
+    public UpstreamClients(Collection<String> modules, UpstreamPoolSettings settings, MeterRegistry meterRegistry) {
+        for(String module : modules){
+            UpstreamPool pool = new UpstreamPool(module.toLowerCase(), settings);
+            pools.put(module, pool);
+
+            Gauge.builder("upstream.pool.leased", pool, p -> p.getStats().getLeased())
+                .description("Connections currently handed out to requests")
+                .tag("route", pool.getRoute())
+                .register(meterRegistry);
+
+            Gauge.builder("upstream.pool.pending", pool, p -> p.getStats().getPending())
+                .description("Requests waiting for a connection")
+                .tag("route", pool.getRoute())
+                .register(meterRegistry);
+
+            Gauge.builder("upstream.pool.available", pool, p -> p.getStats().getAvailable())
+                .description("Idle keep-alive connections ready for reuse")
+                .tag("route", pool.getRoute())
+                .register(meterRegistry);
+        }
+    }
+
+    public RestTemplate forModule(String module) {
+        UpstreamPool pool = pools.get(module);
+
+        if(pool == null){
+            throw new IllegalArgumentException("No upstream pool configured for module: " + module);
+        }
+
+        return pool.getRestTemplate();
+    }
+
+    public Map<String, PoolStats> getStats() {
+        Map<String, PoolStats> stats = new LinkedHashMap<>();
+        pools.values().forEach(pool -> stats.put(pool.getRoute(), pool.getStats()));
+
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        log.info(logHeader + "Closing upstream pools");
+        pools.values().forEach(UpstreamPool::close);
+    }
+}
@@ -0,0 +1,122 @@
+package com.LIT.logicGate.utilities;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Keep-alive connection pool towards a single destination module, plus the RestTemplate that uses it.
+ * Each module gets its own pool so a slow module can't drain the connections of the others.
+ */
+@Slf4j
+public class UpstreamPool implements AutoCloseable {
+
+    private final String logHeader = "[UpstreamPool] - ";
+
+    @Getter
+    private final String route;
+
+    @Getter
+    private final RestTemplate restTemplate;
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    private final CloseableHttpClient httpClient;
+
+    public UpstreamPool(String route, UpstreamPoolSettings settings) {
+        this.route = route;
+
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+            .setConnectTimeout(Timeout.of(settings.getConnectTimeout()))
+            .setSocketTimeout(Timeout.of(settings.getReadTimeout()))
+            .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+            .build();
+
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+            .setMaxConnTotal(settings.getMaxConnections())
+            .setMaxConnPerRoute(settings.getMaxConnections())
+            .setDefaultConnectionConfig(connectionConfig)
+            .build();
+
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectionRequestTimeout(Timeout.of(settings.getPoolAcquireTimeout()))
+            .setResponseTimeout(Timeout.of(settings.getReadTimeout()))
+            .setConnectionKeepAlive(TimeValue.of(settings.getKeepAlive()))
+            .setRedirectsEnabled(false)
+            .build();
+
+        // Proxy semantics: no cookie jar shared between users, no transparent decompression, redirects go back to the caller
+        this.httpClient = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.of(settings.getIdleEviction()))
+            .disableCookieManagement()
+            .disableContentCompression()
+            .disableRedirectHandling()
+            .build();
+
+        this.restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        this.restTemplate.getMessageConverters().add(new MappingJackson2HttpMessageConverter());
+
+        // The gate is a proxy: 4xx/5xx answers from the modules go back to the caller untouched instead of turning into exceptions
+        this.restTemplate.setErrorHandler(new DefaultResponseErrorHandler() {
+            @Override
+            public boolean hasError(ClientHttpResponse response) {
+                return false;
+            }
+        });
+
+        log.info(logHeader + "Pool for '" + route + "' created with max " + settings.getMaxConnections() + " connections");
+    }
+
+    public PoolStats getStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    @Override
+    public void close() {
+        try {
+            httpClient.close();
+
+        } catch (IOException e) {
+            log.warn(logHeader + "Error while closing pool for '" + route + "': " + e.getMessage());
+            connectionManager.close(CloseMode.IMMEDIATE);
+        }
+    }
+
+    /*
+     * Timeouts & sizing shared by every pool
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class UpstreamPoolSettings {
+        private final Duration connectTimeout;
+        private final Duration readTimeout;
+        private final Duration poolAcquireTimeout;
+        private final Duration idleEviction;
+        private final Duration keepAlive;
+        private final int maxConnections;
+    }
+}
@@ -0,0 +1,45 @@
+package com.LIT.logicGate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.sun.net.httpserver.HttpServer;
+
+/*
+ * How many concurrent in-flight forwards the gate sustains on platform threads vs. virtual threads.
+ * The stand-in module answers after a fixed delay, so any latency above that is queueing inside the gate.
+ * A level counts as sustained while its p99 stays under GateLoadHarness.DEGRADATION_FACTOR x the baseline, the p99 of the lowest level
+ * (or the module latency, if that's higher).
+ *
+ * Not part of the regular build, run with:
+ *   mvn -pl modules/logicGate test -Dtest=ForwardingLoadTest -Dloadtest=true [-Dloadtest.levels=50,100,200,400,800] [-Dloadtest.seconds=5] [-Dloadtest.upstreamLatencyMs=50] [-Dloadtest.warmupSeconds=10]
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+public class ForwardingLoadTest {
+
+    @Test
+    public void platformVsVirtualThreads() throws Exception {
+        int upstreamLatencyMs = GateLoadHarness.intProperty("loadtest.upstreamLatencyMs", 50);
+        Duration levelDuration = Duration.ofSeconds(GateLoadHarness.intProperty("loadtest.seconds", 5));
+        int[] levels = GateLoadHarness.levels("50,100,200,400,800");
+
+        HttpServer upstream = GateLoadHarness.startUpstream(upstreamLatencyMs);
+
+        try {
+            int platform = GateLoadHarness.runMode(upstream, "platform threads", Map.of("spring.threads.virtual.enabled", "false"), levels, levelDuration, upstreamLatencyMs).sustained();
+            int virtual = GateLoadHarness.runMode(upstream, "virtual threads", Map.of("spring.threads.virtual.enabled", "true"), levels, levelDuration, upstreamLatencyMs).sustained();
+
+            System.out.println("\nSustained in-flight forwards before p99 > " + GateLoadHarness.DEGRADATION_FACTOR + "x baseline: platform=" + platform + ", virtual=" + virtual);
+
+            assertTrue(virtual >= platform, "Virtual-thread mode should sustain at least as many in-flight forwards as platform threads");
+
+        } finally {
+            upstream.stop(0);
+        }
+    }
+}
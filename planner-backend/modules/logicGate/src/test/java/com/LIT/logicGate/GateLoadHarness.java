@@ -0,0 +1,321 @@
+package com.LIT.logicGate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.sun.net.httpserver.HttpServer;
+
+/*
+ * Helpers for the gate load tests: a stand-in module with fixed latency, an in-process gate and a closed-loop client.
+ */
+public class GateLoadHarness {
+
+    // A level counts as sustained while its p99 stays under DEGRADATION_FACTOR x the baseline
+    public static final double DEGRADATION_FACTOR = 2.0;
+
+    // Stands in for auth's signing key: the upstream publishes it, token() signs with it
+    private static final String KID = "load-test-key";
+
+    private static final KeyPair KEY_PAIR = generateKeyPair();
+
+    private static HttpServer keyServer;
+
+    public static int intProperty(String name, int defaultValue) {
+        return Integer.parseInt(System.getProperty(name, String.valueOf(defaultValue)));
+    }
+
+    public static int[] levels(String defaultLevels) {
+        return Arrays.stream(System.getProperty("loadtest.levels", defaultLevels).split(","))
+            .map(String::trim)
+            .mapToInt(Integer::parseInt)
+            .toArray();
+    }
+
+    /*
+     * Stand-in for scheduler / auth / stats: answers every request after a fixed delay
+     */
+    public static HttpServer startUpstream(int latencyMs) throws IOException {
+        byte[] payload = "[{\"id\":1,\"title\":\"Early shift\"}]".getBytes(StandardCharsets.UTF_8);
+
+        // The JDK server drops idle keep-alive connections beyond 200 by default, which the gate's pool would then trip over
+        System.setProperty("sun.net.httpserver.maxIdleConnections", "16384");
+        System.setProperty("sun.net.httpserver.idleInterval", "300");
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 8192);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", exchange -> {
+            try (exchange) {
+                exchange.getRequestBody().readAllBytes();
+                Thread.sleep(latencyMs);
+
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, payload.length);
+
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(payload);
+                }
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+
+        return server;
+    }
+
+    /*
+     * Stand-in for auth's key set, on its own server so a busy (or stalled) upstream can't keep the gate from its keys
+     */
+    public static synchronized HttpServer keyServer() throws IOException {
+        if(keyServer == null){
+            byte[] keySet = keySet().getBytes(StandardCharsets.UTF_8);
+
+            keyServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 16);
+            keyServer.createContext("/jwks.json", exchange -> {
+                try (exchange) {
+                    exchange.getResponseHeaders().add("Content-Type", "application/json");
+                    exchange.sendResponseHeaders(200, keySet.length);
+
+                    try (OutputStream body = exchange.getResponseBody()) {
+                        body.write(keySet);
+                    }
+                }
+            });
+            keyServer.start();
+        }
+
+        return keyServer;
+    }
+
+    public static ConfigurableApplicationContext startGate(HttpServer upstream, Map<String, Object> extraProperties) throws IOException {
+        String upstreamUrl = "http://127.0.0.1:" + upstream.getAddress().getPort();
+        String jwksUrl = "http://127.0.0.1:" + keyServer().getAddress().getPort() + "/jwks.json";
+
+        // Passed as command line arguments so they win over application.yml (builder properties are only defaults)
+        List<String> args = new ArrayList<>(List.of(
+            "--server.port=0",
+            "--address.auth.url=" + upstreamUrl,
+            "--address.scheduler.url=" + upstreamUrl,
+            "--address.stats.url=" + upstreamUrl,
+            "--jwt.jwks.url=" + jwksUrl,
+            "--upstream.http.max-connections=8192",
+            "--spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration,org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration",
+            "--logging.level.root=WARN",
+            "--access-log.enabled=false",                                   // Thousands of lines per second through surefire's console would skew the numbers
+            "--logging.level.com.LIT=WARN"
+        ));
+        extraProperties.forEach((key, value) -> args.add("--" + key + "=" + value));
+
+        return new SpringApplicationBuilder(LogicGate.class).run(args.toArray(String[]::new));
+    }
+
+    /*
+     * Starts a gate with the given properties and walks it through the levels.
+     * Baseline is the p99 of the lowest level (or the module latency, if that's higher).
+     */
+    public static ModeResult runMode(HttpServer upstream, String mode, Map<String, Object> properties, int[] levels, Duration levelDuration, int upstreamLatencyMs) throws Exception {
+        List<LevelResult> results = new ArrayList<>();
+        int sustained = 0;
+        long baselineMillis = upstreamLatencyMs;
+
+        try (ConfigurableApplicationContext gate = startGate(upstream, properties);
+             HttpClient client = HttpClient.newBuilder()
+                 .version(HttpClient.Version.HTTP_1_1)
+                 .executor(Executors.newVirtualThreadPerTaskExecutor())
+                 .build()) {
+
+            String url = "http://127.0.0.1:" + port(gate) + "/api/scheduler/shifts";
+            String token = token(gate);
+
+            // Warm up JIT, connection pools & token verification, otherwise the baseline level is measured cold
+            runLevel(client, url, token, levels[0], Duration.ofSeconds(intProperty("loadtest.warmupSeconds", 10)));
+
+            for(int concurrency : levels){
+                LevelResult result = runLevel(client, url, token, concurrency, levelDuration);
+                results.add(result);
+
+                if(results.size() == 1){
+                    baselineMillis = Math.max(upstreamLatencyMs, result.p99Millis());
+                }
+
+                if(result.errors() == 0 && result.p99Millis() <= baselineMillis * DEGRADATION_FACTOR){
+                    sustained = concurrency;
+                }
+            }
+        }
+
+        ModeResult modeResult = new ModeResult(mode, results, sustained);
+        System.out.println(modeResult);
+
+        return modeResult;
+    }
+
+    public static int port(ConfigurableApplicationContext gate) {
+        return ((WebServerApplicationContext) gate).getWebServer().getPort();
+    }
+
+    // Signed like auth signs (RS256, 'kid' of the published key), the gate fetches the key set on the first request
+    public static String token(ConfigurableApplicationContext gate) {
+        return "Bearer " + JWT.create()
+            .withKeyId(KID)
+            .withIssuer("LIT - auth0")
+            .withSubject("load@test.com")
+            .withClaim("userEmail", "load@test.com")
+            .withClaim("role", "Admin")
+            .withClaim("userName", "load")
+            .withClaim("userId", 1L)
+            .withClaim("permissions", "SHIFT_MANAGEMENT")
+            .withExpiresAt(new Date(System.currentTimeMillis() + Duration.ofHours(1).toMillis()))
+            .sign(Algorithm.RSA256((RSAPublicKey) KEY_PAIR.getPublic(), (RSAPrivateKey) KEY_PAIR.getPrivate()));
+    }
+
+    private static KeyPair generateKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String keySet() {
+        RSAPublicKey publicKey = (RSAPublicKey) KEY_PAIR.getPublic();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+
+        // toByteArray() may lead with a sign byte, JWKs don't
+        byte[] modulus = publicKey.getModulus().toByteArray();
+        if(modulus[0] == 0){
+            modulus = Arrays.copyOfRange(modulus, 1, modulus.length);
+        }
+
+        return "{\"keys\":[{\"kty\":\"RSA\",\"use\":\"sig\",\"alg\":\"RS256\",\"kid\":\"" + KID + "\",\"n\":\""
+            + encoder.encodeToString(modulus) + "\",\"e\":\"" + encoder.encodeToString(publicKey.getPublicExponent().toByteArray()) + "\"}]}";
+    }
+
+    /*
+     * Runs 'concurrency' clients in a closed loop against the url for the given duration
+     */
+    public static LevelResult runLevel(HttpClient client, String url, String token, int concurrency, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+            .header("Authorization", token)
+            .timeout(Duration.ofSeconds(30))
+            .GET()
+            .build();
+
+        List<Future<long[]>> workers = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for(int i = 0; i < concurrency; i++){
+                workers.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+
+                    while(System.nanoTime() < deadline){
+                        long start = System.nanoTime();
+
+                        try {
+                            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+                            if(response.statusCode() != 200){
+                                errors.incrementAndGet();
+                                continue;
+                            }
+
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+
+                        if(count == latencies.length){
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+
+        List<long[]> perWorker = new ArrayList<>();
+        for(Future<long[]> worker : workers){
+            perWorker.add(worker.get());
+        }
+
+        long[] all = perWorker.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+
+        return new LevelResult(concurrency, all.length, errors.get(), duration, percentile(all, 0.50), percentile(all, 0.99));
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if(sorted.length == 0){
+            return -1;
+        }
+
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    public record ModeResult(String mode, List<LevelResult> levels, int sustained) {
+
+        @Override
+        public String toString() {
+            StringBuilder table = new StringBuilder("\n=== Gate on " + mode + " ===");
+            levels.forEach(level -> table.append("\n").append(level));
+            return table.toString();
+        }
+    }
+
+    public record LevelResult(int concurrency, long requests, long errors, Duration duration, long p50Nanos, long p99Nanos) {
+
+        public double throughput() {
+            return requests / (double) duration.toSeconds();
+        }
+
+        public long p50Millis() {
+            return Duration.ofNanos(p50Nanos).toMillis();
+        }
+
+        public long p99Millis() {
+            return Duration.ofNanos(p99Nanos).toMillis();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%6d in-flight | %8.0f req/s | p50 %5d ms | p99 %5d ms | errors %d", concurrency, throughput(), p50Millis(), p99Millis(), errors);
+        }
+    }
+}
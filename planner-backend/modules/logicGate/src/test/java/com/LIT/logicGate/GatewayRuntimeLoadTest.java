@@ -0,0 +1,53 @@
+package com.LIT.logicGate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.LIT.logicGate.GateLoadHarness.ModeResult;
+import com.sun.net.httpserver.HttpServer;
+
+/*
+ * Servlet runtime (platform & virtual threads) vs. the reactive runtime, on the same stand-in module and the same levels.
+ * Levels go higher than ForwardingLoadTest: the point of the reactive gate is thousands of open connections on a couple of cores.
+ * Raise the fd limit (ulimit -n) first, every in-flight request holds 4 sockets in this process.
+ *
+ * Not part of the regular build, run with:
+ *   mvn -pl modules/logicGate test -Dtest=GatewayRuntimeLoadTest -Dloadtest=true [-Dloadtest.levels=100,500,1000,2000] [-Dloadtest.seconds=5] [-Dloadtest.upstreamLatencyMs=50] [-Dloadtest.warmupSeconds=10]
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+public class GatewayRuntimeLoadTest {
+
+    @Test
+    public void servletVsReactiveRuntime() throws Exception {
+        int upstreamLatencyMs = GateLoadHarness.intProperty("loadtest.upstreamLatencyMs", 50);
+        Duration levelDuration = Duration.ofSeconds(GateLoadHarness.intProperty("loadtest.seconds", 5));
+        int[] levels = GateLoadHarness.levels("100,500,1000,2000");
+
+        HttpServer upstream = GateLoadHarness.startUpstream(upstreamLatencyMs);
+
+        try {
+            ModeResult servletPlatform = GateLoadHarness.runMode(upstream, "servlet runtime, platform threads",
+                Map.of("spring.main.web-application-type", "servlet", "spring.threads.virtual.enabled", "false"), levels, levelDuration, upstreamLatencyMs);
+
+            ModeResult servletVirtual = GateLoadHarness.runMode(upstream, "servlet runtime, virtual threads",
+                Map.of("spring.main.web-application-type", "servlet", "spring.threads.virtual.enabled", "true"), levels, levelDuration, upstreamLatencyMs);
+
+            ModeResult reactive = GateLoadHarness.runMode(upstream, "reactive runtime",
+                Map.of("spring.main.web-application-type", "reactive", "spring.threads.virtual.enabled", "false"), levels, levelDuration, upstreamLatencyMs);
+
+            System.out.println("\nSustained in-flight forwards before p99 > " + GateLoadHarness.DEGRADATION_FACTOR + "x baseline:");
+            List.of(servletPlatform, servletVirtual, reactive).forEach(mode -> System.out.println("  " + mode.mode() + ": " + mode.sustained()));
+
+            assertTrue(reactive.sustained() >= servletPlatform.sustained(), "The reactive runtime should sustain at least as many in-flight forwards as the servlet runtime on platform threads");
+
+        } finally {
+            upstream.stop(0);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.LIT.logicGate.unittests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.LIT.logicGate.utilities.JwtAuthenticationFilter;
+import com.LIT.logicGate.utilities.JwtTokenUtil;
+import com.LIT.logicGate.utilities.RevokedTokens;
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.RSAKeyProvider;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class JwtAuthenticationFilterTest {
+
+    private static final String KID = "test-key";
+
+    private static KeyPair keyPair;
+
+    private RevokedTokens revokedTokens;
+
+    private JwtAuthenticationFilter filter;
+
+    @BeforeAll
+    public static void generateKeys() throws NoSuchAlgorithmException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        revokedTokens = new RevokedTokens(100, 0.01, meterRegistry);
+
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil(new RSAKeyProvider() {
+            @Override
+            public RSAPublicKey getPublicKeyById(String kid) {
+                return KID.equals(kid) ? (RSAPublicKey) keyPair.getPublic() : null;
+            }
+
+            @Override
+            public RSAPrivateKey getPrivateKey() {
+                return null;
+            }
+
+            @Override
+            public String getPrivateKeyId() {
+                return null;
+            }
+        }, 100, meterRegistry);
+
+        filter = new JwtAuthenticationFilter(jwtTokenUtil, revokedTokens);
+    }
+
+    //Checks that logging out after the access token expired still reaches auth (which revokes the refresh token)
+    @Test
+    public void testLogoutWithExpiredTokenIsPassedOn() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletRequest request = request("/api/auth/logout", token("access-1", -60));
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest(), "Logout should reach auth with an expired access token");
+        assertNull(request.getAttribute("userId"), "No identity should be derived from an expired token");
+    }
+
+    //Checks that refresh gets through with a revoked access token, other routes don't
+    @Test
+    public void testRevokedTokenOnlyPassesRefresh() throws Exception {
+        revokedTokens.add("access-1", Instant.now().plusSeconds(600));
+        String token = token("access-1", 600);
+
+        MockFilterChain refreshChain = new MockFilterChain();
+        filter.doFilter(request("/api/auth/refresh", token), new MockHttpServletResponse(), refreshChain);
+        assertNotNull(refreshChain.getRequest(), "Refresh should reach auth with a revoked access token");
+
+        MockFilterChain shiftsChain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("/api/scheduler/shifts", token), response, shiftsChain);
+        assertNull(shiftsChain.getRequest(), "Other routes should still reject a revoked token");
+        assertEquals(401, response.getStatus());
+    }
+
+    //Checks that only auth's own refresh & logout are let through, not routes of other modules ending the same way
+    @Test
+    public void testOtherModulesLogoutNeedsAValidToken() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("/api/scheduler/logout", token("access-1", -60)), response, chain);
+
+        assertNull(chain.getRequest(), "Only /api/auth/logout may skip the access token check");
+        assertEquals(401, response.getStatus());
+    }
+
+    //Checks that an expired token is still rejected on every other route
+    @Test
+    public void testExpiredTokenIsRejectedElsewhere() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("/api/scheduler/shifts", token("access-1", -60)), response, chain);
+
+        assertNull(chain.getRequest());
+        assertEquals(401, response.getStatus());
+    }
+
+    private MockHttpServletRequest request(String uri, String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    private String token(String tokenId, long expiresInSeconds) {
+        return JWT.create()
+            .withKeyId(KID)
+            .withJWTId(tokenId)
+            .withClaim("userEmail", "anna@lit.com")
+            .withClaim("role", "Admin")
+            .withClaim("userId", 7L)
+            .withExpiresAt(new Date(System.currentTimeMillis() + expiresInSeconds * 1000))
+            .sign(Algorithm.RSA256((RSAPublicKey) keyPair.getPublic(), (RSAPrivateKey) keyPair.getPrivate()));
+    }
+}
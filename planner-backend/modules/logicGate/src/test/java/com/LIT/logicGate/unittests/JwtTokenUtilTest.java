@@ -0,0 +1,149 @@
+package com.LIT.logicGate.unittests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeAll;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.LIT.logicGate.utilities.JwtTokenUtil;
+import com.LIT.logicGate.utilities.TokenClaims;
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.RSAKeyProvider;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class JwtTokenUtilTest {
+
+    private static final String KID = "test-key";
+
+    private static KeyPair keyPair;
+
+    private static KeyPair otherKeyPair;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private JwtTokenUtil jwtTokenUtil;
+
+    @BeforeAll
+    public static void generateKeys() throws NoSuchAlgorithmException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+        otherKeyPair = generator.generateKeyPair();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtTokenUtil = new JwtTokenUtil(provider(keyPair), 100, meterRegistry);
+    }
+
+    //Checks that every claim is read from the token in one go
+    @Test
+    public void testVerifyReturnsAllClaims() {
+        String token = token();
+
+        TokenClaims claims = jwtTokenUtil.verify(token);
+
+        assertNotNull(claims, "A freshly issued token should be valid");
+        assertEquals("anna@lit.com", claims.getEmail());
+        assertEquals("Admin", claims.getRole());
+        assertEquals(7L, claims.getUserId());
+        assertEquals("anna", claims.getUserName());
+        assertEquals("SHIFT_MANAGEMENT", claims.getPermissions());
+        assertNotNull(claims.getExpiresAt(), "Expiry should be carried over from the token");
+    }
+
+    //Checks that a token is only verified once and served from the cache afterwards
+    @Test
+    public void testVerifiedTokenIsCached() {
+        String token = token();
+
+        TokenClaims first = jwtTokenUtil.verify(token);
+        TokenClaims second = jwtTokenUtil.verify(token);
+
+        assertSame(first, second, "Second lookup should return the cached claims");
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt.verified-tokens").tag("result", "hit").functionCounter().count());
+    }
+
+    //Checks that tampered, foreign, HMAC-signed & expired tokens are rejected and never cached
+    @Test
+    public void testInvalidTokensAreRejected() {
+        String token = token();
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        // Same key id, another key
+        String foreign = JWT.create()
+            .withClaim("userEmail", "anna@lit.com")
+            .withExpiresAt(new Date(System.currentTimeMillis() + 60000))
+            .sign(Algorithm.RSA256(provider(otherKeyPair)));
+
+        // The old shared-secret tokens (and anyone trying 'alg' tricks) don't pass an RS256 verifier
+        String hmac = JWT.create()
+            .withKeyId(KID)
+            .withClaim("userEmail", "anna@lit.com")
+            .withExpiresAt(new Date(System.currentTimeMillis() + 60000))
+            .sign(Algorithm.HMAC256("secret"));
+
+        String expired = JWT.create()
+            .withClaim("userEmail", "anna@lit.com")
+            .withExpiresAt(new Date(System.currentTimeMillis() - 60000))
+            .sign(Algorithm.RSA256(provider(keyPair)));
+
+        assertNull(jwtTokenUtil.verify(tampered), "Tampered signature should be rejected");
+        assertNull(jwtTokenUtil.verify(foreign), "Token signed with another key should be rejected");
+        assertNull(jwtTokenUtil.verify(hmac), "HMAC-signed token should be rejected");
+        assertNull(jwtTokenUtil.verify(expired), "Expired token should be rejected");
+        assertNull(jwtTokenUtil.verify("not-a-token"), "Malformed token should be rejected");
+
+        assertEquals(0.0, meterRegistry.get("cache.size").tag("cache", "jwt.verified-tokens").gauge().value(), "Invalid tokens should not be cached");
+    }
+
+    // A token as auth issues it (the gateway only verifies them)
+    private static String token() {
+        return JWT.create()
+            .withIssuer("LIT - auth0")
+            .withSubject("anna@lit.com")
+            .withClaim("userEmail", "anna@lit.com")
+            .withClaim("role", "Admin")
+            .withClaim("userName", "anna")
+            .withClaim("userId", 7L)
+            .withClaim("permissions", "SHIFT_MANAGEMENT")
+            .withIssuedAt(new Date())
+            .withExpiresAt(new Date(System.currentTimeMillis() + 3600000))
+            .sign(Algorithm.RSA256(provider(keyPair)));
+    }
+
+    // One key under KID, the way JwksKeyProvider hands out auth's keys (plus the private key, to sign test tokens)
+    private static RSAKeyProvider provider(KeyPair pair) {
+        return new RSAKeyProvider() {
+            @Override
+            public RSAPublicKey getPublicKeyById(String kid) {
+                return KID.equals(kid) ? (RSAPublicKey) pair.getPublic() : null;
+            }
+
+            @Override
+            public RSAPrivateKey getPrivateKey() {
+                return (RSAPrivateKey) pair.getPrivate();
+            }
+
+            @Override
+            public String getPrivateKeyId() {
+                return KID;
+            }
+        };
+    }
+}
@@ -0,0 +1,127 @@
+package com.LIT.logicGate.unittests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import com.LIT.logicGate.utilities.BloomFilter;
+import com.LIT.logicGate.utilities.RevokedTokens;
+import com.LIT.logicGate.utilities.RevokedTokensSync;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class RevokedTokensTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    //Checks that the Bloom filter never misses an added id and stays close to its false-positive rate
+    @Test
+    public void testBloomFilterHasNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("revoked-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(filter.mightContain("revoked-" + i), "Added ids must always match");
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 200, "About 1% false positives expected, got " + falsePositives);
+    }
+
+    //Checks that revoked ids are rejected until they expire, and others pass
+    @Test
+    public void testRevokedUntilExpiry() {
+        RevokedTokens revokedTokens = new RevokedTokens(100, 0.01, meterRegistry);
+        revokedTokens.add("revoked", Instant.now().plusSeconds(60));
+        revokedTokens.add("expired", Instant.now().minusSeconds(1));
+
+        assertTrue(revokedTokens.isRevoked("revoked"));
+        assertFalse(revokedTokens.isRevoked("expired"), "Already expired ids aren't held");
+        assertFalse(revokedTokens.isRevoked("other"));
+        assertFalse(revokedTokens.isRevoked(null), "Tokens without id can't be revoked");
+        assertEquals(1, revokedTokens.size());
+        assertEquals(1.0, meterRegistry.get("jwt.denylist.rejected").counter().count());
+    }
+
+    //Checks that ids that don't fit are still rejected (fail closed) and a reload with room brings back exact answers
+    @Test
+    public void testOverflowFailsClosed() {
+        RevokedTokens revokedTokens = new RevokedTokens(2, 0.01, meterRegistry);
+        Instant expiresAt = Instant.now().plusSeconds(60);
+        revokedTokens.add("first", expiresAt);
+        revokedTokens.add("second", expiresAt);
+        revokedTokens.add("third", expiresAt);
+
+        assertEquals(2, revokedTokens.size());
+        assertTrue(revokedTokens.isRevoked("third"), "Ids left out of the exact set are rejected through the Bloom filter");
+        assertTrue(revokedTokens.purgeExpired(), "An overflowed denylist asks for a full reload");
+
+        revokedTokens.replaceAll(Map.of("third", expiresAt));
+
+        assertFalse(revokedTokens.purgeExpired());
+        assertTrue(revokedTokens.isRevoked("third"));
+        assertFalse(revokedTokens.isRevoked("first"));
+    }
+
+    //Checks that the sync keeps paging when auth returns shorter pages than asked for (it caps them at 1000)
+    @Test
+    public void testSyncReadsPagesShorterThanThePageSize() throws Exception {
+        String expiresAt = Instant.now().plusSeconds(60).toString();
+        Pattern after = Pattern.compile("after=(\\d+)");
+
+        // Five revocations, at most two per page whatever 'limit' says
+        HttpServer auth = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        auth.createContext("/api/auth/tokens/revoked", exchange -> {
+            Matcher matcher = after.matcher(exchange.getRequestURI().getQuery());
+            long from = matcher.find() ? Long.parseLong(matcher.group(1)) : 0;
+
+            StringBuilder page = new StringBuilder("[");
+            for (long seq = from + 1; seq <= Math.min(from + 2, 5); seq++) {
+                page.append(page.length() > 1 ? "," : "")
+                    .append("{\"seq\":").append(seq).append(",\"tokenId\":\"revoked-").append(seq)
+                    .append("\",\"expiresAt\":\"").append(expiresAt).append("\"}");
+            }
+            byte[] body = page.append("]").toString().getBytes(StandardCharsets.UTF_8);
+
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        auth.start();
+
+        try {
+            RevokedTokens revokedTokens = new RevokedTokens(100, 0.01, meterRegistry);
+            RevokedTokensSync sync = new RevokedTokensSync(revokedTokens, "http://localhost:" + auth.getAddress().getPort(), meterRegistry);
+
+            sync.sync();
+            assertEquals(5, revokedTokens.size());
+            assertTrue(revokedTokens.isRevoked("revoked-5"));
+
+            sync.reload();
+            assertEquals(5, revokedTokens.size());
+            assertTrue(revokedTokens.isRevoked("revoked-1"));
+
+        } finally {
+            auth.stop(0);
+        }
+    }
+}
@@ -2,8 +2,11 @@ package com.LIT.scheduler;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// Plus the shared components of modules/common
+@SpringBootApplication(scanBasePackages = {"com.LIT.scheduler", "com.LIT.common"})
+@EnableScheduling
 public class SchedulerApplication {
     public static void main(String[] args) {
         SpringApplication.run(SchedulerApplication.class, args);
@@ -1,13 +1,99 @@
 package com.LIT.scheduler.config;
 
+import java.time.Duration;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 public class AppConfig {
+
+    /*
+     * Pooled keep-alive client towards the auth module
+     */
+    @Value("${upstream.http.connect-timeout:2s}")
+    private Duration connectTimeout;
+
+    @Value("${upstream.http.read-timeout:5s}")
+    private Duration readTimeout;
+
+    @Value("${upstream.http.pool-acquire-timeout:2s}")
+    private Duration poolAcquireTimeout;
+
+    @Value("${upstream.http.idle-eviction:30s}")
+    private Duration idleEviction;
+
+    @Value("${upstream.http.keep-alive:60s}")
+    private Duration keepAlive;
+
+    @Value("${upstream.http.max-connections:50}")
+    private int maxConnections;
+
+    @Bean
+    public PoolingHttpClientConnectionManager authConnectionManager(MeterRegistry meterRegistry) {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+            .setConnectTimeout(Timeout.of(connectTimeout))
+            .setSocketTimeout(Timeout.of(readTimeout))
+            .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+            .build();
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+            .setMaxConnTotal(maxConnections)
+            .setMaxConnPerRoute(maxConnections)
+            .setDefaultConnectionConfig(connectionConfig)
+            .build();
+
+        // Pool usage per route, same meters as the logic gate publishes
+        Gauge.builder("upstream.pool.leased", connectionManager, m -> m.getTotalStats().getLeased())
+            .tag("route", "auth")
+            .register(meterRegistry);
+
+        Gauge.builder("upstream.pool.pending", connectionManager, m -> m.getTotalStats().getPending())
+            .tag("route", "auth")
+            .register(meterRegistry);
+
+        Gauge.builder("upstream.pool.available", connectionManager, m -> m.getTotalStats().getAvailable())
+            .tag("route", "auth")
+            .register(meterRegistry);
+
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient authHttpClient(PoolingHttpClientConnectionManager authConnectionManager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectionRequestTimeout(Timeout.of(poolAcquireTimeout))
+            .setResponseTimeout(Timeout.of(readTimeout))
+            .setConnectionKeepAlive(TimeValue.of(keepAlive))
+            .build();
+
+        return HttpClients.custom()
+            .setConnectionManager(authConnectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.of(idleEviction))
+            .disableCookieManagement()
+            .build();
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(CloseableHttpClient authHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(authHttpClient));
     }
 }
@@ -0,0 +1,165 @@
+package com.LIT.scheduler.config;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.LIT.scheduler.model.entity.Shift;
+import com.LIT.scheduler.model.entity.ShiftAssignment;
+import com.LIT.scheduler.model.enums.AssignmentStatus;
+import com.LIT.scheduler.model.enums.ChangeEntityType;
+import com.LIT.scheduler.model.enums.ChangeType;
+import com.LIT.scheduler.model.repository.ChangeFeedRepository;
+import com.LIT.scheduler.model.repository.ShiftAssignmentRepository;
+import com.LIT.scheduler.model.repository.ShiftProposalRepository;
+import com.LIT.scheduler.model.repository.ShiftRepository;
+import com.LIT.scheduler.model.repository.SwapProposalRepository;
+import com.LIT.scheduler.service.ChangeFeedService;
+import com.LIT.scheduler.service.JobLockService;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * The change feed starts with the rows that were there before it: the first instance to start with the feed records
+ * every shift (with its confirmed assignees), shift proposal and swap proposal as SNAPSHOT entries, 'chunk-size' rows
+ * per entry, all in one transaction. A consumer replaying the feed from the start then ends up with the whole tables.
+ * Runs before the web server takes requests; other instances starting meanwhile wait for it (up to 'lock-lease').
+ */
+@Component
+@Slf4j
+public class ChangeFeedBootstrap implements InitializingBean {
+
+    private static final String JOB = "change-feed-bootstrap";
+
+    private final String logHeader = "[ChangeFeedBootstrap] - ";
+
+    private final ChangeFeedRepository changeFeedRepository;
+    private final ChangeFeedService changeFeedService;
+    private final ShiftRepository shiftRepository;
+    private final ShiftAssignmentRepository assignmentRepository;
+    private final ShiftProposalRepository shiftProposalRepository;
+    private final SwapProposalRepository swapProposalRepository;
+    private final JobLockService jobLockService;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${scheduler.change-feed.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${scheduler.change-feed.lock-lease:10m}")
+    private Duration lockLease = Duration.ofMinutes(10);
+
+    public ChangeFeedBootstrap(ChangeFeedRepository changeFeedRepository,
+                               ChangeFeedService changeFeedService,
+                               ShiftRepository shiftRepository,
+                               ShiftAssignmentRepository assignmentRepository,
+                               ShiftProposalRepository shiftProposalRepository,
+                               SwapProposalRepository swapProposalRepository,
+                               JobLockService jobLockService,
+                               PlatformTransactionManager transactionManager) {
+        this.changeFeedRepository = changeFeedRepository;
+        this.changeFeedService = changeFeedService;
+        this.shiftRepository = shiftRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.shiftProposalRepository = shiftProposalRepository;
+        this.swapProposalRepository = swapProposalRepository;
+        this.jobLockService = jobLockService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws InterruptedException {
+        LocalDateTime giveUpAt = LocalDateTime.now().plus(lockLease);
+
+        while (!changeFeedRepository.existsByChangeType(ChangeType.SNAPSHOT)) {
+            if (jobLockService.tryAcquire(JOB, lockLease)) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> snapshotAll());
+                } finally {
+                    jobLockService.release(JOB, LocalDateTime.now());
+                }
+                return;
+            }
+
+            if (LocalDateTime.now().isAfter(giveUpAt)) {
+                log.warn(logHeader + "afterPropertiesSet: Another instance has been taking the snapshot for {}, starting without it", lockLease);
+                return;
+            }
+
+            log.info(logHeader + "afterPropertiesSet: Another instance is taking the snapshot, waiting");
+            Thread.sleep(2000);
+        }
+    }
+
+    private void snapshotAll() {
+        // Someone else finished between our check and the lock
+        if (changeFeedRepository.existsByChangeType(ChangeType.SNAPSHOT)) {
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+
+        int shifts = snapshot(ChangeEntityType.SHIFT, after -> shiftRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(chunkSize)),
+                              Shift::getId, this::shiftSnapshots);
+        int shiftProposals = snapshot(ChangeEntityType.SHIFT_PROPOSAL, after -> shiftProposalRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(chunkSize)),
+                                      p -> p.getId(), page -> page.stream().map(changeFeedService::snapshot).toList());
+        int swapProposals = snapshot(ChangeEntityType.SWAP_PROPOSAL, after -> swapProposalRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(chunkSize)),
+                                     p -> p.getId(), page -> page.stream().map(changeFeedService::snapshot).toList());
+
+        log.info(logHeader + "snapshotAll: Change feed started with {} shifts, {} shift proposals and {} swap proposals in {} ms",
+                 shifts, shiftProposals, swapProposals, System.currentTimeMillis() - started);
+    }
+
+    // Pages through a table by id, one SNAPSHOT entry per page (and one, empty, for an empty table)
+    private <T> int snapshot(ChangeEntityType entityType, Function<Long, List<T>> page, Function<T, Long> id, Function<List<T>, List<?>> snapshots) {
+        long after = 0;
+        int rows = 0;
+
+        List<T> rowsOfPage = page.apply(after);
+        if (rowsOfPage.isEmpty()) {
+            changeFeedService.recordSnapshot(entityType, List.of());
+        }
+
+        while (!rowsOfPage.isEmpty()) {
+            changeFeedService.recordSnapshot(entityType, snapshots.apply(rowsOfPage));
+            rows += rowsOfPage.size();
+            after = id.apply(rowsOfPage.get(rowsOfPage.size() - 1));
+
+            // Swap proposals may have picked up their role, the rest of the page isn't needed anymore
+            entityManager.flush();
+            entityManager.clear();
+
+            rowsOfPage = page.apply(after);
+        }
+
+        return rows;
+    }
+
+    private List<ChangeFeedService.ShiftSnapshot> shiftSnapshots(List<Shift> page) {
+        Map<Long, List<Long>> assignees = new HashMap<>();
+        for (ShiftAssignment assignment : assignmentRepository.findByShiftIdIn(page.stream().map(Shift::getId).toList())) {
+            if (assignment.getStatus() == AssignmentStatus.CONFIRMED) {
+                assignees.computeIfAbsent(assignment.getShift().getId(), k -> new ArrayList<>()).add(assignment.getUserId());
+            }
+        }
+
+        return page.stream()
+            .map(shift -> changeFeedService.snapshot(shift, assignees.getOrDefault(shift.getId(), List.of()).stream().sorted().toList()))
+            .toList();
+    }
+}
@@ -0,0 +1,42 @@
+package com.LIT.scheduler.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * 'notification_outbox.recipient' used to be NOT NULL. Rows queued for a user id get their address only when they're
+ * sent, and the schema update doesn't relax existing columns, so it's done here once.
+ * Runs once the EntityManagerFactory (and with it the schema update) is ready, before the web server takes requests.
+ */
+@Component
+@Slf4j
+public class NotificationOutboxSchemaAligner implements InitializingBean {
+
+    private final String logHeader = "[NotificationOutboxSchemaAligner] - ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Only so this runs after the schema update
+    public NotificationOutboxSchemaAligner(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        List<String> nullable = jdbcTemplate.queryForList(
+            "SELECT IS_NULLABLE FROM INFORMATION_SCHEMA.COLUMNS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'notification_outbox' AND COLUMN_NAME = 'recipient'",
+            String.class);
+
+        if (!nullable.isEmpty() && "NO".equalsIgnoreCase(nullable.get(0))) {
+            jdbcTemplate.execute("ALTER TABLE notification_outbox MODIFY recipient VARCHAR(255) NULL");
+            log.info(logHeader + "afterPropertiesSet: notification_outbox.recipient made nullable");
+        }
+    }
+}
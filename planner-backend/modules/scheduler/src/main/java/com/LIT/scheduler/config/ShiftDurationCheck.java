@@ -0,0 +1,57 @@
+package com.LIT.scheduler.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * New and updated shifts can't be longer than 'max-duration' (ShiftService, the bulk import, shift proposals), shifts
+ * saved before that limit or under a higher one can. The calendar window queries only look 'max-duration' back, such
+ * a shift doesn't show up in windows that start after it did. Nothing is changed, the shifts are counted at startup
+ * (one scan of 'shifts') and reported so 'max-duration' can be raised or the shifts split.
+ */
+@Component
+@Slf4j
+public class ShiftDurationCheck implements InitializingBean {
+
+    private final String logHeader = "[ShiftDurationCheck] - ";
+
+    // Ids listed in the warning at most
+    private static final int MAX_LISTED = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${scheduler.shifts.max-duration:24h}")
+    private Duration maxShiftDuration = Duration.ofHours(24);
+
+    public ShiftDurationCheck(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        long maxSeconds = maxShiftDuration.toSeconds();
+        Long count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM shifts WHERE TIMESTAMPDIFF(SECOND, start_time, end_time) > ?", Long.class, maxSeconds);
+
+        if (count == null || count == 0) {
+            return;
+        }
+
+        List<Long> ids = jdbcTemplate.queryForList(
+            "SELECT id FROM shifts WHERE TIMESTAMPDIFF(SECOND, start_time, end_time) > ? ORDER BY id LIMIT " + MAX_LISTED,
+            Long.class, maxSeconds);
+        Long longest = jdbcTemplate.queryForObject(
+            "SELECT MAX(TIMESTAMPDIFF(SECOND, start_time, end_time)) FROM shifts", Long.class);
+
+        log.warn(logHeader + "afterPropertiesSet: {} shifts are longer than max-duration ({} hours, the longest {} hours) and "
+                 + "are missing from calendar windows starting after them: {}{}. Raise SCHEDULER_SHIFT_MAX_DURATION or split them",
+                 count, maxShiftDuration.toHours(), Duration.ofSeconds(longest).toHours(), ids, count > MAX_LISTED ? ", ..." : "");
+    }
+}
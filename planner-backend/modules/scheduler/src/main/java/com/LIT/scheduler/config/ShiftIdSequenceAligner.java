@@ -0,0 +1,47 @@
+package com.LIT.scheduler.config;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.LIT.scheduler.model.entity.Shift;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * 'shifts' used to get its ids from AUTO_INCREMENT. The sequence that replaced it is created by the schema update
+ * starting at 1, so before the first insert it's moved past the ids already in the table.
+ * Runs once the EntityManagerFactory (and with it the schema update) is ready, before the web server takes requests.
+ */
+@Component
+@Slf4j
+public class ShiftIdSequenceAligner implements InitializingBean {
+
+    private static final String SEQUENCE = "shifts_seq";
+
+    private final String logHeader = "[ShiftIdSequenceAligner] - ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
+
+    public ShiftIdSequenceAligner(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM shifts", Long.class);
+        long next = jdbcTemplate.queryForObject(dialect.getSequenceSupport().getSequenceNextValString(SEQUENCE), Long.class);
+
+        // Hibernate hands out the block (value - allocation size, value], its lowest id has to be above maxId
+        if (next - Shift.ID_ALLOCATION_SIZE < maxId) {
+            long restartWith = maxId + Shift.ID_ALLOCATION_SIZE;
+            jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE + " RESTART WITH " + restartWith);
+            log.info(logHeader + "afterPropertiesSet: Sequence {} restarted at {} (highest shift id: {})", SEQUENCE, restartWith, maxId);
+        }
+    }
+}
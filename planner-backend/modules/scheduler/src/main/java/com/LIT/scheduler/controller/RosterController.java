@@ -0,0 +1,132 @@
+package com.LIT.scheduler.controller;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.LIT.scheduler.model.dto.RosterApplyResultDTO;
+import com.LIT.scheduler.model.dto.RosterPlanDTO;
+import com.LIT.scheduler.model.dto.RosterRequestDTO;
+import com.LIT.scheduler.service.RosterService;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Roster generation: preview a plan for the open shifts, re-solve it after changes, save it as assignments
+@RestController
+@RequestMapping("/api/scheduler/roster")
+@Slf4j
+public class RosterController {
+    private final RosterService rosterService;
+
+    private final String logHeader = "[RosterController] - ";
+
+    @Autowired
+    public RosterController(RosterService rosterService) {
+        this.rosterService = rosterService;
+    }
+
+    private Set<String> getPermissions(String permissions) {
+        return Arrays.stream(permissions.split(","))
+                    .map(String::trim)
+                    .collect(Collectors.toSet());
+    }
+
+    private <T> ResponseEntity<T> denyWithoutShiftManagement(String permissions) {
+        if(permissions == null || permissions.isEmpty()) {
+            log.error(logHeader + "ERROR! User permissions are not provided in the header");
+            return ResponseEntity.badRequest().build();
+        }
+
+        if(!getPermissions(permissions).contains("SHIFT_MANAGEMENT")) {
+            log.error(logHeader + "ERROR! Missing permission 'SHIFT_MANAGEMENT'. The user permissions are: " + permissions);
+            return ResponseEntity.status(403).build();
+        }
+
+        return null;
+    }
+
+    @PostMapping("/preview")
+    public ResponseEntity<RosterPlanDTO> preview(@RequestBody RosterRequestDTO request,
+                                                 @RequestHeader("X-User-Permissions") String permissions) {
+        log.info(logHeader + "preview: Planning open shifts from " + request.getFrom() + " to " + request.getTo());
+
+        ResponseEntity<RosterPlanDTO> denied = denyWithoutShiftManagement(permissions);
+        if (denied != null) {
+            return denied;
+        }
+
+        try {
+            return ResponseEntity.ok(rosterService.preview(request));
+
+        } catch (IllegalArgumentException ex) {
+            log.error(logHeader + "preview: " + ex.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{planId}")
+    public ResponseEntity<RosterPlanDTO> getPlan(@PathVariable String planId,
+                                                 @RequestHeader("X-User-Permissions") String permissions) {
+        log.info(logHeader + "getPlan: Getting plan " + planId);
+
+        ResponseEntity<RosterPlanDTO> denied = denyWithoutShiftManagement(permissions);
+        if (denied != null) {
+            return denied;
+        }
+
+        return rosterService.getPlan(planId).map(ResponseEntity::ok)
+                            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // Plans again from the current data, keeping as much of the plan as possible
+    @PostMapping("/{planId}/resolve")
+    public ResponseEntity<RosterPlanDTO> resolve(@PathVariable String planId,
+                                                 @RequestHeader("X-User-Permissions") String permissions) {
+        log.info(logHeader + "resolve: Re-solving plan " + planId);
+
+        ResponseEntity<RosterPlanDTO> denied = denyWithoutShiftManagement(permissions);
+        if (denied != null) {
+            return denied;
+        }
+
+        return rosterService.resolve(planId).map(ResponseEntity::ok)
+                            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // 409 when the plan no longer fits the current data (nothing saved then, the plan can be re-solved)
+    @PostMapping("/{planId}/apply")
+    public ResponseEntity<RosterApplyResultDTO> apply(@PathVariable String planId,
+                                                      @RequestHeader("X-User-Permissions") String permissions) {
+        log.info(logHeader + "apply: Applying plan " + planId);
+
+        ResponseEntity<RosterApplyResultDTO> denied = denyWithoutShiftManagement(permissions);
+        if (denied != null) {
+            return denied;
+        }
+
+        Optional<RosterApplyResultDTO> result = rosterService.apply(planId);
+
+        if (result.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        if (!result.get().getConflicts().isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(result.get());
+        }
+
+        log.info(logHeader + "apply: " + result.get().getCreated() + " assignments created");
+        return ResponseEntity.ok(result.get());
+    }
+}
@@ -1,9 +1,13 @@
 package com.LIT.scheduler.controller;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,10 +16,18 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.LIT.common.model.dto.CursorPage;
+import com.LIT.scheduler.model.dto.ShiftCalendarDTO;
+import com.LIT.scheduler.model.dto.ShiftImportResultDTO;
 import com.LIT.scheduler.model.entity.Shift;
+import com.LIT.scheduler.service.ShiftImportService;
 import com.LIT.scheduler.service.ShiftService;
+import com.LIT.common.utilities.NdjsonStreams;
+import com.LIT.scheduler.utilities.ShiftCsvReader;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -24,12 +36,16 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class ShiftController {
     private final ShiftService shiftService;
+    private final ShiftImportService shiftImportService;
+    private final NdjsonStreams ndjsonStreams;
 
     private final String logHeader = "[ShiftController] - ";
 
     @Autowired
-    public ShiftController(ShiftService shiftService) {
+    public ShiftController(ShiftService shiftService, ShiftImportService shiftImportService, NdjsonStreams ndjsonStreams) {
         this.shiftService = shiftService;
+        this.shiftImportService = shiftImportService;
+        this.ndjsonStreams = ndjsonStreams;
     }
 
     @GetMapping("/hello")
@@ -44,6 +60,44 @@ public class ShiftController {
         return shiftService.getAllShifts();
     }
 
+    // Keyset pages ordered by start time, pass the page's 'nextCursor' as 'after' to get the following one
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<Shift>> getShiftsPage(@RequestParam(required = false) String after,
+                                                           @RequestParam(required = false) Integer limit) {
+        log.info(logHeader + "getShiftsPage: Getting shifts after cursor: " + after);
+        try {
+            return ResponseEntity.ok(shiftService.getShiftsPage(after, limit));
+
+        } catch (IllegalArgumentException ex) {
+            log.error(logHeader + "getShiftsPage: " + ex.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // All shifts as NDJSON, written while they are read from the database
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllShifts() {
+        log.info(logHeader + "streamAllShifts: Streaming all shifts");
+        return ndjsonStreams.response(shiftService::streamAllShifts);
+    }
+
+    // Calendar view: shifts overlapping the visible window, e.g. /range?from=2025-03-01T00:00:00&to=2025-03-08T00:00:00&ownerId=7
+    @GetMapping("/range")
+    public ResponseEntity<List<ShiftCalendarDTO>> getShiftsInRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long ownerId,
+            @RequestParam(required = false) String role) {
+        log.info(logHeader + "getShiftsInRange: Getting shifts from " + from + " to " + to);
+        try {
+            return ResponseEntity.ok(shiftService.getShiftsInRange(from, to, ownerId, role));
+
+        } catch (IllegalArgumentException ex) {
+            log.error(logHeader + "getShiftsInRange: " + ex.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Shift> getShiftById(@PathVariable Long id) {
         log.info(logHeader + "getShiftById: Getting shift with id: " + id);
@@ -53,9 +107,60 @@ public class ShiftController {
     }
 
     @PostMapping("/create")
-    public Shift createShift(@RequestBody Shift shift) {
+    public ResponseEntity<Shift> createShift(@RequestBody Shift shift) {
         log.info(logHeader + "createShift: Creating new shift");
-        return shiftService.saveShift(shift);
+        try {
+            return ResponseEntity.ok(shiftService.saveShift(shift));
+
+        } catch (IllegalArgumentException ex) {
+            log.error(logHeader + "createShift: " + ex.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /*
+     * Roster import, all or nothing: 400 lists invalid rows, 409 overlapping ones (within the batch or with existing shifts).
+     * '?validateOnly=true' only runs the checks. JSON: an array of shifts. CSV: see ShiftCsvReader for the columns.
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ShiftImportResultDTO> importShifts(@RequestBody List<Shift> shifts,
+                                                             @RequestParam(defaultValue = "false") boolean validateOnly) {
+        log.info(logHeader + "importShifts: Importing " + shifts.size() + " shifts");
+        return importResponse(shiftImportService.importShifts(shifts, validateOnly));
+    }
+
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    public ResponseEntity<ShiftImportResultDTO> importShiftsCsv(@RequestBody String csv,
+                                                                @RequestParam(defaultValue = "false") boolean validateOnly) {
+        log.info(logHeader + "importShiftsCsv: Importing shifts from CSV");
+        List<Shift> shifts;
+
+        try {
+            shifts = ShiftCsvReader.read(csv);
+
+        } catch (IllegalArgumentException ex) {
+            log.error(logHeader + "importShiftsCsv: " + ex.getMessage());
+            return ResponseEntity.badRequest().body(ShiftImportResultDTO.builder()
+                .validateOnly(validateOnly)
+                .errors(List.of(ex.getMessage()))
+                .conflicts(List.of())
+                .build());
+        }
+
+        return importResponse(shiftImportService.importShifts(shifts, validateOnly));
+    }
+
+    private ResponseEntity<ShiftImportResultDTO> importResponse(ShiftImportResultDTO result) {
+        if (!result.getErrors().isEmpty()) {
+            return ResponseEntity.badRequest().body(result);
+        }
+
+        if (!result.getConflicts().isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+        }
+
+        log.info(logHeader + "importShifts: " + result.getCreated() + " shifts created");
+        return ResponseEntity.ok(result);
     }
 
     @PutMapping("/{id}")
@@ -66,6 +171,10 @@ public class ShiftController {
             log.info(logHeader + "updateShift: Shift updated successfully");
             return ResponseEntity.ok(updatedShift);
 
+        } catch (IllegalArgumentException ex) {
+            log.error(logHeader + "updateShift: " + ex.getMessage());
+            return ResponseEntity.badRequest().build();
+
         } catch (RuntimeException ex) {
             log.error(logHeader + "updateShift: " + ex.getMessage());
             return ResponseEntity.notFound().build();
@@ -1,7 +1,9 @@
 package com.LIT.scheduler.controller;
 
+import com.LIT.common.model.dto.CursorPage;
 import com.LIT.scheduler.model.entity.ShiftProposal;
 import com.LIT.scheduler.service.ShiftProposalService;
+import com.LIT.common.utilities.NdjsonStreams;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -9,6 +11,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.method.P;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Arrays;
@@ -22,12 +25,14 @@ import java.util.stream.Collectors;
 public class ShiftProposalController {
 
     private final ShiftProposalService proposalService;
+    private final NdjsonStreams ndjsonStreams;
 
     private final static String logHeader = "[ShiftProposalController] - ";
 
     @Autowired
-    public ShiftProposalController(ShiftProposalService proposalService) {
+    public ShiftProposalController(ShiftProposalService proposalService, NdjsonStreams ndjsonStreams) {
         this.proposalService = proposalService;
+        this.ndjsonStreams = ndjsonStreams;
     }
 
     private Set<String> getPermissions(String permissions) {
@@ -96,6 +101,52 @@ public class ShiftProposalController {
         return ResponseEntity.ok(proposals);
     }
 
+    // Manager pages through all proposals by id, pass the page's 'nextCursor' as 'after' to get the following one
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<ShiftProposal>> getProposalsPage(@RequestHeader("X-User-Permissions") String permissions,
+                                                                      @RequestParam(required = false) Long after,
+                                                                      @RequestParam(required = false) Integer limit) {
+        log.info(logHeader + "getProposalsPage: Getting proposals after id: " + after);
+
+        ResponseEntity<CursorPage<ShiftProposal>> denied = denyWithoutApproval(permissions, "getProposalsPage");
+        if(denied != null) {
+            return denied;
+        }
+
+        return ResponseEntity.ok(proposalService.getProposalsPage(after, limit));
+    }
+
+    // Manager exports all proposals as NDJSON, written while they are read from the database
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllProposals(@RequestHeader("X-User-Permissions") String permissions) {
+        log.info(logHeader + "streamAllProposals: Streaming all proposals");
+
+        ResponseEntity<StreamingResponseBody> denied = denyWithoutApproval(permissions, "streamAllProposals");
+        if(denied != null) {
+            return denied;
+        }
+
+        return ndjsonStreams.response(proposalService::streamAllProposals);
+    }
+
+    // Same checks as getAllProposals: null when the user may see all proposals, otherwise the response to send back
+    private <T> ResponseEntity<T> denyWithoutApproval(String permissions, String method) {
+        if(permissions == null || permissions.isEmpty()) {
+            log.error(logHeader + method + ": ERROR! User permissions are not provided in the header");
+
+            return ResponseEntity.badRequest().build();
+        }
+
+        if(!getPermissions(permissions).contains("PROPOSAL_APPROVAL")) {
+            log.error(logHeader + method + ": ERROR! User does not have permission to get all proposals. The user permissions is: " + permissions);
+            log.info(logHeader + "The needed permission is: 'PROPOSAL_APPROVAL'");
+
+            return ResponseEntity.status(403).build();
+        }
+
+        return null;
+    }
+
     // Manager accepts proposal
     @PutMapping("/{proposalId}/accept")
     public ResponseEntity<ShiftProposal> acceptProposal(@PathVariable Long proposalId) {
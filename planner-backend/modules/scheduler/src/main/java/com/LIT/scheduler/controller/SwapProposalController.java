@@ -10,10 +10,14 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.LIT.common.model.dto.CursorPage;
 import com.LIT.scheduler.model.entity.SwapProposal;
 import com.LIT.scheduler.service.SwapProposalService;
+import com.LIT.common.utilities.NdjsonStreams;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -23,11 +27,13 @@ import lombok.extern.slf4j.Slf4j;
 public class SwapProposalController {
 
     private final SwapProposalService proposalService;
+    private final NdjsonStreams ndjsonStreams;
     private final static String logHeader = "[SwapProposalController] - ";
 
     @Autowired
-    public SwapProposalController(SwapProposalService proposalService) {
+    public SwapProposalController(SwapProposalService proposalService, NdjsonStreams ndjsonStreams) {
         this.proposalService = proposalService;
+        this.ndjsonStreams = ndjsonStreams;
     }
 
     @PutMapping("/test")
@@ -112,4 +118,19 @@ public class SwapProposalController {
         List<SwapProposal> proposals = proposalService.getAllProposals();
         return ResponseEntity.ok(proposals);
     }
+
+    // Manager pages through all proposals by id, pass the page's 'nextCursor' as 'after' to get the following one
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<SwapProposal>> getProposalsPage(@RequestParam(required = false) Long after,
+                                                                     @RequestParam(required = false) Integer limit) {
+        log.info(logHeader + "getProposalsPage: Getting proposals after id: " + after);
+        return ResponseEntity.ok(proposalService.getProposalsPage(after, limit));
+    }
+
+    // Manager exports all proposals as NDJSON, written while they are read from the database
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllProposals() {
+        log.info(logHeader + "streamAllProposals: Streaming all proposals");
+        return ndjsonStreams.response(proposalService::streamAllProposals);
+    }
 }
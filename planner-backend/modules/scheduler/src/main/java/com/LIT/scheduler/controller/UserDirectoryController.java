@@ -0,0 +1,97 @@
+package com.LIT.scheduler.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.LIT.scheduler.service.AuthUserService;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Evictions for the scheduler's user cache, called by the auth module (X-Service-Token) when users change
+@RestController
+@RequestMapping("/api/scheduler/directory")
+@Slf4j
+public class UserDirectoryController {
+    private final AuthUserService authUserService;
+
+    private final String logHeader = "[UserDirectoryController] - ";
+
+    // Same value as auth's 'auth.directory.service-token', empty: only user permissions are accepted
+    @Value("${scheduler.directory.service-token:}")
+    private String serviceToken = "";
+
+    @Autowired
+    public UserDirectoryController(AuthUserService authUserService) {
+        this.authUserService = authUserService;
+    }
+
+    private Set<String> getPermissions(String permissions) {
+        return Arrays.stream(permissions.split(","))
+                    .map(String::trim)
+                    .collect(Collectors.toSet());
+    }
+
+    private boolean isAuthModule(String token) {
+        return !serviceToken.isEmpty() && token != null
+            && MessageDigest.isEqual(serviceToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ResponseEntity<Void> denyWithoutManagement(String token, String permissions) {
+        if (isAuthModule(token)) {
+            return null;
+        }
+
+        if(permissions == null || permissions.isEmpty()) {
+            log.error(logHeader + "ERROR! User permissions are not provided in the header");
+            return ResponseEntity.badRequest().build();
+        }
+
+        if(!getPermissions(permissions).contains("EMPLOYEE_MANAGEMENT")) {
+            log.error(logHeader + "ERROR! Missing permission 'EMPLOYEE_MANAGEMENT'. The user permissions are: " + permissions);
+            return ResponseEntity.status(403).build();
+        }
+
+        return null;
+    }
+
+    @DeleteMapping("/users/{id}")
+    public ResponseEntity<Void> evictUser(@PathVariable Long id,
+                                          @RequestHeader(value = "X-Service-Token", required = false) String token,
+                                          @RequestHeader(value = "X-User-Permissions", required = false) String permissions) {
+        log.info(logHeader + "evictUser: Evicting cached user with id: " + id);
+
+        ResponseEntity<Void> denied = denyWithoutManagement(token, permissions);
+        if (denied != null) {
+            return denied;
+        }
+
+        authUserService.evict(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/users")
+    public ResponseEntity<Void> evictAllUsers(@RequestHeader(value = "X-Service-Token", required = false) String token,
+                                              @RequestHeader(value = "X-User-Permissions", required = false) String permissions) {
+        log.info(logHeader + "evictAllUsers: Evicting all cached users");
+
+        ResponseEntity<Void> denied = denyWithoutManagement(token, permissions);
+        if (denied != null) {
+            return denied;
+        }
+
+        authUserService.evictAll();
+        return ResponseEntity.noContent().build();
+    }
+}
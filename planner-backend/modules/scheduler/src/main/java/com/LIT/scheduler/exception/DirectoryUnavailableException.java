@@ -0,0 +1,8 @@
+package com.LIT.scheduler.exception;
+
+// The auth module's user directory couldn't be asked (down, slow, refused) and nothing usable was cached
+public class DirectoryUnavailableException extends RuntimeException {
+    public DirectoryUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,20 @@
+package com.LIT.scheduler.model.dto;
+
+public class AuthRoleDTO {
+    private Long id;
+    private String name;
+
+    // Getters and setters
+    public Long getId() {
+        return id;
+    }
+    public void setId(Long id) {
+        this.id = id;
+    }
+    public String getName() {
+        return name;
+    }
+    public void setName(String name) {
+        this.name = name;
+    }
+}
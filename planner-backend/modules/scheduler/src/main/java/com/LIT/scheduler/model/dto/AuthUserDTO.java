@@ -1,8 +1,12 @@
 package com.LIT.scheduler.model.dto;
 
+import java.util.List;
+
 public class AuthUserDTO {
     private Long id;
     private String email;
+    private String username;
+    private List<AuthRoleDTO> roles;
 
     // Getters and setters
     public Long getId() {
@@ -17,4 +21,16 @@ public class AuthUserDTO {
     public void setEmail(String email) {
         this.email = email;
     }
+    public String getUsername() {
+        return username;
+    }
+    public void setUsername(String username) {
+        this.username = username;
+    }
+    public List<AuthRoleDTO> getRoles() {
+        return roles;
+    }
+    public void setRoles(List<AuthRoleDTO> roles) {
+        this.roles = roles;
+    }
 }
@@ -0,0 +1,16 @@
+package com.LIT.scheduler.model.dto;
+
+import java.util.List;
+import lombok.*;
+
+// Outcome of saving a roster plan: either every assignment was created, or none and 'conflicts' tell why
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RosterApplyResultDTO {
+    private String planId;
+    private int created;
+    private List<String> conflicts;
+}
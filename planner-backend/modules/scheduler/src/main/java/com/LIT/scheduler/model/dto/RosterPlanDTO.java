@@ -0,0 +1,58 @@
+package com.LIT.scheduler.model.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import lombok.*;
+
+// A generated roster, kept by the scheduler under 'planId' until it's applied (or expires)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RosterPlanDTO {
+    private String planId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private List<Assignment> assignments;
+    // Shifts the engine couldn't staff, with the reason
+    private List<OpenShift> openShifts;
+    // Hours per employee within the horizon, existing shifts included
+    private Map<Long, Double> hours;
+    // Re-solves only: assignments that differ from the previous version of the plan
+    private long changed;
+    private long iterations;
+    private int workers;
+    private long elapsedMs;
+    private List<String> warnings;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Assignment {
+        private Long shiftId;
+        private String title;
+        private String role;
+        private LocalDateTime startTime;
+        private LocalDateTime endTime;
+        private Long userId;
+        private String userName;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class OpenShift {
+        private Long shiftId;
+        private String title;
+        private String role;
+        private LocalDateTime startTime;
+        private LocalDateTime endTime;
+        private String reason;
+    }
+}
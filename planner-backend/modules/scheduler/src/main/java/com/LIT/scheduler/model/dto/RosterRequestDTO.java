@@ -0,0 +1,37 @@
+package com.LIT.scheduler.model.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.*;
+
+// What the roster engine should plan: the open shifts starting within [from, to), staffed from 'employeeIds'
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RosterRequestDTO {
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private List<Long> employeeIds;
+    // Only these open shifts (all open shifts in the horizon when empty)
+    private List<Long> shiftIds;
+    // Times the employees can't work
+    private List<Unavailability> unavailability;
+    // Minimum time between two shifts of an employee (default: scheduler.roster.rest-period)
+    private Integer restHours;
+    // Most hours an employee may work within the horizon, existing shifts included (no cap when empty)
+    private Integer maxHoursPerEmployee;
+    // How long the engine may search (default: scheduler.roster.time-limit)
+    private Long timeLimitMs;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Unavailability {
+        private Long employeeId;
+        private LocalDateTime from;
+        private LocalDateTime to;
+    }
+}
@@ -0,0 +1,21 @@
+package com.LIT.scheduler.model.dto;
+
+import java.time.LocalDateTime;
+import lombok.*;
+
+// Read-only view of a shift for the calendar, projected straight from the query (no managed entities).
+// Field names match Shift so the frontend can read both the same way.
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShiftCalendarDTO {
+    private Long id;
+    private String title;
+    private Long shiftOwnerId;
+    private String shiftOwnerName;
+    private String shiftOwnerRole;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+}
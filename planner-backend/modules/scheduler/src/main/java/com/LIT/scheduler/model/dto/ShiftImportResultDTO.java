@@ -0,0 +1,20 @@
+package com.LIT.scheduler.model.dto;
+
+import java.util.List;
+import lombok.*;
+
+// Outcome of a roster import: either every shift was created, or none and 'errors' / 'conflicts' tell why
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShiftImportResultDTO {
+    private int received;
+    private int created;
+    private boolean validateOnly;
+    // Rows that can't be imported as they are (missing fields, end before start, ...)
+    private List<String> errors;
+    // Overlaps between rows, or between a row and a shift the employee already owns or is assigned to
+    private List<String> conflicts;
+}
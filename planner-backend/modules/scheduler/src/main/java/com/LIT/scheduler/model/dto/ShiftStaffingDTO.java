@@ -0,0 +1,25 @@
+package com.LIT.scheduler.model.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.*;
+
+// A shift with the number of employees on it (owner & confirmed assignments of everyone else), see ShiftRepository.findStaffing
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShiftStaffingDTO {
+    private Long shiftId;
+    private String title;
+    private String role;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private Long ownerId;
+    private Integer minimumStaff;
+    private Long assigned;
+
+    public int getStaffed() {
+        return (ownerId != null ? 1 : 0) + (assigned != null ? assigned.intValue() : 0);
+    }
+}
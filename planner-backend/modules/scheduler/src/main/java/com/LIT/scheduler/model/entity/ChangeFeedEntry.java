@@ -0,0 +1,44 @@
+package com.LIT.scheduler.model.entity;
+
+import com.LIT.scheduler.model.enums.ChangeEntityType;
+import com.LIT.scheduler.model.enums.ChangeType;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/*
+ * One entry of the change feed (see ChangeFeedService), written in the transaction of the change it describes.
+ * Entries are never updated or deleted: consumers read them in 'seq' order and remember the last one they applied.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "change_feed")
+public class ChangeFeedEntry {
+    // AUTO_INCREMENT: increasing, but handed out at insert and committed in any order, so a consumer can see gaps for a while
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private ChangeEntityType entityType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ChangeType changeType;
+
+    // null when the entry covers several entities (imports, roster plans, snapshots)
+    private Long entityId;
+
+    // JSON array of {"before": ..., "after": ...}, one element per entity
+    @Lob
+    @Column(nullable = false)
+    private String changes;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,26 @@
+package com.LIT.scheduler.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// Lease on a background job, so only one scheduler instance runs it at a time (see JobLockService)
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "job_locks")
+public class JobLock {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    // Free again from then on, also when the holder died without releasing it
+    @Column(nullable = false)
+    private LocalDateTime lockedUntil;
+
+    @Column(nullable = false)
+    private String lockedBy;
+}
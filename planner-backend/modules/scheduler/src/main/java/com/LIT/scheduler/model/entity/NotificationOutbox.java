@@ -0,0 +1,52 @@
+package com.LIT.scheduler.model.entity;
+
+import com.LIT.scheduler.model.enums.NotificationStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// An email waiting to be sent, written in the same transaction as the change it's about
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "notification_outbox", indexes = {
+    @Index(name = "idx_notification_outbox_status_next", columnList = "status, nextAttemptAt")
+})
+public class NotificationOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // The address, or null until the dispatcher looked up 'recipientUserId' (after the change committed)
+    private String recipient;
+
+    private Long recipientUserId;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false, length = 4096)
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private NotificationStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    // Earliest next try (PENDING) or end of the claim (SENDING)
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 1024)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+}
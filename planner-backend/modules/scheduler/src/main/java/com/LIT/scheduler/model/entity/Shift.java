@@ -2,11 +2,16 @@ package com.LIT.scheduler.model.entity;
 
 import java.time.LocalDateTime;
 
+import com.LIT.scheduler.model.listener.ConflictIndexListener;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -20,10 +25,20 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "shifts")
+@Table(name = "shifts", indexes = {
+    // Calendar window per employee, and overall (see ShiftRepository.findCalendarWindow*)
+    @Index(name = "idx_shifts_owner_start_end", columnList = "shiftOwnerId, startTime, endTime"),
+    @Index(name = "idx_shifts_start", columnList = "startTime")
+})
+@EntityListeners(ConflictIndexListener.class)
 public class Shift {
+    // Ids from a sequence in blocks of 50 (not IDENTITY), so Hibernate can batch the inserts of a roster import.
+    // The sequence is moved past the existing ids at startup, see ShiftIdSequenceAligner.
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shifts_seq")
+    @SequenceGenerator(name = "shifts_seq", sequenceName = "shifts_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private Long shiftOwnerId;
@@ -35,6 +50,9 @@ public class Shift {
 
     private String shiftOwnerRole;
 
+    // Employees the shift needs (owner & confirmed assignments), null: the role's or the default minimum applies (see ShiftScheduler)
+    private Integer minimumStaff;
+
     @Column(nullable = false)
     private LocalDateTime startTime;
 
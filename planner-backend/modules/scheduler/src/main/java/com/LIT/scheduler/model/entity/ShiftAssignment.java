@@ -1,6 +1,7 @@
 package com.LIT.scheduler.model.entity;
 
 import com.LIT.scheduler.model.enums.AssignmentStatus;
+import com.LIT.scheduler.model.listener.ConflictIndexListener;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -10,7 +11,11 @@ import lombok.*;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "shift_assignments")
+@Table(name = "shift_assignments", indexes = {
+    // Staffing per shift (see ShiftRepository.findStaffing)
+    @Index(name = "idx_shift_assignments_shift_status", columnList = "shift_id, status")
+})
+@EntityListeners(ConflictIndexListener.class)
 public class ShiftAssignment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
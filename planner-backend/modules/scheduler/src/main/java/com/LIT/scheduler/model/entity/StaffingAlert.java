@@ -0,0 +1,34 @@
+package com.LIT.scheduler.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// Last understaffing alert sent for a shift. Another one only goes out when the staffing gets worse than 'staffed'
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "staffing_alerts", indexes = {
+    @Index(name = "idx_staffing_alerts_shift_start", columnList = "shiftStart")
+})
+public class StaffingAlert {
+    // One row per shift, also keeps two scanners from alerting the same shift twice
+    @Id
+    private Long shiftId;
+
+    // Copied from the shift, so the alerts of a window can be loaded (and past ones purged) without a join
+    @Column(nullable = false)
+    private LocalDateTime shiftStart;
+
+    @Column(nullable = false)
+    private int required;
+
+    @Column(nullable = false)
+    private int staffed;
+
+    @Column(nullable = false)
+    private LocalDateTime alertedAt;
+}
@@ -25,6 +25,9 @@ public class SwapProposal {
     @Column(name = "current_shift_id", nullable = false)
     private Long currentShiftId;
 
+    // Role of the employee, taken from the current shift when the proposal is first recorded in the change feed
+    private String employeeRole;
+
     // Proposed shift details by employee
     @Column(nullable = false)
     private String proposedTitle;
@@ -0,0 +1,9 @@
+package com.LIT.scheduler.model.enums;
+
+// What a change_feed entry is about
+public enum ChangeEntityType {
+    SHIFT,
+    ASSIGNMENT,
+    SHIFT_PROPOSAL,
+    SWAP_PROPOSAL
+}
@@ -0,0 +1,8 @@
+package com.LIT.scheduler.model.enums;
+
+public enum ChangeType {
+    CREATED,    // 'after' only
+    UPDATED,    // 'before' and 'after'
+    DELETED,    // 'before' only
+    SNAPSHOT    // Rows that existed before the feed did, 'after' only (see ChangeFeedBootstrap)
+}
@@ -0,0 +1,8 @@
+package com.LIT.scheduler.model.enums;
+
+public enum NotificationStatus {
+    PENDING,    // Waiting for the dispatcher (first try or retry after backoff)
+    SENDING,    // Claimed by a dispatcher, back to claimable once 'nextAttemptAt' passed
+    SENT,       // Handed over to the mail server
+    DEAD        // Gave up after the maximum number of attempts
+}
@@ -0,0 +1,81 @@
+package com.LIT.scheduler.model.listener;
+
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.LIT.scheduler.model.entity.Shift;
+import com.LIT.scheduler.model.entity.ShiftAssignment;
+import com.LIT.scheduler.service.ShiftConflictIndex;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/*
+ * Keeps ShiftConflictIndex in line with 'shifts' & 'shift_assignments'. The entity's state is copied when the write is flushed
+ * and handed to the index only once the transaction committed, a rolled back write never shows up in it.
+ * Created by Hibernate through Spring (entity listeners are Spring-managed beans in Boot).
+ * JPQL bulk updates & deletes bypass entity listeners, there are none on these tables.
+ */
+public class ConflictIndexListener {
+
+    private final ShiftConflictIndex conflictIndex;
+
+    @Autowired
+    public ConflictIndexListener(ShiftConflictIndex conflictIndex) {
+        this.conflictIndex = conflictIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void saved(Object entity) {
+        if (entity instanceof Shift shift) {
+            Long shiftId = shift.getId();
+            Long ownerId = shift.getShiftOwnerId();
+            LocalDateTime start = shift.getStartTime();
+            LocalDateTime end = shift.getEndTime();
+
+            afterCommit(() -> conflictIndex.shiftSaved(shiftId, ownerId, start, end));
+
+        } else if (entity instanceof ShiftAssignment assignment && assignment.getShift() != null) {
+            Long assignmentId = assignment.getId();
+            Long userId = assignment.getUserId();
+            Shift shift = assignment.getShift();
+            Long shiftId = shift.getId();
+            LocalDateTime start = shift.getStartTime();
+            LocalDateTime end = shift.getEndTime();
+
+            afterCommit(() -> conflictIndex.assignmentSaved(assignmentId, userId, shiftId, start, end));
+        }
+    }
+
+    @PostRemove
+    public void removed(Object entity) {
+        if (entity instanceof Shift shift) {
+            Long shiftId = shift.getId();
+            afterCommit(() -> conflictIndex.shiftRemoved(shiftId));
+
+        } else if (entity instanceof ShiftAssignment assignment && assignment.getShift() != null) {
+            Long assignmentId = assignment.getId();
+            Long shiftId = assignment.getShift().getId();
+            afterCommit(() -> conflictIndex.assignmentRemoved(assignmentId, shiftId));
+        }
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,13 @@
+package com.LIT.scheduler.model.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.LIT.scheduler.model.entity.ChangeFeedEntry;
+import com.LIT.scheduler.model.enums.ChangeType;
+
+@Repository
+public interface ChangeFeedRepository extends JpaRepository<ChangeFeedEntry, Long> {
+
+    boolean existsByChangeType(ChangeType changeType);
+}
@@ -0,0 +1,29 @@
+package com.LIT.scheduler.model.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.LIT.scheduler.model.entity.JobLock;
+
+@Repository
+public interface JobLockRepository extends JpaRepository<JobLock, String> {
+
+    // Takes the lock if it's free (expired), returns the number of rows changed: 1 when taken
+    @Modifying
+    @Query("UPDATE JobLock l SET l.lockedUntil = ?2, l.lockedBy = ?3 WHERE l.name = ?1 AND l.lockedUntil <= ?4")
+    int claim(String name, LocalDateTime lockedUntil, String lockedBy, LocalDateTime now);
+
+    // First lease of a job. Plain INSERT (not save(), which merges): a second instance creating the row fails on the primary key
+    @Modifying
+    @Query(value = "INSERT INTO job_locks (name, locked_until, locked_by) VALUES (?1, ?2, ?3)", nativeQuery = true)
+    int insert(String name, LocalDateTime lockedUntil, String lockedBy);
+
+    // Shortens the lease of a lock we hold
+    @Modifying
+    @Query("UPDATE JobLock l SET l.lockedUntil = ?2 WHERE l.name = ?1 AND l.lockedBy = ?3")
+    int release(String name, LocalDateTime lockedUntil, String lockedBy);
+}
@@ -0,0 +1,37 @@
+package com.LIT.scheduler.model.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import com.LIT.scheduler.model.entity.NotificationOutbox;
+import com.LIT.scheduler.model.enums.NotificationStatus;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    // Due notifications, locked for the claiming transaction. Rows another dispatcher holds are skipped (FOR UPDATE SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = "-2"))
+    List<NotificationOutbox> findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(Collection<NotificationStatus> statuses,
+                                                                                       LocalDateTime now,
+                                                                                       Limit limit);
+
+    long countByStatus(NotificationStatus status);
+
+    @Modifying
+    @Query("DELETE FROM NotificationOutbox n WHERE n.status = com.LIT.scheduler.model.enums.NotificationStatus.SENT AND n.sentAt < ?1")
+    int deleteSentBefore(LocalDateTime cutoff);
+}
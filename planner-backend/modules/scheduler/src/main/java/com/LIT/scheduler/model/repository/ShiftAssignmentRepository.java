@@ -1,12 +1,14 @@
 package com.LIT.scheduler.model.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import com.LIT.scheduler.model.entity.ShiftAssignment;
+import com.LIT.scheduler.model.enums.AssignmentStatus;
 
 @Repository
 public interface ShiftAssignmentRepository extends JpaRepository<ShiftAssignment, Long> {
@@ -21,6 +23,21 @@ public interface ShiftAssignmentRepository extends JpaRepository<ShiftAssignment
     @Query("SELECT sa FROM ShiftAssignment sa WHERE sa.userId = ?1 AND sa.shift.startTime < ?3 AND sa.shift.endTime > ?2")
     List<ShiftAssignment> findConflictingAssignments(Long userId, LocalDateTime newShiftStart, LocalDateTime newShiftEnd);
 
+    // Conflict index warm load, with the shifts' times
+    @Query("SELECT sa FROM ShiftAssignment sa JOIN FETCH sa.shift s WHERE s.endTime > ?1")
+    List<ShiftAssignment> findWithShiftEndingAfter(LocalDateTime horizon);
+
+    // Roster import: assignments of any of these users to shifts overlapping [from, to), with the shifts' times
+    @Query("SELECT sa FROM ShiftAssignment sa JOIN FETCH sa.shift s WHERE sa.userId IN ?1 AND s.startTime < ?3 AND s.endTime > ?2")
+    List<ShiftAssignment> findOverlappingForUsers(Collection<Long> userIds, LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT sa FROM ShiftAssignment sa WHERE sa.shift.id IN ?1")
+    List<ShiftAssignment> findByShiftIdIn(Collection<Long> shiftIds);
+
+    // Change feed: who works a shift through an assignment in 'status'
+    @Query("SELECT sa.userId FROM ShiftAssignment sa WHERE sa.shift.id = ?1 AND sa.status = ?2 ORDER BY sa.userId")
+    List<Long> findUserIdsByShiftIdAndStatus(Long shiftId, AssignmentStatus status);
+
     // Find assignment by user id and shift id
     @Query("SELECT sa FROM ShiftAssignment sa WHERE sa.userId = ?1 AND sa.shift.id = ?2")
     Optional<ShiftAssignment> findByUserIdAndShiftId(Long userId, Long shiftId);
@@ -1,15 +1,31 @@
 package com.LIT.scheduler.model.repository;
 
 import com.LIT.scheduler.model.entity.ShiftProposal;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.hibernate.jpa.HibernateHints;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ShiftProposalRepository extends JpaRepository<ShiftProposal, Long> {
 
     @Query("SELECT sp FROM ShiftProposal sp WHERE sp.employeeId = ?1")
     List<ShiftProposal> findByEmployeeId(Long employeeId);
-}
\ No newline at end of file
+
+    // Keyset pages by id
+    List<ShiftProposal> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // Whole table as a cursor, rows are fetched from the database in batches while the stream is consumed
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT sp FROM ShiftProposal sp ORDER BY sp.id")
+    Stream<ShiftProposal> streamAll();
+}
@@ -1,21 +1,110 @@
 package com.LIT.scheduler.model.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.hibernate.jpa.HibernateHints;
 
+import com.LIT.scheduler.model.dto.ShiftCalendarDTO;
+import com.LIT.scheduler.model.dto.ShiftStaffingDTO;
 import com.LIT.scheduler.model.entity.Shift;
+import com.LIT.scheduler.model.enums.AssignmentStatus;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 
 public interface ShiftRepository extends JpaRepository<Shift, Long> {
     List<Shift> findByStartTimeBetween(LocalDateTime start, LocalDateTime end);
 
-    @Query("SELECT s FROM Shift s WHERE s.shiftOwnerId = ?1 AND " +
-           "((s.startTime BETWEEN ?2 AND ?3) OR " +
-           "(s.endTime BETWEEN ?2 AND ?3) OR " +
-           "(?2 BETWEEN s.startTime AND s.endTime))")
+    // Conflict detection: the owner's shifts overlapping [start, end), same half-open rule as ShiftAssignmentRepository.findConflictingAssignments
+    @Query("SELECT s FROM Shift s WHERE s.shiftOwnerId = ?1 AND s.startTime < ?3 AND s.endTime > ?2")
     List<Shift> findConflictingShifts(Long shiftOwnerId, LocalDateTime start, LocalDateTime end);
 
+    // Conflict index warm load
+    List<Shift> findByEndTimeAfter(LocalDateTime horizon);
+
+    // Shifts of any of these employees overlapping [from, to), a roster import checks all its rows against them at once
+    @Query("SELECT s FROM Shift s WHERE s.shiftOwnerId IN ?1 AND s.startTime < ?3 AND s.endTime > ?2")
+    List<Shift> findOverlappingForOwners(Collection<Long> shiftOwnerIds, LocalDateTime from, LocalDateTime to);
+
+    // Roster engine: shifts without an owner (open shifts) starting within [from, to)
+    @Query("SELECT s FROM Shift s WHERE s.shiftOwnerId IS NULL AND s.startTime >= ?1 AND s.startTime < ?2 ORDER BY s.startTime, s.id")
+    List<Shift> findOpenShifts(LocalDateTime from, LocalDateTime to);
+
+    // Roster apply: the plan's shifts, locked for the applying transaction (SELECT ... FOR UPDATE), in id order so
+    // two plans sharing shifts wait for each other instead of deadlocking
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Shift s WHERE s.id IN ?1 ORDER BY s.id")
+    List<Shift> lockByIdIn(Collection<Long> ids);
+
+    // Understaffing scan: every shift starting within [from, to) with its number of assignments in 'status', one grouped
+    // query (idx_shifts_start, idx_shift_assignments_shift_status) instead of a lookup per shift. The owner's own
+    // assignment isn't counted, ShiftStaffingDTO counts the owner already
+    @Query("SELECT new com.LIT.scheduler.model.dto.ShiftStaffingDTO(s.id, s.title, s.shiftOwnerRole, s.startTime, s.endTime, "
+         + "s.shiftOwnerId, s.minimumStaff, COUNT(DISTINCT a.userId)) "
+         + "FROM Shift s LEFT JOIN ShiftAssignment a ON a.shift = s AND a.status = ?3 "
+         + "AND (s.shiftOwnerId IS NULL OR a.userId <> s.shiftOwnerId) "
+         + "WHERE s.startTime >= ?1 AND s.startTime < ?2 "
+         + "GROUP BY s.id, s.title, s.shiftOwnerRole, s.startTime, s.endTime, s.shiftOwnerId, s.minimumStaff "
+         + "ORDER BY s.startTime, s.id")
+    List<ShiftStaffingDTO> findStaffing(LocalDateTime from, LocalDateTime to, AssignmentStatus status);
+
     List<Shift> findByShiftOwnerId(Long shiftOwnerId);
+
+    /*
+     * Calendar window: every shift overlapping [from, to), i.e. starting before 'to' and ending after 'from'.
+     * 'earliestStart' (from - longest possible shift) bounds the index range on startTime,
+     * without it the endTime condition would have to look at every shift that started before 'to'.
+     */
+    @Query("SELECT new com.LIT.scheduler.model.dto.ShiftCalendarDTO(" +
+           "s.id, s.title, s.shiftOwnerId, s.shiftOwnerName, s.shiftOwnerRole, s.startTime, s.endTime) " +
+           "FROM Shift s WHERE s.startTime >= :earliestStart AND s.startTime < :to AND s.endTime > :from " +
+           "AND (:role IS NULL OR s.shiftOwnerRole = :role) " +
+           "ORDER BY s.startTime")
+    List<ShiftCalendarDTO> findCalendarWindow(@Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to,
+                                              @Param("earliestStart") LocalDateTime earliestStart,
+                                              @Param("role") String role);
+
+    // Same window for a single employee, served by the (shiftOwnerId, startTime, endTime) index
+    @Query("SELECT new com.LIT.scheduler.model.dto.ShiftCalendarDTO(" +
+           "s.id, s.title, s.shiftOwnerId, s.shiftOwnerName, s.shiftOwnerRole, s.startTime, s.endTime) " +
+           "FROM Shift s WHERE s.shiftOwnerId = :ownerId " +
+           "AND s.startTime >= :earliestStart AND s.startTime < :to AND s.endTime > :from " +
+           "AND (:role IS NULL OR s.shiftOwnerRole = :role) " +
+           "ORDER BY s.startTime")
+    List<ShiftCalendarDTO> findCalendarWindowForOwner(@Param("ownerId") Long ownerId,
+                                                      @Param("from") LocalDateTime from,
+                                                      @Param("to") LocalDateTime to,
+                                                      @Param("earliestStart") LocalDateTime earliestStart,
+                                                      @Param("role") String role);
+
+    /*
+     * Keyset pages ordered by (startTime, id), id breaks ties between shifts starting at the same time.
+     * Served by idx_shifts_start: InnoDB secondary indexes carry the primary key, so it's (start_time, id) on disk.
+     */
+    List<Shift> findAllByOrderByStartTimeAscIdAsc(Limit limit);
+
+    @Query("SELECT s FROM Shift s WHERE s.startTime > :afterStart OR (s.startTime = :afterStart AND s.id > :afterId) " +
+           "ORDER BY s.startTime, s.id")
+    List<Shift> findPageAfter(@Param("afterStart") LocalDateTime afterStart, @Param("afterId") Long afterId, Limit limit);
+
+    // Keyset pages by id
+    List<Shift> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // Whole table as a cursor, rows are fetched from the database in batches while the stream is consumed
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s FROM Shift s ORDER BY s.id")
+    Stream<Shift> streamAll();
 }
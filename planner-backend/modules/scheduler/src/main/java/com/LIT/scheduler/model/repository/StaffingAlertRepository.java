@@ -0,0 +1,22 @@
+package com.LIT.scheduler.model.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.LIT.scheduler.model.entity.StaffingAlert;
+
+@Repository
+public interface StaffingAlertRepository extends JpaRepository<StaffingAlert, Long> {
+
+    @Query("SELECT a FROM StaffingAlert a WHERE a.shiftStart >= ?1 AND a.shiftStart < ?2")
+    List<StaffingAlert> findByShiftStartInWindow(LocalDateTime from, LocalDateTime to);
+
+    @Modifying
+    @Query("DELETE FROM StaffingAlert a WHERE a.shiftStart < ?1")
+    int deleteByShiftStartBefore(LocalDateTime cutoff);
+}
@@ -1,16 +1,33 @@
 package com.LIT.scheduler.model.repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.hibernate.jpa.HibernateHints;
 
 import com.LIT.scheduler.model.entity.SwapProposal;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface SwapProposalRepository extends JpaRepository<SwapProposal, Long> {
 
     @Query("SELECT sp FROM SwapProposal sp WHERE sp.employeeId = ?1")
     List<SwapProposal> findByEmployeeId(Long employeeId);
+
+    // Keyset pages by id
+    List<SwapProposal> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // Whole table as a cursor, rows are fetched from the database in batches while the stream is consumed
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT sp FROM SwapProposal sp ORDER BY sp.id")
+    Stream<SwapProposal> streamAll();
 }
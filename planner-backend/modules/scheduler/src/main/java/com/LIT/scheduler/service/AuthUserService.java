@@ -1,56 +1,267 @@
 package com.LIT.scheduler.service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import com.LIT.scheduler.exception.DirectoryUnavailableException;
 import com.LIT.scheduler.model.dto.AuthUserDTO;
 
 import lombok.extern.slf4j.Slf4j;
 
+/*
+ * Scheduler's view of the user directory in the auth module (id -> email, name, roles).
+ *  - Users are cached for 'ttl', unknown ids for 'negative-ttl'. The auth module evicts changed users
+ *    through UserDirectoryController, the TTL covers evictions that got lost.
+ *  - Lookups for several users fetch all the missing ones in one request (POST /api/auth/users/batch).
+ *  - Concurrent lookups of the same id share one request.
+ *  - When the auth module can't be reached, expired entries are still used for up to 'stale-for', otherwise the
+ *    lookup fails with DirectoryUnavailableException.
+ *  - Requests carry the scheduler's service token ('service-token', X-Service-Token) instead of user permissions.
+ * Writes don't wait for it: emails store the user id and NotificationDispatcher looks the address up after commit.
+ */
 @Service
 @Slf4j
 public class AuthUserService {
 
+    // Ids per batch request, the auth module doesn't take more
+    private static final int MAX_BATCH = 500;
+
+    private final String logHeader = "[AuthUserService] - ";
+
     private final RestTemplate restTemplate;
-    
+
     // Inject the auth service base URL from your YAML configuration
     @Value("${address.auth.url}")
     private String authServiceBaseUrl;
 
+    // Identifies the scheduler to the auth module, the same value as auth's 'auth.directory.service-token'
+    @Value("${scheduler.directory.service-token:}")
+    private String serviceToken = "";
+
+    @Value("${scheduler.directory.ttl:10m}")
+    private Duration ttl = Duration.ofMinutes(10);
+
+    @Value("${scheduler.directory.negative-ttl:1m}")
+    private Duration negativeTtl = Duration.ofMinutes(1);
+
+    @Value("${scheduler.directory.stale-for:1h}")
+    private Duration staleFor = Duration.ofHours(1);
+
+    @Value("${scheduler.directory.max-entries:10000}")
+    private int maxEntries = 10_000;
+
+    private final Map<Long, CachedUser> cache = new ConcurrentHashMap<>();
+
+    private final Map<Long, CompletableFuture<CachedUser>> inFlight = new ConcurrentHashMap<>();
+
     public AuthUserService(RestTemplate restTemplate) {
         this.restTemplate = restTemplate;
     }
 
     public String getUserEmailById(Long userId) {
-        // Use the correct endpoint; here we assume the auth service exposes /api/auth/users/{userId}
-        String url = authServiceBaseUrl + "/api/auth/users/" + userId;
-        log.debug("[AuthUserService] - Constructed URL: {}", url);
+        return getUserById(userId)
+            .map(AuthUserDTO::getEmail)
+            .orElseThrow(() -> new IllegalArgumentException("No user with id: " + userId));
+    }
 
-        // Set the header to a value allowed by the auth service.
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("X-User-Permissions", "EMPLOYEE_MANAGEMENT"); // Have the correct permissions
-        log.debug("[AuthUserService] - Headers being sent: {}", headers);
+    public Optional<AuthUserDTO> getUserById(Long userId) {
+        if (userId == null) {
+            return Optional.empty();
+        }
 
-        HttpEntity<?> entity = new HttpEntity<>(headers);
-        
-        try {
-            ResponseEntity<AuthUserDTO> response = restTemplate.exchange(url, HttpMethod.GET, entity, AuthUserDTO.class);
-            log.debug("[AuthUserService] - Response received: {} with body: {}", response.getStatusCode(), response.getBody());
-            if(response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                String email = response.getBody().getEmail();
-                log.debug("[AuthUserService] - Extracted email: {}", email);
-                return email;
+        return Optional.ofNullable(getUsersById(List.of(userId)).get(userId));
+    }
+
+    // The known users among 'userIds', unknown (and null) ids are left out. DirectoryUnavailableException when the auth module couldn't be asked.
+    public Map<Long, AuthUserDTO> getUsersById(Collection<Long> userIds) {
+        long now = System.currentTimeMillis();
+
+        Map<Long, AuthUserDTO> users = new HashMap<>();
+        Map<Long, CompletableFuture<CachedUser>> claimed = new LinkedHashMap<>();
+        Map<Long, CompletableFuture<CachedUser>> waiting = new HashMap<>();
+
+        for (Long userId : new LinkedHashSet<>(userIds)) {
+            if (userId == null) {
+                continue;
+            }
+
+            CachedUser cached = cache.get(userId);
+
+            if (cached != null && cached.isFresh(now)) {
+                if (cached.user != null) {
+                    users.put(userId, cached.user);
+                }
+                continue;
+            }
+
+            // Whoever registers the lookup first asks the auth module, everyone else waits for that answer
+            CompletableFuture<CachedUser> lookup = new CompletableFuture<>();
+            CompletableFuture<CachedUser> running = inFlight.putIfAbsent(userId, lookup);
+
+            if (running == null) {
+                claimed.put(userId, lookup);
             } else {
-                log.error("[AuthUserService] - Non-successful response: {} with body: {}", response.getStatusCode(), response.getBody());
+                waiting.put(userId, running);
+            }
+        }
+
+        if (!claimed.isEmpty()) {
+            fetch(claimed);
+        }
+
+        Map<Long, CompletableFuture<CachedUser>> lookups = new HashMap<>(claimed);
+        lookups.putAll(waiting);
+
+        lookups.forEach((userId, lookup) -> {
+            try {
+                CachedUser result = lookup.join();
+                if (result.user != null) {
+                    users.put(userId, result.user);
+                }
+
+            } catch (CompletionException e) {
+                throw new DirectoryUnavailableException("Unable to retrieve user with id: " + userId, e.getCause());
+            }
+        });
+
+        return users;
+    }
+
+    // Drops a user (e.g. after the auth module changed it), the next lookup asks the auth module again
+    public void evict(Long userId) {
+        log.debug(logHeader + "evict: Evicting user {}", userId);
+        cache.remove(userId);
+    }
+
+    public void evictAll() {
+        log.debug(logHeader + "evictAll: Evicting {} users", cache.size());
+        cache.clear();
+    }
+
+    public int cachedUsers() {
+        return cache.size();
+    }
+
+    private void fetch(Map<Long, CompletableFuture<CachedUser>> claimed) {
+        try {
+            Map<Long, AuthUserDTO> loaded = load(new ArrayList<>(claimed.keySet()));
+            long now = System.currentTimeMillis();
+
+            claimed.forEach((userId, lookup) -> {
+                AuthUserDTO user = loaded.get(userId);
+                CachedUser entry = new CachedUser(user, now + (user != null ? ttl : negativeTtl).toMillis());
+
+                cache.put(userId, entry);
+                lookup.complete(entry);
+            });
+
+            trim(now);
+
+        } catch (RuntimeException e) {
+            long now = System.currentTimeMillis();
+
+            claimed.forEach((userId, lookup) -> {
+                CachedUser stale = cache.get(userId);
+
+                if (stale != null && stale.isUsable(now, staleFor)) {
+                    log.warn(logHeader + "fetch: Auth service unavailable, using cached entry for user {}: {}", userId, e.getMessage());
+                    lookup.complete(stale);
+
+                } else {
+                    lookup.completeExceptionally(e);
+                }
+            });
+
+        } finally {
+            claimed.forEach(inFlight::remove);
+        }
+    }
+
+    private Map<Long, AuthUserDTO> load(List<Long> userIds) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Service-Token", serviceToken);
+
+        Map<Long, AuthUserDTO> users = new HashMap<>();
+
+        if (userIds.size() == 1) {
+            Long userId = userIds.get(0);
+            String url = authServiceBaseUrl + "/api/auth/users/" + userId;
+            log.debug(logHeader + "load: Getting user from {}", url);
+
+            try {
+                ResponseEntity<AuthUserDTO> response = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), AuthUserDTO.class);
+
+                if (response.getBody() != null) {
+                    users.put(userId, response.getBody());
+                }
+
+            } catch (HttpClientErrorException.NotFound e) {
+                log.debug(logHeader + "load: User {} not found", userId);
             }
-        } catch(Exception ex) {
-            log.error("[AuthUserService] - Exception occurred while calling auth service: ", ex);
+
+            return users;
+        }
+
+        String url = authServiceBaseUrl + "/api/auth/users/batch";
+
+        for (int from = 0; from < userIds.size(); from += MAX_BATCH) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + MAX_BATCH, userIds.size()));
+            log.debug(logHeader + "load: Getting {} users from {}", chunk.size(), url);
+
+            ResponseEntity<List<AuthUserDTO>> response = restTemplate.exchange(url, HttpMethod.POST, new HttpEntity<>(chunk, headers),
+                                                                              new ParameterizedTypeReference<List<AuthUserDTO>>() {});
+
+            if (response.getBody() != null) {
+                response.getBody().forEach(user -> users.put(user.getId(), user));
+            }
+        }
+
+        return users;
+    }
+
+    // Keeps the cache bounded: drops what's too old to be used even as a fallback, everything if that's not enough
+    private void trim(long now) {
+        if (cache.size() <= maxEntries) {
+            return;
+        }
+
+        cache.values().removeIf(entry -> !entry.isUsable(now, staleFor));
+
+        if (cache.size() > maxEntries) {
+            log.warn(logHeader + "trim: More than {} users cached, clearing the cache", maxEntries);
+            cache.clear();
+        }
+    }
+
+    // 'user' is null for ids the auth module doesn't know
+    private record CachedUser(AuthUserDTO user, long expiresAt) {
+
+        private boolean isFresh(long now) {
+            return now < expiresAt;
+        }
+
+        private boolean isUsable(long now, Duration staleFor) {
+            return now < expiresAt + staleFor.toMillis();
         }
-        throw new RuntimeException("Unable to retrieve user email for user id: " + userId);
     }
 }
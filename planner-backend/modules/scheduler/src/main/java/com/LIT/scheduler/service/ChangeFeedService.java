@@ -0,0 +1,209 @@
+package com.LIT.scheduler.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.LIT.scheduler.model.entity.ChangeFeedEntry;
+import com.LIT.scheduler.model.entity.Shift;
+import com.LIT.scheduler.model.entity.ShiftAssignment;
+import com.LIT.scheduler.model.entity.ShiftProposal;
+import com.LIT.scheduler.model.entity.SwapProposal;
+import com.LIT.scheduler.model.enums.AssignmentStatus;
+import com.LIT.scheduler.model.enums.ChangeEntityType;
+import com.LIT.scheduler.model.enums.ChangeType;
+import com.LIT.scheduler.model.enums.ShiftProposalStatus;
+import com.LIT.scheduler.model.repository.ChangeFeedRepository;
+import com.LIT.scheduler.model.repository.ShiftAssignmentRepository;
+import com.LIT.scheduler.model.repository.ShiftRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Ordered feed of the changes to shifts, assignments and proposals, in the 'change_feed' table. The services record
+ * an entry in the transaction of the change itself, so the feed holds exactly the committed changes (like the
+ * notification outbox). Consumers (the statistics module) read it by 'seq' from their last checkpoint.
+ *  - Every entry carries the state before and after the change, so a consumer can take back what it counted before
+ *    without keeping a copy of the tables. Only what consumers need is in the snapshots, see the records below.
+ *  - A shift carries its confirmed assignees: when its times or role change, their hours move with it.
+ *  - Changes that don't touch the snapshot (a new title, say) aren't recorded.
+ */
+@Service
+@Slf4j
+public class ChangeFeedService {
+
+    private final String logHeader = "[ChangeFeedService] - ";
+
+    // 'assignees': users confirmed on the shift through an assignment, the owner not included
+    public record ShiftSnapshot(Long id, Long ownerId, String role, LocalDateTime start, LocalDateTime end, List<Long> assignees) {
+    }
+
+    // With the role and times of its shift at the time of the change
+    public record AssignmentSnapshot(Long id, Long shiftId, Long userId, AssignmentStatus status, String role,
+                                     LocalDateTime start, LocalDateTime end) {
+    }
+
+    // Shift and swap proposals alike, 'start' is the proposed start
+    public record ProposalSnapshot(Long id, Long employeeId, String role, LocalDateTime start, ShiftProposalStatus status) {
+    }
+
+    public record Change<T>(T before, T after) {
+    }
+
+    private final ChangeFeedRepository changeFeedRepository;
+    private final ShiftAssignmentRepository assignmentRepository;
+    private final ShiftRepository shiftRepository;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public ChangeFeedService(ChangeFeedRepository changeFeedRepository,
+                             ShiftAssignmentRepository assignmentRepository,
+                             ShiftRepository shiftRepository,
+                             ObjectMapper objectMapper) {
+        this.changeFeedRepository = changeFeedRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.shiftRepository = shiftRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public ShiftSnapshot snapshot(Shift shift) {
+        return snapshot(shift, assignmentRepository.findUserIdsByShiftIdAndStatus(shift.getId(), AssignmentStatus.CONFIRMED));
+    }
+
+    public ShiftSnapshot snapshot(Shift shift, List<Long> assignees) {
+        return new ShiftSnapshot(shift.getId(), shift.getShiftOwnerId(), shift.getShiftOwnerRole(), shift.getStartTime(), shift.getEndTime(), assignees);
+    }
+
+    // The shift as stored: the one on an assignment may have come with the request (already loaded ones cost no query)
+    public AssignmentSnapshot snapshot(ShiftAssignment assignment) {
+        Shift shift = assignment.getShift().getId() == null
+            ? assignment.getShift()
+            : shiftRepository.findById(assignment.getShift().getId()).orElse(assignment.getShift());
+        return new AssignmentSnapshot(assignment.getId(), shift.getId(), assignment.getUserId(), assignment.getStatus(),
+                                      shift.getShiftOwnerRole(), shift.getStartTime(), shift.getEndTime());
+    }
+
+    public ProposalSnapshot snapshot(ShiftProposal proposal) {
+        return new ProposalSnapshot(proposal.getId(), proposal.getEmployeeId(), proposal.getEmployeeRole(),
+                                    proposal.getProposedStartTime(), proposal.getStatus());
+    }
+
+    /*
+     * The role is read from the current shift once and kept on the proposal: the shift may change hands later,
+     * the 'before' of the next change has to match the 'after' recorded now.
+     */
+    public ProposalSnapshot snapshot(SwapProposal proposal) {
+        if (proposal.getEmployeeRole() == null && proposal.getCurrentShiftId() != null) {
+            shiftRepository.findById(proposal.getCurrentShiftId())
+                .ifPresent(shift -> proposal.setEmployeeRole(shift.getShiftOwnerRole()));
+        }
+
+        return new ProposalSnapshot(proposal.getId(), proposal.getEmployeeId(), proposal.getEmployeeRole(),
+                                    proposal.getProposedStartTime(), proposal.getStatus());
+    }
+
+    // 'before' null: created, 'after' null: deleted
+    @Transactional
+    public void shiftChanged(ShiftSnapshot before, ShiftSnapshot after) {
+        record(ChangeEntityType.SHIFT, before, after);
+    }
+
+    // Bulk inserts (shift import): one entry for all of them
+    @Transactional
+    public void shiftsCreated(Collection<Shift> shifts) {
+        if (shifts.isEmpty()) {
+            return;
+        }
+
+        List<Change<ShiftSnapshot>> changes = new ArrayList<>(shifts.size());
+        shifts.forEach(shift -> changes.add(new Change<>(null, snapshot(shift, List.of()))));
+        record(ChangeEntityType.SHIFT, ChangeType.CREATED, null, changes);
+    }
+
+    @Transactional
+    public void assignmentChanged(AssignmentSnapshot before, AssignmentSnapshot after) {
+        record(ChangeEntityType.ASSIGNMENT, before, after);
+    }
+
+    // Bulk inserts (roster plans): one entry for all of them
+    @Transactional
+    public void assignmentsCreated(Collection<ShiftAssignment> assignments) {
+        if (assignments.isEmpty()) {
+            return;
+        }
+
+        List<Change<AssignmentSnapshot>> changes = new ArrayList<>(assignments.size());
+        assignments.forEach(assignment -> changes.add(new Change<>(null, snapshot(assignment))));
+        record(ChangeEntityType.ASSIGNMENT, ChangeType.CREATED, null, changes);
+    }
+
+    @Transactional
+    public void shiftProposalChanged(ProposalSnapshot before, ProposalSnapshot after) {
+        record(ChangeEntityType.SHIFT_PROPOSAL, before, after);
+    }
+
+    @Transactional
+    public void swapProposalChanged(ProposalSnapshot before, ProposalSnapshot after) {
+        record(ChangeEntityType.SWAP_PROPOSAL, before, after);
+    }
+
+    // Rows that were there before the feed, see ChangeFeedBootstrap. Recorded even when there are none, as a marker
+    @Transactional
+    public void recordSnapshot(ChangeEntityType entityType, List<?> rows) {
+        List<Change<?>> changes = new ArrayList<>(rows.size());
+        rows.forEach(row -> changes.add(new Change<>(null, row)));
+        record(entityType, ChangeType.SNAPSHOT, null, changes);
+    }
+
+    private void record(ChangeEntityType entityType, Object before, Object after) {
+        if (Objects.equals(before, after)) {
+            return;
+        }
+
+        ChangeType changeType = before == null ? ChangeType.CREATED : after == null ? ChangeType.DELETED : ChangeType.UPDATED;
+        Long entityId = id(after != null ? after : before);
+
+        record(entityType, changeType, entityId, List.of(new Change<>(before, after)));
+    }
+
+    private void record(ChangeEntityType entityType, ChangeType changeType, Long entityId, List<? extends Change<?>> changes) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(changes);
+        } catch (JsonProcessingException e) {
+            // Records of ids, strings and times, can't happen
+            throw new IllegalStateException("Change feed entry not serializable: " + e.getMessage(), e);
+        }
+
+        ChangeFeedEntry entry = changeFeedRepository.save(ChangeFeedEntry.builder()
+            .entityType(entityType)
+            .changeType(changeType)
+            .entityId(entityId)
+            .changes(json)
+            .createdAt(LocalDateTime.now())
+            .build());
+
+        log.debug(logHeader + "record: {} {} {} recorded as {} ({} changes)", entityType, changeType, entityId, entry.getSeq(), changes.size());
+    }
+
+    private static Long id(Object snapshot) {
+        if (snapshot instanceof ShiftSnapshot shift) {
+            return shift.id();
+        }
+        if (snapshot instanceof AssignmentSnapshot assignment) {
+            return assignment.id();
+        }
+        if (snapshot instanceof ProposalSnapshot proposal) {
+            return proposal.id();
+        }
+        return null;
+    }
+}
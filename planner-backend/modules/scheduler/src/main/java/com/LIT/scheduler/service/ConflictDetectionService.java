@@ -0,0 +1,165 @@
+package com.LIT.scheduler.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.LIT.scheduler.model.entity.Shift;
+import com.LIT.scheduler.model.entity.ShiftAssignment;
+import com.LIT.scheduler.model.repository.ShiftAssignmentRepository;
+import com.LIT.scheduler.model.repository.ShiftRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * One answer to "does this employee already work then?" for assignments, shift proposals & swap proposals.
+ * A conflict is any shift the employee owns or is assigned to that overlaps [start, end) (half-open: back-to-back shifts don't clash).
+ * Answered from ShiftConflictIndex when it can, from the database otherwise (same semantics, see ShiftRepository.findConflictingShifts
+ * & ShiftAssignmentRepository.findConflictingAssignments). With 'verify' on, every index answer is checked against the database.
+ * The index only sees the writes of its own instance: it's off unless 'scheduler.single-instance' is set, and when it's
+ * turned on without that, 'verify' is forced on so another instance's shifts still count.
+ */
+@Service
+@Slf4j
+public class ConflictDetectionService {
+
+    private final String logHeader = "[ConflictDetectionService] - ";
+
+    private final ShiftConflictIndex conflictIndex;
+    private final ShiftRepository shiftRepository;
+    private final ShiftAssignmentRepository assignmentRepository;
+
+    private final Counter indexChecks;
+    private final Counter databaseChecks;
+    private final Counter mismatches;
+
+    @Value("${scheduler.single-instance:false}")
+    private boolean singleInstance = false;
+
+    @Value("${scheduler.conflicts.index-enabled:${scheduler.single-instance:false}}")
+    private boolean indexEnabled = false;
+
+    // Shifts that ended longer ago than this aren't loaded, older windows are checked in the database
+    @Value("${scheduler.conflicts.lookback:30d}")
+    private Duration lookback = Duration.ofDays(30);
+
+    @Value("${scheduler.conflicts.verify:false}")
+    private boolean verify = false;
+
+    @Autowired
+    public ConflictDetectionService(ShiftConflictIndex conflictIndex,
+                                    ShiftRepository shiftRepository,
+                                    ShiftAssignmentRepository assignmentRepository,
+                                    MeterRegistry meterRegistry) {
+        this.conflictIndex = conflictIndex;
+        this.shiftRepository = shiftRepository;
+        this.assignmentRepository = assignmentRepository;
+
+        this.indexChecks = Counter.builder("scheduler.conflicts.checks").tag("source", "index").register(meterRegistry);
+        this.databaseChecks = Counter.builder("scheduler.conflicts.checks").tag("source", "database").register(meterRegistry);
+        this.mismatches = Counter.builder("scheduler.conflicts.mismatches").register(meterRegistry);
+
+        Gauge.builder("scheduler.conflicts.indexed.employees", conflictIndex, ShiftConflictIndex::indexedEmployees)
+            .register(meterRegistry);
+    }
+
+    // Ids of the conflicting shifts, 'excludeShiftId' (the shift the check is about, may be null) left out
+    public List<Long> findConflicts(Long employeeId, LocalDateTime start, LocalDateTime end, Long excludeShiftId) {
+        if (indexEnabled) {
+            Optional<List<Long>> indexed = conflictIndex.findOverlapping(employeeId, start, end, excludeShiftId);
+
+            if (indexed.isPresent()) {
+                indexChecks.increment();
+
+                if (verify || !singleInstance) {
+                    List<Long> stored = findConflictsInDatabase(employeeId, start, end, excludeShiftId);
+
+                    if (!new HashSet<>(stored).equals(new HashSet<>(indexed.get()))) {
+                        mismatches.increment();
+                        log.warn(logHeader + "findConflicts: Index disagrees with the database for employee {} ({} - {}): index {}, database {}",
+                                 employeeId, start, end, indexed.get(), stored);
+                        return stored;
+                    }
+                }
+
+                return indexed.get();
+            }
+        }
+
+        databaseChecks.increment();
+        return findConflictsInDatabase(employeeId, start, end, excludeShiftId);
+    }
+
+    public boolean hasConflict(Long employeeId, LocalDateTime start, LocalDateTime end, Long excludeShiftId) {
+        return !findConflicts(employeeId, start, end, excludeShiftId).isEmpty();
+    }
+
+    private List<Long> findConflictsInDatabase(Long employeeId, LocalDateTime start, LocalDateTime end, Long excludeShiftId) {
+        TreeSet<Long> shiftIds = new TreeSet<>();
+
+        for (Shift shift : shiftRepository.findConflictingShifts(employeeId, start, end)) {
+            shiftIds.add(shift.getId());
+        }
+
+        for (ShiftAssignment assignment : assignmentRepository.findConflictingAssignments(employeeId, start, end)) {
+            shiftIds.add(assignment.getShift().getId());
+        }
+
+        if (excludeShiftId != null) {
+            shiftIds.remove(excludeShiftId);
+        }
+
+        return new ArrayList<>(shiftIds);
+    }
+
+    /*
+     * Warm load, once the application is up. Until it completes every check goes to the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void loadIndex() {
+        if (!indexEnabled) {
+            log.info(logHeader + "loadIndex: Conflict index disabled, checks go to the database");
+            return;
+        }
+
+        if (!singleInstance && !verify) {
+            log.warn(logHeader + "loadIndex: Conflict index enabled without scheduler.single-instance, every answer is verified against the database");
+        }
+
+        LocalDateTime horizon = LocalDateTime.now().minus(lookback);
+        ShiftConflictIndex.State loaded = conflictIndex.startLoading();
+
+        try {
+            List<Shift> shifts = shiftRepository.findByEndTimeAfter(horizon);
+            for (Shift shift : shifts) {
+                loaded.shiftSaved(shift.getId(), shift.getShiftOwnerId(), shift.getStartTime(), shift.getEndTime());
+            }
+
+            List<ShiftAssignment> assignments = assignmentRepository.findWithShiftEndingAfter(horizon);
+            for (ShiftAssignment assignment : assignments) {
+                Shift shift = assignment.getShift();
+                loaded.assignmentSaved(assignment.getId(), assignment.getUserId(), shift.getId(), shift.getStartTime(), shift.getEndTime());
+            }
+
+            conflictIndex.finishLoading(loaded, horizon);
+            log.info(logHeader + "loadIndex: Loaded {} shifts and {} assignments ending after {}", shifts.size(), assignments.size(), horizon);
+
+        } catch (RuntimeException e) {
+            conflictIndex.abortLoading();
+            log.error(logHeader + "loadIndex: Loading the conflict index failed, checks keep going to the database: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.LIT.scheduler.service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.LIT.scheduler.model.repository.JobLockRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Leases on background jobs in the 'job_locks' table, so a job scheduled on every scheduler instance only runs on one
+ * of them at a time. A lease is taken with a single conditional UPDATE (only when expired) and simply runs out when its
+ * holder dies, nobody has to clean up. Each call runs in its own transaction, the lease is visible to the other
+ * instances right away.
+ * Leases only keep jobs apart. State held in memory isn't shared between instances: the conflict index is only used
+ * with 'scheduler.single-instance' (see ConflictDetectionService).
+ */
+@Service
+@Slf4j
+public class JobLockService {
+
+    private final String logHeader = "[JobLockService] - ";
+
+    private final JobLockRepository jobLockRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Tells the instances apart in 'locked_by'
+    private final String instanceId = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+
+    @Autowired
+    public JobLockService(JobLockRepository jobLockRepository, PlatformTransactionManager transactionManager) {
+        this.jobLockRepository = jobLockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // True when this instance now holds the lock for 'lease'
+    public boolean tryAcquire(String name, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = transactionTemplate.execute(status -> jobLockRepository.claim(name, now.plus(lease), instanceId, now));
+
+        if (claimed != null && claimed == 1) {
+            log.debug(logHeader + "tryAcquire: Lock {} taken until {}", name, now.plus(lease));
+            return true;
+        }
+
+        // The job never ran anywhere: create the row, the primary key lets only one instance do so
+        try {
+            Boolean created = transactionTemplate.execute(status -> {
+                if (jobLockRepository.existsById(name)) {
+                    return false;
+                }
+
+                jobLockRepository.insert(name, now.plus(lease), instanceId);
+                return true;
+            });
+
+            return Boolean.TRUE.equals(created);
+
+        } catch (DataIntegrityViolationException e) {
+            log.debug(logHeader + "tryAcquire: Lock {} created by another instance", name);
+            return false;
+        }
+    }
+
+    // Ends the lease at 'lockedUntil' (now: free right away), if this instance still holds it
+    public void release(String name, LocalDateTime lockedUntil) {
+        Integer released = transactionTemplate.execute(status -> jobLockRepository.release(name, lockedUntil, instanceId));
+
+        if (released == null || released == 0) {
+            log.warn(logHeader + "release: Lock {} is no longer held by this instance, the job ran longer than its lease", name);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.LIT.scheduler.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.LIT.scheduler.exception.DirectoryUnavailableException;
+import com.LIT.scheduler.model.dto.AuthUserDTO;
+import com.LIT.scheduler.model.entity.NotificationOutbox;
+import com.LIT.scheduler.model.enums.NotificationStatus;
+import com.LIT.scheduler.model.repository.NotificationOutboxRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Drains the notification outbox in the background:
+ *  1. claim a batch of due rows (own transaction, FOR UPDATE SKIP LOCKED so several instances don't pick the same rows),
+ *  2. look up the addresses of the rows queued for a user id (one AuthUserService request), then send the batch over
+ *     one SMTP connection, outside of any transaction. A user the auth module doesn't know is DEAD right away, an
+ *     unreachable auth module is retried like a failed send,
+ *  3. record the outcome: SENT, or back to PENDING with exponential backoff, or DEAD after 'max-attempts'.
+ * A claim that is never recorded (instance died mid-send) expires after 'claim-timeout' and is picked up again,
+ * so delivery is at least once.
+ */
+@Component
+@Slf4j
+public class NotificationDispatcher implements SchedulingConfigurer {
+
+    private static final List<NotificationStatus> CLAIMABLE = List.of(NotificationStatus.PENDING, NotificationStatus.SENDING);
+
+    private final String logHeader = "[NotificationDispatcher] - ";
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    private final AuthUserService authUserService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter dead;
+
+    @Value("${scheduler.notifications.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${scheduler.notifications.poll-interval:2s}")
+    private Duration pollInterval = Duration.ofSeconds(2);
+
+    @Value("${scheduler.notifications.purge-interval:1h}")
+    private Duration purgeInterval = Duration.ofHours(1);
+
+    @Value("${scheduler.notifications.batch-size:50}")
+    private int batchSize = 50;
+
+    @Value("${scheduler.notifications.max-attempts:8}")
+    private int maxAttempts = 8;
+
+    @Value("${scheduler.notifications.backoff-initial:30s}")
+    private Duration backoffInitial = Duration.ofSeconds(30);
+
+    @Value("${scheduler.notifications.backoff-max:1h}")
+    private Duration backoffMax = Duration.ofHours(1);
+
+    @Value("${scheduler.notifications.claim-timeout:5m}")
+    private Duration claimTimeout = Duration.ofMinutes(5);
+
+    @Value("${scheduler.notifications.retention:7d}")
+    private Duration retention = Duration.ofDays(7);
+
+    @Autowired
+    public NotificationDispatcher(NotificationOutboxRepository outboxRepository,
+                                  JavaMailSender mailSender,
+                                  AuthUserService authUserService,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+        this.authUserService = authUserService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.sent = Counter.builder("scheduler.notifications.sent").register(meterRegistry);
+        this.retried = Counter.builder("scheduler.notifications.retried").register(meterRegistry);
+        this.dead = Counter.builder("scheduler.notifications.dead").register(meterRegistry);
+    }
+
+    // Registered here rather than with @Scheduled so the intervals can be durations like the rest of the configuration
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(this::dispatch, pollInterval);
+        taskRegistrar.addFixedDelayTask(this::purgeSent, purgeInterval);
+    }
+
+    public void dispatch() {
+        if (!enabled) {
+            return;
+        }
+
+        // Full batches mean there may be more waiting, keep going until the outbox is drained
+        int claimed;
+        do {
+            claimed = dispatchBatch();
+        } while (claimed == batchSize);
+    }
+
+    // Claims, sends & records one batch, returns how many notifications it claimed
+    public int dispatchBatch() {
+        List<NotificationOutbox> batch = transactionTemplate.execute(status -> claim());
+
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, Exception> failures = new HashMap<>();
+        Set<Long> unknown = address(batch, failures);
+        failures.putAll(deliver(batch, failures.keySet()));
+        transactionTemplate.executeWithoutResult(status -> record(batch, failures, unknown));
+
+        log.debug(logHeader + "dispatchBatch: {} notifications claimed, {} failed", batch.size(), failures.size());
+        return batch.size();
+    }
+
+    public void purgeSent() {
+        Integer purged = transactionTemplate.execute(status -> outboxRepository.deleteSentBefore(LocalDateTime.now().minus(retention)));
+        log.debug(logHeader + "purgeSent: {} sent notifications purged", purged);
+    }
+
+    private List<NotificationOutbox> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutbox> due = outboxRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(CLAIMABLE, now, Limit.of(batchSize));
+
+        for (NotificationOutbox notification : due) {
+            notification.setStatus(NotificationStatus.SENDING);
+            notification.setAttempts(notification.getAttempts() + 1);
+            notification.setNextAttemptAt(now.plus(claimTimeout));
+        }
+
+        return due;
+    }
+
+    // Fills in the recipient of the rows queued for a user id, returns the ids of the rows whose user doesn't exist (also added to 'failures')
+    private Set<Long> address(List<NotificationOutbox> batch, Map<Long, Exception> failures) {
+        List<NotificationOutbox> unaddressed = batch.stream().filter(notification -> notification.getRecipient() == null).toList();
+        Set<Long> unknown = new HashSet<>();
+
+        if (unaddressed.isEmpty()) {
+            return unknown;
+        }
+
+        Map<Long, AuthUserDTO> users;
+        try {
+            users = authUserService.getUsersById(unaddressed.stream().map(NotificationOutbox::getRecipientUserId).filter(Objects::nonNull).toList());
+
+        } catch (DirectoryUnavailableException e) {
+            unaddressed.forEach(notification -> failures.put(notification.getId(), e));
+            return unknown;
+        }
+
+        for (NotificationOutbox notification : unaddressed) {
+            AuthUserDTO user = users.get(notification.getRecipientUserId());
+
+            if (user == null || user.getEmail() == null || user.getEmail().isBlank()) {
+                failures.put(notification.getId(), new IllegalArgumentException("No email address for user: " + notification.getRecipientUserId()));
+                unknown.add(notification.getId());
+                continue;
+            }
+
+            notification.setRecipient(user.getEmail());
+        }
+
+        return unknown;
+    }
+
+    // Ids of the notifications that couldn't be sent, with the reason; the ones in 'skip' already failed
+    private Map<Long, Exception> deliver(List<NotificationOutbox> batch, Set<Long> skip) {
+        Map<MimeMessage, Long> ids = new IdentityHashMap<>();
+        Map<Long, Exception> failures = new HashMap<>();
+
+        for (NotificationOutbox notification : batch) {
+            if (skip.contains(notification.getId())) {
+                continue;
+            }
+
+            try {
+                MimeMessage message = mailSender.createMimeMessage();
+                MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+                helper.setTo(notification.getRecipient());
+                helper.setSubject(notification.getSubject());
+                helper.setText(notification.getBody());
+                ids.put(message, notification.getId());
+
+            } catch (MessagingException e) {
+                failures.put(notification.getId(), e);
+            }
+        }
+
+        if (ids.isEmpty()) {
+            return failures;
+        }
+
+        try {
+            // One connection to the mail server for the whole batch
+            mailSender.send(ids.keySet().toArray(new MimeMessage[0]));
+
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                ids.values().forEach(id -> failures.put(id, e));
+            }
+
+            e.getFailedMessages().forEach((message, cause) -> failures.put(ids.get(message), cause));
+
+        } catch (MailException e) {
+            ids.values().forEach(id -> failures.put(id, e));
+        }
+
+        return failures;
+    }
+
+    private void record(List<NotificationOutbox> batch, Map<Long, Exception> failures, Set<Long> unknown) {
+        LocalDateTime now = LocalDateTime.now();
+
+        for (NotificationOutbox notification : batch) {
+            Exception failure = failures.get(notification.getId());
+
+            if (failure == null) {
+                notification.setStatus(NotificationStatus.SENT);
+                notification.setSentAt(now);
+                notification.setLastError(null);
+                sent.increment();
+                log.info(logHeader + "record: Email {} sent to {} with subject: {}", notification.getId(), notification.getRecipient(), notification.getSubject());
+                continue;
+            }
+
+            notification.setLastError(describe(failure));
+
+            if (unknown.contains(notification.getId()) || notification.getAttempts() >= maxAttempts) {
+                notification.setStatus(NotificationStatus.DEAD);
+                dead.increment();
+                log.error(logHeader + "record: Giving up on email {} to {} after {} attempts: {}",
+                          notification.getId(), recipient(notification), notification.getAttempts(), notification.getLastError());
+
+            } else {
+                notification.setStatus(NotificationStatus.PENDING);
+                notification.setNextAttemptAt(now.plus(backoff(notification.getAttempts())));
+                retried.increment();
+                log.warn(logHeader + "record: Failed to send email {} to {} (attempt {}), retrying at {}: {}",
+                         notification.getId(), recipient(notification), notification.getAttempts(),
+                         notification.getNextAttemptAt(), notification.getLastError());
+            }
+        }
+
+        outboxRepository.saveAll(batch);
+    }
+
+    private String recipient(NotificationOutbox notification) {
+        return notification.getRecipient() != null ? notification.getRecipient() : "user " + notification.getRecipientUserId();
+    }
+
+    // 'backoff-initial' after the first failed attempt, doubling up to 'backoff-max'
+    private Duration backoff(int attempts) {
+        Duration delay = backoffInitial.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(backoffMax) > 0 ? backoffMax : delay;
+    }
+
+    private String describe(Exception failure) {
+        String message = failure.getMessage() != null ? failure.getMessage() : failure.getClass().getSimpleName();
+        return message.length() > 1024 ? message.substring(0, 1024) : message;
+    }
+}
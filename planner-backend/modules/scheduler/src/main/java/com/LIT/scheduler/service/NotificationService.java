@@ -1,27 +1,67 @@
 package com.LIT.scheduler.service;
 
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import java.time.LocalDateTime;
+
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.LIT.scheduler.model.entity.NotificationOutbox;
+import com.LIT.scheduler.model.enums.NotificationStatus;
+import com.LIT.scheduler.model.repository.NotificationOutboxRepository;
+
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+/*
+ * Emails go through the 'notification_outbox' table: sendEmail only stores the message, in the caller's transaction,
+ * so it's committed (or rolled back) together with the change it's about. NotificationDispatcher sends it afterwards.
+ * notifyUser stores the user id only, the dispatcher looks up the address: a write never waits for the auth module.
+ */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class NotificationService {
-    private final JavaMailSender mailSender;
+    private final NotificationOutboxRepository outboxRepository;
+
+    private final String logHeader = "[NotificationService] - ";
 
+    @Transactional
     public void sendEmail(String to, String subject, String text) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(text);
-            mailSender.send(message);
-            log.info("Email sent to {} with subject: {}", to, subject);
-        } catch (Exception e) {
-            log.error("Failed to send email to {}: {}", to, e.getMessage());
+        // Nothing to send to, the change itself still goes through
+        if (to == null || to.isBlank()) {
+            log.warn(logHeader + "sendEmail: No recipient for email with subject: {}, not queued", subject);
+            return;
         }
+
+        queue(to, null, subject, text);
+    }
+
+    // Email to a user of the auth module, addressed when it's sent
+    @Transactional
+    public void notifyUser(Long userId, String subject, String text) {
+        if (userId == null) {
+            log.warn(logHeader + "notifyUser: No recipient for email with subject: {}, not queued", subject);
+            return;
+        }
+
+        queue(null, userId, subject, text);
+    }
+
+    private void queue(String to, Long userId, String subject, String text) {
+        LocalDateTime now = LocalDateTime.now();
+
+        NotificationOutbox notification = NotificationOutbox.builder()
+            .recipient(to)
+            .recipientUserId(userId)
+            .subject(subject)
+            .body(text)
+            .status(NotificationStatus.PENDING)
+            .attempts(0)
+            .nextAttemptAt(now)
+            .createdAt(now)
+            .build();
+
+        outboxRepository.save(notification);
+        log.debug(logHeader + "queue: Queued email {} to {} with subject: {}", notification.getId(), to != null ? to : "user " + userId, subject);
     }
 }
@@ -0,0 +1,177 @@
+package com.LIT.scheduler.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import com.LIT.scheduler.utilities.IntervalTree;
+
+/*
+ * Input of the roster engine, in the compact form RosterSolver works on: slots (open shifts) and employees are
+ * addressed by index, times are epoch seconds, durations minutes.
+ *
+ * Everything that doesn't depend on the other assignments of the plan is decided here, once, per (slot, employee):
+ * the employee has the slot's role, isn't unavailable then, and none of their existing shifts (owned or assigned)
+ * is within the rest period of it. What's left are the slot's candidates; the solver only has to keep the
+ * planned slots of one employee apart and within their hours.
+ */
+public final class RosterProblem {
+
+    // An open shift to staff. 'role' null: anyone may take it
+    public record Slot(Long shiftId, LocalDateTime start, LocalDateTime end, String role) {
+    }
+
+    // Half-open [start, end)
+    public record Window(LocalDateTime start, LocalDateTime end) {
+    }
+
+    // 'roles' normalized (see normalizeRole), 'busy': shifts the employee already owns or is assigned to,
+    // 'minutes': how much of them falls into the horizon
+    public record Employee(Long id, Set<String> roles, List<Window> busy, List<Window> unavailable, long minutes) {
+    }
+
+    final List<Slot> slots;
+    final List<Employee> employees;
+
+    final long[] slotStart;
+    final long[] slotEnd;
+    final int[] slotMinutes;
+
+    // Employee indexes that may take the slot, ascending
+    final int[][] candidates;
+
+    // Employees having the slot's role, before availability & existing shifts are considered (why a slot stays open)
+    final int[] roleMatches;
+
+    final long[] baseMinutes;
+    final long maxMinutes;
+    final long restSeconds;
+
+    private RosterProblem(List<Slot> slots, List<Employee> employees, Duration restPeriod, Duration maxHours) {
+        this.slots = List.copyOf(slots);
+        this.employees = List.copyOf(employees);
+        this.restSeconds = restPeriod.toSeconds();
+        this.maxMinutes = maxHours == null ? Long.MAX_VALUE : maxHours.toMinutes();
+
+        int slotCount = slots.size();
+        int employeeCount = employees.size();
+
+        slotStart = new long[slotCount];
+        slotEnd = new long[slotCount];
+        slotMinutes = new int[slotCount];
+        candidates = new int[slotCount][];
+        roleMatches = new int[slotCount];
+        baseMinutes = new long[employeeCount];
+
+        for (int s = 0; s < slotCount; s++) {
+            Slot slot = slots.get(s);
+            slotStart[s] = seconds(slot.start());
+            slotEnd[s] = seconds(slot.end());
+            slotMinutes[s] = (int) Duration.between(slot.start(), slot.end()).toMinutes();
+        }
+
+        List<IntervalTree<Boolean>> busy = new ArrayList<>(employeeCount);
+        List<IntervalTree<Boolean>> unavailable = new ArrayList<>(employeeCount);
+
+        for (int e = 0; e < employeeCount; e++) {
+            Employee employee = employees.get(e);
+            baseMinutes[e] = employee.minutes();
+            busy.add(tree(employee.busy()));
+            unavailable.add(tree(employee.unavailable()));
+        }
+
+        for (int s = 0; s < slotCount; s++) {
+            String role = slots.get(s).role() == null ? null : normalizeRole(slots.get(s).role());
+            int[] fitting = new int[employeeCount];
+            int count = 0;
+
+            for (int e = 0; e < employeeCount; e++) {
+                if (role != null && !employees.get(e).roles().contains(role)) {
+                    continue;
+                }
+
+                roleMatches[s]++;
+
+                if (unavailable.get(e).overlaps(slotStart[s], slotEnd[s])
+                        || busy.get(e).overlaps(slotStart[s] - restSeconds, slotEnd[s] + restSeconds)
+                        || baseMinutes[e] + slotMinutes[s] > maxMinutes) {
+                    continue;
+                }
+
+                fitting[count++] = e;
+            }
+
+            candidates[s] = Arrays.copyOf(fitting, count);
+        }
+    }
+
+    /*
+     * 'maxHours' (may be null) caps the hours of each employee within the horizon, existing shifts included.
+     * Slots must end after they start.
+     */
+    public static RosterProblem of(List<Slot> slots, List<Employee> employees, Duration restPeriod, Duration maxHours) {
+        for (Slot slot : slots) {
+            if (!slot.end().isAfter(slot.start())) {
+                throw new IllegalArgumentException("Shift " + slot.shiftId() + " doesn't end after it starts");
+            }
+        }
+
+        return new RosterProblem(slots, employees, restPeriod, maxHours);
+    }
+
+    // Roles are compared case-insensitively
+    public static String normalizeRole(String role) {
+        return role.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public int slotCount() {
+        return slots.size();
+    }
+
+    public int employeeCount() {
+        return employees.size();
+    }
+
+    public Slot slot(int index) {
+        return slots.get(index);
+    }
+
+    public Employee employee(int index) {
+        return employees.get(index);
+    }
+
+    public int candidateCount(int slot) {
+        return candidates[slot].length;
+    }
+
+    public int roleMatches(int slot) {
+        return roleMatches[slot];
+    }
+
+    boolean isCandidate(int slot, int employee) {
+        return Arrays.binarySearch(candidates[slot], employee) >= 0;
+    }
+
+    private static IntervalTree<Boolean> tree(List<Window> windows) {
+        IntervalTree<Boolean> tree = new IntervalTree<>();
+        long id = 0;
+
+        for (Window window : windows) {
+            // Broken rows (end before start) can't clash with anything
+            if (window.end().isAfter(window.start())) {
+                tree.insert(seconds(window.start()), seconds(window.end()), id++, Boolean.TRUE);
+            }
+        }
+
+        return tree;
+    }
+
+    private static long seconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+}
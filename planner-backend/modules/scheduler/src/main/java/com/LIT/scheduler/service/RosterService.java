@@ -0,0 +1,515 @@
+package com.LIT.scheduler.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.LIT.scheduler.model.dto.AuthRoleDTO;
+import com.LIT.scheduler.model.dto.AuthUserDTO;
+import com.LIT.scheduler.model.dto.RosterApplyResultDTO;
+import com.LIT.scheduler.model.dto.RosterPlanDTO;
+import com.LIT.scheduler.model.dto.RosterRequestDTO;
+import com.LIT.scheduler.model.entity.Shift;
+import com.LIT.scheduler.model.entity.ShiftAssignment;
+import com.LIT.scheduler.model.enums.AssignmentStatus;
+import com.LIT.scheduler.model.repository.ShiftAssignmentRepository;
+import com.LIT.scheduler.model.repository.ShiftRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Roster generation: staffs the open shifts (no owner, no assignment yet) of a horizon from a group of employees.
+ *  - preview: loads shifts, the employees' roles (auth module) and existing shifts, runs RosterSolver and keeps the
+ *    result in memory as a plan; nothing is saved,
+ *  - resolve: after something changed (a shift moved, an employee got another shift, ...), plans again from the current
+ *    data, starting from the plan and changing as few of its assignments as possible,
+ *  - apply: locks the plan's shifts, checks the plan against the current data once more and saves it as ShiftAssignment
+ *    rows. Two plans sharing an open shift are applied one after the other, the second one finds it staffed.
+ * Plans live in this instance's memory only and expire after 'plan-ttl'.
+ */
+@Service
+@Slf4j
+public class RosterService {
+
+    private final String logHeader = "[RosterService] - ";
+
+    private static final long SEED = 1L;
+
+    private final ShiftRepository shiftRepository;
+    private final ShiftAssignmentRepository assignmentRepository;
+    private final AuthUserService authUserService;
+    private final NotificationService notificationService;
+    private final RosterSolver rosterSolver;
+    private final ChangeFeedService changeFeedService;
+
+    private final Map<String, StoredPlan> plans = new ConcurrentHashMap<>();
+
+    @Value("${scheduler.roster.rest-period:11h}")
+    private Duration restPeriod = Duration.ofHours(11);
+
+    @Value("${scheduler.roster.time-limit:2s}")
+    private Duration timeLimit = Duration.ofSeconds(2);
+
+    @Value("${scheduler.roster.max-time-limit:30s}")
+    private Duration maxTimeLimit = Duration.ofSeconds(30);
+
+    @Value("${scheduler.roster.resolve-time-limit:500ms}")
+    private Duration resolveTimeLimit = Duration.ofMillis(500);
+
+    @Value("${scheduler.roster.plan-ttl:30m}")
+    private Duration planTtl = Duration.ofMinutes(30);
+
+    @Value("${scheduler.roster.max-plans:20}")
+    private int maxPlans = 20;
+
+    @Value("${scheduler.roster.max-employees:2000}")
+    private int maxEmployees = 2000;
+
+    @Value("${scheduler.roster.max-shifts:10000}")
+    private int maxShifts = 10000;
+
+    @Value("${scheduler.shifts.max-duration:24h}")
+    private Duration maxShiftDuration = Duration.ofHours(24);
+
+    @Autowired
+    public RosterService(ShiftRepository shiftRepository,
+                         ShiftAssignmentRepository assignmentRepository,
+                         AuthUserService authUserService,
+                         NotificationService notificationService,
+                         RosterSolver rosterSolver,
+                         ChangeFeedService changeFeedService) {
+        this.shiftRepository = shiftRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.authUserService = authUserService;
+        this.notificationService = notificationService;
+        this.rosterSolver = rosterSolver;
+        this.changeFeedService = changeFeedService;
+    }
+
+    @Transactional(readOnly = true)
+    public RosterPlanDTO preview(RosterRequestDTO request) {
+        log.debug(logHeader + "preview: Planning {} - {} for {} employees", request.getFrom(), request.getTo(),
+                  request.getEmployeeIds() == null ? 0 : request.getEmployeeIds().size());
+
+        validate(request);
+
+        Duration limit = timeLimit;
+        if (request.getTimeLimitMs() != null) {
+            limit = Duration.ofMillis(Math.min(request.getTimeLimitMs(), maxTimeLimit.toMillis()));
+        }
+
+        Loaded loaded = load(request);
+        RosterSolver.Result result = rosterSolver.solve(loaded.problem(), null, limit, SEED);
+
+        return store(UUID.randomUUID().toString(), request, loaded, result);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<RosterPlanDTO> resolve(String planId) {
+        log.debug(logHeader + "resolve: Re-solving plan {}", planId);
+
+        StoredPlan stored = plan(planId);
+        if (stored == null) {
+            return Optional.empty();
+        }
+
+        Loaded loaded = load(stored.request());
+        int[] previous = indexes(loaded, stored.assignments(), new ArrayList<>());
+        RosterSolver.Result result = rosterSolver.solve(loaded.problem(), previous, resolveTimeLimit, SEED);
+
+        return Optional.of(store(planId, stored.request(), loaded, result));
+    }
+
+    public Optional<RosterPlanDTO> getPlan(String planId) {
+        return Optional.ofNullable(plan(planId)).map(StoredPlan::plan);
+    }
+
+    /*
+     * All or nothing. If the data changed so that the plan no longer fits, nothing is saved and the plan is kept:
+     * the conflicts say what's wrong, a resolve produces a plan that fits again. A plan whose transaction fails is kept
+     * as well and can be applied again.
+     */
+    @Transactional
+    public Optional<RosterApplyResultDTO> apply(String planId) {
+        log.debug(logHeader + "apply: Applying plan {}", planId);
+
+        // Taken out first: the same plan can't be applied twice at once
+        StoredPlan stored = plans.remove(planId);
+        if (stored == null || isExpired(stored)) {
+            return Optional.empty();
+        }
+        keepUnlessCommitted(planId, stored);
+
+        // Before anything else is read: once the lock is held, the data read below includes what another apply of
+        // these shifts committed (load() leaves out shifts that got an owner or an assignment meanwhile)
+        if (!stored.assignments().isEmpty()) {
+            shiftRepository.lockByIdIn(stored.assignments().keySet());
+        }
+
+        Loaded loaded = load(stored.request());
+        List<String> conflicts = new ArrayList<>();
+        int[] assignment = indexes(loaded, stored.assignments(), conflicts);
+
+        for (int slot : rosterSolver.invalidSlots(loaded.problem(), assignment)) {
+            RosterProblem.Slot invalid = loaded.problem().slot(slot);
+            conflicts.add("Shift " + invalid.shiftId() + " (" + invalid.start() + " - " + invalid.end() + "): employee "
+                          + loaded.problem().employee(assignment[slot]).id() + " no longer fits (role, availability, other shifts or rest period)");
+        }
+
+        if (!conflicts.isEmpty()) {
+            plans.put(planId, stored);
+            log.info(logHeader + "apply: Plan {} no longer fits, {} conflicts", planId, conflicts.size());
+            return Optional.of(RosterApplyResultDTO.builder().planId(planId).created(0).conflicts(conflicts).build());
+        }
+
+        List<ShiftAssignment> assignments = new ArrayList<>();
+        Map<Long, List<Shift>> byEmployee = new LinkedHashMap<>();
+
+        for (int slot = 0; slot < assignment.length; slot++) {
+            if (assignment[slot] < 0) {
+                continue;
+            }
+
+            Shift shift = loaded.shifts().get(slot);
+            Long userId = loaded.problem().employee(assignment[slot]).id();
+
+            assignments.add(ShiftAssignment.builder()
+                .userId(userId)
+                .shift(shift)
+                .status(AssignmentStatus.CONFIRMED)
+                .build());
+            byEmployee.computeIfAbsent(userId, id -> new ArrayList<>()).add(shift);
+        }
+
+        assignmentRepository.saveAll(assignments);
+        changeFeedService.assignmentsCreated(assignments);
+        log.info(logHeader + "apply: Plan {} saved, {} assignments for {} employees", planId, assignments.size(), byEmployee.size());
+
+        byEmployee.forEach((userId, shifts) -> notificationService.notifyUser(userId, "New Shifts Assigned", ShiftImportService.digest(shifts)));
+
+        return Optional.of(RosterApplyResultDTO.builder().planId(planId).created(assignments.size()).conflicts(List.of()).build());
+    }
+
+    // Puts a plan taken out by apply() back when its transaction doesn't commit (failed save, flush or commit)
+    private void keepUnlessCommitted(String planId, StoredPlan stored) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    plans.putIfAbsent(planId, stored);
+                }
+            }
+        });
+    }
+
+    private void validate(RosterRequestDTO request) {
+        if (request.getFrom() == null || request.getTo() == null || !request.getFrom().isBefore(request.getTo())) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+
+        if (request.getEmployeeIds() == null || request.getEmployeeIds().isEmpty()) {
+            throw new IllegalArgumentException("No employees to plan with");
+        }
+
+        if (request.getEmployeeIds().size() > maxEmployees) {
+            throw new IllegalArgumentException("Too many employees: " + request.getEmployeeIds().size() + ", at most " + maxEmployees);
+        }
+
+        if (request.getRestHours() != null && request.getRestHours() < 0) {
+            throw new IllegalArgumentException("'restHours' must not be negative");
+        }
+
+        if (request.getMaxHoursPerEmployee() != null && request.getMaxHoursPerEmployee() <= 0) {
+            throw new IllegalArgumentException("'maxHoursPerEmployee' must be positive");
+        }
+
+        if (request.getTimeLimitMs() != null && request.getTimeLimitMs() <= 0) {
+            throw new IllegalArgumentException("'timeLimitMs' must be positive");
+        }
+    }
+
+    /*
+     * The problem as the database and the auth module see it right now
+     */
+    private Loaded load(RosterRequestDTO request) {
+        LocalDateTime from = request.getFrom();
+        LocalDateTime to = request.getTo();
+        Duration rest = request.getRestHours() != null ? Duration.ofHours(request.getRestHours()) : restPeriod;
+        Duration maxHours = request.getMaxHoursPerEmployee() != null ? Duration.ofHours(request.getMaxHoursPerEmployee()) : null;
+        List<String> warnings = new ArrayList<>();
+
+        // Open shifts: no owner and nobody assigned yet
+        List<Shift> openShifts = new ArrayList<>(shiftRepository.findOpenShifts(from, to));
+        if (request.getShiftIds() != null && !request.getShiftIds().isEmpty()) {
+            Set<Long> wanted = new HashSet<>(request.getShiftIds());
+            openShifts.removeIf(shift -> !wanted.contains(shift.getId()));
+        }
+
+        Set<Long> staffed = new HashSet<>();
+        if (!openShifts.isEmpty()) {
+            for (ShiftAssignment assignment : assignmentRepository.findByShiftIdIn(openShifts.stream().map(Shift::getId).toList())) {
+                staffed.add(assignment.getShift().getId());
+            }
+        }
+
+        List<Shift> shifts = new ArrayList<>();
+        List<RosterProblem.Slot> slots = new ArrayList<>();
+
+        for (Shift shift : openShifts) {
+            if (staffed.contains(shift.getId())) {
+                continue;
+            }
+
+            if (!shift.getEndTime().isAfter(shift.getStartTime())) {
+                warnings.add("Shift " + shift.getId() + " ends before it starts, left out");
+                continue;
+            }
+
+            shifts.add(shift);
+            slots.add(new RosterProblem.Slot(shift.getId(), shift.getStartTime(), shift.getEndTime(), shift.getShiftOwnerRole()));
+        }
+
+        if (slots.size() > maxShifts) {
+            throw new IllegalArgumentException("Too many open shifts: " + slots.size() + ", at most " + maxShifts + " per plan");
+        }
+
+        // Employees and their roles
+        Set<Long> employeeIds = new LinkedHashSet<>(request.getEmployeeIds());
+        Map<Long, AuthUserDTO> users = authUserService.getUsersById(employeeIds);
+
+        for (Long employeeId : employeeIds) {
+            if (!users.containsKey(employeeId)) {
+                warnings.add("Employee " + employeeId + " is unknown, left out");
+            }
+        }
+
+        // Their shifts around the horizon: anything that could be within the rest period of an open shift
+        LocalDateTime busyFrom = from.minus(rest);
+        LocalDateTime busyTo = to.plus(maxShiftDuration).plus(rest);
+        Map<Long, Map<Long, Shift>> busy = new HashMap<>();
+
+        if (!users.isEmpty()) {
+            for (Shift shift : shiftRepository.findOverlappingForOwners(users.keySet(), busyFrom, busyTo)) {
+                busy.computeIfAbsent(shift.getShiftOwnerId(), id -> new HashMap<>()).put(shift.getId(), shift);
+            }
+
+            for (ShiftAssignment assignment : assignmentRepository.findOverlappingForUsers(users.keySet(), busyFrom, busyTo)) {
+                busy.computeIfAbsent(assignment.getUserId(), id -> new HashMap<>()).put(assignment.getShift().getId(), assignment.getShift());
+            }
+        }
+
+        Map<Long, List<RosterProblem.Window>> unavailable = new HashMap<>();
+        if (request.getUnavailability() != null) {
+            for (RosterRequestDTO.Unavailability window : request.getUnavailability()) {
+                if (window.getEmployeeId() != null && window.getFrom() != null && window.getTo() != null) {
+                    unavailable.computeIfAbsent(window.getEmployeeId(), id -> new ArrayList<>())
+                               .add(new RosterProblem.Window(window.getFrom(), window.getTo()));
+                }
+            }
+        }
+
+        List<RosterProblem.Employee> employees = new ArrayList<>();
+
+        for (Long employeeId : employeeIds) {
+            AuthUserDTO user = users.get(employeeId);
+            if (user == null) {
+                continue;
+            }
+
+            Set<String> roles = user.getRoles() == null ? Set.of() : user.getRoles().stream()
+                .map(AuthRoleDTO::getName)
+                .filter(name -> name != null)
+                .map(RosterProblem::normalizeRole)
+                .collect(Collectors.toSet());
+
+            List<RosterProblem.Window> windows = new ArrayList<>();
+            long minutes = 0;
+
+            for (Shift shift : busy.getOrDefault(employeeId, Map.of()).values()) {
+                windows.add(new RosterProblem.Window(shift.getStartTime(), shift.getEndTime()));
+                minutes += minutesWithin(shift, from, to);
+            }
+
+            employees.add(new RosterProblem.Employee(employeeId, roles, windows, unavailable.getOrDefault(employeeId, List.of()), minutes));
+        }
+
+        return new Loaded(RosterProblem.of(slots, employees, rest, maxHours), shifts, users, warnings);
+    }
+
+    private static long minutesWithin(Shift shift, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = shift.getStartTime().isBefore(from) ? from : shift.getStartTime();
+        LocalDateTime end = shift.getEndTime().isAfter(to) ? to : shift.getEndTime();
+        return end.isAfter(start) ? Duration.between(start, end).toMinutes() : 0;
+    }
+
+    // A stored plan (shift id -> user id) as employee index per slot, assignments that don't map anymore end up in 'conflicts'
+    private int[] indexes(Loaded loaded, Map<Long, Long> assignments, List<String> conflicts) {
+        RosterProblem problem = loaded.problem();
+        Map<Long, Integer> slotOf = new HashMap<>();
+        Map<Long, Integer> employeeOf = new HashMap<>();
+
+        for (int s = 0; s < problem.slotCount(); s++) {
+            slotOf.put(problem.slot(s).shiftId(), s);
+        }
+        for (int e = 0; e < problem.employeeCount(); e++) {
+            employeeOf.put(problem.employee(e).id(), e);
+        }
+
+        int[] assignment = new int[problem.slotCount()];
+        Arrays.fill(assignment, -1);
+
+        assignments.forEach((shiftId, userId) -> {
+            Integer slot = slotOf.get(shiftId);
+            Integer employee = employeeOf.get(userId);
+
+            if (slot == null) {
+                conflicts.add("Shift " + shiftId + " is no longer open");
+            } else if (employee == null) {
+                conflicts.add("Employee " + userId + " is no longer known");
+            } else {
+                assignment[slot] = employee;
+            }
+        });
+
+        return assignment;
+    }
+
+    private RosterPlanDTO store(String planId, RosterRequestDTO request, Loaded loaded, RosterSolver.Result result) {
+        RosterProblem problem = loaded.problem();
+        int[] assignment = result.assignment();
+
+        Map<Long, Long> assignments = new LinkedHashMap<>();
+        List<RosterPlanDTO.Assignment> planned = new ArrayList<>();
+        List<RosterPlanDTO.OpenShift> open = new ArrayList<>();
+        long[] minutes = new long[problem.employeeCount()];
+
+        for (int e = 0; e < problem.employeeCount(); e++) {
+            minutes[e] = problem.employee(e).minutes();
+        }
+
+        for (int s = 0; s < problem.slotCount(); s++) {
+            Shift shift = loaded.shifts().get(s);
+
+            if (assignment[s] >= 0) {
+                RosterProblem.Employee employee = problem.employee(assignment[s]);
+                minutes[assignment[s]] += Duration.between(shift.getStartTime(), shift.getEndTime()).toMinutes();
+                assignments.put(shift.getId(), employee.id());
+
+                planned.add(RosterPlanDTO.Assignment.builder()
+                    .shiftId(shift.getId())
+                    .title(shift.getTitle())
+                    .role(shift.getShiftOwnerRole())
+                    .startTime(shift.getStartTime())
+                    .endTime(shift.getEndTime())
+                    .userId(employee.id())
+                    .userName(loaded.users().get(employee.id()).getUsername())
+                    .build());
+
+            } else {
+                open.add(RosterPlanDTO.OpenShift.builder()
+                    .shiftId(shift.getId())
+                    .title(shift.getTitle())
+                    .role(shift.getShiftOwnerRole())
+                    .startTime(shift.getStartTime())
+                    .endTime(shift.getEndTime())
+                    .reason(reason(problem, s))
+                    .build());
+            }
+        }
+
+        Map<Long, Double> hours = new TreeMap<>();
+        for (int e = 0; e < problem.employeeCount(); e++) {
+            hours.put(problem.employee(e).id(), minutes[e] / 60.0);
+        }
+
+        RosterPlanDTO plan = RosterPlanDTO.builder()
+            .planId(planId)
+            .from(request.getFrom())
+            .to(request.getTo())
+            .assignments(planned)
+            .openShifts(open)
+            .hours(hours)
+            .changed(result.changed())
+            .iterations(result.iterations())
+            .workers(result.workers())
+            .elapsedMs(result.elapsedMillis())
+            .warnings(loaded.warnings())
+            .build();
+
+        plans.put(planId, new StoredPlan(request, assignments, plan, System.currentTimeMillis()));
+        trimPlans();
+
+        log.info(logHeader + "store: Plan {}: {} shifts staffed, {} open, {} changed ({} ms)",
+                 planId, planned.size(), open.size(), result.changed(), result.elapsedMillis());
+        return plan;
+    }
+
+    private static String reason(RosterProblem problem, int slot) {
+        if (problem.roleMatches(slot) == 0) {
+            return "No employee with role '" + problem.slot(slot).role() + "'";
+        }
+
+        if (problem.candidateCount(slot) == 0) {
+            return "Every employee with the role is unavailable, already working, within their rest period or at their hours cap";
+        }
+
+        return "Every candidate is planned for a clashing shift";
+    }
+
+    private StoredPlan plan(String planId) {
+        StoredPlan stored = plans.get(planId);
+
+        if (stored != null && isExpired(stored)) {
+            plans.remove(planId, stored);
+            return null;
+        }
+
+        return stored;
+    }
+
+    private boolean isExpired(StoredPlan stored) {
+        return System.currentTimeMillis() - stored.createdAt() > planTtl.toMillis();
+    }
+
+    // Drops expired plans, then the oldest ones beyond 'max-plans'
+    private void trimPlans() {
+        plans.values().removeIf(this::isExpired);
+
+        while (plans.size() > maxPlans) {
+            plans.entrySet().stream()
+                 .min(Map.Entry.comparingByValue((a, b) -> Long.compare(a.createdAt(), b.createdAt())))
+                 .ifPresent(oldest -> plans.remove(oldest.getKey(), oldest.getValue()));
+        }
+    }
+
+    private record StoredPlan(RosterRequestDTO request, Map<Long, Long> assignments, RosterPlanDTO plan, long createdAt) {
+    }
+
+    // 'shifts' and the problem's slots share their index
+    private record Loaded(RosterProblem problem, List<Shift> shifts, Map<Long, AuthUserDTO> users, List<String> warnings) {
+    }
+}
@@ -0,0 +1,484 @@
+package com.LIT.scheduler.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.LIT.scheduler.utilities.IntervalTree;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Roster engine: staffs the slots of a RosterProblem with one candidate each.
+ *
+ * Hard rules (never broken): an employee's planned slots don't overlap and keep the rest period between them,
+ * and nobody goes over the hours cap. Everything else is a score, compared in this order:
+ *  1. open slots (fewer is better),
+ *  2. when re-solving: slots whose employee differs from the previous plan (keeps a re-solve from reshuffling everything),
+ *  3. sum of squared hours per employee, existing shifts included (lower = more evenly spread).
+ *
+ * A greedy start (most constrained slot first, least loaded candidate) is improved by late acceptance hill climbing:
+ * each worker starts from the greedy solution with its own random seed, moves are "give a slot to another candidate"
+ * (bumping at most two of that candidate's clashing slots) and "swap the employees of two slots". Workers run in
+ * parallel until the time limit or until they stop improving; the best one wins.
+ */
+@Component
+@Slf4j
+public class RosterSolver {
+
+    private final String logHeader = "[RosterSolver] - ";
+
+    // Late acceptance: a move is accepted if it's no worse than the current score or the score this many steps ago
+    private static final int HISTORY_LENGTH = 1_000;
+
+    // Bumped slots per move, more make moves too disruptive to ever be accepted
+    private static final int MAX_BUMPED = 2;
+
+    private final int workers;
+    private final ExecutorService pool;
+
+    @Autowired
+    public RosterSolver(@Value("${scheduler.roster.threads:0}") int threads) {
+        this.workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "roster-solver-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // Employee index per slot (-1: open) and how it scored
+    public record Result(int[] assignment, long open, long changed, long squaredMinutes, long iterations, int workers, long elapsedMillis) {
+    }
+
+    /*
+     * 'previous' (may be null): the plan being re-solved, as employee index per slot (-1: none). It's the starting point
+     * and the reference for 'changed'.
+     */
+    public Result solve(RosterProblem problem, int[] previous, Duration timeLimit, long seed) {
+        long started = System.nanoTime();
+        long deadline = started + timeLimit.toNanos();
+
+        int[] greedy = greedy(problem, previous);
+
+        if (problem.slotCount() == 0) {
+            Search search = new Search(problem, greedy, previous, seed);
+            return search.result(0, 0, started);
+        }
+
+        List<Future<Search>> runs = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            long workerSeed = seed + w;
+            runs.add(pool.submit(() -> {
+                Search search = new Search(problem, greedy, previous, workerSeed);
+                search.run(deadline);
+                return search;
+            }));
+        }
+
+        Search best = null;
+        long iterations = 0;
+
+        try {
+            for (Future<Search> run : runs) {
+                Search search = run.get();
+                iterations += search.iterations;
+
+                if (best == null || best.compareBest(search) > 0) {
+                    best = search;
+                }
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            runs.forEach(run -> run.cancel(true));
+            throw new IllegalStateException("Roster solving was interrupted", e);
+
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Roster solving failed", e.getCause());
+        }
+
+        Result result = best.result(iterations, runs.size(), started);
+        log.debug(logHeader + "solve: {} slots, {} employees: {} open, {} changed, {} iterations on {} workers in {} ms",
+                  problem.slotCount(), problem.employeeCount(), result.open(), result.changed(), iterations, runs.size(), result.elapsedMillis());
+        return result;
+    }
+
+    /*
+     * Slots of 'assignment' that break a hard rule in 'problem', e.g. a plan checked again before it's saved
+     */
+    public List<Integer> invalidSlots(RosterProblem problem, int[] assignment) {
+        List<Integer> invalid = new ArrayList<>();
+        Search check = new Search(problem, unassigned(problem), null, 0);
+
+        for (int s = 0; s < problem.slotCount(); s++) {
+            int employee = assignment[s];
+
+            if (employee < 0) {
+                continue;
+            }
+
+            if (!problem.isCandidate(s, employee) || !check.fits(employee, s)) {
+                invalid.add(s);
+                continue;
+            }
+
+            check.place(s, employee);
+        }
+
+        return invalid;
+    }
+
+    // Previous assignments first (where they still fit), then the most constrained slots, each to its least loaded candidate
+    private int[] greedy(RosterProblem problem, int[] previous) {
+        int slots = problem.slotCount();
+        Search state = new Search(problem, unassigned(problem), null, 0);
+
+        Integer[] order = new Integer[slots];
+        for (int s = 0; s < slots; s++) {
+            order[s] = s;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingInt(s -> problem.candidates[s].length)
+                                     .thenComparingLong(s -> problem.slotStart[s]));
+
+        if (previous != null) {
+            for (int s : order) {
+                int employee = previous[s];
+                if (employee >= 0 && problem.isCandidate(s, employee) && state.fits(employee, s)) {
+                    state.place(s, employee);
+                }
+            }
+        }
+
+        for (int s : order) {
+            if (state.assign[s] >= 0) {
+                continue;
+            }
+
+            int chosen = -1;
+            for (int employee : problem.candidates[s]) {
+                if (state.fits(employee, s) && (chosen < 0 || state.load[employee] < state.load[chosen])) {
+                    chosen = employee;
+                }
+            }
+
+            if (chosen >= 0) {
+                state.place(s, chosen);
+            }
+        }
+
+        return state.assign.clone();
+    }
+
+    private static int[] unassigned(RosterProblem problem) {
+        int[] assignment = new int[problem.slotCount()];
+        Arrays.fill(assignment, -1);
+        return assignment;
+    }
+
+    /*
+     * One worker's state. Not thread safe, each worker has its own.
+     */
+    private static final class Search {
+        private final RosterProblem problem;
+        private final int[] previous;
+        private final SplittableRandom random;
+
+        private final int[] assign;
+        private final long[] load;
+        private final IntervalTree<Integer>[] planned;
+
+        // Slots per employee, for picking a random one in a swap ('position' = index of the slot in its employee's list)
+        private final int[][] slotsOf;
+        private final int[] slotsOfSize;
+        private final int[] position;
+
+        private long open;
+        private long changed;
+        private long squared;
+
+        private int[] best;
+        private long bestOpen;
+        private long bestChanged;
+        private long bestSquared;
+
+        private long iterations;
+
+        @SuppressWarnings("unchecked")
+        private Search(RosterProblem problem, int[] start, int[] previous, long seed) {
+            this.problem = problem;
+            this.previous = previous;
+            this.random = new SplittableRandom(seed);
+
+            int slots = problem.slotCount();
+            int employees = problem.employeeCount();
+
+            assign = new int[slots];
+            Arrays.fill(assign, -1);
+            load = problem.baseMinutes.clone();
+            planned = new IntervalTree[employees];
+            slotsOf = new int[employees][4];
+            slotsOfSize = new int[employees];
+            position = new int[slots];
+
+            open = slots;
+            for (long minutes : load) {
+                squared += minutes * minutes;
+            }
+            for (int s = 0; s < slots; s++) {
+                changed += isChanged(s) ? 1 : 0;
+            }
+
+            for (int s = 0; s < slots; s++) {
+                if (start[s] >= 0) {
+                    place(s, start[s]);
+                }
+            }
+
+            saveBest();
+        }
+
+        private void run(long deadline) {
+            int slots = problem.slotCount();
+            long[] historyOpen = new long[HISTORY_LENGTH];
+            long[] historyChanged = new long[HISTORY_LENGTH];
+            long[] historySquared = new long[HISTORY_LENGTH];
+            Arrays.fill(historyOpen, open);
+            Arrays.fill(historyChanged, changed);
+            Arrays.fill(historySquared, squared);
+
+            // Small problems settle long before the deadline
+            long idleLimit = Math.max(200_000L, 100L * slots);
+            long lastImprovement = 0;
+
+            while (true) {
+                if ((iterations & 1023) == 0 && (System.nanoTime() > deadline || Thread.currentThread().isInterrupted())) {
+                    break;
+                }
+
+                if (iterations - lastImprovement > idleLimit) {
+                    break;
+                }
+
+                iterations++;
+                int h = (int) (iterations % HISTORY_LENGTH);
+
+                long beforeOpen = open;
+                long beforeChanged = changed;
+                long beforeSquared = squared;
+
+                int s = random.nextInt(slots);
+                Undo undo = assign[s] >= 0 && random.nextInt(3) == 0 ? swap(s) : reassign(s);
+
+                if (undo != null) {
+                    boolean accepted = compare(open, changed, squared, beforeOpen, beforeChanged, beforeSquared) <= 0
+                                    || compare(open, changed, squared, historyOpen[h], historyChanged[h], historySquared[h]) <= 0;
+
+                    if (!accepted) {
+                        undo.run();
+
+                    } else if (compare(open, changed, squared, bestOpen, bestChanged, bestSquared) < 0) {
+                        saveBest();
+                        lastImprovement = iterations;
+                    }
+                }
+
+                historyOpen[h] = open;
+                historyChanged[h] = changed;
+                historySquared[h] = squared;
+            }
+        }
+
+        private interface Undo {
+            void run();
+        }
+
+        // Gives slot 's' to another candidate, bumping up to MAX_BUMPED of their slots that clash with it
+        private Undo reassign(int s) {
+            int[] candidates = problem.candidates[s];
+            if (candidates.length == 0) {
+                return null;
+            }
+
+            int employee = candidates[random.nextInt(candidates.length)];
+            int current = assign[s];
+            if (employee == current) {
+                return null;
+            }
+
+            List<Integer> bumped = planned[employee] == null ? List.of()
+                : planned[employee].overlapping(problem.slotStart[s] - problem.restSeconds, problem.slotEnd[s] + problem.restSeconds);
+
+            if (bumped.size() > MAX_BUMPED) {
+                return null;
+            }
+
+            long minutes = load[employee] + problem.slotMinutes[s];
+            for (int b : bumped) {
+                minutes -= problem.slotMinutes[b];
+            }
+            if (minutes > problem.maxMinutes) {
+                return null;
+            }
+
+            if (current >= 0) {
+                unplace(s);
+            }
+            for (int b : bumped) {
+                unplace(b);
+            }
+            place(s, employee);
+
+            return () -> {
+                unplace(s);
+                for (int b : bumped) {
+                    place(b, employee);
+                }
+                if (current >= 0) {
+                    place(s, current);
+                }
+            };
+        }
+
+        // Swaps the employees of slot 's' and a random slot of one of the other candidates of 's'
+        private Undo swap(int s) {
+            int[] candidates = problem.candidates[s];
+            int first = assign[s];
+            int second = candidates[random.nextInt(candidates.length)];
+
+            if (second == first || slotsOfSize[second] == 0) {
+                return null;
+            }
+
+            int t = slotsOf[second][random.nextInt(slotsOfSize[second])];
+            if (!problem.isCandidate(t, first)) {
+                return null;
+            }
+
+            unplace(s);
+            unplace(t);
+
+            if (fits(first, t)) {
+                place(t, first);
+
+                if (fits(second, s)) {
+                    place(s, second);
+
+                    return () -> {
+                        unplace(s);
+                        unplace(t);
+                        place(s, first);
+                        place(t, second);
+                    };
+                }
+
+                unplace(t);
+            }
+
+            place(s, first);
+            place(t, second);
+            return null;
+        }
+
+        // Slot 's' keeps the rest period to the employee's other planned slots and their hours stay within the cap
+        private boolean fits(int employee, int s) {
+            if (load[employee] + problem.slotMinutes[s] > problem.maxMinutes) {
+                return false;
+            }
+
+            IntervalTree<Integer> tree = planned[employee];
+            return tree == null || !tree.overlaps(problem.slotStart[s] - problem.restSeconds, problem.slotEnd[s] + problem.restSeconds);
+        }
+
+        private void place(int s, int employee) {
+            boolean wasChanged = isChanged(s);
+
+            assign[s] = employee;
+            if (planned[employee] == null) {
+                planned[employee] = new IntervalTree<>();
+            }
+            planned[employee].insert(problem.slotStart[s], problem.slotEnd[s], s, s);
+
+            if (slotsOfSize[employee] == slotsOf[employee].length) {
+                slotsOf[employee] = Arrays.copyOf(slotsOf[employee], slotsOfSize[employee] * 2);
+            }
+            position[s] = slotsOfSize[employee];
+            slotsOf[employee][slotsOfSize[employee]++] = s;
+
+            setLoad(employee, load[employee] + problem.slotMinutes[s]);
+            open--;
+            changed += (isChanged(s) ? 1 : 0) - (wasChanged ? 1 : 0);
+        }
+
+        private void unplace(int s) {
+            boolean wasChanged = isChanged(s);
+            int employee = assign[s];
+
+            planned[employee].remove(problem.slotStart[s], s);
+
+            int last = slotsOf[employee][--slotsOfSize[employee]];
+            slotsOf[employee][position[s]] = last;
+            position[last] = position[s];
+
+            assign[s] = -1;
+            setLoad(employee, load[employee] - problem.slotMinutes[s]);
+            open++;
+            changed += (isChanged(s) ? 1 : 0) - (wasChanged ? 1 : 0);
+        }
+
+        private void setLoad(int employee, long minutes) {
+            squared += minutes * minutes - load[employee] * load[employee];
+            load[employee] = minutes;
+        }
+
+        private boolean isChanged(int s) {
+            return previous != null && previous[s] >= 0 && assign[s] != previous[s];
+        }
+
+        private void saveBest() {
+            best = assign.clone();
+            bestOpen = open;
+            bestChanged = changed;
+            bestSquared = squared;
+        }
+
+        private int compareBest(Search other) {
+            return compare(bestOpen, bestChanged, bestSquared, other.bestOpen, other.bestChanged, other.bestSquared);
+        }
+
+        private Result result(long totalIterations, int workers, long started) {
+            return new Result(best, bestOpen, bestChanged, bestSquared, totalIterations, workers,
+                              (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    private static int compare(long open, long changed, long squared, long otherOpen, long otherChanged, long otherSquared) {
+        if (open != otherOpen) {
+            return Long.compare(open, otherOpen);
+        }
+        if (changed != otherChanged) {
+            return Long.compare(changed, otherChanged);
+        }
+        return Long.compare(squared, otherSquared);
+    }
+}
@@ -6,6 +6,7 @@ import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.LIT.scheduler.exception.ShiftConflictException;
 import com.LIT.scheduler.model.entity.Shift;
@@ -20,12 +21,19 @@ public class ShiftAssignmentService {
     
     private final ShiftAssignmentRepository shiftAssignmentRepository;
     private final NotificationService notificationService;
+    private final ConflictDetectionService conflictDetectionService;
+    private final ChangeFeedService changeFeedService;
     private final String logHeader = "[ShiftAssignmentService] - ";
 
     @Autowired
-    public ShiftAssignmentService(ShiftAssignmentRepository shiftAssignmentRepository, NotificationService notificationService) {
+    public ShiftAssignmentService(ShiftAssignmentRepository shiftAssignmentRepository,
+                                  NotificationService notificationService,
+                                  ConflictDetectionService conflictDetectionService,
+                                  ChangeFeedService changeFeedService) {
         this.shiftAssignmentRepository = shiftAssignmentRepository;
         this.notificationService = notificationService;
+        this.conflictDetectionService = conflictDetectionService;
+        this.changeFeedService = changeFeedService;
     }
 
     public List<ShiftAssignment> getAssignmentsByUserId(Long userId) {
@@ -40,6 +48,7 @@ public class ShiftAssignmentService {
         return shiftAssignmentRepository.findByShiftId(shiftId);
     }
 
+    @Transactional
     public ShiftAssignment assignShift(ShiftAssignment assignment) {
         log.info(logHeader + "assignShift: Assigning shift with id: " + assignment.getShift().getId() + " to user with id: " + assignment.getUserId());
 
@@ -52,40 +61,43 @@ public class ShiftAssignmentService {
         LocalDateTime newShiftStart = newShift.getStartTime();
         LocalDateTime newShiftEnd = newShift.getEndTime();
         
-        List<ShiftAssignment> conflicts = shiftAssignmentRepository.findConflictingAssignments(
-                assignment.getUserId(), newShiftStart, newShiftEnd);
+        if (newShift.getId() != null && shiftAssignmentRepository.findByUserIdAndShiftId(assignment.getUserId(), newShift.getId()).isPresent()) {
+            log.error(logHeader + "Conflict detected: User " + assignment.getUserId() + " is already assigned to shift " + newShift.getId() + ".");
+            throw new ShiftConflictException("Shift conflict detected: The user is already assigned to this shift.");
+        }
+
+        // Other shifts the user owns or is assigned to (owning the shift being assigned is fine)
+        List<Long> conflicts = conflictDetectionService.findConflicts(
+                assignment.getUserId(), newShiftStart, newShiftEnd, newShift.getId());
         
         if (!conflicts.isEmpty()) {
-            log.error(logHeader + "Conflict detected: User " + assignment.getUserId() + " already has an assignment overlapping with the new shift (" + newShiftStart + " - " + newShiftEnd + ").");
+            log.error(logHeader + "Conflict detected: User " + assignment.getUserId() + " already has shifts " + conflicts + " overlapping with the new shift (" + newShiftStart + " - " + newShiftEnd + ").");
             throw new ShiftConflictException("Shift conflict detected: The user has an overlapping assignment.");
         }
 
         log.info(logHeader + "No conflicts detected. Proceeding to assign shift for user: " + assignment.getUserId());
-        notificationService.sendEmail(
-            getEmployeeEmail(assignment.getUserId()),
+        notificationService.notifyUser(
+            assignment.getUserId(),
             "Shift Assignment Confirmed",
             "You have been assigned to shift: " + assignment.getShift().getTitle()
         );
-        return shiftAssignmentRepository.save(assignment);
+        ShiftAssignment saved = shiftAssignmentRepository.save(assignment);
+        changeFeedService.assignmentChanged(null, changeFeedService.snapshot(saved));
+        return saved;
     }
 
+    @Transactional
     public void removeAssignment(Long id) {
         log.info(logHeader + "removeAssignment: Removing assignment with id: " + id);
         Optional<ShiftAssignment> optAssignment = shiftAssignmentRepository.findById(id);
         optAssignment.ifPresent(assignment -> {
-            notificationService.sendEmail(
-                getEmployeeEmail(assignment.getUserId()),
+            notificationService.notifyUser(
+                assignment.getUserId(),
                 "Shift Cancelled",
                 "Your shift " + assignment.getShift().getTitle() + " has been cancelled."
             );
+            changeFeedService.assignmentChanged(changeFeedService.snapshot(assignment), null);
         });
         shiftAssignmentRepository.deleteById(id);
     }
-
-    private String getEmployeeEmail(Long employeeId) {
-        return "pekaric.edi1@gmail.com";
-        //return userService.getUserById(employeeId)
-        //                  .map(User::getEmail)
-        //                  .orElse("eddie.pekaric@hotmail.com");
-    }
 }
@@ -0,0 +1,281 @@
+package com.LIT.scheduler.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Component;
+
+import com.LIT.scheduler.utilities.IntervalTree;
+
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * In-memory copy of who works when: per employee, an interval tree of the shifts they own or are assigned to.
+ * Fed by ConflictIndexListener after each committed write to 'shifts' / 'shift_assignments' and loaded at startup
+ * by ConflictDetectionService for shifts ending after a horizon ('coveredFrom').
+ *
+ * The index only answers what it knows for sure, otherwise findOverlapping returns empty and the caller asks the database:
+ *  - before the first load completed,
+ *  - for windows starting before the horizon (older shifts weren't loaded),
+ *  - for employees assigned to a shift whose times the index never saw.
+ *
+ * Deliberately free of repositories: the entity listener is created while JPA boots.
+ */
+@Component
+@Slf4j
+public class ShiftConflictIndex {
+
+    private final String logHeader = "[ShiftConflictIndex] - ";
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private State state = new State();
+
+    private boolean ready = false;
+
+    private long coveredFrom = Long.MAX_VALUE;
+
+    // Changes committed while a load is running, replayed on top of the loaded state (null when not loading)
+    private List<Consumer<State>> pendingDuringLoad;
+
+    /*
+     * Changes, called once the writing transaction committed
+     */
+    public void shiftSaved(Long shiftId, Long ownerId, LocalDateTime start, LocalDateTime end) {
+        apply(state -> state.shiftSaved(shiftId, ownerId, start, end));
+    }
+
+    public void shiftRemoved(Long shiftId) {
+        apply(state -> state.shiftRemoved(shiftId));
+    }
+
+    // Start & end of the shift may be null when the assignment only references it by id
+    public void assignmentSaved(Long assignmentId, Long userId, Long shiftId, LocalDateTime start, LocalDateTime end) {
+        apply(state -> state.assignmentSaved(assignmentId, userId, shiftId, start, end));
+    }
+
+    public void assignmentRemoved(Long assignmentId, Long shiftId) {
+        apply(state -> state.assignmentRemoved(assignmentId, shiftId));
+    }
+
+    private void apply(Consumer<State> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(state);
+
+            if (pendingDuringLoad != null) {
+                pendingDuringLoad.add(change);
+            }
+
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /*
+     * Shift ids of the employee's shifts overlapping [start, end), empty when the index can't tell (ask the database)
+     */
+    public Optional<List<Long>> findOverlapping(Long employeeId, LocalDateTime start, LocalDateTime end, Long excludeShiftId) {
+        long from = toKey(start);
+        long to = toKey(end);
+
+        lock.readLock().lock();
+        try {
+            if (!ready || from < coveredFrom || state.unreliable.contains(employeeId)) {
+                return Optional.empty();
+            }
+
+            IntervalTree<Long> tree = state.trees.get(employeeId);
+            if (tree == null) {
+                return Optional.of(List.of());
+            }
+
+            List<Long> shiftIds = tree.overlapping(from, to);
+            if (excludeShiftId != null) {
+                shiftIds.remove(excludeShiftId);
+            }
+
+            return Optional.of(shiftIds);
+
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*
+     * (Re)load: the loader fills a fresh State off-lock, changes committed meanwhile are replayed on top of it before it's swapped in
+     */
+    public State startLoading() {
+        lock.writeLock().lock();
+        try {
+            pendingDuringLoad = new ArrayList<>();
+            return new State();
+
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void finishLoading(State loaded, LocalDateTime horizon) {
+        lock.writeLock().lock();
+        try {
+            pendingDuringLoad.forEach(change -> change.accept(loaded));
+            log.info(logHeader + "finishLoading: {} employees indexed from {}, {} changes replayed", loaded.trees.size(), horizon, pendingDuringLoad.size());
+
+            state = loaded;
+            coveredFrom = toKey(horizon);
+            ready = true;
+            pendingDuringLoad = null;
+
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void abortLoading() {
+        lock.writeLock().lock();
+        try {
+            pendingDuringLoad = null;
+
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int indexedEmployees() {
+        lock.readLock().lock();
+        try {
+            return state.trees.size();
+
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Exact to the nanosecond, fine for any date between the years 1678 and 2261
+    static long toKey(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    /*
+     * Where a shift sits and who it's for: its owner & everyone assigned to it
+     */
+    private static final class Placement {
+        private boolean timed;
+        private long start;
+        private long end;
+        private Long ownerId;
+        private final Map<Long, Long> assignees = new HashMap<>(); // assignment id -> user id
+
+        private Set<Long> employees() {
+            Set<Long> employees = new HashSet<>(assignees.values());
+            if (ownerId != null) {
+                employees.add(ownerId);
+            }
+            return employees;
+        }
+    }
+
+    public static final class State {
+        private final Map<Long, Placement> placements = new HashMap<>();
+        private final Map<Long, IntervalTree<Long>> trees = new HashMap<>();
+        private final Set<Long> unreliable = new HashSet<>();
+
+        public void shiftSaved(Long shiftId, Long ownerId, LocalDateTime start, LocalDateTime end) {
+            Placement placement = placements.computeIfAbsent(shiftId, id -> new Placement());
+            unindex(shiftId, placement);
+
+            placement.ownerId = ownerId;
+            setTimes(placement, start, end);
+            index(shiftId, placement);
+        }
+
+        public void shiftRemoved(Long shiftId) {
+            Placement placement = placements.remove(shiftId);
+            if (placement != null) {
+                unindex(shiftId, placement);
+            }
+        }
+
+        public void assignmentSaved(Long assignmentId, Long userId, Long shiftId, LocalDateTime start, LocalDateTime end) {
+            Placement placement = placements.computeIfAbsent(shiftId, id -> new Placement());
+            unindex(shiftId, placement);
+
+            // The shift's own events know its times best, the assignment's copy is only used when they're unknown
+            if (!placement.timed) {
+                setTimes(placement, start, end);
+            }
+
+            placement.assignees.put(assignmentId, userId);
+            index(shiftId, placement);
+        }
+
+        public void assignmentRemoved(Long assignmentId, Long shiftId) {
+            Placement placement = placements.get(shiftId);
+            if (placement == null) {
+                return;
+            }
+
+            unindex(shiftId, placement);
+            placement.assignees.remove(assignmentId);
+            index(shiftId, placement);
+        }
+
+        private void setTimes(Placement placement, LocalDateTime start, LocalDateTime end) {
+            placement.timed = start != null && end != null && end.isAfter(start);
+
+            if (placement.timed) {
+                placement.start = toKey(start);
+                placement.end = toKey(end);
+            }
+        }
+
+        private void index(Long shiftId, Placement placement) {
+            if (!placement.timed) {
+                unreliable.addAll(placement.employees());
+                return;
+            }
+
+            for (Long employeeId : placement.employees()) {
+                trees.computeIfAbsent(employeeId, id -> new IntervalTree<>()).insert(placement.start, placement.end, shiftId, shiftId);
+            }
+        }
+
+        private void unindex(Long shiftId, Placement placement) {
+            if (!placement.timed) {
+                return;
+            }
+
+            for (Long employeeId : placement.employees()) {
+                IntervalTree<Long> tree = trees.get(employeeId);
+
+                if (tree != null) {
+                    tree.remove(placement.start, shiftId);
+
+                    if (tree.isEmpty()) {
+                        trees.remove(employeeId);
+                    }
+                }
+            }
+        }
+    }
+}
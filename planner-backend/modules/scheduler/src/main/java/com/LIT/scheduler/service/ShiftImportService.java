@@ -0,0 +1,261 @@
+package com.LIT.scheduler.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.LIT.scheduler.model.dto.ShiftImportResultDTO;
+import com.LIT.scheduler.model.entity.Shift;
+import com.LIT.scheduler.model.entity.ShiftAssignment;
+import com.LIT.scheduler.model.repository.ShiftAssignmentRepository;
+import com.LIT.scheduler.model.repository.ShiftRepository;
+import com.LIT.scheduler.utilities.IntervalTree;
+
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Roster import: a whole batch of shifts (e.g. a department's month) in one transaction, all or nothing.
+ *  1. every row is validated on its own,
+ *  2. overlaps are checked in one pass: the employees' existing shifts (owned or assigned, two queries for the whole batch)
+ *     go into one interval tree per employee, then each row is checked against its tree and added to it,
+ *     so rows clash with existing shifts and with each other (half-open like ConflictDetectionService),
+ *  3. the rows are inserted with JDBC batching (pooled sequence ids, see Shift),
+ *  4. every employee gets one digest email listing their new shifts instead of one email per shift.
+ * Rows without an owner are open shifts (see RosterService), they only need a role and aren't checked for overlaps.
+ */
+@Service
+@Slf4j
+public class ShiftImportService {
+
+    private final String logHeader = "[ShiftImportService] - ";
+
+    // Outbox bodies hold up to 4096 characters, longer digests are cut off with a "... and n more" line
+    private static final int MAX_DIGEST_LENGTH = 3900;
+
+    private final ShiftRepository shiftRepository;
+    private final ShiftAssignmentRepository assignmentRepository;
+    private final NotificationService notificationService;
+    private final ChangeFeedService changeFeedService;
+
+    @Value("${scheduler.shifts.import-max-rows:5000}")
+    private int maxRows = 5000;
+
+    @Value("${scheduler.shifts.max-duration:24h}")
+    private Duration maxShiftDuration = Duration.ofHours(24);
+
+    @Autowired
+    public ShiftImportService(ShiftRepository shiftRepository,
+                              ShiftAssignmentRepository assignmentRepository,
+                              NotificationService notificationService,
+                              ChangeFeedService changeFeedService) {
+        this.shiftRepository = shiftRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.notificationService = notificationService;
+        this.changeFeedService = changeFeedService;
+    }
+
+    // With 'validateOnly' the batch is only checked, nothing is saved or sent
+    @Transactional
+    public ShiftImportResultDTO importShifts(List<Shift> shifts, boolean validateOnly) {
+        log.debug(logHeader + "importShifts: Importing {} shifts (validate only: {})", shifts.size(), validateOnly);
+
+        List<String> errors = validate(shifts);
+        if (!errors.isEmpty()) {
+            log.info(logHeader + "importShifts: Rejected {} shifts, {} invalid rows", shifts.size(), errors.size());
+            return result(shifts.size(), 0, validateOnly, errors, List.of());
+        }
+
+        List<String> conflicts = findOverlaps(shifts);
+        if (!conflicts.isEmpty()) {
+            log.info(logHeader + "importShifts: Rejected {} shifts, {} overlapping rows", shifts.size(), conflicts.size());
+            return result(shifts.size(), 0, validateOnly, List.of(), conflicts);
+        }
+
+        if (validateOnly) {
+            return result(shifts.size(), 0, true, List.of(), List.of());
+        }
+
+        // Ids are handed out here, whatever the client sent
+        shifts.forEach(shift -> shift.setId(null));
+        List<Shift> saved = shiftRepository.saveAll(shifts);
+        changeFeedService.shiftsCreated(saved);
+        log.info(logHeader + "importShifts: Saved {} shifts", saved.size());
+
+        sendDigests(saved);
+
+        return result(shifts.size(), saved.size(), false, List.of(), List.of());
+    }
+
+    private List<String> validate(List<Shift> shifts) {
+        List<String> errors = new ArrayList<>();
+
+        if (shifts.isEmpty()) {
+            errors.add("No shifts to import");
+            return errors;
+        }
+
+        if (shifts.size() > maxRows) {
+            errors.add("Too many shifts: " + shifts.size() + ", at most " + maxRows + " per import");
+            return errors;
+        }
+
+        for (int i = 0; i < shifts.size(); i++) {
+            Shift shift = shifts.get(i);
+            String row = "Row " + (i + 1) + ": ";
+
+            if (shift == null) {
+                errors.add(row + "empty");
+                continue;
+            }
+
+            // No owner: an open shift, staffed later by the roster engine, it needs the role to staff it with
+            if (shift.getShiftOwnerId() == null && (shift.getShiftOwnerRole() == null || shift.getShiftOwnerRole().isBlank())) {
+                errors.add(row + "shiftOwnerId is missing (open shifts need a shiftOwnerRole)");
+            }
+
+            if (shift.getTitle() == null || shift.getTitle().isBlank()) {
+                errors.add(row + "title is missing");
+            }
+
+            if (shift.getMinimumStaff() != null && shift.getMinimumStaff() < 0) {
+                errors.add(row + "minimumStaff must not be negative");
+            }
+
+            if (shift.getStartTime() == null || shift.getEndTime() == null) {
+                errors.add(row + "startTime and endTime are required");
+
+            } else if (!shift.getEndTime().isAfter(shift.getStartTime())) {
+                errors.add(row + "endTime must be after startTime");
+
+            } else if (Duration.between(shift.getStartTime(), shift.getEndTime()).compareTo(maxShiftDuration) > 0) {
+                errors.add(row + "longer than " + maxShiftDuration.toHours() + " hours");
+            }
+        }
+
+        return errors;
+    }
+
+    /*
+     * Existing shifts are keyed by their id, rows by -(row number): both live in the same tree without clashing
+     */
+    private List<String> findOverlaps(List<Shift> shifts) {
+        Set<Long> employees = new TreeSet<>();
+        LocalDateTime from = shifts.get(0).getStartTime();
+        LocalDateTime to = shifts.get(0).getEndTime();
+
+        for (Shift shift : shifts) {
+            if (shift.getShiftOwnerId() != null) {
+                employees.add(shift.getShiftOwnerId());
+            }
+            from = shift.getStartTime().isBefore(from) ? shift.getStartTime() : from;
+            to = shift.getEndTime().isAfter(to) ? shift.getEndTime() : to;
+        }
+
+        Map<Long, IntervalTree<String>> trees = new HashMap<>();
+        List<String> conflicts = new ArrayList<>();
+
+        if (employees.isEmpty()) {
+            return conflicts;
+        }
+
+        for (Shift existing : shiftRepository.findOverlappingForOwners(employees, from, to)) {
+            add(trees, existing.getShiftOwnerId(), existing, existing.getId(), "shift " + existing.getId());
+        }
+
+        for (ShiftAssignment assignment : assignmentRepository.findOverlappingForUsers(employees, from, to)) {
+            Shift existing = assignment.getShift();
+            add(trees, assignment.getUserId(), existing, existing.getId(), "shift " + existing.getId());
+        }
+
+        for (int i = 0; i < shifts.size(); i++) {
+            Shift shift = shifts.get(i);
+            if (shift.getShiftOwnerId() == null) {
+                continue;
+            }
+
+            IntervalTree<String> tree = trees.computeIfAbsent(shift.getShiftOwnerId(), id -> new IntervalTree<>());
+
+            List<String> overlapping = tree.overlapping(ShiftConflictIndex.toKey(shift.getStartTime()),
+                                                        ShiftConflictIndex.toKey(shift.getEndTime()));
+            if (!overlapping.isEmpty()) {
+                conflicts.add("Row " + (i + 1) + ": employee " + shift.getShiftOwnerId() + " (" + shift.getStartTime() + " - "
+                              + shift.getEndTime() + ") overlaps " + String.join(", ", overlapping));
+            }
+
+            add(trees, shift.getShiftOwnerId(), shift, -(i + 1L), "row " + (i + 1));
+        }
+
+        return conflicts;
+    }
+
+    private void add(Map<Long, IntervalTree<String>> trees, Long employeeId, Shift shift, long key, String label) {
+        trees.computeIfAbsent(employeeId, id -> new IntervalTree<>())
+             .insert(ShiftConflictIndex.toKey(shift.getStartTime()), ShiftConflictIndex.toKey(shift.getEndTime()), key, label);
+    }
+
+    /*
+     * One email per employee. The emails go through the outbox and are only addressed and sent once the import
+     * committed (NotificationDispatcher looks the addresses up in one batch).
+     */
+    private void sendDigests(List<Shift> saved) {
+        Map<Long, List<Shift>> byEmployee = new LinkedHashMap<>();
+        for (Shift shift : saved) {
+            if (shift.getShiftOwnerId() == null) {
+                continue;
+            }
+            byEmployee.computeIfAbsent(shift.getShiftOwnerId(), id -> new ArrayList<>()).add(shift);
+        }
+
+        if (byEmployee.isEmpty()) {
+            return;
+        }
+
+        byEmployee.forEach((employeeId, employeeShifts) -> {
+            log.debug(logHeader + "sendDigests: Sending digest of {} shifts to employee {}", employeeShifts.size(), employeeId);
+            notificationService.notifyUser(employeeId, "New Shifts Assigned", digest(employeeShifts));
+        });
+    }
+
+    static String digest(List<Shift> shifts) {
+        List<Shift> ordered = new ArrayList<>(shifts);
+        ordered.sort(Comparator.comparing(Shift::getStartTime));
+
+        StringBuilder message = new StringBuilder("Dear Employee, the following " + ordered.size() + " shifts have been assigned to you:\n");
+
+        for (int i = 0; i < ordered.size(); i++) {
+            Shift shift = ordered.get(i);
+            String line = "- '" + shift.getTitle() + "' from " + shift.getStartTime() + " to " + shift.getEndTime() + "\n";
+
+            if (message.length() + line.length() > MAX_DIGEST_LENGTH) {
+                message.append("... and ").append(ordered.size() - i).append(" more\n");
+                break;
+            }
+
+            message.append(line);
+        }
+
+        return message.toString();
+    }
+
+    private ShiftImportResultDTO result(int received, int created, boolean validateOnly, List<String> errors, List<String> conflicts) {
+        return ShiftImportResultDTO.builder()
+            .received(received)
+            .created(created)
+            .validateOnly(validateOnly)
+            .errors(errors)
+            .conflicts(conflicts)
+            .build();
+    }
+}
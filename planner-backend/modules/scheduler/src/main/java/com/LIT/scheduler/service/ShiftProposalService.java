@@ -1,21 +1,28 @@
 package com.LIT.scheduler.service;
 
 import com.LIT.scheduler.exception.ShiftConflictException;
+import com.LIT.common.model.dto.CursorPage;
 import com.LIT.scheduler.model.entity.Shift;
-import com.LIT.scheduler.model.entity.ShiftAssignment;
 import com.LIT.scheduler.model.entity.ShiftProposal;
 import com.LIT.scheduler.model.enums.ShiftProposalStatus;
-import com.LIT.scheduler.model.repository.ShiftAssignmentRepository;
 import com.LIT.scheduler.model.repository.ShiftProposalRepository;
 import com.LIT.scheduler.model.repository.ShiftRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
@@ -24,22 +31,33 @@ public class ShiftProposalService {
     private final ShiftProposalRepository proposalRepository;
     private final ShiftRepository shiftRepository;
     private final ShiftAssignmentService assignmentService;
-    private final ShiftAssignmentRepository assignmentRepository; // For conflict detection.
+    private final ConflictDetectionService conflictDetectionService;
+    private final ChangeFeedService changeFeedService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     private final String logHeader = "[ShiftProposalService] - ";
 
+    // Accepted proposals become shifts, which are bound by the same longest duration as the ones created directly
+    @Value("${scheduler.shifts.max-duration:24h}")
+    private Duration maxShiftDuration = Duration.ofHours(24);
+
     @Autowired
     public ShiftProposalService(ShiftProposalRepository proposalRepository,
                                 ShiftRepository shiftRepository,
                                 ShiftAssignmentService assignmentService,
-                                ShiftAssignmentRepository assignmentRepository) {
+                                ConflictDetectionService conflictDetectionService,
+                                ChangeFeedService changeFeedService) {
         this.proposalRepository = proposalRepository;
         this.shiftRepository = shiftRepository;
         this.assignmentService = assignmentService;
-        this.assignmentRepository = assignmentRepository;
+        this.conflictDetectionService = conflictDetectionService;
+        this.changeFeedService = changeFeedService;
     }
 
     // Employee submits new shift proposal (now with conflict detection)
+    @Transactional
     public ShiftProposal createProposal(ShiftProposal proposal, String role, String username, Long userId) {
         log.info(logHeader + "createProposal: Creating new shift proposal");
 
@@ -56,7 +74,7 @@ public class ShiftProposalService {
 
         log.info(logHeader + "Checking for conflicts with existing official assignments for employee: " + proposal.getEmployeeId() + " from: " + proposedStart + " to: " + proposedEnd);
                 
-        List<ShiftAssignment> conflicts = assignmentRepository.findConflictingAssignments(proposal.getEmployeeId(), proposedStart, proposedEnd);
+        List<Long> conflicts = conflictDetectionService.findConflicts(proposal.getEmployeeId(), proposedStart, proposedEnd, null);
         
         if (!conflicts.isEmpty()) {
             log.error(logHeader + "Conflict detected: Employee " + proposal.getEmployeeId() + " has an official assignment overlapping with the proposed shift (" + proposedStart + " to " + proposedEnd + ")");
@@ -74,12 +92,14 @@ public class ShiftProposalService {
         proposal.setEmployeeName(username);
 
         proposalRepository.save(proposal);
+        changeFeedService.shiftProposalChanged(null, changeFeedService.snapshot(proposal));
         log.info(logHeader + "Employee " + proposal.getEmployeeId() + " has proposed a new shift: " + proposal.getProposedTitle() + " from " + proposal.getProposedStartTime() + " to " + proposal.getProposedEndTime());
         
         return proposal;
     }
 
     // Employee updates a proposal
+    @Transactional
     public ShiftProposal updateProposal(Long proposalId, ShiftProposal updatedProposal) {
         log.info(logHeader + "Employee updated proposal with id: " + proposalId);
 
@@ -90,16 +110,18 @@ public class ShiftProposalService {
         }
 
         ShiftProposal proposal = opt.get();
+        ChangeFeedService.ProposalSnapshot before = changeFeedService.snapshot(proposal);
 
         proposal.setProposedTitle(updatedProposal.getProposedTitle());
         proposal.setProposedStartTime(updatedProposal.getProposedStartTime());
         proposal.setProposedEndTime(updatedProposal.getProposedEndTime());
 
         log.info(logHeader + "Employee " + proposal.getEmployeeId() + " updated proposal " + proposalId + " to: " + proposal.getProposedTitle() + " from: " + proposal.getProposedStartTime() + " to: " + proposal.getProposedEndTime());
-        return proposalRepository.save(proposal);
+        return saveWithChange(before, proposal);
     }
 
     // Employee cancels a proposal
+    @Transactional
     public ShiftProposal cancelProposal(Long proposalId) {
         log.info(logHeader + "Employee cancelled proposal with id: " + proposalId);
 
@@ -110,14 +132,16 @@ public class ShiftProposalService {
         }
 
         ShiftProposal proposal = opt.get();
+        ChangeFeedService.ProposalSnapshot before = changeFeedService.snapshot(proposal);
 
         proposal.setStatus(ShiftProposalStatus.CANCELLED);
 
         log.info(logHeader + "Employee " + proposal.getEmployeeId() + " cancelled proposal " + proposalId);
-        return proposalRepository.save(proposal);
+        return saveWithChange(before, proposal);
     }
 
     // Manager accepts a proposal
+    @Transactional
     public ShiftProposal acceptProposal(Long proposalId) {
         log.info(logHeader + "Manager is accepting proposal: " + proposalId);
 
@@ -128,6 +152,15 @@ public class ShiftProposalService {
         }
 
         ShiftProposal proposal = opt.get();
+        ChangeFeedService.ProposalSnapshot before = changeFeedService.snapshot(proposal);
+
+        if (!proposal.getProposedEndTime().isAfter(proposal.getProposedStartTime())) {
+            throw new IllegalArgumentException("Proposed shift must end after it starts");
+        }
+
+        if (Duration.between(proposal.getProposedStartTime(), proposal.getProposedEndTime()).compareTo(maxShiftDuration) > 0) {
+            throw new IllegalArgumentException("Proposed shift is longer than " + maxShiftDuration.toHours() + " hours");
+        }
 
         proposal.setStatus(ShiftProposalStatus.ACCEPTED);
 
@@ -142,6 +175,7 @@ public class ShiftProposalService {
                 .build();
                 
         newShift = shiftRepository.save(newShift);
+        changeFeedService.shiftChanged(null, changeFeedService.snapshot(newShift, List.of()));
 
         log.info(logHeader + "Official shift created: " + newShift.getId() + " from " + newShift.getStartTime() + " to " + newShift.getEndTime() + ".");
 
@@ -154,10 +188,11 @@ public class ShiftProposalService {
         assignmentService.assignShift(assignment);
         log.info(logHeader + "Manager accepted proposal " + proposalId + ". Official shift " + newShift.getId() + " created for employee " + proposal.getEmployeeId() + ".");*/
 
-        return proposalRepository.save(proposal);
+        return saveWithChange(before, proposal);
     }
 
     // Manager rejects a proposal without an alternative
+    @Transactional
     public ShiftProposal rejectProposal(Long proposalId, String managerComment) {
         log.info(logHeader + "Manager is rejecting proposal " + proposalId + ".");
         Optional<ShiftProposal> opt = proposalRepository.findById(proposalId);
@@ -167,16 +202,18 @@ public class ShiftProposalService {
         }
 
         ShiftProposal proposal = opt.get();
+        ChangeFeedService.ProposalSnapshot before = changeFeedService.snapshot(proposal);
 
         proposal.setStatus(ShiftProposalStatus.REJECTED);
         proposal.setManagerComment(managerComment);
 
         log.info(logHeader + "Manager rejected proposal " + proposalId + " for employee " + proposal.getEmployeeId() + ".");
 
-        return proposalRepository.save(proposal);
+        return saveWithChange(before, proposal);
     }
 
     // Manager rejects a proposal and proposes an alternative
+    @Transactional
     public ShiftProposal proposeAlternative(Long proposalId, ShiftProposal alternativeDetails) {
         log.info(logHeader + "Manager is proposing an alternative for proposal " + proposalId + ".");
 
@@ -187,6 +224,7 @@ public class ShiftProposalService {
         }
         
         ShiftProposal proposal = opt.get();
+        ChangeFeedService.ProposalSnapshot before = changeFeedService.snapshot(proposal);
         
         proposal.setStatus(ShiftProposalStatus.ALTERNATIVE_PROPOSED);
         proposal.setManagerAlternativeTitle(alternativeDetails.getProposedTitle());
@@ -195,7 +233,14 @@ public class ShiftProposalService {
         proposal.setManagerComment(alternativeDetails.getManagerComment());
         
         log.info(logHeader + "Manager proposed an alternative for proposal " + proposalId + " Alternative shift: " + alternativeDetails.getProposedTitle() + " from: " + alternativeDetails.getProposedStartTime() + " to: " + alternativeDetails.getProposedEndTime() + ".");
-        return proposalRepository.save(proposal);
+        return saveWithChange(before, proposal);
+    }
+
+    // Saves the proposal and records the change from 'before' in the change feed, same transaction
+    private ShiftProposal saveWithChange(ChangeFeedService.ProposalSnapshot before, ShiftProposal proposal) {
+        ShiftProposal saved = proposalRepository.save(proposal);
+        changeFeedService.shiftProposalChanged(before, changeFeedService.snapshot(proposal));
+        return saved;
     }
 
     public List<ShiftProposal> getProposalsByEmployee(Long employeeId) {
@@ -211,4 +256,28 @@ public class ShiftProposalService {
         List<ShiftProposal> proposals = proposalRepository.findAll();
         return proposals;
     }
+
+    // Keyset page by id, 'after' is the last id of the previous page (the page's 'nextCursor')
+    @Transactional(readOnly = true)
+    public CursorPage<ShiftProposal> getProposalsPage(Long after, Integer requestedLimit) {
+        log.debug(logHeader + "getProposalsPage: Getting proposals after id {} (limit: {})", after, requestedLimit);
+
+        int limit = CursorPage.limit(requestedLimit);
+        List<ShiftProposal> proposals = proposalRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(limit + 1));
+
+        return CursorPage.of(proposals, limit, proposal -> String.valueOf(proposal.getId()));
+    }
+
+    // Every proposal, one at a time (NDJSON export). Rows are detached once handed over, the persistence context doesn't grow
+    @Transactional(readOnly = true)
+    public void streamAllProposals(Consumer<ShiftProposal> sink) {
+        log.debug(logHeader + "streamAllProposals: Streaming all proposals");
+
+        try (Stream<ShiftProposal> proposals = proposalRepository.streamAll()) {
+            proposals.forEach(proposal -> {
+                sink.accept(proposal);
+                entityManager.detach(proposal);
+            });
+        }
+    }
 }
\ No newline at end of file
@@ -1,35 +1,255 @@
 package com.LIT.scheduler.service;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.LIT.scheduler.model.dto.ShiftStaffingDTO;
+import com.LIT.scheduler.model.entity.StaffingAlert;
+import com.LIT.scheduler.model.enums.AssignmentStatus;
 import com.LIT.scheduler.model.repository.ShiftRepository;
+import com.LIT.scheduler.model.repository.StaffingAlertRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 
-/**
- * Checks for shifts due in 7 days and triggers notifications if staffing is below the minimum.
+/*
+ * Checks the shifts starting within 'horizon' for understaffing every 'interval' and alerts the 'alert-recipients'.
+ *  - Staffed: the owner plus the confirmed assignments, counted by one grouped query for the whole horizon.
+ *  - Needed: the shift's minimumStaff, else the minimum of its role ('role-minimums', e.g. "Nurse=2,Doctor=1"),
+ *    else 'default-minimum' (0: shifts without a minimum aren't checked).
+ *  - A shift is alerted once; again only when its staffing drops below the last alert or it needs more people.
+ *    Once it's staffed its alert is cleared, so a later shortage is reported anew. 'staffing_alerts' keeps track.
+ *  - Every instance schedules the scan, the 'job_locks' lease lets one of them run it per interval.
+ * The alerts go through the notification outbox in the same transaction that records them.
  */
-public class ShiftScheduler {
+@Component
+@Slf4j
+public class ShiftScheduler implements SchedulingConfigurer {
+
+    static final String JOB = "understaffing-scan";
+
+    static final String ALERT_SUBJECT = "Understaffed Shifts";
+
+    // Outbox bodies hold up to 4096 characters
+    private static final int MAX_REPORT_LENGTH = 3900;
+
+    private final String logHeader = "[ShiftScheduler] - ";
 
     private final ShiftRepository shiftRepository;
+    private final StaffingAlertRepository alertRepository;
+    private final NotificationService notificationService;
+    private final JobLockService jobLockService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter alerted;
+
+    @Value("${scheduler.staffing.enabled:true}")
+    private boolean enabled = true;
 
-    public ShiftScheduler(ShiftRepository shiftRepository) {
+    @Value("${scheduler.staffing.interval:15m}")
+    private Duration interval = Duration.ofMinutes(15);
+
+    @Value("${scheduler.staffing.horizon:7d}")
+    private Duration horizon = Duration.ofDays(7);
+
+    @Value("${scheduler.staffing.default-minimum:0}")
+    private int defaultMinimum = 0;
+
+    @Value("${scheduler.staffing.role-minimums:}")
+    private String roleMinimums = "";
+
+    @Value("${scheduler.staffing.alert-recipients:}")
+    private String alertRecipients = "";
+
+    // Longest a scan may take before another instance may start one
+    @Value("${scheduler.staffing.lock-lease:10m}")
+    private Duration lockLease = Duration.ofMinutes(10);
+
+    @Autowired
+    public ShiftScheduler(ShiftRepository shiftRepository,
+                          StaffingAlertRepository alertRepository,
+                          NotificationService notificationService,
+                          JobLockService jobLockService,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry) {
         this.shiftRepository = shiftRepository;
+        this.alertRepository = alertRepository;
+        this.notificationService = notificationService;
+        this.jobLockService = jobLockService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.alerted = Counter.builder("scheduler.staffing.alerted").register(meterRegistry);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        if (!enabled) {
+            return;
+        }
+
+        if (recipients().isEmpty()) {
+            log.warn(logHeader + "configureTasks: No scheduler.staffing.alert-recipients configured, understaffing scan disabled");
+            return;
+        }
+
+        // Fails the startup on a malformed list rather than every scan
+        parseRoleMinimums(roleMinimums);
+        taskRegistrar.addFixedDelayTask(this::checkShiftsForUnderStaffing, interval);
     }
-    
-    /*public void checkShiftsForUnderStaffing() {
-        
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime sevenDaysFromNow = now.plusDays(7);
-        
-        List<Shift> upcomingShifts = shiftRepository.findByStartTimeBetween(now, sevenDaysFromNow);
 
-        for (Shift shift : upcomingShifts) {
-            if (shift.getAssignedEmployees().size() < shift.getMinimumRequiredEmployees()) {
+    public void checkShiftsForUnderStaffing() {
+        if (!jobLockService.tryAcquire(JOB, lockLease)) {
+            log.debug(logHeader + "checkShiftsForUnderStaffing: Another instance is running the scan");
+            return;
+        }
+
+        LocalDateTime started = LocalDateTime.now();
 
-                // Retrieve a user with the Manager role from the UserRepository.
-                Optional<User> managerOpt = userRepository.findFirstByRoles_Name("Manager");
+        try {
+            List<ShiftStaffingDTO> shifts = transactionTemplate.execute(status -> scan(started));
+            log.debug(logHeader + "checkShiftsForUnderStaffing: {} shifts alerted", shifts == null ? 0 : shifts.size());
 
-                if (managerOpt.isPresent()) {
-                    notificationService.notifyManagerForShiftShortage(managerOpt.get(), shift);
+        } catch (RuntimeException e) {
+            log.error(logHeader + "checkShiftsForUnderStaffing: Scan failed: {}", e.getMessage(), e);
+
+        } finally {
+            // Keep the lease for half an interval: instances whose schedules are slightly apart don't scan right after each other
+            LocalDateTime until = started.plus(interval.dividedBy(2));
+            jobLockService.release(JOB, until.isAfter(LocalDateTime.now()) ? until : LocalDateTime.now());
+        }
+    }
+
+    // Records & reports the new shortages among the shifts starting within [now, now + horizon), returns them
+    List<ShiftStaffingDTO> scan(LocalDateTime now) {
+        LocalDateTime to = now.plus(horizon);
+        alertRepository.deleteByShiftStartBefore(now);
+
+        List<ShiftStaffingDTO> shifts = shiftRepository.findStaffing(now, to, AssignmentStatus.CONFIRMED);
+        Map<Long, StaffingAlert> alerts = alertRepository.findByShiftStartInWindow(now, to).stream()
+            .collect(Collectors.toMap(StaffingAlert::getShiftId, Function.identity()));
+        Map<String, Integer> minimums = parseRoleMinimums(roleMinimums);
+
+        List<ShiftStaffingDTO> shortages = new ArrayList<>();
+        List<StaffingAlert> recorded = new ArrayList<>();
+        List<StaffingAlert> cleared = new ArrayList<>();
+
+        for (ShiftStaffingDTO shift : shifts) {
+            int required = required(shift, minimums, defaultMinimum);
+            StaffingAlert alert = alerts.get(shift.getShiftId());
+
+            if (shift.getStaffed() >= required) {
+                if (alert != null) {
+                    cleared.add(alert);
                 }
+                continue;
+            }
+
+            if (alert != null && shift.getStaffed() >= alert.getStaffed() && required <= alert.getRequired()) {
+                continue;
             }
+
+            shortages.add(shift);
+            recorded.add(StaffingAlert.builder()
+                .shiftId(shift.getShiftId())
+                .shiftStart(shift.getStartTime())
+                .required(required)
+                .staffed(shift.getStaffed())
+                .alertedAt(now)
+                .build());
+        }
+
+        alertRepository.deleteAll(cleared);
+
+        if (shortages.isEmpty()) {
+            return shortages;
+        }
+
+        alertRepository.saveAll(recorded);
+
+        String body = report(shortages, minimums, defaultMinimum);
+        recipients().forEach(recipient -> notificationService.sendEmail(recipient, ALERT_SUBJECT, body));
+        alerted.increment(shortages.size());
+
+        log.info(logHeader + "scan: {} understaffed shifts reported ({} shifts checked, {} alerts cleared)",
+                 shortages.size(), shifts.size(), cleared.size());
+        return shortages;
+    }
+
+    static int required(ShiftStaffingDTO shift, Map<String, Integer> roleMinimums, int defaultMinimum) {
+        if (shift.getMinimumStaff() != null) {
+            return shift.getMinimumStaff();
+        }
+
+        if (shift.getRole() != null) {
+            Integer minimum = roleMinimums.get(RosterProblem.normalizeRole(shift.getRole()));
+            if (minimum != null) {
+                return minimum;
+            }
+        }
+
+        return defaultMinimum;
+    }
+
+    // "Nurse=2, Doctor=1" -> {nurse=2, doctor=1}
+    static Map<String, Integer> parseRoleMinimums(String value) {
+        Map<String, Integer> minimums = new HashMap<>();
+
+        for (String entry : value.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("scheduler.staffing.role-minimums: expected role=minimum, got '" + entry.trim() + "'");
+            }
+
+            minimums.put(RosterProblem.normalizeRole(parts[0]), Integer.valueOf(parts[1].trim()));
         }
-    }*/
+
+        return minimums;
+    }
+
+    static String report(List<ShiftStaffingDTO> shortages, Map<String, Integer> roleMinimums, int defaultMinimum) {
+        StringBuilder message = new StringBuilder("Hello, the following " + shortages.size() + " upcoming shifts are understaffed:\n");
+
+        for (int i = 0; i < shortages.size(); i++) {
+            ShiftStaffingDTO shift = shortages.get(i);
+            String line = "- '" + shift.getTitle() + "'" + (shift.getRole() != null ? " (" + shift.getRole() + ")" : "")
+                        + " from " + shift.getStartTime() + " to " + shift.getEndTime() + ": "
+                        + shift.getStaffed() + " of " + required(shift, roleMinimums, defaultMinimum) + " employees\n";
+
+            if (message.length() + line.length() > MAX_REPORT_LENGTH) {
+                message.append("... and ").append(shortages.size() - i).append(" more\n");
+                break;
+            }
+
+            message.append(line);
+        }
+
+        return message.toString();
+    }
+
+    private List<String> recipients() {
+        return Arrays.stream(alertRecipients.split(","))
+                     .map(String::trim)
+                     .filter(recipient -> !recipient.isEmpty())
+                     .toList();
+    }
 }
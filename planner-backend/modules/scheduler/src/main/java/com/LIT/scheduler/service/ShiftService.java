@@ -1,15 +1,27 @@
 package com.LIT.scheduler.service;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.LIT.common.model.dto.CursorPage;
+import com.LIT.scheduler.model.dto.ShiftCalendarDTO;
 import com.LIT.scheduler.model.entity.Shift;
 import com.LIT.scheduler.model.repository.ShiftRepository;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
@@ -17,49 +29,136 @@ import lombok.extern.slf4j.Slf4j;
 public class ShiftService {
     private final ShiftRepository shiftRepository;
     private final NotificationService notificationService;
-    private final AuthUserService authUserService; // Use AuthUserService to retrieve user email
+    private final ChangeFeedService changeFeedService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     private final String logHeader = "[ShiftService] - ";
 
+    // Longest shift we expect: a window query only looks at shifts starting up to this long before the window
+    @Value("${scheduler.shifts.max-duration:24h}")
+    private Duration maxShiftDuration = Duration.ofHours(24);
+
+    // Widest window a single calendar request may ask for
+    @Value("${scheduler.shifts.max-range:366d}")
+    private Duration maxRange = Duration.ofDays(366);
+
     @Autowired
     public ShiftService(ShiftRepository shiftRepository, 
                         NotificationService notificationService,
-                        AuthUserService authUserService) {
+                        ChangeFeedService changeFeedService) {
         this.shiftRepository = shiftRepository;
         this.notificationService = notificationService;
-        this.authUserService = authUserService;
+        this.changeFeedService = changeFeedService;
     }
 
     public List<Shift> getAllShifts() {
-        log.info(logHeader + "getAllShifts: Getting all shifts");
+        log.debug(logHeader + "getAllShifts: Getting all shifts");
         return shiftRepository.findAll();
     }
 
+    /*
+     * Keyset page ordered by (startTime, id). The cursor is '<startTime>,<id>' of the last shift on the previous page,
+     * as handed out in 'nextCursor'.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Shift> getShiftsPage(String after, Integer requestedLimit) {
+        log.debug(logHeader + "getShiftsPage: Getting shifts after cursor '{}' (limit: {})", after, requestedLimit);
+
+        int limit = CursorPage.limit(requestedLimit);
+        List<Shift> shifts;
+
+        if (after == null || after.isBlank()) {
+            shifts = shiftRepository.findAllByOrderByStartTimeAscIdAsc(Limit.of(limit + 1));
+
+        } else {
+            int separator = after.lastIndexOf(',');
+
+            try {
+                LocalDateTime afterStart = LocalDateTime.parse(after.substring(0, separator));
+                Long afterId = Long.valueOf(after.substring(separator + 1));
+                shifts = shiftRepository.findPageAfter(afterStart, afterId, Limit.of(limit + 1));
+
+            } catch (DateTimeParseException | NumberFormatException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + after);
+            }
+        }
+
+        return CursorPage.of(shifts, limit, shift -> shift.getStartTime() + "," + shift.getId());
+    }
+
+    // Every shift, one at a time (NDJSON export). Rows are detached once handed over, the persistence context doesn't grow
+    @Transactional(readOnly = true)
+    public void streamAllShifts(Consumer<Shift> sink) {
+        log.debug(logHeader + "streamAllShifts: Streaming all shifts");
+
+        try (Stream<Shift> shifts = shiftRepository.streamAll()) {
+            shifts.forEach(shift -> {
+                sink.accept(shift);
+                entityManager.detach(shift);
+            });
+        }
+    }
+
+    /*
+     * Shifts overlapping [from, to) for the calendar, optionally for one employee and/or one role.
+     * Returns projections, not entities: nothing ends up in the persistence context.
+     */
+    @Transactional(readOnly = true)
+    public List<ShiftCalendarDTO> getShiftsInRange(LocalDateTime from, LocalDateTime to, Long ownerId, String role) {
+        log.debug(logHeader + "getShiftsInRange: Getting shifts from {} to {} (owner: {}, role: {})", from, to, ownerId, role);
+
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+
+        if (Duration.between(from, to).compareTo(maxRange) > 0) {
+            throw new IllegalArgumentException("Requested range exceeds " + maxRange.toDays() + " days");
+        }
+
+        LocalDateTime earliestStart = from.minus(maxShiftDuration);
+
+        if (ownerId != null) {
+            return shiftRepository.findCalendarWindowForOwner(ownerId, from, to, earliestStart, role);
+        }
+
+        return shiftRepository.findCalendarWindow(from, to, earliestStart, role);
+    }
+
     public Optional<Shift> getShiftById(Long id) {
-        log.info(logHeader + "getShiftById: Getting shift with id: " + id);
+        log.debug(logHeader + "getShiftById: Getting shift with id: {}", id);
         return shiftRepository.findById(id);
     }
 
+    @Transactional
     public Shift saveShift(Shift shift) {
-        log.info(logHeader + "saveShift: Saving new shift");
+        log.debug(logHeader + "saveShift: Saving new shift");
+        checkDuration(shift);
 
         if (shift.getShiftOwnerId() != null) {
             // Save the shift and store the result in savedShift
             Shift savedShift = shiftRepository.save(shift);
-            log.info(logHeader + "saveShift: Shift saved successfully for employee with id: " 
-                     + savedShift.getShiftOwnerId() + " and role: " + savedShift.getShiftOwnerRole());
+            changeFeedService.shiftChanged(null, changeFeedService.snapshot(savedShift, List.of()));
+            log.info(logHeader + "saveShift: Shift {} saved for employee with id: {} and role: {}",
+                     savedShift.getId(), savedShift.getShiftOwnerId(), savedShift.getShiftOwnerRole());
             
             // Prepare email details for the saved shift
-            String recipientEmail = getEmployeeEmail(savedShift.getShiftOwnerId());
             String subject = "New Shift Assigned";
             String message = "Dear Employee, your new shift '" + savedShift.getTitle() + "' " +
                              "has been assigned to you from " + savedShift.getStartTime() + " to " +
                              savedShift.getEndTime() + ".";
             
-            // Send email notification
-            log.debug(logHeader + "saveShift: Sending email to {}", recipientEmail);
-            notificationService.sendEmail(recipientEmail, subject, message);
+            // Send email notification (addressed by NotificationDispatcher once this commits)
+            log.debug(logHeader + "saveShift: Sending email to employee {}", savedShift.getShiftOwnerId());
+            notificationService.notifyUser(savedShift.getShiftOwnerId(), subject, message);
 
+            return savedShift;
+        } else if (shift.getShiftOwnerRole() != null && !shift.getShiftOwnerRole().isBlank()) {
+            // Open shift: no employee yet, staffed later (see RosterService), nobody to notify
+            Shift savedShift = shiftRepository.save(shift);
+            changeFeedService.shiftChanged(null, changeFeedService.snapshot(savedShift, List.of()));
+            log.info(logHeader + "saveShift: Open shift {} saved for role: {}", savedShift.getId(), savedShift.getShiftOwnerRole());
             return savedShift;
         } else {
             log.error(logHeader + "saveShift: Shift not saved successfully. Employee ID is NULL");
@@ -67,18 +166,24 @@ public class ShiftService {
         }
     }
 
+    @Transactional
     public Shift updateShift(Long id, Shift updatedShift) {
-        log.info(logHeader + "updateShift: Updating shift with id: " + id);
+        log.debug(logHeader + "updateShift: Updating shift with id: {}", id);
+        checkDuration(updatedShift);
         Optional<Shift> optionalShift = shiftRepository.findById(id);
     
         if (optionalShift.isPresent()) {
-            log.info(logHeader + "updateShift: Shift found with id: " + id + ". Proceeding to update...");
             Shift existingShift = optionalShift.get();
+            ChangeFeedService.ShiftSnapshot before = changeFeedService.snapshot(existingShift);
             
             // Update common fields
             existingShift.setTitle(updatedShift.getTitle());
             existingShift.setStartTime(updatedShift.getStartTime());
             existingShift.setEndTime(updatedShift.getEndTime());
+
+            if (updatedShift.getMinimumStaff() != null) {
+                existingShift.setMinimumStaff(updatedShift.getMinimumStaff());
+            }
             
             // Only update shiftOwnerId (and related fields) if a non-null value is provided.
             if (updatedShift.getShiftOwnerId() != null) {
@@ -91,50 +196,70 @@ public class ShiftService {
             // Otherwise, keep the existing shiftOwnerId and related fields
     
             Shift savedShift = shiftRepository.save(existingShift);
-            log.info(logHeader + "updateShift: Shift updated successfully");
+            changeFeedService.shiftChanged(before, changeFeedService.snapshot(savedShift));
+            log.info(logHeader + "updateShift: Shift {} updated", id);
     
+            // Open shifts have nobody to notify
+            if (savedShift.getShiftOwnerId() == null) {
+                return savedShift;
+            }
+
             // Send email notification after updating the shift
-            String recipientEmail = getEmployeeEmail(savedShift.getShiftOwnerId());
             String subject = "Shift Updated";
             String message = "Dear Employee, your shift '" + savedShift.getTitle() + "' has been updated. " +
                              "New schedule: from " + savedShift.getStartTime() + " to " + savedShift.getEndTime() + ".";
-            log.debug(logHeader + "updateShift: Sending update email to {}", recipientEmail);
-            notificationService.sendEmail(recipientEmail, subject, message);
+            log.debug(logHeader + "updateShift: Sending update email to employee {}", savedShift.getShiftOwnerId());
+            notificationService.notifyUser(savedShift.getShiftOwnerId(), subject, message);
     
             return savedShift;
         } else {
-            log.error(logHeader + "updateShift: Shift not found with id: " + id);
+            log.error(logHeader + "updateShift: Shift not found with id: {}", id);
             throw new RuntimeException("Shift not found with id: " + id);
         }
     }
     
 
+    /*
+     * Same checks as the bulk import: a shift ends after it starts, and the calendar window queries only look
+     * 'max-duration' back for shifts that started before the window, a longer shift would drop out of them
+     * (existing ones are reported at startup, see ShiftDurationCheck).
+     */
+    private void checkDuration(Shift shift) {
+        if (shift.getStartTime() == null || shift.getEndTime() == null) {
+            return;
+        }
+
+        if (!shift.getEndTime().isAfter(shift.getStartTime())) {
+            throw new IllegalArgumentException("Shift must end after it starts");
+        }
+
+        if (Duration.between(shift.getStartTime(), shift.getEndTime()).compareTo(maxShiftDuration) > 0) {
+            throw new IllegalArgumentException("Shift is longer than " + maxShiftDuration.toHours() + " hours");
+        }
+    }
+
+    @Transactional
     public void deleteShift(Long id) {
-        log.info(logHeader + "deleteShift: Deleting shift with id: " + id);
+        log.debug(logHeader + "deleteShift: Deleting shift with id: {}", id);
         Optional<Shift> optionalShift = shiftRepository.findById(id);
         if (optionalShift.isPresent()) {
             Shift shiftToDelete = optionalShift.get();
             
-            // Send email notification before deleting the shift
-            String recipientEmail = getEmployeeEmail(shiftToDelete.getShiftOwnerId());
-            String subject = "Shift Deleted";
-            String message = "Dear Employee, your shift '" + shiftToDelete.getTitle() + "' scheduled from " +
-                             shiftToDelete.getStartTime() + " to " + shiftToDelete.getEndTime() +
-                             " has been deleted.";
-            log.debug(logHeader + "deleteShift: Sending delete email to {}", recipientEmail);
-            notificationService.sendEmail(recipientEmail, subject, message);
+            // Send email notification before deleting the shift (open shifts have nobody to notify)
+            if (shiftToDelete.getShiftOwnerId() != null) {
+                String subject = "Shift Deleted";
+                String message = "Dear Employee, your shift '" + shiftToDelete.getTitle() + "' scheduled from " +
+                                 shiftToDelete.getStartTime() + " to " + shiftToDelete.getEndTime() +
+                                 " has been deleted.";
+                log.debug(logHeader + "deleteShift: Sending delete email to employee {}", shiftToDelete.getShiftOwnerId());
+                notificationService.notifyUser(shiftToDelete.getShiftOwnerId(), subject, message);
+            }
             
+            changeFeedService.shiftChanged(changeFeedService.snapshot(shiftToDelete), null);
             shiftRepository.deleteById(id);
-            log.info(logHeader + "deleteShift: Shift deleted successfully.");
+            log.info(logHeader + "deleteShift: Shift {} deleted", id);
         } else {
-            log.error(logHeader + "deleteShift: Shift not found with id: " + id);
+            log.error(logHeader + "deleteShift: Shift not found with id: {}", id);
         }
     }
-
-    // Retrieve the user's email using AuthUserService (which calls the auth service via REST)
-    private String getEmployeeEmail(Long employeeId) {
-        String email = authUserService.getUserEmailById(employeeId);
-        log.debug(logHeader + "getEmployeeEmail: Retrieved email for employeeId {}: {}", employeeId, email);
-        return email;
-    }
 }
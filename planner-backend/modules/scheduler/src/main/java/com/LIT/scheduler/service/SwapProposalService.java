@@ -3,17 +3,24 @@ package com.LIT.scheduler.service;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.LIT.scheduler.exception.ShiftConflictException;
+import com.LIT.common.model.dto.CursorPage;
 import com.LIT.scheduler.model.entity.Shift;
 import com.LIT.scheduler.model.entity.SwapProposal;
 import com.LIT.scheduler.model.enums.ShiftProposalStatus;
 import com.LIT.scheduler.model.repository.ShiftRepository;
 import com.LIT.scheduler.model.repository.SwapProposalRepository;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
@@ -23,7 +30,11 @@ public class SwapProposalService {
     private final SwapProposalRepository proposalRepository;
     private final ShiftRepository shiftRepository;
     private final NotificationService notificationService;
-    private final AuthUserService authUserService; // For dynamic email retrieval
+    private final ConflictDetectionService conflictDetectionService;
+    private final ChangeFeedService changeFeedService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     private final String logHeader = "[ShiftProposalService] - ";
 
@@ -31,14 +42,17 @@ public class SwapProposalService {
     public SwapProposalService(SwapProposalRepository proposalRepository,
                                ShiftRepository shiftRepository,
                                NotificationService notificationService,
-                               AuthUserService authUserService) {
+                               ConflictDetectionService conflictDetectionService,
+                               ChangeFeedService changeFeedService) {
         this.proposalRepository = proposalRepository;
         this.shiftRepository = shiftRepository;
         this.notificationService = notificationService;
-        this.authUserService = authUserService;
+        this.conflictDetectionService = conflictDetectionService;
+        this.changeFeedService = changeFeedService;
     }
 
     // Employee submits new shift change request (with conflict detection)
+    @Transactional
     public SwapProposal createProposal(SwapProposal proposal) {
         log.info(logHeader + "createProposal: Creating new shift proposal");
 
@@ -48,7 +62,8 @@ public class SwapProposalService {
         log.info(logHeader + "Checking for conflicts with existing official assignments for employee: "
                 + proposal.getEmployeeId() + " from: " + proposedStart + " to " + proposedEnd);
 
-        List<Shift> conflicts = shiftRepository.findConflictingShifts(proposal.getEmployeeId(), proposedStart, proposedEnd);
+        // The shift to be changed doesn't clash with its own new time
+        List<Long> conflicts = conflictDetectionService.findConflicts(proposal.getEmployeeId(), proposedStart, proposedEnd, proposal.getCurrentShiftId());
 
         if (!conflicts.isEmpty()) {
             log.error(logHeader + "Conflict detected: Employee " + proposal.getEmployeeId()
@@ -61,6 +76,7 @@ public class SwapProposalService {
         proposal.setStatus(ShiftProposalStatus.PROPOSED);
 
         proposalRepository.save(proposal);
+        changeFeedService.swapProposalChanged(null, changeFeedService.snapshot(proposal));
 
         log.info(logHeader + "Employee " + proposal.getEmployeeId() + " has proposed a new shift change request for current shift id "
                 + proposal.getCurrentShiftId() + " to new shift: " + proposal.getProposedTitle() + " from " 
@@ -69,6 +85,7 @@ public class SwapProposalService {
         return proposal;
     }
 
+    @Transactional
     public SwapProposal acceptShiftChange(Long proposalId, Long swapEmployeeId) {
         log.info(logHeader + "Starting swap acceptance: proposalId=" + proposalId + ", swapEmployeeId=" + swapEmployeeId);
 
@@ -77,6 +94,7 @@ public class SwapProposalService {
             SwapProposal proposal = proposalRepository.findById(proposalId)
                     .orElseThrow(() -> new IllegalArgumentException("Shift proposal not found with id: " + proposalId));
             log.info(logHeader + "Found proposal in database with ID: " + proposal.getId());
+            ChangeFeedService.ProposalSnapshot proposalBefore = changeFeedService.snapshot(proposal);
 
             // Step 2: Find swap employee shifts
             List<Shift> swapEmployeeShifts = shiftRepository.findByShiftOwnerId(swapEmployeeId);
@@ -106,12 +124,15 @@ public class SwapProposalService {
                 requestingUserShift.setStartTime(LocalDateTime.now());
                 requestingUserShift.setEndTime(LocalDateTime.now().plusHours(8));
                 requestingUserShift = shiftRepository.save(requestingUserShift);
+                changeFeedService.shiftChanged(null, changeFeedService.snapshot(requestingUserShift, List.of()));
             } else {
                 requestingUserShift = requestingUserShiftOpt.get();
             }
 
             // Step 5: Perform swap
             log.info(logHeader + "Swapping owners between shifts");
+            ChangeFeedService.ShiftSnapshot requestingBefore = changeFeedService.snapshot(requestingUserShift);
+            ChangeFeedService.ShiftSnapshot swapBefore = changeFeedService.snapshot(swapEmployeeShift);
             // Save original values for the requester's shift
             Long tempId = requestingUserShift.getShiftOwnerId();
             String tempName = requestingUserShift.getShiftOwnerName();
@@ -130,10 +151,13 @@ public class SwapProposalService {
             // Step 6: Save updated shifts
             shiftRepository.save(requestingUserShift);
             shiftRepository.save(swapEmployeeShift);
+            changeFeedService.shiftChanged(requestingBefore, changeFeedService.snapshot(requestingUserShift));
+            changeFeedService.shiftChanged(swapBefore, changeFeedService.snapshot(swapEmployeeShift));
 
             // Step 7: Update proposal status
             proposal.setStatus(ShiftProposalStatus.ACCEPTED);
             SwapProposal savedProposal = proposalRepository.save(proposal);
+            changeFeedService.swapProposalChanged(proposalBefore, changeFeedService.snapshot(proposal));
             log.info(logHeader + "Swap completed successfully");
 
             // Prepare and send email notification to the proposal initiator
@@ -141,26 +165,24 @@ public class SwapProposalService {
             String initiatorMessage = "Your shift swap request has been accepted. You now have the shift '" 
                     + swapEmployeeShift.getTitle() + "' scheduled from " 
                     + swapEmployeeShift.getStartTime() + " to " + swapEmployeeShift.getEndTime() + ".";
-            String proposalInitiatorEmail = getEmployeeEmail(proposal.getEmployeeId());
-            notificationService.sendEmail(
-                    proposalInitiatorEmail,
+            notificationService.notifyUser(
+                    proposal.getEmployeeId(),
                     "Shift Swap Accepted",
                     initiatorMessage
             );
-            log.info(logHeader + "Email sent to proposal initiator: " + proposalInitiatorEmail);
+            log.info(logHeader + "Email queued for proposal initiator: " + proposal.getEmployeeId());
 
             // Prepare and send email notification to the swap employee
             // After swap, the swap employee now gets the requester's original shift (i.e. requestingUserShift)
             String swapEmployeeMessage = "Your shift has been swapped. You now have the shift '" 
                     + requestingUserShift.getTitle() + "' scheduled from " 
                     + requestingUserShift.getStartTime() + " to " + requestingUserShift.getEndTime() + ".";
-            String swapEmployeeEmail = getEmployeeEmail(swapEmployeeOriginalId);
-            notificationService.sendEmail(
-                    swapEmployeeEmail,
+            notificationService.notifyUser(
+                    swapEmployeeOriginalId,
                     "Your Shift Has Been Swapped",
                     swapEmployeeMessage
             );
-            log.info(logHeader + "Email sent to swap employee: " + swapEmployeeEmail);
+            log.info(logHeader + "Email queued for swap employee: " + swapEmployeeOriginalId);
 
             return savedProposal;
         } catch (Exception e) {
@@ -170,6 +192,7 @@ public class SwapProposalService {
     }
 
     // Manager declines a shift change request
+    @Transactional
     public SwapProposal declineShiftChange(Long proposalId, String managerComment) {
         log.info(logHeader + "Manager is declining shift change proposal: " + proposalId);
 
@@ -180,19 +203,22 @@ public class SwapProposalService {
         }
 
         SwapProposal proposal = opt.get();
+        ChangeFeedService.ProposalSnapshot before = changeFeedService.snapshot(proposal);
 
         proposal.setStatus(ShiftProposalStatus.REJECTED);
         proposal.setManagerComment(managerComment);
 
         log.info(logHeader + "Manager declined proposal " + proposalId + " for employee " + proposal.getEmployeeId() + " with comment: " + managerComment);
 
-        notificationService.sendEmail(
-                getEmployeeEmail(proposal.getEmployeeId()),
+        notificationService.notifyUser(
+                proposal.getEmployeeId(),
                 "Shift Swap Declined",
                 "Your shift swap request has been declined. Manager comment: " + managerComment
         );
 
-        return proposalRepository.save(proposal);
+        SwapProposal saved = proposalRepository.save(proposal);
+        changeFeedService.swapProposalChanged(before, changeFeedService.snapshot(proposal));
+        return saved;
     }
 
     public List<SwapProposal> getProposalsByEmployee(Long employeeId) {
@@ -207,8 +233,27 @@ public class SwapProposalService {
         return proposals;
     }
 
-    // Retrieve the user's email dynamically using AuthUserService
-    private String getEmployeeEmail(Long employeeId) {
-        return authUserService.getUserEmailById(employeeId);
+    // Keyset page by id, 'after' is the last id of the previous page (the page's 'nextCursor')
+    @Transactional(readOnly = true)
+    public CursorPage<SwapProposal> getProposalsPage(Long after, Integer requestedLimit) {
+        log.debug(logHeader + "getProposalsPage: Getting proposals after id {} (limit: {})", after, requestedLimit);
+
+        int limit = CursorPage.limit(requestedLimit);
+        List<SwapProposal> proposals = proposalRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(limit + 1));
+
+        return CursorPage.of(proposals, limit, proposal -> String.valueOf(proposal.getId()));
+    }
+
+    // Every proposal, one at a time (NDJSON export). Rows are detached once handed over, the persistence context doesn't grow
+    @Transactional(readOnly = true)
+    public void streamAllProposals(Consumer<SwapProposal> sink) {
+        log.debug(logHeader + "streamAllProposals: Streaming all proposals");
+
+        try (Stream<SwapProposal> proposals = proposalRepository.streamAll()) {
+            proposals.forEach(proposal -> {
+                sink.accept(proposal);
+                entityManager.detach(proposal);
+            });
+        }
     }
 }
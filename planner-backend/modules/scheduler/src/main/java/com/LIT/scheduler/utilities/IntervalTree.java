@@ -0,0 +1,243 @@
+package com.LIT.scheduler.utilities;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Half-open intervals [start, end) in an AVL tree ordered by (start, id). Every node also keeps the largest end
+ * of its subtree, so an overlap query skips whole subtrees that end too early or start too late:
+ * O(log n + k) for k matches, insert & remove O(log n).
+ * 'id' tells apart intervals with the same start, (start, id) identifies an entry.
+ * Not thread safe, callers guard it.
+ */
+public class IntervalTree<T> {
+
+    private static final class Node<T> {
+        private final long start;
+        private final long id;
+        private long end;
+        private long maxEnd;
+        private T value;
+        private int height = 1;
+        private Node<T> left;
+        private Node<T> right;
+
+        private Node(long start, long end, long id, T value) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.value = value;
+            this.maxEnd = end;
+        }
+    }
+
+    private Node<T> root;
+
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Adds [start, end), replacing the entry with the same (start, id) if there is one
+    public void insert(long start, long end, long id, T value) {
+        if (end <= start) {
+            throw new IllegalArgumentException("Interval end must be after its start");
+        }
+
+        root = insert(root, start, end, id, value);
+    }
+
+    public boolean remove(long start, long id) {
+        int before = size;
+        root = remove(root, start, id);
+        return size < before;
+    }
+
+    // Values of all intervals overlapping [from, to), ordered by start
+    public List<T> overlapping(long from, long to) {
+        List<T> result = new ArrayList<>();
+        collect(root, from, to, result);
+        return result;
+    }
+
+    // Whether any interval overlaps [from, to), stops at the first one found (no list built)
+    public boolean overlaps(long from, long to) {
+        return overlaps(root, from, to);
+    }
+
+    private boolean overlaps(Node<T> node, long from, long to) {
+        if (node == null || node.maxEnd <= from) {
+            return false;
+        }
+
+        if (overlaps(node.left, from, to)) {
+            return true;
+        }
+
+        if (node.start >= to) {
+            return false;
+        }
+
+        return node.end > from || overlaps(node.right, from, to);
+    }
+
+    private void collect(Node<T> node, long from, long to, List<T> result) {
+        // Nothing in this subtree ends after 'from'
+        if (node == null || node.maxEnd <= from) {
+            return;
+        }
+
+        collect(node.left, from, to, result);
+
+        // Ordered by start: this node and everything right of it begin at or after 'to'
+        if (node.start >= to) {
+            return;
+        }
+
+        if (node.end > from) {
+            result.add(node.value);
+        }
+
+        collect(node.right, from, to, result);
+    }
+
+    private Node<T> insert(Node<T> node, long start, long end, long id, T value) {
+        if (node == null) {
+            size++;
+            return new Node<>(start, end, id, value);
+        }
+
+        int cmp = compare(start, id, node);
+
+        if (cmp < 0) {
+            node.left = insert(node.left, start, end, id, value);
+
+        } else if (cmp > 0) {
+            node.right = insert(node.right, start, end, id, value);
+
+        } else {
+            node.end = end;
+            node.value = value;
+        }
+
+        return balance(node);
+    }
+
+    private Node<T> remove(Node<T> node, long start, long id) {
+        if (node == null) {
+            return null;
+        }
+
+        int cmp = compare(start, id, node);
+
+        if (cmp < 0) {
+            node.left = remove(node.left, start, id);
+
+        } else if (cmp > 0) {
+            node.right = remove(node.right, start, id);
+
+        } else {
+            size--;
+
+            if (node.left == null) {
+                return node.right;
+            }
+
+            if (node.right == null) {
+                return node.left;
+            }
+
+            // Two children: the smallest node of the right subtree takes this node's place
+            Node<T> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+
+            successor.right = removeMin(node.right);
+            successor.left = node.left;
+            return balance(successor);
+        }
+
+        return balance(node);
+    }
+
+    private Node<T> removeMin(Node<T> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+
+        node.left = removeMin(node.left);
+        return balance(node);
+    }
+
+    private int compare(long start, long id, Node<T> node) {
+        int cmp = Long.compare(start, node.start);
+        return cmp != 0 ? cmp : Long.compare(id, node.id);
+    }
+
+    /*
+     * AVL rebalancing, heights & max ends are recomputed bottom-up on the way back from insert/remove
+     */
+    private Node<T> balance(Node<T> node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+
+            return rotateRight(node);
+        }
+
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+
+            return rotateLeft(node);
+        }
+
+        return node;
+    }
+
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private void update(Node<T> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+
+        long maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private int height(Node<T> node) {
+        return node == null ? 0 : node.height;
+    }
+}
@@ -0,0 +1,132 @@
+package com.LIT.scheduler.utilities;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.LIT.scheduler.model.entity.Shift;
+
+/*
+ * Shifts from CSV for the roster import. The first line names the columns (any order, case-insensitive):
+ *   title,shiftOwnerId,shiftOwnerName,shiftOwnerRole,startTime,endTime[,minimumStaff]
+ * Times are ISO date-times (2025-03-01T08:00:00). Fields may be quoted ("Early, ward 3"), "" is a quote inside one.
+ * Malformed input throws IllegalArgumentException naming the line.
+ */
+public final class ShiftCsvReader {
+
+    private static final List<String> REQUIRED = List.of("title", "shiftownerid", "starttime", "endtime");
+
+    private ShiftCsvReader() {
+    }
+
+    public static List<Shift> read(String csv) {
+        String[] lines = csv.replace("\r", "").split("\n");
+        if (lines.length == 0 || lines[0].isBlank()) {
+            throw new IllegalArgumentException("CSV is empty, the first line has to name the columns");
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> header = split(lines[0], 1);
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+
+        for (String column : REQUIRED) {
+            if (!columns.containsKey(column)) {
+                throw new IllegalArgumentException("CSV header is missing the column '" + column + "'");
+            }
+        }
+
+        List<Shift> shifts = new ArrayList<>();
+
+        for (int i = 1; i < lines.length; i++) {
+            if (lines[i].isBlank()) {
+                continue;
+            }
+
+            int lineNumber = i + 1;
+            List<String> fields = split(lines[i], lineNumber);
+
+            try {
+                shifts.add(Shift.builder()
+                    .title(field(fields, columns, "title"))
+                    .shiftOwnerId(toLong(field(fields, columns, "shiftownerid")))
+                    .shiftOwnerName(field(fields, columns, "shiftownername"))
+                    .shiftOwnerRole(field(fields, columns, "shiftownerrole"))
+                    .startTime(toTime(field(fields, columns, "starttime")))
+                    .endTime(toTime(field(fields, columns, "endtime")))
+                    .minimumStaff(toInteger(field(fields, columns, "minimumstaff")))
+                    .build());
+
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("CSV line " + lineNumber + ": " + e.getMessage());
+            }
+        }
+
+        return shifts;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Long toLong(String value) {
+        return value == null ? null : Long.valueOf(value);
+    }
+
+    private static Integer toInteger(String value) {
+        return value == null ? null : Integer.valueOf(value);
+    }
+
+    private static LocalDateTime toTime(String value) {
+        return value == null ? null : LocalDateTime.parse(value);
+    }
+
+    private static List<String> split(String line, int lineNumber) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+
+            } else if (c == '"') {
+                quoted = true;
+
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("CSV line " + lineNumber + ": unterminated quote");
+        }
+
+        fields.add(field.toString());
+        return fields;
+    }
+}
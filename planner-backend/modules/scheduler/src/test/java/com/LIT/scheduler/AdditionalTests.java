@@ -34,7 +34,9 @@ import com.LIT.scheduler.model.entity.SwapProposal;
 import com.LIT.scheduler.model.enums.ShiftProposalStatus;
 import com.LIT.scheduler.model.repository.ShiftRepository;
 import com.LIT.scheduler.model.repository.SwapProposalRepository;
+import com.LIT.scheduler.service.ChangeFeedService;
 import com.LIT.scheduler.service.AuthUserService;
+import com.LIT.scheduler.service.ConflictDetectionService;
 import com.LIT.scheduler.service.NotificationService;
 import com.LIT.scheduler.service.SwapProposalService;
 
@@ -49,10 +51,12 @@ public class AdditionalTests {
 
     @Mock
     private NotificationService notificationService;
-    
-    // For SwapProposalService we inject a mock AuthUserService.
+
     @Mock
-    private AuthUserService authUserService;
+    private ConflictDetectionService conflictDetectionService;
+
+    @Mock
+    private ChangeFeedService changeFeedService;
 
     @InjectMocks
     private SwapProposalService swapProposalService;
@@ -92,9 +96,6 @@ public class AdditionalTests {
         when(proposalRepository.findById(1L)).thenReturn(Optional.of(proposal));
         when(proposalRepository.save(any(SwapProposal.class))).thenReturn(proposal);
 
-        // Provide a dummy email for the employee to avoid NPE.
-        when(authUserService.getUserEmailById(1L)).thenReturn("dummy@example.com");
-
         // Execute the swap acceptance using the proposal id.
         SwapProposal result = swapProposalService.acceptShiftChange(proposal.getId(), 2L);
 
@@ -156,6 +157,9 @@ public class AdditionalTests {
         Field field = AuthUserService.class.getDeclaredField("authServiceBaseUrl");
         field.setAccessible(true);
         field.set(realAuthUserService, authServiceBaseUrl);
+        Field token = AuthUserService.class.getDeclaredField("serviceToken");
+        token.setAccessible(true);
+        token.set(realAuthUserService, "scheduler-token");
         
         // Create a local MockRestServiceServer for the real RestTemplate.
         MockRestServiceServer localMockServer = MockRestServiceServer.createServer(realRestTemplate);
@@ -170,7 +174,7 @@ public class AdditionalTests {
         // Set up the mock server expectation.
         localMockServer.expect(requestTo(new URI(expectedUrl)))
                 .andExpect(method(HttpMethod.GET))
-                .andExpect(header("X-User-Permissions", "EMPLOYEE_MANAGEMENT"))
+                .andExpect(header("X-Service-Token", "scheduler-token"))
                 .andRespond(withSuccess(jsonResponse, MediaType.APPLICATION_JSON));
 
         // Call the method.
@@ -198,8 +202,6 @@ public class AdditionalTests {
             // Mock repository and service lookups.
             when(proposalRepository.findById(5L)).thenReturn(Optional.of(proposal));
             when(proposalRepository.save(any(SwapProposal.class))).thenReturn(proposal);
-            // Ensure the AuthUserService returns a valid email for the proposal initiator.
-            when(authUserService.getUserEmailById(3L)).thenReturn("employee@example.com");
     
             String managerComment = "Not available at that time";
     
@@ -211,9 +213,9 @@ public class AdditionalTests {
             assertEquals(managerComment, result.getManagerComment());
     
             // Verify that the notification service was invoked.
-            // (Assuming that the service sends one email to the proposal initiator.)
-            verify(notificationService, times(1)).sendEmail(
-                    eq("employee@example.com"),
+            // (One email to the proposal initiator, addressed by user id.)
+            verify(notificationService, times(1)).notifyUser(
+                    eq(3L),
                     eq("Shift Swap Declined"),
                     org.mockito.ArgumentMatchers.contains(managerComment)
             );
@@ -0,0 +1,151 @@
+package com.LIT.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServiceUnavailable;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import com.LIT.scheduler.model.dto.AuthUserDTO;
+import com.LIT.scheduler.service.AuthUserService;
+
+public class AuthUserServiceTest {
+
+    private static final String AUTH_URL = "http://localhost:8082";
+
+    private RestTemplate restTemplate;
+    private MockRestServiceServer authServer;
+    private AuthUserService authUserService;
+
+    @BeforeEach
+    public void setUp() {
+        restTemplate = new RestTemplate();
+        authServer = MockRestServiceServer.createServer(restTemplate);
+        authUserService = directory(restTemplate);
+    }
+
+    private AuthUserService directory(RestTemplate restTemplate) {
+        AuthUserService service = new AuthUserService(restTemplate);
+        ReflectionTestUtils.setField(service, "authServiceBaseUrl", AUTH_URL);
+        return service;
+    }
+
+    private static String user(long id) {
+        return "{\"id\":" + id + ",\"email\":\"user" + id + "@example.com\",\"username\":\"user" + id + "\",\"roles\":[{\"id\":2,\"name\":\"Technician\"}]}";
+    }
+
+    @Test
+    public void testCachedUserIsNotFetchedAgain() {
+        authServer.expect(ExpectedCount.once(), requestTo(AUTH_URL + "/api/auth/users/7"))
+                  .andExpect(method(HttpMethod.GET))
+                  .andRespond(withSuccess(user(7), MediaType.APPLICATION_JSON));
+
+        assertEquals("user7@example.com", authUserService.getUserEmailById(7L));
+        assertEquals("user7@example.com", authUserService.getUserEmailById(7L));
+        assertEquals("Technician", authUserService.getUserById(7L).get().getRoles().get(0).getName());
+
+        authServer.verify();
+    }
+
+    @Test
+    public void testMissingUsersAreFetchedInOneBatch() {
+        authServer.expect(requestTo(AUTH_URL + "/api/auth/users/1"))
+                  .andRespond(withSuccess(user(1), MediaType.APPLICATION_JSON));
+        // User 1 is cached, 4 doesn't exist
+        authServer.expect(requestTo(AUTH_URL + "/api/auth/users/batch"))
+                  .andExpect(method(HttpMethod.POST))
+                  .andExpect(content().json("[2,3,4]"))
+                  .andRespond(withSuccess("[" + user(2) + "," + user(3) + "]", MediaType.APPLICATION_JSON));
+
+        authUserService.getUserEmailById(1L);
+        Map<Long, AuthUserDTO> users = authUserService.getUsersById(List.of(1L, 2L, 3L, 4L));
+
+        assertEquals(3, users.size());
+        assertFalse(users.containsKey(4L));
+        // Unknown ids are remembered too
+        assertFalse(authUserService.getUserById(4L).isPresent());
+
+        authServer.verify();
+    }
+
+    @Test
+    public void testExpiredEntryIsUsedWhileAuthIsDown() {
+        ReflectionTestUtils.setField(authUserService, "ttl", Duration.ZERO);
+
+        authServer.expect(requestTo(AUTH_URL + "/api/auth/users/7"))
+                  .andRespond(withSuccess(user(7), MediaType.APPLICATION_JSON));
+        authServer.expect(requestTo(AUTH_URL + "/api/auth/users/7"))
+                  .andRespond(withServiceUnavailable());
+
+        assertEquals("user7@example.com", authUserService.getUserEmailById(7L));
+        assertEquals("user7@example.com", authUserService.getUserEmailById(7L));
+
+        authServer.verify();
+    }
+
+    @Test
+    public void testConcurrentLookupsShareOneRequest() throws Exception {
+        RestTemplate slowRestTemplate = mock(RestTemplate.class);
+        CountDownLatch release = new CountDownLatch(1);
+
+        AuthUserDTO dto = new AuthUserDTO();
+        dto.setId(7L);
+        dto.setEmail("user7@example.com");
+
+        when(slowRestTemplate.exchange(anyString(), eq(HttpMethod.GET), any(), eq(AuthUserDTO.class))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return ResponseEntity.ok(dto);
+        });
+
+        AuthUserService slowDirectory = directory(slowRestTemplate);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<String>> lookups = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                lookups.add(pool.submit(() -> slowDirectory.getUserEmailById(7L)));
+            }
+
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<String> lookup : lookups) {
+                assertEquals("user7@example.com", lookup.get(5, TimeUnit.SECONDS));
+            }
+
+        } finally {
+            pool.shutdownNow();
+        }
+
+        verify(slowRestTemplate, times(1)).exchange(anyString(), eq(HttpMethod.GET), any(), eq(AuthUserDTO.class));
+    }
+}
@@ -0,0 +1,120 @@
+package com.LIT.scheduler;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.LIT.scheduler.model.entity.ChangeFeedEntry;
+import com.LIT.scheduler.model.entity.Shift;
+import com.LIT.scheduler.model.entity.SwapProposal;
+import com.LIT.scheduler.model.enums.AssignmentStatus;
+import com.LIT.scheduler.model.enums.ChangeEntityType;
+import com.LIT.scheduler.model.enums.ChangeType;
+import com.LIT.scheduler.model.enums.ShiftProposalStatus;
+import com.LIT.scheduler.model.repository.ChangeFeedRepository;
+import com.LIT.scheduler.model.repository.ShiftAssignmentRepository;
+import com.LIT.scheduler.model.repository.ShiftRepository;
+import com.LIT.scheduler.service.ChangeFeedService;
+import com.LIT.scheduler.service.ChangeFeedService.ProposalSnapshot;
+import com.LIT.scheduler.service.ChangeFeedService.ShiftSnapshot;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+@ExtendWith(MockitoExtension.class)
+public class ChangeFeedServiceTest {
+
+    @Mock
+    private ChangeFeedRepository changeFeedRepository;
+
+    @Mock
+    private ShiftAssignmentRepository assignmentRepository;
+
+    @Mock
+    private ShiftRepository shiftRepository;
+
+    // Like the one Spring Boot configures: java.time support, dates as ISO strings
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                                                                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private ChangeFeedService changeFeedService;
+
+    private final LocalDateTime start = LocalDateTime.of(2025, 3, 10, 8, 0);
+
+    @BeforeEach
+    public void setUp() {
+        changeFeedService = new ChangeFeedService(changeFeedRepository, assignmentRepository, shiftRepository, objectMapper);
+    }
+
+    private Shift shift(Long ownerId, String role) {
+        return Shift.builder().id(5L).title("Early").shiftOwnerId(ownerId).shiftOwnerRole(role)
+                    .startTime(start).endTime(start.plusHours(8)).build();
+    }
+
+    @Test
+    public void testShiftChangeIsRecordedWithItsAssignees() throws Exception {
+        when(assignmentRepository.findUserIdsByShiftIdAndStatus(5L, AssignmentStatus.CONFIRMED)).thenReturn(List.of(8L, 9L));
+        when(changeFeedRepository.save(any(ChangeFeedEntry.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Shift shift = shift(7L, "Nurse");
+        ShiftSnapshot before = changeFeedService.snapshot(shift);
+        shift.setTitle("Early (renamed)");
+
+        // Nothing the feed carries changed
+        changeFeedService.shiftChanged(before, changeFeedService.snapshot(shift));
+        verify(changeFeedRepository, never()).save(any());
+
+        shift.setEndTime(start.plusHours(10));
+        changeFeedService.shiftChanged(before, changeFeedService.snapshot(shift));
+
+        ArgumentCaptor<ChangeFeedEntry> entry = ArgumentCaptor.forClass(ChangeFeedEntry.class);
+        verify(changeFeedRepository).save(entry.capture());
+        assertEquals(ChangeEntityType.SHIFT, entry.getValue().getEntityType());
+        assertEquals(ChangeType.UPDATED, entry.getValue().getChangeType());
+        assertEquals(5L, entry.getValue().getEntityId());
+
+        JsonNode change = objectMapper.readTree(entry.getValue().getChanges()).get(0);
+        assertEquals("2025-03-10T16:00:00", change.get("before").get("end").asText());
+        assertEquals("2025-03-10T18:00:00", change.get("after").get("end").asText());
+        assertEquals(9L, change.get("after").get("assignees").get(1).asLong());
+        assertEquals(7L, change.get("after").get("ownerId").asLong());
+    }
+
+    @Test
+    public void testSwapProposalKeepsTheRoleOfItsShift() throws Exception {
+        when(shiftRepository.findById(5L)).thenReturn(Optional.of(shift(7L, "Nurse")));
+        when(changeFeedRepository.save(any(ChangeFeedEntry.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        SwapProposal proposal = SwapProposal.builder().id(3L).employeeId(7L).currentShiftId(5L)
+                                            .proposedStartTime(start).status(ShiftProposalStatus.PROPOSED).build();
+        ProposalSnapshot before = changeFeedService.snapshot(proposal);
+        assertEquals("Nurse", proposal.getEmployeeRole());
+
+        // Read once: should the shift change hands later, the proposal stays with the role it was counted for
+        proposal.setStatus(ShiftProposalStatus.ACCEPTED);
+        ProposalSnapshot after = changeFeedService.snapshot(proposal);
+        changeFeedService.swapProposalChanged(before, after);
+
+        assertEquals("Nurse", after.role());
+        verify(shiftRepository, times(1)).findById(5L);
+
+        ArgumentCaptor<ChangeFeedEntry> entry = ArgumentCaptor.forClass(ChangeFeedEntry.class);
+        verify(changeFeedRepository).save(entry.capture());
+        assertEquals(ChangeEntityType.SWAP_PROPOSAL, entry.getValue().getEntityType());
+
+        JsonNode change = objectMapper.readTree(entry.getValue().getChanges()).get(0);
+        assertEquals("PROPOSED", change.get("before").get("status").asText());
+        assertEquals("ACCEPTED", change.get("after").get("status").asText());
+    }
+}
@@ -0,0 +1,65 @@
+package com.LIT.scheduler;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.LIT.scheduler.model.entity.Shift;
+import com.LIT.scheduler.model.repository.ShiftAssignmentRepository;
+import com.LIT.scheduler.model.repository.ShiftRepository;
+import com.LIT.scheduler.service.ConflictDetectionService;
+import com.LIT.scheduler.service.ShiftConflictIndex;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class ConflictDetectionServiceTest {
+
+    @Mock
+    private ShiftRepository shiftRepository;
+
+    @Mock
+    private ShiftAssignmentRepository assignmentRepository;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+    private ConflictDetectionService conflictDetectionService;
+
+    @BeforeEach
+    public void setUp() {
+        conflictDetectionService = new ConflictDetectionService(new ShiftConflictIndex(), shiftRepository, assignmentRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(conflictDetectionService, "indexEnabled", true);
+        // Loaded empty, employee 7's shift is then written by another scheduler instance
+        conflictDetectionService.loadIndex();
+
+        Shift otherInstance = new Shift();
+        otherInstance.setId(5L);
+        lenient().when(shiftRepository.findConflictingShifts(eq(7L), any(), any())).thenReturn(List.of(otherInstance));
+    }
+
+    // Several instances: the index can't know the shift, every answer is checked against the database
+    @Test
+    public void testIndexIsVerifiedWithoutSingleInstance() {
+        assertEquals(List.of(5L), conflictDetectionService.findConflicts(7L, start, start.plusHours(8), null));
+        verify(shiftRepository).findConflictingShifts(eq(7L), any(), any());
+    }
+
+    // A single instance sees every write, the index answers alone
+    @Test
+    public void testIndexAnswersAloneWithSingleInstance() {
+        ReflectionTestUtils.setField(conflictDetectionService, "singleInstance", true);
+
+        assertEquals(List.of(), conflictDetectionService.findConflicts(7L, start, start.plusHours(8), null));
+        verify(shiftRepository, never()).findConflictingShifts(any(), any(), any());
+    }
+}
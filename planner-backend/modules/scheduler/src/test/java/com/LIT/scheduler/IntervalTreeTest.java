@@ -0,0 +1,79 @@
+package com.LIT.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.LIT.scheduler.utilities.IntervalTree;
+
+public class IntervalTreeTest {
+
+    @Test
+    public void testHalfOpenOverlap() {
+        IntervalTree<Long> tree = new IntervalTree<>();
+        tree.insert(10, 20, 1L, 1L);
+
+        // Back-to-back intervals don't overlap, containment in both directions does
+        assertTrue(tree.overlapping(0, 10).isEmpty());
+        assertTrue(tree.overlapping(20, 30).isEmpty());
+        assertEquals(List.of(1L), tree.overlapping(19, 21));
+        assertEquals(List.of(1L), tree.overlapping(12, 15));
+        assertEquals(List.of(1L), tree.overlapping(0, 100));
+    }
+
+    @Test
+    public void testInsertReplaceAndRemove() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert(10, 20, 1L, "a");
+        tree.insert(10, 30, 2L, "b");
+        tree.insert(10, 25, 1L, "a2");
+
+        assertEquals(2, tree.size());
+        assertEquals(List.of("b"), tree.overlapping(25, 26));
+
+        assertTrue(tree.remove(10, 2L));
+        assertFalse(tree.remove(10, 2L));
+        assertEquals(List.of("a2"), tree.overlapping(0, 100));
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        Random random = new Random(42);
+        IntervalTree<Long> tree = new IntervalTree<>();
+        List<long[]> intervals = new ArrayList<>(); // start, end, id
+
+        for (long id = 0; id < 2_000; id++) {
+            long start = random.nextInt(100_000);
+            long[] interval = {start, start + 1 + random.nextInt(500), id};
+            intervals.add(interval);
+            tree.insert(interval[0], interval[1], id, id);
+
+            // Remove some along the way to exercise rebalancing on both paths
+            if (id % 3 == 0) {
+                long[] removed = intervals.remove(random.nextInt(intervals.size()));
+                assertTrue(tree.remove(removed[0], removed[2]));
+            }
+        }
+
+        assertEquals(intervals.size(), tree.size());
+
+        for (int query = 0; query < 500; query++) {
+            long from = random.nextInt(100_000);
+            long to = from + 1 + random.nextInt(2_000);
+
+            List<Long> expected = intervals.stream()
+                .filter(interval -> interval[0] < to && interval[1] > from)
+                .sorted((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[2], b[2]))
+                .map(interval -> interval[2])
+                .toList();
+
+            assertEquals(expected, tree.overlapping(from, to));
+        }
+    }
+}
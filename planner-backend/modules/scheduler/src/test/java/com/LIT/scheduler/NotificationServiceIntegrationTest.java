@@ -1,58 +1,186 @@
 package com.LIT.scheduler;
 
-import java.util.Properties;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Import;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import com.LIT.scheduler.exception.DirectoryUnavailableException;
+import com.LIT.scheduler.model.dto.AuthUserDTO;
+import com.LIT.scheduler.model.entity.NotificationOutbox;
+import com.LIT.scheduler.model.enums.NotificationStatus;
+import com.LIT.scheduler.model.repository.NotificationOutboxRepository;
+import com.LIT.scheduler.service.AuthUserService;
+import com.LIT.scheduler.service.NotificationDispatcher;
 import com.LIT.scheduler.service.NotificationService;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
 
-@SpringBootTest(
-    classes = { NotificationService.class },
-    webEnvironment = SpringBootTest.WebEnvironment.NONE,
-    properties = {
-        "spring.datasource.url=jdbc:h2:mem:testdb", 
-        "spring.datasource.driverClassName=org.h2.Driver",
-        "spring.datasource.username=shiftplanner51@gmail.com", 
-        "spring.datasource.password=qpkj khka xotv xihe",
-        "spring.jpa.hibernate.ddl-auto=none"
-    }
-)
-@Import(NotificationServiceIntegrationTest.MailTestConfiguration.class)
+// Outbox -> dispatcher -> local fake SMTP server (GreenMail), no real mail leaves the machine
+@ExtendWith(MockitoExtension.class)
 public class NotificationServiceIntegrationTest {
 
-    @Autowired
-    private NotificationService notificationService;
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Mock
+    private NotificationOutboxRepository outboxRepository;
+
+    @Mock
+    private AuthUserService authUserService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private NotificationDispatcher dispatcher(int port) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(port);
+        return new NotificationDispatcher(outboxRepository, mailSender, authUserService, transactionManager, new SimpleMeterRegistry());
+    }
+
+    private NotificationOutbox pending(Long id, String recipient, String subject) {
+        return NotificationOutbox.builder()
+            .id(id)
+            .recipient(recipient)
+            .subject(subject)
+            .body("Your shift has been updated.")
+            .status(NotificationStatus.PENDING)
+            .attempts(0)
+            .nextAttemptAt(LocalDateTime.now())
+            .createdAt(LocalDateTime.now())
+            .build();
+    }
+
+    private NotificationOutbox pendingForUser(Long id, Long userId) {
+        NotificationOutbox notification = pending(id, null, "New Shift Assigned");
+        notification.setRecipientUserId(userId);
+        return notification;
+    }
+
+    private static AuthUserDTO user(Long id, String email) {
+        AuthUserDTO user = new AuthUserDTO();
+        user.setId(id);
+        user.setEmail(email);
+        return user;
+    }
+
+    @Test
+    public void testSendEmailOnlyQueuesTheMessage() {
+        NotificationService notificationService = new NotificationService(outboxRepository);
+
+        notificationService.sendEmail("employee@example.com", "Shift Updated", "Your shift has been updated.");
+
+        ArgumentCaptor<NotificationOutbox> captor = ArgumentCaptor.forClass(NotificationOutbox.class);
+        verify(outboxRepository).save(captor.capture());
+        assertEquals(NotificationStatus.PENDING, captor.getValue().getStatus());
+        assertEquals("employee@example.com", captor.getValue().getRecipient());
+        assertEquals(0, greenMail.getReceivedMessages().length);
+    }
 
     @Test
-    public void testSendEmail() {
-        // This test will send a real email (if your mail credentials are valid).
-        notificationService.sendEmail("pekaric.edi1@gmail.com", "Integration Test Email", "tu smo");
-    }
-
-    @TestConfiguration
-    static class MailTestConfiguration {
-
-        @Bean
-        public JavaMailSender javaMailSender() {
-            JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
-            // Configure your mail server settings here (using Gmail as an example)
-            mailSender.setHost("smtp.gmail.com");
-            mailSender.setPort(587);
-            mailSender.setUsername("shiftplanner51@gmail.com");
-            mailSender.setPassword("qpkj khka xotv xihe"); // Use your actual password or use environment variables
-
-            Properties props = mailSender.getJavaMailProperties();
-            props.put("mail.transport.protocol", "smtp");
-            props.put("mail.smtp.auth", "true");
-            props.put("mail.smtp.starttls.enable", "true");
-            props.put("mail.debug", "true");
-            return mailSender;
+    public void testDispatchSendsTheBatchAndMarksItSent() throws Exception {
+        List<NotificationOutbox> batch = List.of(
+            pending(1L, "anna@example.com", "Shift Updated"),
+            pending(2L, "ben@example.com", "Shift Deleted"),
+            pending(3L, "anna@example.com", "Shift Updated"));
+        when(outboxRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(anyList(), any(), any())).thenReturn(batch);
+
+        assertEquals(3, dispatcher(greenMail.getSmtp().getPort()).dispatchBatch());
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(3, received.length);
+        assertEquals(2, greenMail.getReceivedMessagesForDomain("anna@example.com").length);
+
+        for (NotificationOutbox notification : batch) {
+            assertEquals(NotificationStatus.SENT, notification.getStatus());
+            assertEquals(1, notification.getAttempts());
+            assertNotNull(notification.getSentAt());
         }
+        verify(outboxRepository).saveAll(batch);
+    }
+
+    @Test
+    public void testFailedDeliveryIsRetriedWithBackoffThenDeadLettered() {
+        NotificationOutbox notification = pending(1L, "anna@example.com", "Shift Updated");
+        when(outboxRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(anyList(), any(), any())).thenReturn(List.of(notification));
+
+        // Nothing listens there
+        NotificationDispatcher dispatcher = dispatcher(1);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 2);
+
+        dispatcher.dispatchBatch();
+        assertEquals(NotificationStatus.PENDING, notification.getStatus());
+        assertEquals(1, notification.getAttempts());
+        assertTrue(notification.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(20)));
+        assertNotNull(notification.getLastError());
+
+        dispatcher.dispatchBatch();
+        assertEquals(NotificationStatus.DEAD, notification.getStatus());
+        assertEquals(2, notification.getAttempts());
+        assertEquals(0, greenMail.getReceivedMessages().length);
+    }
+
+    // Queued by user id inside the write transaction, addressed with one directory lookup when it's sent
+    @Test
+    public void testUserIdIsAddressedWhenSent() throws Exception {
+        NotificationService notificationService = new NotificationService(outboxRepository);
+        notificationService.notifyUser(7L, "New Shift Assigned", "Your shift has been assigned.");
+
+        ArgumentCaptor<NotificationOutbox> captor = ArgumentCaptor.forClass(NotificationOutbox.class);
+        verify(outboxRepository).save(captor.capture());
+        assertNull(captor.getValue().getRecipient());
+        assertEquals(7L, captor.getValue().getRecipientUserId());
+
+        NotificationOutbox known = pendingForUser(1L, 7L);
+        NotificationOutbox unknown = pendingForUser(2L, 8L);
+        when(outboxRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(anyList(), any(), any())).thenReturn(List.of(known, unknown));
+        when(authUserService.getUsersById(anyCollection())).thenReturn(Map.of(7L, user(7L, "anna@example.com")));
+
+        dispatcher(greenMail.getSmtp().getPort()).dispatchBatch();
+
+        assertEquals(1, greenMail.getReceivedMessagesForDomain("anna@example.com").length);
+        assertEquals(NotificationStatus.SENT, known.getStatus());
+        assertEquals("anna@example.com", known.getRecipient());
+        // Nobody to send it to, retrying won't change that
+        assertEquals(NotificationStatus.DEAD, unknown.getStatus());
+        verify(authUserService, times(1)).getUsersById(anyCollection());
+    }
+
+    @Test
+    public void testUnreachableDirectoryIsRetried() {
+        NotificationOutbox notification = pendingForUser(1L, 7L);
+        when(outboxRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(anyList(), any(), any())).thenReturn(List.of(notification));
+        when(authUserService.getUsersById(anyCollection())).thenThrow(new DirectoryUnavailableException("auth is down", null));
+
+        dispatcher(greenMail.getSmtp().getPort()).dispatchBatch();
+
+        assertEquals(NotificationStatus.PENDING, notification.getStatus());
+        assertNull(notification.getRecipient());
+        assertNotNull(notification.getLastError());
+        assertEquals(0, greenMail.getReceivedMessages().length);
     }
 }
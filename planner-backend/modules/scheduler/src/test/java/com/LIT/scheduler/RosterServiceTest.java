@@ -0,0 +1,149 @@
+package com.LIT.scheduler;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.LIT.scheduler.model.dto.AuthRoleDTO;
+import com.LIT.scheduler.model.dto.AuthUserDTO;
+import com.LIT.scheduler.model.dto.RosterApplyResultDTO;
+import com.LIT.scheduler.model.dto.RosterPlanDTO;
+import com.LIT.scheduler.model.dto.RosterRequestDTO;
+import com.LIT.scheduler.model.entity.Shift;
+import com.LIT.scheduler.model.entity.ShiftAssignment;
+import com.LIT.scheduler.model.enums.AssignmentStatus;
+import com.LIT.scheduler.model.repository.ShiftAssignmentRepository;
+import com.LIT.scheduler.model.repository.ShiftRepository;
+import com.LIT.scheduler.service.AuthUserService;
+import com.LIT.scheduler.service.ChangeFeedService;
+import com.LIT.scheduler.service.NotificationService;
+import com.LIT.scheduler.service.RosterService;
+import com.LIT.scheduler.service.RosterSolver;
+
+@ExtendWith(MockitoExtension.class)
+public class RosterServiceTest {
+
+    @Mock
+    private ShiftRepository shiftRepository;
+
+    @Mock
+    private ShiftAssignmentRepository assignmentRepository;
+
+    @Mock
+    private AuthUserService authUserService;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private ChangeFeedService changeFeedService;
+
+    private final RosterSolver rosterSolver = new RosterSolver(1);
+
+    private RosterService rosterService;
+
+    private final LocalDateTime tomorrow = LocalDateTime.now().plusDays(1).withHour(6).withMinute(0).withSecond(0).withNano(0);
+
+    private final Shift openShift = Shift.builder().id(1L).title("Early").shiftOwnerRole("Nurse")
+                                         .startTime(tomorrow).endTime(tomorrow.plusHours(8)).build();
+
+    @BeforeEach
+    public void setUp() {
+        rosterService = new RosterService(shiftRepository, assignmentRepository, authUserService, notificationService,
+                                          rosterSolver, changeFeedService);
+
+        AuthRoleDTO role = new AuthRoleDTO();
+        role.setName("Nurse");
+        AuthUserDTO nurse = new AuthUserDTO();
+        nurse.setId(10L);
+        nurse.setUsername("nurse");
+        nurse.setRoles(List.of(role));
+
+        when(shiftRepository.findOpenShifts(any(), any())).thenReturn(List.of(openShift));
+        when(authUserService.getUsersById(any())).thenReturn(Map.of(10L, nurse));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        rosterSolver.shutdown();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private RosterPlanDTO preview() {
+        RosterRequestDTO request = RosterRequestDTO.builder().from(tomorrow.minusHours(1)).to(tomorrow.plusDays(1))
+                                                   .employeeIds(List.of(10L)).timeLimitMs(100L).build();
+        RosterPlanDTO plan = rosterService.preview(request);
+        assertEquals(1, plan.getAssignments().size());
+        return plan;
+    }
+
+    @Test
+    public void testShiftsAreLockedBeforeTheyAreCheckedAgain() {
+        RosterPlanDTO plan = preview();
+
+        // Another plan staffed the shift meanwhile
+        when(assignmentRepository.findByShiftIdIn(any())).thenReturn(List.of(
+            ShiftAssignment.builder().id(5L).userId(20L).shift(openShift).status(AssignmentStatus.CONFIRMED).build()));
+
+        RosterApplyResultDTO result = rosterService.apply(plan.getPlanId()).orElseThrow();
+
+        assertEquals(0, result.getCreated());
+        assertEquals(List.of("Shift 1 is no longer open"), result.getConflicts());
+        assertTrue(rosterService.getPlan(plan.getPlanId()).isPresent());
+        verify(assignmentRepository, never()).saveAll(any());
+
+        InOrder inOrder = inOrder(shiftRepository);
+        inOrder.verify(shiftRepository).lockByIdIn(argThat(ids -> ids.contains(1L)));
+        inOrder.verify(shiftRepository).findOpenShifts(any(), any());
+    }
+
+    @Test
+    public void testPlanIsKeptWhenTheTransactionFails() {
+        RosterPlanDTO plan = preview();
+
+        TransactionSynchronizationManager.initSynchronization();
+        when(assignmentRepository.saveAll(any())).thenThrow(new IllegalStateException("Connection lost"));
+
+        assertThrows(IllegalStateException.class, () -> rosterService.apply(plan.getPlanId()));
+        assertTrue(rosterService.getPlan(plan.getPlanId()).isEmpty());
+
+        // Rolled back
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        assertTrue(rosterService.getPlan(plan.getPlanId()).isPresent());
+    }
+
+    @Test
+    public void testAppliedPlanIsGone() {
+        RosterPlanDTO plan = preview();
+
+        TransactionSynchronizationManager.initSynchronization();
+        RosterApplyResultDTO result = rosterService.apply(plan.getPlanId()).orElseThrow();
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        assertEquals(1, result.getCreated());
+        assertTrue(rosterService.getPlan(plan.getPlanId()).isEmpty());
+        verify(notificationService).notifyUser(eq(10L), anyString(), anyString());
+    }
+}
@@ -0,0 +1,156 @@
+package com.LIT.scheduler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.LIT.scheduler.service.RosterProblem;
+import com.LIT.scheduler.service.RosterProblem.Employee;
+import com.LIT.scheduler.service.RosterProblem.Slot;
+import com.LIT.scheduler.service.RosterProblem.Window;
+import com.LIT.scheduler.service.RosterSolver;
+
+public class RosterSolverTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2025, 3, 3, 0, 0);
+
+    private final RosterSolver solver = new RosterSolver(2);
+
+    @AfterEach
+    public void tearDown() {
+        solver.shutdown();
+    }
+
+    private static Slot slot(long shiftId, int day, int startHour, int hours, String role) {
+        LocalDateTime start = MONDAY.plusDays(day).plusHours(startHour);
+        return new Slot(shiftId, start, start.plusHours(hours), role);
+    }
+
+    private static Employee employee(long id, String role, List<Window> busy, List<Window> unavailable) {
+        return new Employee(id, Set.of(RosterProblem.normalizeRole(role)), busy, unavailable, 0);
+    }
+
+    private static Employee employee(long id, String role) {
+        return employee(id, role, List.of(), List.of());
+    }
+
+    @Test
+    public void testRolesOverlapsAndRestPeriod() {
+        // Only one nurse: the late shift is within 11 hours of the early one, so one of them stays open
+        RosterProblem problem = RosterProblem.of(
+            List.of(slot(1, 0, 6, 8, "Nurse"), slot(2, 0, 20, 3, "Nurse"), slot(3, 0, 6, 8, "Doctor"), slot(4, 0, 6, 8, "Janitor")),
+            List.of(employee(10, "nurse"), employee(20, "Doctor")),
+            Duration.ofHours(11), null);
+
+        RosterSolver.Result result = solver.solve(problem, null, Duration.ofMillis(200), 1);
+
+        assertEquals(2, result.open());
+        assertEquals(1, Arrays.stream(result.assignment(), 0, 2).filter(e -> e == 0).count());
+        assertEquals(1, result.assignment()[2]);
+        assertEquals(-1, result.assignment()[3]);
+        assertEquals(0, problem.roleMatches(3));
+    }
+
+    @Test
+    public void testExistingShiftsAndUnavailabilityRuleOutCandidates() {
+        Window night = new Window(MONDAY.minusHours(4), MONDAY.plusHours(2));
+        Window doctor = new Window(MONDAY.plusHours(5), MONDAY.plusHours(9));
+
+        RosterProblem problem = RosterProblem.of(
+            List.of(slot(1, 0, 8, 8, "Nurse")),
+            List.of(employee(10, "Nurse", List.of(night), List.of()),
+                    employee(11, "Nurse", List.of(), List.of(doctor)),
+                    employee(12, "Nurse")),
+            Duration.ofHours(11), null);
+
+        assertEquals(1, problem.candidateCount(0));
+        assertEquals(2, solver.solve(problem, null, Duration.ofMillis(200), 1).assignment()[0]);
+    }
+
+    @Test
+    public void testHoursAreBalanced() {
+        List<Slot> slots = new ArrayList<>();
+        for (int day = 0; day < 12; day++) {
+            slots.add(slot(day + 1, day, 8, 8, "Nurse"));
+        }
+
+        // Employee 10 already works 16 hours in the horizon: 2 new shifts for them, 4, 3 and 3 for the others (32, 32, 24, 24 hours)
+        List<Employee> employees = List.of(new Employee(10L, Set.of("nurse"), List.of(), List.of(), 16 * 60),
+                                           employee(11, "Nurse"), employee(12, "Nurse"), employee(13, "Nurse"));
+
+        RosterSolver.Result result = solver.solve(RosterProblem.of(slots, employees, Duration.ofHours(11), null),
+                                                  null, Duration.ofMillis(500), 1);
+
+        int[] perEmployee = new int[4];
+        Arrays.stream(result.assignment()).forEach(e -> perEmployee[e]++);
+
+        assertEquals(0, result.open());
+        assertArrayEquals(new int[] {2, 3, 3, 4}, Arrays.stream(perEmployee).sorted().toArray());
+        assertEquals(2, perEmployee[0]);
+    }
+
+    @Test
+    public void testResolveKeepsThePlanWhereItStillFits() {
+        List<Slot> slots = new ArrayList<>();
+        for (int day = 0; day < 20; day++) {
+            slots.add(slot(day + 1, day, 8, 8, "Nurse"));
+        }
+
+        List<Employee> employees = new ArrayList<>();
+        for (int e = 0; e < 5; e++) {
+            employees.add(employee(10 + e, "Nurse"));
+        }
+
+        RosterProblem problem = RosterProblem.of(slots, employees, Duration.ofHours(11), null);
+        int[] plan = solver.solve(problem, null, Duration.ofMillis(300), 1).assignment();
+
+        // The employee planned for day 5 got another shift that day in the meantime
+        int taken = plan[5];
+        Window newShift = new Window(MONDAY.plusDays(5).plusHours(10), MONDAY.plusDays(5).plusHours(14));
+        employees.set(taken, employee(10 + taken, "Nurse", List.of(newShift), List.of()));
+        RosterProblem changed = RosterProblem.of(slots, employees, Duration.ofHours(11), null);
+
+        assertEquals(List.of(5), solver.invalidSlots(changed, plan));
+
+        RosterSolver.Result resolved = solver.solve(changed, plan, Duration.ofMillis(300), 1);
+
+        assertEquals(0, resolved.open());
+        assertEquals(1, resolved.changed());
+        assertNotEquals(taken, resolved.assignment()[5]);
+        assertTrue(solver.invalidSlots(changed, resolved.assignment()).isEmpty());
+    }
+
+    @Test
+    public void testLargeRosterIsStaffedWithinTheTimeLimit() {
+        // A month for 300 employees in three roles, three shifts a day with 40 positions each
+        String[] roles = {"Nurse", "Doctor", "Technician"};
+        List<Employee> employees = new ArrayList<>();
+        for (int e = 0; e < 300; e++) {
+            employees.add(employee(e + 1, roles[e % 3]));
+        }
+
+        List<Slot> slots = new ArrayList<>();
+        for (int day = 0; day < 30; day++) {
+            for (int shift = 0; shift < 3; shift++) {
+                for (int position = 0; position < 40; position++) {
+                    slots.add(slot(slots.size() + 1, day, 6 + 8 * shift, 8, roles[position % 3]));
+                }
+            }
+        }
+
+        RosterProblem problem = RosterProblem.of(slots, employees, Duration.ofHours(11), Duration.ofHours(200));
+        RosterSolver.Result result = solver.solve(problem, null, Duration.ofSeconds(3), 1);
+
+        assertEquals(0, result.open());
+        assertTrue(solver.invalidSlots(problem, result.assignment()).isEmpty());
+        assertTrue(result.elapsedMillis() < 10_000);
+    }
+}
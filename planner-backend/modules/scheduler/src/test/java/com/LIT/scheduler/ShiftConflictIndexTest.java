@@ -0,0 +1,65 @@
+package com.LIT.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.LIT.scheduler.service.ShiftConflictIndex;
+
+public class ShiftConflictIndexTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2025, 3, 24, 0, 0);
+
+    private ShiftConflictIndex conflictIndex;
+
+    @BeforeEach
+    public void setUp() {
+        conflictIndex = new ShiftConflictIndex();
+        conflictIndex.finishLoading(conflictIndex.startLoading(), MONDAY.minusDays(30));
+    }
+
+    @Test
+    public void testOwnedAndAssignedShifts() {
+        conflictIndex.shiftSaved(1L, 3L, MONDAY.withHour(7), MONDAY.withHour(15));
+        conflictIndex.shiftSaved(2L, 4L, MONDAY.withHour(14), MONDAY.withHour(22));
+        conflictIndex.assignmentSaved(50L, 3L, 2L, null, null);
+
+        assertEquals(Optional.of(List.of(1L, 2L)), conflictIndex.findOverlapping(3L, MONDAY.withHour(14), MONDAY.withHour(16), null));
+        // Back-to-back with shift 2 & the checked shift itself left out
+        assertEquals(Optional.of(List.of()), conflictIndex.findOverlapping(3L, MONDAY.withHour(8), MONDAY.withHour(14), 1L));
+
+        conflictIndex.assignmentRemoved(50L, 2L);
+        assertEquals(Optional.of(List.of(1L)), conflictIndex.findOverlapping(3L, MONDAY.withHour(14), MONDAY.withHour(16), null));
+    }
+
+    @Test
+    public void testShiftMovedAndRemoved() {
+        conflictIndex.shiftSaved(1L, 3L, MONDAY.withHour(7), MONDAY.withHour(15));
+        conflictIndex.shiftSaved(1L, 5L, MONDAY.withHour(16), MONDAY.withHour(20));
+
+        assertEquals(Optional.of(List.of()), conflictIndex.findOverlapping(3L, MONDAY, MONDAY.plusDays(1), null));
+        assertEquals(Optional.of(List.of(1L)), conflictIndex.findOverlapping(5L, MONDAY, MONDAY.plusDays(1), null));
+
+        conflictIndex.shiftRemoved(1L);
+        assertEquals(Optional.of(List.of()), conflictIndex.findOverlapping(5L, MONDAY, MONDAY.plusDays(1), null));
+    }
+
+    @Test
+    public void testDefersToDatabaseWhenUnsure() {
+        // Window before the loaded horizon
+        assertTrue(conflictIndex.findOverlapping(3L, MONDAY.minusDays(60), MONDAY, null).isEmpty());
+
+        // Assigned to a shift whose times the index never saw
+        conflictIndex.assignmentSaved(51L, 6L, 99L, null, null);
+        assertTrue(conflictIndex.findOverlapping(6L, MONDAY, MONDAY.plusDays(1), null).isEmpty());
+
+        // Nothing loaded yet
+        assertTrue(new ShiftConflictIndex().findOverlapping(3L, MONDAY, MONDAY.plusDays(1), null).isEmpty());
+    }
+}
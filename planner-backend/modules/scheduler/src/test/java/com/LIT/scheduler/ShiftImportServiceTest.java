@@ -0,0 +1,135 @@
+package com.LIT.scheduler;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.LIT.scheduler.model.dto.ShiftImportResultDTO;
+import com.LIT.scheduler.model.entity.Shift;
+import com.LIT.scheduler.model.entity.ShiftAssignment;
+import com.LIT.scheduler.model.repository.ShiftAssignmentRepository;
+import com.LIT.scheduler.model.repository.ShiftRepository;
+import com.LIT.scheduler.service.ChangeFeedService;
+import com.LIT.scheduler.service.NotificationService;
+import com.LIT.scheduler.service.ShiftImportService;
+import com.LIT.scheduler.utilities.ShiftCsvReader;
+
+@ExtendWith(MockitoExtension.class)
+public class ShiftImportServiceTest {
+
+    @Mock
+    private ShiftRepository shiftRepository;
+
+    @Mock
+    private ShiftAssignmentRepository assignmentRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private ChangeFeedService changeFeedService;
+
+    @InjectMocks
+    private ShiftImportService shiftImportService;
+
+    private static Shift shift(Long ownerId, int day, int startHour, int endHour) {
+        return Shift.builder()
+            .title("Shift")
+            .shiftOwnerId(ownerId)
+            .startTime(LocalDateTime.of(2025, 3, day, startHour, 0))
+            .endTime(LocalDateTime.of(2025, 3, day, endHour, 0))
+            .build();
+    }
+
+    @Test
+    public void testImportShifts_SavesBatchAndSendsOneDigestPerEmployee() {
+        List<Shift> shifts = new ArrayList<>(List.of(shift(1L, 3, 8, 16), shift(1L, 4, 8, 16), shift(2L, 3, 8, 16)));
+        when(shiftRepository.findOverlappingForOwners(anyCollection(), any(), any())).thenReturn(Collections.emptyList());
+        when(assignmentRepository.findOverlappingForUsers(anyCollection(), any(), any())).thenReturn(Collections.emptyList());
+        when(shiftRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ShiftImportResultDTO result = shiftImportService.importShifts(shifts, false);
+
+        assertEquals(3, result.getCreated());
+        assertTrue(result.getErrors().isEmpty());
+        assertTrue(result.getConflicts().isEmpty());
+        verify(shiftRepository, times(1)).saveAll(anyList());
+        verify(notificationService, times(1)).notifyUser(eq(1L), eq("New Shifts Assigned"), contains("2 shifts"));
+        verify(notificationService, times(1)).notifyUser(eq(2L), eq("New Shifts Assigned"), contains("1 shifts"));
+    }
+
+    @Test
+    public void testImportShifts_RejectsOverlapsWithinBatchAndWithExistingShifts() {
+        Shift existing = shift(2L, 3, 6, 10);
+        existing.setId(42L);
+
+        Shift assigned = shift(3L, 5, 6, 10);
+        assigned.setId(43L);
+        ShiftAssignment assignment = new ShiftAssignment();
+        assignment.setUserId(3L);
+        assignment.setShift(assigned);
+
+        // Row 2 overlaps row 1, row 3 owned shift 42, row 4 assigned shift 43; row 5 starts when row 2 ends
+        List<Shift> shifts = List.of(shift(1L, 3, 8, 16), shift(1L, 3, 12, 20), shift(2L, 3, 8, 16), shift(3L, 5, 9, 12),
+                                     shift(1L, 3, 20, 22));
+        when(shiftRepository.findOverlappingForOwners(anyCollection(), any(), any())).thenReturn(List.of(existing));
+        when(assignmentRepository.findOverlappingForUsers(anyCollection(), any(), any())).thenReturn(List.of(assignment));
+
+        ShiftImportResultDTO result = shiftImportService.importShifts(shifts, false);
+
+        assertEquals(0, result.getCreated());
+        assertEquals(3, result.getConflicts().size());
+        assertTrue(result.getConflicts().get(0).startsWith("Row 2:") && result.getConflicts().get(0).endsWith("row 1"));
+        assertTrue(result.getConflicts().get(1).startsWith("Row 3:") && result.getConflicts().get(1).endsWith("shift 42"));
+        assertTrue(result.getConflicts().get(2).startsWith("Row 4:") && result.getConflicts().get(2).endsWith("shift 43"));
+        verify(shiftRepository, never()).saveAll(anyList());
+        verify(notificationService, never()).notifyUser(anyLong(), anyString(), anyString());
+    }
+
+    @Test
+    public void testImportShifts_InvalidRowsAndValidateOnly() {
+        Shift backwards = shift(1L, 3, 16, 8);
+        Shift ownerless = shift(null, 4, 8, 16);
+
+        ShiftImportResultDTO invalid = shiftImportService.importShifts(List.of(shift(1L, 2, 8, 16), backwards, ownerless), false);
+        assertEquals(List.of("Row 2: endTime must be after startTime", "Row 3: shiftOwnerId is missing (open shifts need a shiftOwnerRole)"), invalid.getErrors());
+        verifyNoInteractions(shiftRepository, assignmentRepository);
+
+        when(shiftRepository.findOverlappingForOwners(anyCollection(), any(), any())).thenReturn(Collections.emptyList());
+        when(assignmentRepository.findOverlappingForUsers(anyCollection(), any(), any())).thenReturn(Collections.emptyList());
+
+        ShiftImportResultDTO checked = shiftImportService.importShifts(List.of(shift(1L, 2, 8, 16)), true);
+        assertTrue(checked.getErrors().isEmpty() && checked.getConflicts().isEmpty());
+        assertEquals(0, checked.getCreated());
+        verify(shiftRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    public void testCsvReader() {
+        String csv = "shiftOwnerId,title,startTime,endTime\r\n"
+                   + "7,\"Early, \"\"ward 3\"\"\",2025-03-01T06:00:00,2025-03-01T14:00:00\r\n"
+                   + "\r\n"
+                   + "8,Late,2025-03-01T14:00:00,2025-03-01T22:00:00\r\n";
+
+        List<Shift> shifts = ShiftCsvReader.read(csv);
+
+        assertEquals(2, shifts.size());
+        assertEquals("Early, \"ward 3\"", shifts.get(0).getTitle());
+        assertEquals(7L, shifts.get(0).getShiftOwnerId());
+        assertEquals(LocalDateTime.of(2025, 3, 1, 22, 0), shifts.get(1).getEndTime());
+
+        assertThrows(IllegalArgumentException.class, () -> ShiftCsvReader.read("title,startTime,endTime\nX,2025-03-01T06:00:00,2025-03-01T14:00:00"));
+        assertThrows(IllegalArgumentException.class, () -> ShiftCsvReader.read("title,shiftOwnerId,startTime,endTime\nX,seven,2025-03-01T06:00:00,2025-03-01T14:00:00"));
+    }
+}
@@ -8,25 +8,29 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
+import com.LIT.common.model.dto.CursorPage;
 import com.LIT.scheduler.model.entity.Shift;
 import com.LIT.scheduler.model.entity.ShiftProposal;
 import com.LIT.scheduler.model.enums.ShiftProposalStatus;
-import com.LIT.scheduler.model.repository.ShiftAssignmentRepository;
 import com.LIT.scheduler.model.repository.ShiftProposalRepository;
 import com.LIT.scheduler.model.repository.ShiftRepository;
-import com.LIT.scheduler.service.AuthUserService;
+import com.LIT.scheduler.service.ChangeFeedService;
+import com.LIT.scheduler.service.ConflictDetectionService;
 import com.LIT.scheduler.service.NotificationService;
 import com.LIT.scheduler.service.ShiftAssignmentService;
 import com.LIT.scheduler.service.ShiftProposalService;
@@ -41,16 +45,16 @@ public class ShiftProposalServiceTest {
     private ShiftRepository shiftRepository;
 
     @Mock
-    private ShiftAssignmentRepository assignmentRepository;
+    private ConflictDetectionService conflictDetectionService;
 
     @Mock
     private ShiftAssignmentService assignmentService; // If used in your methods
 
     @Mock
-    private AuthUserService authUserService;
+    private NotificationService notificationService;
 
     @Mock
-    private NotificationService notificationService;
+    private ChangeFeedService changeFeedService;
 
     @InjectMocks
     private ShiftProposalService proposalService;
@@ -75,7 +79,7 @@ public class ShiftProposalServiceTest {
     @Test
     public void testCreateProposal_NoConflict() {
         // Assume no conflict exists.
-        when(assignmentRepository.findConflictingAssignments(eq(3L), any(LocalDateTime.class), any(LocalDateTime.class)))
+        when(conflictDetectionService.findConflicts(eq(3L), any(LocalDateTime.class), any(LocalDateTime.class), isNull()))
             .thenReturn(Collections.emptyList());
         when(proposalRepository.save(any(ShiftProposal.class))).thenReturn(sampleProposal);
 
@@ -184,4 +188,15 @@ public class ShiftProposalServiceTest {
         assertNotNull(proposals);
         assertEquals(1, proposals.size());
     }
+
+    @Test
+    public void testGetProposalsPage_LastPage() {
+        // Fewer rows than limit + 1: this is the last page, no cursor handed out
+        when(proposalRepository.findByIdGreaterThanOrderByIdAsc(99L, Limit.of(11)))
+            .thenReturn(Arrays.asList(sampleProposal));
+
+        CursorPage<ShiftProposal> page = proposalService.getProposalsPage(99L, 10);
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
 }
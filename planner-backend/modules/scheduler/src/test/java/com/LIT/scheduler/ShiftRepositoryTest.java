@@ -0,0 +1,72 @@
+package com.LIT.scheduler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import com.LIT.scheduler.model.dto.ShiftStaffingDTO;
+import com.LIT.scheduler.model.entity.Shift;
+import com.LIT.scheduler.model.entity.ShiftAssignment;
+import com.LIT.scheduler.model.enums.AssignmentStatus;
+import com.LIT.scheduler.model.repository.ShiftRepository;
+import com.LIT.scheduler.service.ShiftConflictIndex;
+
+// Queries of ShiftRepository against an embedded H2 database
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+public class ShiftRepositoryTest {
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    // Needed by ConflictIndexListener, only called after commit (the tests roll back)
+    @MockBean
+    private ShiftConflictIndex conflictIndex;
+
+    private final LocalDateTime tomorrow = LocalDateTime.now().plusDays(1).withNano(0);
+
+    private Shift shift(String title, Long ownerId) {
+        return entityManager.persist(Shift.builder().title(title).shiftOwnerId(ownerId).minimumStaff(3)
+                                          .startTime(tomorrow).endTime(tomorrow.plusHours(8)).build());
+    }
+
+    private void assign(Shift shift, Long userId, AssignmentStatus status) {
+        entityManager.persist(ShiftAssignment.builder().shift(shift).userId(userId).status(status).build());
+    }
+
+    @Test
+    public void testStaffingCountsTheOwnerOnce() {
+        Shift owned = shift("Owned", 1L);
+        assign(owned, 1L, AssignmentStatus.CONFIRMED);
+        assign(owned, 2L, AssignmentStatus.CONFIRMED);
+        assign(owned, 3L, AssignmentStatus.PENDING);
+
+        Shift open = shift("Open", null);
+        assign(open, 4L, AssignmentStatus.CONFIRMED);
+        assign(open, 5L, AssignmentStatus.CONFIRMED);
+
+        Shift empty = shift("Empty", 6L);
+        entityManager.flush();
+
+        List<ShiftStaffingDTO> staffing = shiftRepository.findStaffing(tomorrow.minusHours(1), tomorrow.plusHours(1),
+                                                                       AssignmentStatus.CONFIRMED);
+
+        assertEquals(3, staffing.size());
+        assertEquals(2, staffing(staffing, owned).getStaffed());
+        assertEquals(2, staffing(staffing, open).getStaffed());
+        assertEquals(1, staffing(staffing, empty).getStaffed());
+    }
+
+    private ShiftStaffingDTO staffing(List<ShiftStaffingDTO> staffing, Shift shift) {
+        return staffing.stream().filter(s -> s.getShiftId().equals(shift.getId())).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,129 @@
+package com.LIT.scheduler;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.LIT.scheduler.model.dto.ShiftStaffingDTO;
+import com.LIT.scheduler.model.entity.StaffingAlert;
+import com.LIT.scheduler.model.enums.AssignmentStatus;
+import com.LIT.scheduler.model.repository.ShiftRepository;
+import com.LIT.scheduler.model.repository.StaffingAlertRepository;
+import com.LIT.scheduler.service.JobLockService;
+import com.LIT.scheduler.service.NotificationService;
+import com.LIT.scheduler.service.ShiftScheduler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class ShiftSchedulerTest {
+
+    @Mock
+    private ShiftRepository shiftRepository;
+
+    @Mock
+    private StaffingAlertRepository alertRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private JobLockService jobLockService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ShiftScheduler shiftScheduler;
+
+    private final LocalDateTime tomorrow = LocalDateTime.now().plusDays(1).withNano(0);
+
+    @BeforeEach
+    public void setUp() {
+        shiftScheduler = new ShiftScheduler(shiftRepository, alertRepository, notificationService, jobLockService,
+                                            transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(shiftScheduler, "alertRecipients", "manager@example.com, lead@example.com");
+        ReflectionTestUtils.setField(shiftScheduler, "roleMinimums", "Nurse=2");
+    }
+
+    private ShiftStaffingDTO staffing(Long id, String role, Long ownerId, Integer minimumStaff, long assigned) {
+        return new ShiftStaffingDTO(id, "Shift " + id, role, tomorrow, tomorrow.plusHours(8), ownerId, minimumStaff, assigned);
+    }
+
+    private StaffingAlert alert(Long shiftId, int required, int staffed) {
+        return StaffingAlert.builder().shiftId(shiftId).shiftStart(tomorrow).required(required).staffed(staffed)
+                            .alertedAt(LocalDateTime.now().minusHours(1)).build();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testScanAlertsShiftsBelowTheirMinimumOnce() {
+        when(jobLockService.tryAcquire(anyString(), any())).thenReturn(true);
+        when(shiftRepository.findStaffing(any(), any(), eq(AssignmentStatus.CONFIRMED))).thenReturn(List.of(
+            staffing(1L, "Nurse", 7L, null, 0),     // role minimum 2, 1 staffed
+            staffing(2L, "Nurse", 7L, null, 1),     // role minimum 2, 2 staffed
+            staffing(3L, "Doctor", null, 3, 1),     // own minimum 3, 1 staffed
+            staffing(4L, "Janitor", null, null, 0), // no minimum
+            staffing(5L, "Nurse", null, null, 1)));  // already alerted with 1 staffed
+        when(alertRepository.findByShiftStartInWindow(any(), any())).thenReturn(List.of(alert(5L, 2, 1)));
+
+        shiftScheduler.checkShiftsForUnderStaffing();
+
+        ArgumentCaptor<List<StaffingAlert>> recorded = ArgumentCaptor.forClass(List.class);
+        verify(alertRepository).saveAll(recorded.capture());
+        assertEquals(List.of(1L, 3L), recorded.getValue().stream().map(StaffingAlert::getShiftId).toList());
+        assertEquals(1, recorded.getValue().get(1).getStaffed());
+        assertEquals(3, recorded.getValue().get(1).getRequired());
+
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        verify(notificationService).sendEmail(eq("manager@example.com"), eq("Understaffed Shifts"), body.capture());
+        verify(notificationService).sendEmail(eq("lead@example.com"), eq("Understaffed Shifts"), eq(body.getValue()));
+        assertTrue(body.getValue().contains("following 2 upcoming shifts"));
+        assertTrue(body.getValue().contains("'Shift 3' (Doctor)"));
+        assertTrue(body.getValue().contains("1 of 3 employees"));
+
+        verify(shiftRepository, times(1)).findStaffing(any(), any(), any());
+        verify(jobLockService).release(eq("understaffing-scan"), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testScanAlertsAgainOnlyWhenStaffingGetsWorse() {
+        when(jobLockService.tryAcquire(anyString(), any())).thenReturn(true);
+        when(shiftRepository.findStaffing(any(), any(), any())).thenReturn(List.of(
+            staffing(1L, "Nurse", null, null, 0),  // alerted with 1, now 0
+            staffing(2L, "Nurse", 7L, null, 0),    // alerted with 0, now 1: better, still short
+            staffing(3L, "Nurse", 7L, null, 1)));  // alerted, now fully staffed
+        StaffingAlert staffedAgain = alert(3L, 2, 1);
+        when(alertRepository.findByShiftStartInWindow(any(), any())).thenReturn(List.of(alert(1L, 2, 1), alert(2L, 2, 0), staffedAgain));
+
+        shiftScheduler.checkShiftsForUnderStaffing();
+
+        ArgumentCaptor<List<StaffingAlert>> recorded = ArgumentCaptor.forClass(List.class);
+        verify(alertRepository).saveAll(recorded.capture());
+        assertEquals(List.of(1L), recorded.getValue().stream().map(StaffingAlert::getShiftId).toList());
+        verify(alertRepository).deleteAll(List.of(staffedAgain));
+        verify(notificationService, times(2)).sendEmail(anyString(), eq("Understaffed Shifts"), contains("following 1 upcoming shifts"));
+    }
+
+    @Test
+    public void testScanIsSkippedWhileAnotherInstanceHoldsTheLock() {
+        when(jobLockService.tryAcquire(anyString(), any())).thenReturn(false);
+
+        shiftScheduler.checkShiftsForUnderStaffing();
+
+        verifyNoInteractions(shiftRepository, alertRepository, notificationService);
+        verify(jobLockService, never()).release(anyString(), any());
+    }
+}
@@ -16,10 +16,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
+import com.LIT.common.model.dto.CursorPage;
+import com.LIT.scheduler.model.dto.ShiftCalendarDTO;
 import com.LIT.scheduler.model.entity.Shift;
 import com.LIT.scheduler.model.repository.ShiftRepository;
-import com.LIT.scheduler.service.AuthUserService;
+import com.LIT.scheduler.service.ChangeFeedService;
 import com.LIT.scheduler.service.ShiftService;
 import com.LIT.scheduler.service.NotificationService;
 
@@ -33,7 +36,7 @@ public class ShiftServiceTest {
     private NotificationService notificationService;
 
     @Mock
-    private AuthUserService authUserService;
+    private ChangeFeedService changeFeedService;
 
     @InjectMocks
     private ShiftService shiftService;
@@ -71,16 +74,54 @@ public class ShiftServiceTest {
 
     @Test
     public void testSaveShift_Success() {
-        // Simulate valid shift owner id and email retrieval via AuthUserService
-        when(authUserService.getUserEmailById(3L)).thenReturn("test@example.com");
         when(shiftRepository.save(any(Shift.class))).thenReturn(sampleShift);
 
         Shift savedShift = shiftService.saveShift(sampleShift);
         assertNotNull(savedShift);
         verify(shiftRepository, times(1)).save(sampleShift);
-        // Verify notification was sent
+        // Verify notification was queued for the owner, addressed once it's sent
         verify(notificationService, times(1))
-            .sendEmail(eq("test@example.com"), eq("New Shift Assigned"), contains("Morning Shift"));
+            .notifyUser(eq(3L), eq("New Shift Assigned"), contains("Morning Shift"));
+    }
+
+    // A shift longer than max-duration would drop out of the calendar windows, so it's refused like in the bulk import
+    @Test
+    public void testSaveShift_TooLong() {
+        sampleShift.setEndTime(sampleShift.getStartTime().plusHours(30));
+
+        assertThrows(IllegalArgumentException.class, () -> shiftService.saveShift(sampleShift));
+        verify(shiftRepository, never()).save(any(Shift.class));
+        verify(notificationService, never()).notifyUser(anyLong(), anyString(), anyString());
+    }
+
+    @Test
+    public void testUpdateShift_TooLong() {
+        Shift updatedShift = new Shift();
+        updatedShift.setTitle("Double Shift");
+        updatedShift.setStartTime(LocalDateTime.of(2025, 3, 25, 7, 0));
+        updatedShift.setEndTime(LocalDateTime.of(2025, 3, 26, 13, 0));
+
+        assertThrows(IllegalArgumentException.class, () -> shiftService.updateShift(1L, updatedShift));
+        verify(shiftRepository, never()).save(any(Shift.class));
+    }
+
+    @Test
+    public void testSaveShift_EndsBeforeStart() {
+        sampleShift.setEndTime(sampleShift.getStartTime().minusHours(2));
+
+        assertThrows(IllegalArgumentException.class, () -> shiftService.saveShift(sampleShift));
+        verify(shiftRepository, never()).save(any(Shift.class));
+    }
+
+    @Test
+    public void testUpdateShift_EndsBeforeStart() {
+        Shift updatedShift = new Shift();
+        updatedShift.setTitle("Inverted Shift");
+        updatedShift.setStartTime(LocalDateTime.of(2025, 3, 25, 15, 0));
+        updatedShift.setEndTime(LocalDateTime.of(2025, 3, 25, 15, 0));
+
+        assertThrows(IllegalArgumentException.class, () -> shiftService.updateShift(1L, updatedShift));
+        verify(shiftRepository, never()).save(any(Shift.class));
     }
 
     @Test
@@ -95,24 +136,71 @@ public class ShiftServiceTest {
 
         when(shiftRepository.findById(1L)).thenReturn(Optional.of(sampleShift));
         when(shiftRepository.save(any(Shift.class))).thenReturn(updatedShift);
-        when(authUserService.getUserEmailById(3L)).thenReturn("test@example.com");
 
         Shift result = shiftService.updateShift(1L, updatedShift);
         assertNotNull(result);
         assertEquals("Evening Shift", result.getTitle());
         // Verify notification was sent after update
         verify(notificationService, times(1))
-            .sendEmail(eq("test@example.com"), eq("Shift Updated"), contains("Evening Shift"));
+            .notifyUser(eq(3L), eq("Shift Updated"), contains("Evening Shift"));
     }
 
     @Test
     public void testDeleteShift_Success() {
         when(shiftRepository.findById(1L)).thenReturn(Optional.of(sampleShift));
-        when(authUserService.getUserEmailById(3L)).thenReturn("test@example.com");
 
         shiftService.deleteShift(1L);
         verify(shiftRepository, times(1)).deleteById(1L);
         verify(notificationService, times(1))
-            .sendEmail(eq("test@example.com"), eq("Shift Deleted"), contains("Morning Shift"));
+            .notifyUser(eq(3L), eq("Shift Deleted"), contains("Morning Shift"));
+    }
+
+    @Test
+    public void testGetShiftsInRange_ForOwner() {
+        LocalDateTime from = LocalDateTime.of(2025, 3, 24, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 3, 31, 0, 0);
+        ShiftCalendarDTO entry = new ShiftCalendarDTO(1L, "Morning Shift", 3L, "Technician", "Technician",
+                sampleShift.getStartTime(), sampleShift.getEndTime());
+
+        // Shifts starting up to the max shift duration (24h) before the window may still overlap it
+        when(shiftRepository.findCalendarWindowForOwner(3L, from, to, from.minusHours(24), "Technician"))
+            .thenReturn(List.of(entry));
+
+        List<ShiftCalendarDTO> result = shiftService.getShiftsInRange(from, to, 3L, "Technician");
+        assertEquals(1, result.size());
+        assertEquals("Morning Shift", result.get(0).getTitle());
+        verify(shiftRepository, never()).findCalendarWindow(any(), any(), any(), any());
+    }
+
+    @Test
+    public void testGetShiftsInRange_InvalidWindow() {
+        LocalDateTime from = LocalDateTime.of(2025, 3, 31, 0, 0);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> shiftService.getShiftsInRange(from, from.minusDays(7), null, null));
+        assertThrows(IllegalArgumentException.class,
+            () -> shiftService.getShiftsInRange(from, from.plusYears(2), null, null));
+        verifyNoInteractions(shiftRepository);
+    }
+
+    @Test
+    public void testGetShiftsPage_CursorRoundTrip() {
+        Shift second = Shift.builder().id(2L).title("Late Shift")
+            .startTime(LocalDateTime.of(2025, 3, 25, 7, 0)).endTime(LocalDateTime.of(2025, 3, 25, 19, 0)).build();
+
+        // limit + 1 rows: the extra one only tells that a next page exists
+        when(shiftRepository.findAllByOrderByStartTimeAscIdAsc(Limit.of(2))).thenReturn(Arrays.asList(sampleShift, second));
+
+        CursorPage<Shift> page = shiftService.getShiftsPage(null, 1);
+        assertEquals(1, page.getItems().size());
+        assertEquals("2025-03-25T07:00,1", page.getNextCursor());
+
+        when(shiftRepository.findPageAfter(sampleShift.getStartTime(), 1L, Limit.of(2))).thenReturn(List.of(second));
+
+        CursorPage<Shift> next = shiftService.getShiftsPage(page.getNextCursor(), 1);
+        assertEquals(2L, next.getItems().get(0).getId());
+        assertNull(next.getNextCursor());
+
+        assertThrows(IllegalArgumentException.class, () -> shiftService.getShiftsPage("not-a-cursor", 1));
     }
 }
@@ -12,9 +12,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -23,7 +26,8 @@ import com.LIT.scheduler.model.entity.SwapProposal;
 import com.LIT.scheduler.model.enums.ShiftProposalStatus;
 import com.LIT.scheduler.model.repository.ShiftRepository;
 import com.LIT.scheduler.model.repository.SwapProposalRepository;
-import com.LIT.scheduler.service.AuthUserService;
+import com.LIT.scheduler.service.ChangeFeedService;
+import com.LIT.scheduler.service.ConflictDetectionService;
 import com.LIT.scheduler.service.NotificationService;
 import com.LIT.scheduler.service.SwapProposalService;
 
@@ -40,7 +44,10 @@ public class SwapProposalServiceTest {
     private NotificationService notificationService;
 
     @Mock
-    private AuthUserService authUserService;
+    private ConflictDetectionService conflictDetectionService;
+
+    @Mock
+    private ChangeFeedService changeFeedService;
 
     @InjectMocks
     private SwapProposalService swapProposalService;
@@ -59,8 +66,8 @@ public class SwapProposalServiceTest {
         proposal.setProposedStartTime(LocalDateTime.now().plusHours(1));
         proposal.setProposedEndTime(LocalDateTime.now().plusHours(2));
 
-        // Simulate that no conflicting shifts exist.
-        when(shiftRepository.findConflictingShifts(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class)))
+        // Simulate that no conflicting shifts exist (the shift being changed is left out of the check).
+        when(conflictDetectionService.findConflicts(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class), eq(10L)))
                 .thenReturn(Collections.emptyList());
 
         when(proposalRepository.save(any(SwapProposal.class))).thenReturn(proposal);
@@ -103,12 +110,12 @@ public class SwapProposalServiceTest {
 
         when(proposalRepository.findById(100L)).thenReturn(Optional.of(proposal));
         when(proposalRepository.save(any(SwapProposal.class))).thenReturn(proposal);
-        when(authUserService.getUserEmailById(1L)).thenReturn("user@example.com");
 
         String managerComment = "Not a good time.";
         SwapProposal result = swapProposalService.declineShiftChange(100L, managerComment);
         assertEquals(ShiftProposalStatus.REJECTED, result.getStatus());
         assertEquals(managerComment, result.getManagerComment());
+        verify(notificationService, times(1)).notifyUser(eq(1L), eq("Shift Swap Declined"), contains(managerComment));
     }
 
     @Test
@@ -140,13 +147,11 @@ public class SwapProposalServiceTest {
         requesterShift.setEndTime(LocalDateTime.now().plusHours(1));
         when(shiftRepository.findById(100L)).thenReturn(Optional.of(requesterShift));
 
-        // For authUserService, provide dummy emails for the original employee and the swap employee.
-        when(authUserService.getUserEmailById(1L)).thenReturn("user1@example.com");
-        when(authUserService.getUserEmailById(swapEmployeeShift.getShiftOwnerId())).thenReturn("userSwap@example.com");
-
         when(proposalRepository.save(any(SwapProposal.class))).thenReturn(proposal);
 
         SwapProposal result = swapProposalService.acceptShiftChange(200L, 10L);
         assertEquals(ShiftProposalStatus.ACCEPTED, result.getStatus());
+        // Queued by user id inside the transaction, the addresses are looked up after commit
+        verify(notificationService, times(1)).notifyUser(eq(1L), eq("Shift Swap Accepted"), contains("Test Shift"));
     }
 }
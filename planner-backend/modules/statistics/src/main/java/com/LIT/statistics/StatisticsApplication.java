@@ -2,8 +2,11 @@ package com.LIT.statistics;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// Plus the shared virtual thread pinning monitor (modules/common)
+@SpringBootApplication(scanBasePackages = {"com.LIT.statistics", "com.LIT.common.config"})
+@EnableScheduling
 public class StatisticsApplication {
     public static void main(String[] args) {
         SpringApplication.run(StatisticsApplication.class, args);
@@ -0,0 +1,208 @@
+package com.LIT.statistics.controller;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.LIT.statistics.model.dto.ReportRunDTO;
+import com.LIT.statistics.model.enums.ReportFormat;
+import com.LIT.statistics.model.enums.ReportStatus;
+import com.LIT.statistics.model.enums.ReportType;
+import com.LIT.statistics.service.ReportsService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Reports over a range of months ('from' & 'to' like 2024-03, both included): 'type' PAYROLL_HOURS, COVERAGE_GAPS
+ * or SWAP_ACTIVITY, 'format' CSV, JSON or PDF. /stream writes the report into the response as it's produced,
+ * POST /reports runs it in the background and keeps the file for /download. All of it needs EMPLOYEE_MANAGEMENT.
+ */
+@RestController
+@RequestMapping("/api/stats/reports")
+@Slf4j
+public class ReportsController {
+
+    private final String logHeader = "[ReportsController] - ";
+
+    private final ReportsService reportsService;
+
+    @Autowired
+    public ReportsController(ReportsService reportsService) {
+        this.reportsService = reportsService;
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamReport(@RequestParam String type,
+                                                              @RequestParam(defaultValue = "CSV") String format,
+                                                              @RequestParam String from,
+                                                              @RequestParam String to,
+                                                              @RequestHeader(value = "X-User-Permissions", required = false) String permissions) {
+        log.info(logHeader + "streamReport: " + type + " as " + format + " from " + from + " to " + to);
+
+        ResponseEntity<StreamingResponseBody> denied = deny(permissions);
+        if (denied != null) {
+            return denied;
+        }
+
+        ReportType reportType;
+        ReportFormat reportFormat;
+        try {
+            reportType = parse(ReportType.class, type, "type");
+            reportFormat = parse(ReportFormat.class, format, "format");
+            reportsService.validate(from, to);
+
+        } catch (IllegalArgumentException ex) {
+            log.error(logHeader + ex.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = out -> reportsService.stream(reportType, reportFormat, from, to, out);
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(reportFormat.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, attachment(reportType.name().toLowerCase(Locale.ROOT) + "-" + from + "-" + to, reportFormat))
+            .body(body);
+    }
+
+    @PostMapping
+    public ResponseEntity<ReportRunDTO> startReport(@RequestParam String type,
+                                                    @RequestParam(defaultValue = "CSV") String format,
+                                                    @RequestParam String from,
+                                                    @RequestParam String to,
+                                                    @RequestHeader(value = "X-User-Permissions", required = false) String permissions,
+                                                    @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+        log.info(logHeader + "startReport: " + type + " as " + format + " from " + from + " to " + to + " for user " + userId);
+
+        ResponseEntity<ReportRunDTO> denied = deny(permissions);
+        if (denied != null) {
+            return denied;
+        }
+
+        try {
+            ReportRunDTO run = reportsService.start(parse(ReportType.class, type, "type"), parse(ReportFormat.class, format, "format"), from, to, userId);
+            return ResponseEntity.accepted().body(run);
+
+        } catch (IllegalArgumentException ex) {
+            log.error(logHeader + ex.getMessage());
+            return ResponseEntity.badRequest().build();
+
+        } catch (IllegalStateException ex) {
+            log.error(logHeader + ex.getMessage());
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "30").build();
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ReportRunDTO>> getReports(@RequestParam(defaultValue = "50") int limit,
+                                                         @RequestHeader(value = "X-User-Permissions", required = false) String permissions) {
+        log.info(logHeader + "getReports: Latest " + limit + " report runs");
+
+        ResponseEntity<List<ReportRunDTO>> denied = deny(permissions);
+        if (denied != null) {
+            return denied;
+        }
+
+        return ResponseEntity.ok(reportsService.getRuns(limit));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ReportRunDTO> getReport(@PathVariable Long id,
+                                                  @RequestHeader(value = "X-User-Permissions", required = false) String permissions) {
+        log.info(logHeader + "getReport: Report run " + id);
+
+        ResponseEntity<ReportRunDTO> denied = deny(permissions);
+        if (denied != null) {
+            return denied;
+        }
+
+        return reportsService.getRun(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    // 409 while the run isn't DONE, 410 when its file is gone
+    @GetMapping("/{id}/download")
+    public ResponseEntity<Resource> downloadReport(@PathVariable Long id,
+                                                   @RequestHeader(value = "X-User-Permissions", required = false) String permissions) {
+        log.info(logHeader + "downloadReport: Report run " + id);
+
+        ResponseEntity<Resource> denied = deny(permissions);
+        if (denied != null) {
+            return denied;
+        }
+
+        Optional<ReportRunDTO> run = reportsService.getRun(id);
+        if (run.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (run.get().getStatus() != ReportStatus.DONE) {
+            log.error(logHeader + "ERROR! Report run " + id + " is " + run.get().getStatus());
+            return ResponseEntity.status(409).build();
+        }
+
+        Optional<Path> file = reportsService.getFile(id);
+        if (file.isEmpty()) {
+            log.error(logHeader + "ERROR! The file of report run " + id + " is gone");
+            return ResponseEntity.status(410).build();
+        }
+
+        ReportRunDTO report = run.get();
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(report.getFormat().getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, attachment(report.getType().name().toLowerCase(Locale.ROOT) + "-" + report.getFrom() + "-" + report.getTo(), report.getFormat()))
+            .body(new FileSystemResource(file.get()));
+    }
+
+    private Set<String> getPermissions(String permissions) {
+        return Arrays.stream(permissions.split(","))
+                    .map(String::trim)
+                    .collect(Collectors.toSet());
+    }
+
+    // null when allowed
+    private <T> ResponseEntity<T> deny(String permissions) {
+        if (permissions == null || permissions.isEmpty()) {
+            log.error(logHeader + "ERROR! User permissions are not provided in the header");
+            return ResponseEntity.badRequest().build();
+        }
+
+        if (!getPermissions(permissions).contains("EMPLOYEE_MANAGEMENT")) {
+            log.error(logHeader + "ERROR! Missing permission 'EMPLOYEE_MANAGEMENT'. The user permissions are: " + permissions);
+            return ResponseEntity.status(403).build();
+        }
+
+        return null;
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value, String name) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + name + " '" + value + "', expected one of " + Arrays.toString(type.getEnumConstants()));
+        }
+    }
+
+    private static String attachment(String name, ReportFormat format) {
+        return ContentDisposition.attachment().filename(name + "." + format.getExtension()).build().toString();
+    }
+}
@@ -1,13 +1,37 @@
 package com.LIT.statistics.controller;
 
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.LIT.statistics.model.dto.HistoryTotalDTO;
+import com.LIT.statistics.model.dto.StatsSummaryDTO;
+import com.LIT.statistics.model.enums.StatsDimension;
+import com.LIT.statistics.model.enums.StatsGranularity;
+import com.LIT.statistics.service.ShiftArchiveService;
+import com.LIT.statistics.service.ShiftStatsAggregator;
+import com.LIT.statistics.service.ShiftStatsService;
+
 import lombok.extern.slf4j.Slf4j;
 
+/*
+ * Shift statistics by ISO week ('granularity=WEEK', period like 2025-W10) or month (MONTH, 2025-03), the current
+ * period when none is given. Employees may read their own numbers, everything else needs EMPLOYEE_MANAGEMENT.
+ */
 @RestController
 @RequestMapping("/api/stats")
 @Slf4j
@@ -15,6 +39,15 @@ public class StatisticsController {
 
     private final String logHeader = "[StatisticsController] - ";
 
+    private final ShiftStatsService shiftStatsService;
+    private final ShiftArchiveService shiftArchiveService;
+
+    @Autowired
+    public StatisticsController(ShiftStatsService shiftStatsService, ShiftArchiveService shiftArchiveService) {
+        this.shiftStatsService = shiftStatsService;
+        this.shiftArchiveService = shiftArchiveService;
+    }
+
     @GetMapping("/hello")
     public ResponseEntity<String> hello() {
         return ResponseEntity.ok("Hello from statistics module!");
@@ -25,5 +58,212 @@ public class StatisticsController {
         log.info(logHeader + "testJwt: JWT is working!");
         return ResponseEntity.ok("JWT is working!");
     }
-    
+
+    @GetMapping("/employees/{employeeId}")
+    public ResponseEntity<StatsSummaryDTO> getEmployeeStats(@PathVariable Long employeeId,
+                                                            @RequestParam(defaultValue = "WEEK") String granularity,
+                                                            @RequestParam(required = false) String period,
+                                                            @RequestHeader(value = "X-User-Permissions", required = false) String permissions,
+                                                            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+        log.info(logHeader + "getEmployeeStats: Statistics of employee " + employeeId + " for " + granularity + " " + period);
+
+        ResponseEntity<StatsSummaryDTO> denied = deny(permissions, userId, employeeId);
+        if (denied != null) {
+            return denied;
+        }
+
+        return respond(() -> shiftStatsService.getSummary(StatsDimension.EMPLOYEE, String.valueOf(employeeId), granularity(granularity), period));
+    }
+
+    @GetMapping("/employees/{employeeId}/series")
+    public ResponseEntity<List<StatsSummaryDTO>> getEmployeeSeries(@PathVariable Long employeeId,
+                                                                   @RequestParam(defaultValue = "MONTH") String granularity,
+                                                                   @RequestParam(required = false) String period,
+                                                                   @RequestParam(defaultValue = "12") int count,
+                                                                   @RequestHeader(value = "X-User-Permissions", required = false) String permissions,
+                                                                   @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+        log.info(logHeader + "getEmployeeSeries: " + count + " periods of employee " + employeeId + " up to " + period);
+
+        ResponseEntity<List<StatsSummaryDTO>> denied = deny(permissions, userId, employeeId);
+        if (denied != null) {
+            return denied;
+        }
+
+        return respond(() -> shiftStatsService.getSeries(StatsDimension.EMPLOYEE, String.valueOf(employeeId), granularity(granularity), period, count));
+    }
+
+    @GetMapping("/roles/{role}")
+    public ResponseEntity<StatsSummaryDTO> getRoleStats(@PathVariable String role,
+                                                        @RequestParam(defaultValue = "WEEK") String granularity,
+                                                        @RequestParam(required = false) String period,
+                                                        @RequestHeader(value = "X-User-Permissions", required = false) String permissions) {
+        log.info(logHeader + "getRoleStats: Statistics of role " + role + " for " + granularity + " " + period);
+
+        ResponseEntity<StatsSummaryDTO> denied = deny(permissions, null, null);
+        if (denied != null) {
+            return denied;
+        }
+
+        return respond(() -> shiftStatsService.getSummary(StatsDimension.ROLE, role, granularity(granularity), period));
+    }
+
+    @GetMapping("/roles/{role}/series")
+    public ResponseEntity<List<StatsSummaryDTO>> getRoleSeries(@PathVariable String role,
+                                                               @RequestParam(defaultValue = "MONTH") String granularity,
+                                                               @RequestParam(required = false) String period,
+                                                               @RequestParam(defaultValue = "12") int count,
+                                                               @RequestHeader(value = "X-User-Permissions", required = false) String permissions) {
+        log.info(logHeader + "getRoleSeries: " + count + " periods of role " + role + " up to " + period);
+
+        ResponseEntity<List<StatsSummaryDTO>> denied = deny(permissions, null, null);
+        if (denied != null) {
+            return denied;
+        }
+
+        return respond(() -> shiftStatsService.getSeries(StatsDimension.ROLE, role, granularity(granularity), period, count));
+    }
+
+    @GetMapping("/totals")
+    public ResponseEntity<StatsSummaryDTO> getTotals(@RequestParam(defaultValue = "WEEK") String granularity,
+                                                     @RequestParam(required = false) String period,
+                                                     @RequestHeader(value = "X-User-Permissions", required = false) String permissions) {
+        log.info(logHeader + "getTotals: Statistics of everyone for " + granularity + " " + period);
+
+        ResponseEntity<StatsSummaryDTO> denied = deny(permissions, null, null);
+        if (denied != null) {
+            return denied;
+        }
+
+        return respond(() -> shiftStatsService.getSummary(StatsDimension.ALL, ShiftStatsAggregator.ALL, granularity(granularity), period));
+    }
+
+    @GetMapping("/totals/series")
+    public ResponseEntity<List<StatsSummaryDTO>> getTotalsSeries(@RequestParam(defaultValue = "MONTH") String granularity,
+                                                                 @RequestParam(required = false) String period,
+                                                                 @RequestParam(defaultValue = "12") int count,
+                                                                 @RequestHeader(value = "X-User-Permissions", required = false) String permissions) {
+        log.info(logHeader + "getTotalsSeries: " + count + " periods of everyone up to " + period);
+
+        ResponseEntity<List<StatsSummaryDTO>> denied = deny(permissions, null, null);
+        if (denied != null) {
+            return denied;
+        }
+
+        return respond(() -> shiftStatsService.getSeries(StatsDimension.ALL, ShiftStatsAggregator.ALL, granularity(granularity), period, count));
+    }
+
+    /*
+     * Shifts & hours over a range of months ('from' & 'to' like 2024-03, both included), summed up from the shift
+     * archive for the closed months and from the scheduler tables for the others.
+     */
+    @GetMapping("/history/employees")
+    public ResponseEntity<List<HistoryTotalDTO>> getEmployeeHistory(@RequestParam String from,
+                                                                    @RequestParam String to,
+                                                                    @RequestHeader(value = "X-User-Permissions", required = false) String permissions) {
+        log.info(logHeader + "getEmployeeHistory: Hours of every employee from " + from + " to " + to);
+
+        ResponseEntity<List<HistoryTotalDTO>> denied = deny(permissions, null, null);
+        if (denied != null) {
+            return denied;
+        }
+
+        return respond(() -> shiftArchiveService.getEmployeeTotals(from, to));
+    }
+
+    @GetMapping("/history/employees/{employeeId}")
+    public ResponseEntity<HistoryTotalDTO> getEmployeeHistory(@PathVariable Long employeeId,
+                                                              @RequestParam String from,
+                                                              @RequestParam String to,
+                                                              @RequestHeader(value = "X-User-Permissions", required = false) String permissions,
+                                                              @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+        log.info(logHeader + "getEmployeeHistory: Hours of employee " + employeeId + " from " + from + " to " + to);
+
+        ResponseEntity<HistoryTotalDTO> denied = deny(permissions, userId, employeeId);
+        if (denied != null) {
+            return denied;
+        }
+
+        return respond(() -> shiftArchiveService.getEmployeeTotal(employeeId, from, to));
+    }
+
+    @GetMapping("/history/roles")
+    public ResponseEntity<List<HistoryTotalDTO>> getRoleHistory(@RequestParam String from,
+                                                                @RequestParam String to,
+                                                                @RequestHeader(value = "X-User-Permissions", required = false) String permissions) {
+        log.info(logHeader + "getRoleHistory: Hours of every role from " + from + " to " + to);
+
+        ResponseEntity<List<HistoryTotalDTO>> denied = deny(permissions, null, null);
+        if (denied != null) {
+            return denied;
+        }
+
+        return respond(() -> shiftArchiveService.getRoleTotals(from, to));
+    }
+
+    /*
+     * Rebuilds the statistics by replaying the scheduler's change feed after entry 'from'. 0 (the default) replays
+     * all of it and always leads to the same statistics; a later entry leaves out everything before it.
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<Void> rebuild(@RequestParam(defaultValue = "0") long from,
+                                        @RequestHeader(value = "X-User-Permissions", required = false) String permissions) {
+        log.info(logHeader + "rebuild: Rebuilding the statistics from feed entry " + from);
+
+        ResponseEntity<Void> denied = deny(permissions, null, null);
+        if (denied != null) {
+            return denied;
+        }
+
+        try {
+            shiftStatsService.rebuild(from);
+            return ResponseEntity.noContent().build();
+
+        } catch (IllegalArgumentException ex) {
+            log.error(logHeader + ex.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private Set<String> getPermissions(String permissions) {
+        return Arrays.stream(permissions.split(","))
+                    .map(String::trim)
+                    .collect(Collectors.toSet());
+    }
+
+    // null when allowed: EMPLOYEE_MANAGEMENT, or the employee asking for their own statistics
+    private <T> ResponseEntity<T> deny(String permissions, Long userId, Long employeeId) {
+        if (employeeId != null && employeeId.equals(userId)) {
+            return null;
+        }
+
+        if (permissions == null || permissions.isEmpty()) {
+            log.error(logHeader + "ERROR! User permissions are not provided in the header");
+            return ResponseEntity.badRequest().build();
+        }
+
+        if (!getPermissions(permissions).contains("EMPLOYEE_MANAGEMENT")) {
+            log.error(logHeader + "ERROR! Missing permission 'EMPLOYEE_MANAGEMENT'. The user permissions are: " + permissions);
+            return ResponseEntity.status(403).build();
+        }
+
+        return null;
+    }
+
+    private static StatsGranularity granularity(String value) {
+        try {
+            return StatsGranularity.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("granularity must be WEEK or MONTH, got '" + value + "'");
+        }
+    }
+
+    private <T> ResponseEntity<T> respond(Supplier<T> read) {
+        try {
+            return ResponseEntity.ok(read.get());
+
+        } catch (IllegalArgumentException ex) {
+            log.error(logHeader + ex.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
@@ -0,0 +1,25 @@
+package com.LIT.statistics.model.dto;
+
+import com.LIT.statistics.model.enums.StatsDimension;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HistoryTotalDTO {
+    private StatsDimension dimension;
+    private String key;
+
+    // Months, both included (2023-01 - 2023-12)
+    private String from;
+    private String to;
+
+    private long shifts;
+    private double scheduledHours;
+
+    // How many of the months were read from the archive, the others from the scheduler tables
+    private int archivedMonths;
+}
@@ -0,0 +1,35 @@
+package com.LIT.statistics.model.dto;
+
+import java.time.LocalDateTime;
+
+import com.LIT.statistics.model.enums.ReportFormat;
+import com.LIT.statistics.model.enums.ReportStatus;
+import com.LIT.statistics.model.enums.ReportType;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportRunDTO {
+    private Long id;
+    private ReportType type;
+    private ReportFormat format;
+    private String from;
+    private String to;
+    private ReportStatus status;
+    private Long requestedBy;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    private Long rows;
+    private Long sizeBytes;
+    private String error;
+
+    // Where the finished report can be downloaded, null until it's DONE
+    private String downloadUrl;
+}
@@ -0,0 +1,37 @@
+package com.LIT.statistics.model.dto;
+
+import java.time.LocalDateTime;
+
+import com.LIT.statistics.model.enums.StatsDimension;
+import com.LIT.statistics.model.enums.StatsGranularity;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatsSummaryDTO {
+    private StatsDimension dimension;
+    private String key;
+    private StatsGranularity granularity;
+    private String period;
+
+    private long shifts;
+    private double scheduledHours;
+    private double overtimeHours;
+    private double nightHours;
+    private double weekendHours;
+
+    private long swapsRequested;
+    private long swapsAccepted;
+
+    private long proposalsSubmitted;
+    private long proposalsAccepted;
+    // Accepted / decided (accepted, rejected or alternative proposed), null while none is decided
+    private Double proposalAcceptanceRate;
+
+    // When the aggregates were last rebuilt from the scheduler tables
+    private LocalDateTime builtAt;
+}
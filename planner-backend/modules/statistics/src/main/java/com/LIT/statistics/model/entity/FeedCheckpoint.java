@@ -0,0 +1,25 @@
+package com.LIT.statistics.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// Last change_feed entry a consumer applied, saved in the same transaction as the totals it led to
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "stats_feed_checkpoints")
+public class FeedCheckpoint {
+    @Id
+    @Column(length = 64)
+    private String consumer;
+
+    @Column(nullable = false)
+    private long lastSeq;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,66 @@
+package com.LIT.statistics.model.entity;
+
+import java.time.LocalDateTime;
+
+import com.LIT.statistics.model.enums.ReportFormat;
+import com.LIT.statistics.model.enums.ReportStatus;
+import com.LIT.statistics.model.enums.ReportType;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// A report asked for through /api/stats/reports, its file is kept in 'stats.reports.dir' for re-download
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "report_runs", indexes = {
+    @Index(name = "idx_report_runs_status_finished", columnList = "status, finishedAt")
+})
+public class ReportRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private ReportType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private ReportFormat format;
+
+    // Months, both included (2024-01 - 2024-03)
+    @Column(nullable = false, length = 7)
+    private String periodFrom;
+
+    @Column(nullable = false, length = 7)
+    private String periodTo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ReportStatus status;
+
+    // User who asked for it (X-User-Id), null when not known
+    private Long requestedBy;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    private Long rowCount;
+
+    private Long sizeBytes;
+
+    // Name of the file in 'stats.reports.dir' (DONE only)
+    @Column(length = 64)
+    private String fileName;
+
+    @Column(length = 1024)
+    private String error;
+}
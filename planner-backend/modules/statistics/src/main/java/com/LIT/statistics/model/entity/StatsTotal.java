@@ -0,0 +1,49 @@
+package com.LIT.statistics.model.entity;
+
+import com.LIT.statistics.model.enums.StatsDimension;
+import com.LIT.statistics.model.enums.StatsGranularity;
+import jakarta.persistence.*;
+import lombok.*;
+
+/*
+ * The running totals of ShiftStatsAggregator as of the feed checkpoint (see FeedCheckpoint), one row per
+ * (dimension, key, granularity, period). Written and read by ShiftStatsStore.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "stats_totals")
+public class StatsTotal {
+    // dimension|key|granularity|period
+    @Id
+    @Column(length = 191)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private StatsDimension dimension;
+
+    @Column(nullable = false)
+    private String statsKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private StatsGranularity granularity;
+
+    @Column(nullable = false, length = 16)
+    private String period;
+
+    private long shifts;
+    private long scheduledMinutes;
+    private long overtimeMinutes;
+    private long nightMinutes;
+    private long weekendMinutes;
+    private long swapsRequested;
+    private long swapsAccepted;
+    private long proposalsSubmitted;
+    private long proposalsDecided;
+    private long proposalsAccepted;
+}
@@ -0,0 +1,23 @@
+package com.LIT.statistics.model.enums;
+
+public enum ReportFormat {
+    CSV("text/csv", "csv"),
+    JSON("application/json", "json"),
+    PDF("application/pdf", "pdf");
+
+    private final String contentType;
+    private final String extension;
+
+    ReportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,8 @@
+package com.LIT.statistics.model.enums;
+
+public enum ReportStatus {
+    PENDING,    // Waiting for a free report worker
+    RUNNING,
+    DONE,       // The file can be downloaded
+    FAILED
+}
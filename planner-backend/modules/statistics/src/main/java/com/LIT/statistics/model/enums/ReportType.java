@@ -0,0 +1,7 @@
+package com.LIT.statistics.model.enums;
+
+public enum ReportType {
+    PAYROLL_HOURS,  // Hours per employee: scheduled, night, weekend, overtime
+    COVERAGE_GAPS,  // Shifts with fewer employees than their minimum
+    SWAP_ACTIVITY   // Swap requests per employee and how they ended
+}
@@ -0,0 +1,7 @@
+package com.LIT.statistics.model.enums;
+
+public enum StatsDimension {
+    EMPLOYEE,   // Key: employee id
+    ROLE,       // Key: role name (case-insensitive)
+    ALL         // Key: "all", everyone together
+}
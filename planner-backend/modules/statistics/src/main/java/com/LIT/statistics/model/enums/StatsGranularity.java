@@ -0,0 +1,50 @@
+package com.LIT.statistics.model.enums;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.IsoFields;
+import java.util.Locale;
+
+public enum StatsGranularity {
+    WEEK,   // ISO week: "2025-W10"
+    MONTH;  // "2025-03"
+
+    // The period 'day' falls into
+    public String period(LocalDate day) {
+        if (this == MONTH) {
+            return YearMonth.from(day).toString();
+        }
+
+        return String.format("%d-W%02d", day.get(IsoFields.WEEK_BASED_YEAR), day.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+    }
+
+    // First day of a period, IllegalArgumentException on a malformed one
+    public LocalDate firstDay(String period) {
+        try {
+            if (this == MONTH) {
+                return YearMonth.parse(period).atDay(1);
+            }
+
+            String[] parts = period.split("-W");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid week '" + period + "', expected e.g. 2025-W10");
+            }
+
+            // January 4th is always in week 1 of its week-based year
+            return LocalDate.of(Integer.parseInt(parts[0]), 1, 4)
+                .with(IsoFields.WEEK_OF_WEEK_BASED_YEAR, Integer.parseInt(parts[1]))
+                .with(DayOfWeek.MONDAY);
+
+        } catch (DateTimeException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name().toLowerCase(Locale.ROOT) + " '" + period + "': " + e.getMessage());
+        }
+    }
+
+    // The period 'count' periods after 'period' (negative: before)
+    public String plus(String period, int count) {
+        LocalDate first = firstDay(period);
+        return period(this == MONTH ? first.plusMonths(count) : first.plusWeeks(count));
+    }
+}
@@ -0,0 +1,22 @@
+package com.LIT.statistics.model.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.LIT.statistics.model.entity.ReportRun;
+import com.LIT.statistics.model.enums.ReportStatus;
+
+@Repository
+public interface ReportRunRepository extends JpaRepository<ReportRun, Long> {
+
+    List<ReportRun> findAllByOrderByIdDesc(Pageable pageable);
+
+    List<ReportRun> findByStatusIn(Collection<ReportStatus> statuses);
+
+    List<ReportRun> findByCreatedAtBefore(LocalDateTime createdAt);
+}
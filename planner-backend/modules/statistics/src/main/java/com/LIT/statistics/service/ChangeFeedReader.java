@@ -0,0 +1,174 @@
+package com.LIT.statistics.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.LIT.statistics.service.ShiftStatsAggregator.ProposalFact;
+import com.LIT.statistics.service.ShiftStatsAggregator.ProposalKind;
+import com.LIT.statistics.service.ShiftStatsAggregator.ShiftFact;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Reads the scheduler's change feed ('change_feed', same database) and turns every entry into what it takes back
+ * from the statistics and what it adds: a shift counts for its owner and each confirmed assignee, an assignment for
+ * its user while CONFIRMED, a proposal for its employee. See ChangeFeedService in the scheduler for the snapshots.
+ */
+@Component
+public class ChangeFeedReader {
+
+    private static final String ENTRIES_AFTER =
+        "SELECT seq, entity_type, changes, created_at FROM change_feed WHERE seq > ? ORDER BY seq LIMIT ?";
+
+    private static final String ENTRIES_IN =
+        "SELECT seq, entity_type, changes, created_at FROM change_feed WHERE seq IN (%s) ORDER BY seq";
+
+    // Most numbers per IN list
+    private static final int IN_CHUNK = 500;
+
+    // One change_feed entry, as statistics
+    public record FeedEntry(long seq, LocalDateTime createdAt,
+                            List<ShiftFact> removedShifts, List<ShiftFact> addedShifts,
+                            List<ProposalFact> removedProposals, List<ProposalFact> addedProposals) {
+
+        public void applyTo(ShiftStatsAggregator aggregator) {
+            removedShifts.forEach(aggregator::removeShift);
+            removedProposals.forEach(aggregator::removeProposal);
+            addedShifts.forEach(aggregator::addShift);
+            addedProposals.forEach(aggregator::addProposal);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public ChangeFeedReader(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    // Up to 'limit' entries after 'afterSeq', in order
+    public List<FeedEntry> read(long afterSeq, int limit) {
+        return jdbcTemplate.query(ENTRIES_AFTER, this::entry, afterSeq, limit);
+    }
+
+    // The entries among 'seqs' that exist (e.g. ones skipped earlier, see FeedGaps), in order
+    public List<FeedEntry> read(Collection<Long> seqs) {
+        List<Long> all = new ArrayList<>(seqs);
+        List<FeedEntry> entries = new ArrayList<>();
+
+        for (int i = 0; i < all.size(); i += IN_CHUNK) {
+            List<Long> chunk = all.subList(i, Math.min(i + IN_CHUNK, all.size()));
+            String sql = String.format(ENTRIES_IN, String.join(",", Collections.nCopies(chunk.size(), "?")));
+            entries.addAll(jdbcTemplate.query(sql, this::entry, chunk.toArray()));
+        }
+
+        return entries;
+    }
+
+    private FeedEntry entry(ResultSet rs, int row) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return parse(rs.getLong("seq"), rs.getString("entity_type"), rs.getString("changes"),
+                     createdAt == null ? null : createdAt.toLocalDateTime());
+    }
+
+    public FeedEntry parse(long seq, String entityType, String changes, LocalDateTime createdAt) {
+        List<ShiftFact> removedShifts = new ArrayList<>();
+        List<ShiftFact> addedShifts = new ArrayList<>();
+        List<ProposalFact> removedProposals = new ArrayList<>();
+        List<ProposalFact> addedProposals = new ArrayList<>();
+
+        JsonNode array;
+        try {
+            array = objectMapper.readTree(changes);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Change feed entry " + seq + " is not valid JSON: " + e.getMessage(), e);
+        }
+
+        for (JsonNode change : array) {
+            JsonNode before = change.path("before");
+            JsonNode after = change.path("after");
+
+            switch (entityType) {
+                case "SHIFT" -> {
+                    shiftFacts(before, removedShifts);
+                    shiftFacts(after, addedShifts);
+                }
+                case "ASSIGNMENT" -> {
+                    assignmentFact(before, removedShifts);
+                    assignmentFact(after, addedShifts);
+                }
+                case "SHIFT_PROPOSAL", "SWAP_PROPOSAL" -> {
+                    ProposalKind kind = entityType.equals("SWAP_PROPOSAL") ? ProposalKind.SWAP : ProposalKind.SHIFT;
+                    proposalFact(before, kind, removedProposals);
+                    proposalFact(after, kind, addedProposals);
+                }
+                default -> {
+                    // Something newer than this module, nothing to count
+                }
+            }
+        }
+
+        return new FeedEntry(seq, createdAt, removedShifts, addedShifts, removedProposals, addedProposals);
+    }
+
+    private static void shiftFacts(JsonNode shift, List<ShiftFact> facts) {
+        if (!shift.isObject()) {
+            return;
+        }
+
+        Long id = id(shift, "id");
+        String role = text(shift, "role");
+        LocalDateTime start = time(shift, "start");
+        LocalDateTime end = time(shift, "end");
+
+        Long owner = id(shift, "ownerId");
+        if (owner != null) {
+            facts.add(new ShiftFact(id, owner, role, start, end));
+        }
+        for (JsonNode assignee : shift.path("assignees")) {
+            facts.add(new ShiftFact(id, assignee.asLong(), role, start, end));
+        }
+    }
+
+    private static void assignmentFact(JsonNode assignment, List<ShiftFact> facts) {
+        if (assignment.isObject() && "CONFIRMED".equals(text(assignment, "status"))) {
+            facts.add(new ShiftFact(id(assignment, "shiftId"), id(assignment, "userId"), text(assignment, "role"),
+                                    time(assignment, "start"), time(assignment, "end")));
+        }
+    }
+
+    private static void proposalFact(JsonNode proposal, ProposalKind kind, List<ProposalFact> facts) {
+        if (proposal.isObject()) {
+            facts.add(new ProposalFact(id(proposal, "id"), kind, id(proposal, "employeeId"), text(proposal, "role"),
+                                       time(proposal, "start"), text(proposal, "status")));
+        }
+    }
+
+    private static Long id(JsonNode node, String field) {
+        JsonNode value = node.path(field);
+        return value.isNumber() ? value.asLong() : null;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.path(field);
+        return value.isTextual() ? value.asText() : null;
+    }
+
+    private static LocalDateTime time(JsonNode node, String field) {
+        String value = text(node, field);
+        return value == null ? null : LocalDateTime.parse(value);
+    }
+}
@@ -0,0 +1,41 @@
+package com.LIT.statistics.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+// RFC 4180 CSV with a header line
+class CsvReportWriter implements ReportWriter {
+
+    private final Writer writer;
+    private final CSVPrinter printer;
+    private long rows;
+
+    CsvReportWriter(OutputStream out, List<String> columns) throws IOException {
+        this.writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        this.printer = new CSVPrinter(writer, CSVFormat.DEFAULT.builder().setHeader(columns.toArray(String[]::new)).get());
+    }
+
+    @Override
+    public void row(Object... values) throws IOException {
+        printer.printRecord(values);
+        rows++;
+    }
+
+    @Override
+    public long rows() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        printer.flush();
+        writer.flush();
+    }
+}
@@ -0,0 +1,109 @@
+package com.LIT.statistics.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import com.LIT.statistics.service.ChangeFeedReader.FeedEntry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Missing numbers in the change feed, for one consumer of it (ShiftStatsService, ShiftArchiveService). Sequence
+ * numbers are handed out before their transaction commits, so an entry can show up after a later one, or never
+ * (rolled back, which leaves a gap for good: the feed's seq is an IDENTITY column).
+ *  - A gap is skipped right away, so a rollback doesn't hold up the entries after it. The consumers' results are
+ *    sums (or dropped months), the order they get the entries in doesn't change them.
+ *  - Skipped numbers are remembered for 'late-window' and read again with every poll (late()); an entry that shows
+ *    up after all is handed to the consumer then. Gaps whose next entry is older than that are history and not
+ *    remembered.
+ *  - stats.feed.skipped / stats.feed.late count the skipped and late entries, stats.feed.missing the remembered ones.
+ * Not thread safe, the consumers call it from their synchronized feed methods. Kept in memory only: an entry that
+ * commits after a restart is missed until the next rebuild.
+ */
+@Slf4j
+public class FeedGaps {
+
+    private final String logHeader = "[FeedGaps] - ";
+
+    // Most missing numbers remembered, the oldest are given up first
+    private static final int MAX_MISSING = 10_000;
+
+    private final String consumer;
+    private final Duration lateWindow;
+
+    private final Counter skipped;
+    private final Counter late;
+
+    // Missing seq -> when it was skipped
+    private final NavigableMap<Long, Instant> missing = new ConcurrentSkipListMap<>();
+
+    public FeedGaps(String consumer, Duration lateWindow, MeterRegistry meterRegistry) {
+        this.consumer = consumer;
+        this.lateWindow = lateWindow;
+
+        this.skipped = Counter.builder("stats.feed.skipped").tag("consumer", consumer)
+            .description("Change feed entries missing when the ones after them were read").register(meterRegistry);
+        this.late = Counter.builder("stats.feed.late").tag("consumer", consumer)
+            .description("Skipped change feed entries that showed up and were applied late").register(meterRegistry);
+        Gauge.builder("stats.feed.missing", missing, Map::size).tag("consumer", consumer)
+            .description("Skipped change feed entries still looked for").register(meterRegistry);
+    }
+
+    // Entries 'from' to 'to' are missing before 'next': goes on without them, they're still looked for with late()
+    public void skip(long from, long to, FeedEntry next) {
+        skipped.increment(to - from + 1);
+
+        LocalDateTime nextCreated = next.createdAt();
+        if (nextCreated != null && nextCreated.isBefore(LocalDateTime.now().minus(lateWindow))) {
+            log.debug(logHeader + "skip: {} skipped the old feed entries {} to {}", consumer, from, to);
+            return;
+        }
+
+        // Mostly rollbacks, or transactions still running
+        log.debug(logHeader + "skip: {} skipped feed entries {} to {}, applied if they still show up", consumer, from, to);
+        Instant now = Instant.now();
+        for (long seq = from; seq <= to; seq++) {
+            missing.put(seq, now);
+        }
+        while (missing.size() > MAX_MISSING) {
+            missing.pollFirstEntry();
+        }
+    }
+
+    // The skipped entries that showed up since, in order; the ones skipped longer than 'late-window' ago are given up
+    public List<FeedEntry> late(ChangeFeedReader reader) {
+        Instant expired = Instant.now().minus(lateWindow);
+        for (Iterator<Instant> it = missing.values().iterator(); it.hasNext(); ) {
+            if (it.next().isBefore(expired)) {
+                it.remove();
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return List.of();
+        }
+
+        List<FeedEntry> found = reader.read(missing.keySet());
+        for (FeedEntry entry : found) {
+            missing.remove(entry.seq());
+            log.info(logHeader + "late: {} got feed entry {} after skipping it, applied now", consumer, entry.seq());
+        }
+        late.increment(found.size());
+
+        return found;
+    }
+
+    // Forgets everything, e.g. when the consumer starts over
+    public void clear() {
+        missing.clear();
+    }
+}
@@ -0,0 +1,55 @@
+package com.LIT.statistics.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// {"report": title, "columns": [...], "rows": [{column: value, ...}, ...]}, written as it goes
+class JsonReportWriter implements ReportWriter {
+
+    private final JsonGenerator generator;
+    private final List<String> columns;
+    private long rows;
+
+    JsonReportWriter(OutputStream out, String title, List<String> columns, ObjectMapper objectMapper) throws IOException {
+        this.columns = columns;
+        this.generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        generator.writeStartObject();
+        generator.writeStringField("report", title);
+        generator.writeArrayFieldStart("columns");
+        for (String column : columns) {
+            generator.writeString(column);
+        }
+        generator.writeEndArray();
+        generator.writeArrayFieldStart("rows");
+    }
+
+    @Override
+    public void row(Object... values) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < columns.size(); i++) {
+            generator.writeFieldName(columns.get(i));
+            generator.writeObject(values[i]);
+        }
+        generator.writeEndObject();
+        rows++;
+    }
+
+    @Override
+    public long rows() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.writeEndArray();
+        generator.writeNumberField("rowCount", rows);
+        generator.writeEndObject();
+        generator.close();
+    }
+}
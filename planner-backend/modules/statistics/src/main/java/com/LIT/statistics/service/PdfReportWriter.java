@@ -0,0 +1,138 @@
+package com.LIT.statistics.service;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+
+/*
+ * A table over as many landscape A4 pages as it takes, title and column header repeated on every page. Finished
+ * pages are kept in a temporary file (PDFBox' stream cache), not in memory, and copied to 'out' by close().
+ * Values too wide for their column are cut off.
+ */
+class PdfReportWriter implements ReportWriter {
+
+    private static final PDRectangle PAGE = new PDRectangle(PDRectangle.A4.getHeight(), PDRectangle.A4.getWidth());
+    private static final float MARGIN = 36;
+    private static final float FONT_SIZE = 8;
+    private static final float LINE_HEIGHT = 12;
+
+    private final OutputStream out;
+    private final String title;
+    private final List<String> columns;
+    private final float columnWidth;
+
+    private final PDDocument document;
+    private final PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+    private final PDType1Font bold = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+
+    private PDPageContentStream page;
+    private int pages;
+    private float y;
+    private long rows;
+
+    PdfReportWriter(OutputStream out, String title, List<String> columns) throws IOException {
+        this.out = out;
+        this.title = title;
+        this.columns = columns;
+        this.columnWidth = (PAGE.getWidth() - 2 * MARGIN) / columns.size();
+        this.document = new PDDocument(IOUtils.createTempFileOnlyStreamCache());
+        newPage();
+    }
+
+    @Override
+    public void row(Object... values) throws IOException {
+        if (y < MARGIN + LINE_HEIGHT) {
+            newPage();
+        }
+
+        line(font, values);
+        rows++;
+    }
+
+    @Override
+    public long rows() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            page.close();
+            // PDDocument.save closes the stream it's given, 'out' belongs to the caller
+            document.save(new FilterOutputStream(out) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    out.flush();
+                }
+            });
+        } finally {
+            document.close();
+        }
+    }
+
+    private void newPage() throws IOException {
+        if (page != null) {
+            page.close();
+        }
+
+        PDPage next = new PDPage(PAGE);
+        document.addPage(next);
+        page = new PDPageContentStream(document, next);
+        pages++;
+
+        y = PAGE.getHeight() - MARGIN;
+        text(bold, 12, MARGIN, y, printable(title) + "  (page " + pages + ")");
+        y -= 2 * LINE_HEIGHT;
+
+        line(bold, columns.toArray());
+    }
+
+    private void line(PDType1Font lineFont, Object[] values) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            String value = i < values.length && values[i] != null ? printable(values[i].toString()) : "";
+            text(lineFont, FONT_SIZE, MARGIN + i * columnWidth, y, fit(lineFont, value));
+        }
+        y -= LINE_HEIGHT;
+    }
+
+    private void text(PDType1Font textFont, float size, float x, float atY, String text) throws IOException {
+        page.beginText();
+        page.setFont(textFont, size);
+        page.newLineAtOffset(x, atY);
+        page.showText(text);
+        page.endText();
+    }
+
+    // Cut to the column width (a little space kept to the next column)
+    private String fit(PDType1Font textFont, String value) throws IOException {
+        float available = columnWidth - 4;
+        String fitted = value;
+        while (!fitted.isEmpty() && textFont.getStringWidth(fitted) / 1000 * FONT_SIZE > available) {
+            fitted = fitted.substring(0, fitted.length() - 1);
+        }
+        return fitted;
+    }
+
+    // The standard fonts only know Latin-1 (WinAnsi), anything else is shown as '?'
+    private static String printable(String value) {
+        StringBuilder printable = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            printable.append(c >= 32 && c < 127 || c >= 160 && c <= 255 ? c : '?');
+        }
+        return printable.toString();
+    }
+}
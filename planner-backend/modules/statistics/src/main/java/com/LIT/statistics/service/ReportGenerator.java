@@ -0,0 +1,269 @@
+package com.LIT.statistics.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.LIT.statistics.model.enums.ReportFormat;
+import com.LIT.statistics.model.enums.ReportType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Produces the rows of a report and writes them as they come (see ReportWriter):
+ *  - PAYROLL_HOURS: per employee, from the shift archive (ShiftArchiveService). Every month is split into slices of
+ *    employees that are summed up in parallel on a fork-join pool; months load while earlier ones are summed.
+ *    Hours use the rules of the statistics (split at midnight, night & weekend hours); overtime is per ISO week,
+ *    counting the hours of the week that fall into the report's months.
+ *  - COVERAGE_GAPS: shifts with fewer employees (owner & confirmed assignments) than their minimumStaff, or
+ *    'default-minimum' when they have none, streamed from the scheduler tables.
+ *  - SWAP_ACTIVITY: swap requests per employee by status, grouped by the database and streamed.
+ * Only the per-employee sums of the payroll are held in memory, never the report itself.
+ */
+@Component
+@Slf4j
+public class ReportGenerator {
+
+    private final String logHeader = "[ReportGenerator] - ";
+
+    // Rows below which a slice of a month is summed up instead of split further
+    private static final int SLICE_ROWS = 4096;
+
+    private static final String COVERAGE =
+        "SELECT s.id, s.title, s.shift_owner_role, s.start_time, s.end_time, s.minimum_staff, "
+      + "CASE WHEN s.shift_owner_id IS NULL THEN 0 ELSE 1 END "
+      + "+ (SELECT COUNT(*) FROM shift_assignments sa WHERE sa.shift_id = s.id AND sa.status = 'CONFIRMED') "
+      + "FROM shifts s WHERE s.start_time >= ? AND s.start_time < ? ORDER BY s.start_time, s.id";
+
+    private static final String SWAPS =
+        "SELECT employee_id, COUNT(*), "
+      + "SUM(CASE WHEN status = 'ACCEPTED' THEN 1 ELSE 0 END), "
+      + "SUM(CASE WHEN status = 'REJECTED' THEN 1 ELSE 0 END), "
+      + "SUM(CASE WHEN status = 'PROPOSED' THEN 1 ELSE 0 END) "
+      + "FROM swap_proposals WHERE proposed_start_time >= ? AND proposed_start_time < ? "
+      + "GROUP BY employee_id ORDER BY employee_id";
+
+    private final ShiftArchiveService archiveService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ForkJoinPool pool;
+
+    // Only for its hour rules (forEachDay), which don't change it: shared by the payroll slices
+    private final ShiftStatsAggregator hourRules;
+
+    @Value("${stats.reports.default-minimum:1}")
+    private int defaultMinimum = 1;
+
+    @Autowired
+    public ReportGenerator(ShiftArchiveService archiveService, JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                           @Value("${stats.reports.parallelism:0}") int parallelism,
+                           @Value("${stats.fetch-size:1000}") int fetchSize,
+                           @Value("${stats.weekly-hours:40h}") Duration weeklyHours,
+                           @Value("${stats.night-start:22:00}") String nightStart,
+                           @Value("${stats.night-end:06:00}") String nightEnd) {
+        this.archiveService = archiveService;
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.objectMapper = objectMapper;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.hourRules = new ShiftStatsAggregator(weeklyHours, LocalTime.parse(nightStart), LocalTime.parse(nightEnd));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public static List<String> columns(ReportType type) {
+        return switch (type) {
+            case PAYROLL_HOURS -> List.of("employee_id", "shifts", "scheduled_hours", "night_hours", "weekend_hours", "overtime_hours");
+            case COVERAGE_GAPS -> List.of("shift_id", "title", "role", "start", "end", "staffed", "minimum", "missing");
+            case SWAP_ACTIVITY -> List.of("employee_id", "requested", "accepted", "rejected", "open");
+        };
+    }
+
+    public static String title(ReportType type, List<YearMonth> months) {
+        String name = switch (type) {
+            case PAYROLL_HOURS -> "Payroll hours";
+            case COVERAGE_GAPS -> "Coverage gaps";
+            case SWAP_ACTIVITY -> "Swap activity";
+        };
+        return name + " " + months.get(0) + " - " + months.get(months.size() - 1);
+    }
+
+    // Writes the report to 'out' (left open), returns its rows
+    public long generate(ReportType type, ReportFormat format, List<YearMonth> months, OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        long rows;
+
+        try (ReportWriter writer = ReportWriter.open(format, out, title(type, months), columns(type), objectMapper)) {
+            switch (type) {
+                case PAYROLL_HOURS -> payroll(months, writer);
+                case COVERAGE_GAPS -> coverage(months, writer);
+                case SWAP_ACTIVITY -> swaps(months, writer);
+            }
+            rows = writer.rows();
+
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        log.debug(logHeader + "generate: {} as {} for {} months, {} rows in {} ms", type, format, months.size(), rows, System.currentTimeMillis() - started);
+        return rows;
+    }
+
+    private void payroll(List<YearMonth> months, ReportWriter writer) throws IOException {
+        List<ForkJoinTask<Map<Long, PayrollLine>>> tasks = new ArrayList<>(months.size());
+        for (YearMonth month : months) {
+            ShiftArchiveFile file = archiveService.getMonth(month);
+            tasks.add(pool.submit(new PayrollTask(file, 0, file.size(), hourRules)));
+        }
+
+        Map<Long, PayrollLine> lines = new TreeMap<>();
+        for (ForkJoinTask<Map<Long, PayrollLine>> task : tasks) {
+            task.join().forEach((employee, line) -> lines.merge(employee, line, PayrollLine::merge));
+        }
+
+        long weeklyLimit = hourRules.getWeeklyLimit().toMinutes();
+        for (Map.Entry<Long, PayrollLine> entry : lines.entrySet()) {
+            PayrollLine line = entry.getValue();
+            writer.row(entry.getKey(), line.shifts, hours(line.minutes), hours(line.nightMinutes), hours(line.weekendMinutes),
+                       hours(line.overtimeMinutes(weeklyLimit)));
+        }
+    }
+
+    private void coverage(List<YearMonth> months, ReportWriter writer) {
+        jdbcTemplate.query(COVERAGE, rs -> {
+            int staffed = rs.getInt(7);
+            int minimum = rs.getObject(6) != null ? rs.getInt(6) : defaultMinimum;
+
+            if (staffed < minimum) {
+                write(writer, rs.getLong(1), rs.getString(2), rs.getString(3), time(rs.getTimestamp(4)), time(rs.getTimestamp(5)),
+                      staffed, minimum, minimum - staffed);
+            }
+        }, start(months), end(months));
+    }
+
+    private void swaps(List<YearMonth> months, ReportWriter writer) {
+        jdbcTemplate.query(SWAPS, rs -> {
+            write(writer, rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5));
+        }, start(months), end(months));
+    }
+
+    // Hours of the employees in rows 'from' to 'to' of a month; split at employee boundaries, so the halves never share one
+    static class PayrollTask extends RecursiveTask<Map<Long, PayrollLine>> {
+
+        private final ShiftArchiveFile file;
+        private final int from;
+        private final int to;
+        private final ShiftStatsAggregator hourRules;
+
+        PayrollTask(ShiftArchiveFile file, int from, int to, ShiftStatsAggregator hourRules) {
+            this.file = file;
+            this.from = from;
+            this.to = to;
+            this.hourRules = hourRules;
+        }
+
+        @Override
+        protected Map<Long, PayrollLine> compute() {
+            if (to - from > SLICE_ROWS) {
+                int split = file.runEnd(from + (to - from) / 2);
+                if (split < to) {
+                    PayrollTask left = new PayrollTask(file, from, split, hourRules);
+                    left.fork();
+                    Map<Long, PayrollLine> lines = new PayrollTask(file, split, to, hourRules).compute();
+                    lines.putAll(left.join());
+                    return lines;
+                }
+            }
+
+            Map<Long, PayrollLine> lines = new HashMap<>();
+            for (int row = from; row < to; row++) {
+                PayrollLine line = lines.computeIfAbsent(file.employeeAt(row), e -> new PayrollLine());
+                line.shifts++;
+                hourRules.forEachDay(file.startAt(row), file.endAt(row), line::add);
+            }
+            return lines;
+        }
+    }
+
+    static class PayrollLine {
+        long shifts;
+        long minutes;
+        long nightMinutes;
+        long weekendMinutes;
+        // Minutes per ISO week (its Monday), for the overtime
+        final Map<LocalDate, Long> weeks = new HashMap<>();
+
+        void add(LocalDate day, long dayMinutes, long dayNightMinutes, boolean weekend) {
+            minutes += dayMinutes;
+            nightMinutes += dayNightMinutes;
+            weekendMinutes += weekend ? dayMinutes : 0;
+            weeks.merge(day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)), dayMinutes, Long::sum);
+        }
+
+        PayrollLine merge(PayrollLine other) {
+            shifts += other.shifts;
+            minutes += other.minutes;
+            nightMinutes += other.nightMinutes;
+            weekendMinutes += other.weekendMinutes;
+            other.weeks.forEach((monday, weekMinutes) -> weeks.merge(monday, weekMinutes, Long::sum));
+            return this;
+        }
+
+        long overtimeMinutes(long weeklyLimit) {
+            return weeks.values().stream().mapToLong(weekMinutes -> Math.max(0, weekMinutes - weeklyLimit)).sum();
+        }
+    }
+
+    private static void write(ReportWriter writer, Object... values) {
+        try {
+            writer.row(values);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static BigDecimal hours(long minutes) {
+        return BigDecimal.valueOf(minutes).divide(BigDecimal.valueOf(60), 2, RoundingMode.HALF_UP);
+    }
+
+    private static String time(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime().toString();
+    }
+
+    private static Timestamp start(List<YearMonth> months) {
+        return Timestamp.valueOf(months.get(0).atDay(1).atStartOfDay());
+    }
+
+    private static Timestamp end(List<YearMonth> months) {
+        LocalDateTime end = months.get(months.size() - 1).plusMonths(1).atDay(1).atStartOfDay();
+        return Timestamp.valueOf(end);
+    }
+}
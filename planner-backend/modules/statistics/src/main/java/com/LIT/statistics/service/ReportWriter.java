@@ -0,0 +1,29 @@
+package com.LIT.statistics.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import com.LIT.statistics.model.enums.ReportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Writes a report row by row as it's produced, in one of the ReportFormats. Nothing but the current row (and for
+ * PDF the current page) is held in memory. close() finishes the report but leaves 'out' open.
+ */
+public interface ReportWriter extends Closeable {
+
+    // Values are Strings, numbers or null, one per column
+    void row(Object... values) throws IOException;
+
+    long rows();
+
+    static ReportWriter open(ReportFormat format, OutputStream out, String title, List<String> columns, ObjectMapper objectMapper) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvReportWriter(out, columns);
+            case JSON -> new JsonReportWriter(out, title, columns, objectMapper);
+            case PDF -> new PdfReportWriter(out, title, columns);
+        };
+    }
+}
@@ -1,17 +1,259 @@
 package com.LIT.statistics.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.stereotype.Service;
 
+import com.LIT.statistics.model.dto.ReportRunDTO;
+import com.LIT.statistics.model.entity.ReportRun;
+import com.LIT.statistics.model.enums.ReportFormat;
+import com.LIT.statistics.model.enums.ReportStatus;
+import com.LIT.statistics.model.enums.ReportType;
+import com.LIT.statistics.model.repository.ReportRunRepository;
+
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
+/*
+ * Reports (see ReportGenerator) either streamed straight to the caller, or run in the background: start() records
+ * a ReportRun and returns at once, one of 'max-concurrent' report workers writes the file into 'dir', and the run
+ * tells when it can be downloaded. At most 'max-queued' runs wait for a worker, more are turned down.
+ *  - Finished runs and their files are deleted after 'retention'.
+ *  - Runs a restart interrupted are marked FAILED at startup.
+ */
 @Service
 @Slf4j
-public class ReportsService {
+public class ReportsService implements SchedulingConfigurer, InitializingBean {
+
+    private final String logHeader = "[ReportsService] - ";
+
+    private final ReportRunRepository reportRunRepository;
+    private final ReportGenerator reportGenerator;
+    private final ShiftArchiveService archiveService;
+
+    private final ExecutorService workers;
+
+    @Value("${stats.reports.dir:data/reports}")
+    private String dir = "data/reports";
 
+    @Value("${stats.reports.retention:30d}")
+    private Duration retention = Duration.ofDays(30);
+
+    @Value("${stats.reports.purge-interval:1h}")
+    private Duration purgeInterval = Duration.ofHours(1);
 
     @Autowired
-    public ReportsService() {
-        log.info("ReportsService created");
+    public ReportsService(ReportRunRepository reportRunRepository, ReportGenerator reportGenerator, ShiftArchiveService archiveService,
+                          @Value("${stats.reports.max-concurrent:2}") int maxConcurrent,
+                          @Value("${stats.reports.max-queued:20}") int maxQueued) {
+        this.reportRunRepository = reportRunRepository;
+        this.reportGenerator = reportGenerator;
+        this.archiveService = archiveService;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(maxQueued), runnable -> {
+            Thread thread = new Thread(runnable, "report-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        List<ReportRun> interrupted = reportRunRepository.findByStatusIn(EnumSet.of(ReportStatus.PENDING, ReportStatus.RUNNING));
+        for (ReportRun run : interrupted) {
+            run.setStatus(ReportStatus.FAILED);
+            run.setFinishedAt(LocalDateTime.now());
+            run.setError("Interrupted by a restart");
+        }
+        reportRunRepository.saveAll(interrupted);
+
+        if (!interrupted.isEmpty()) {
+            log.warn(logHeader + "afterPropertiesSet: {} report runs interrupted by the restart marked FAILED", interrupted.size());
+        }
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(this::purge, purgeInterval);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    // Writes the report to 'out' right away, returns its rows
+    public long stream(ReportType type, ReportFormat format, String from, String to, OutputStream out) throws IOException {
+        return reportGenerator.generate(type, format, archiveService.months(from, to), out);
+    }
+
+    // Checks the range before anything is written, so a bad one is a 400 and not a broken stream
+    public void validate(String from, String to) {
+        archiveService.months(from, to);
+    }
+
+    /*
+     * Records the run and queues it for a report worker.
+     * IllegalArgumentException: invalid range; IllegalStateException: too many runs waiting already
+     */
+    public ReportRunDTO start(ReportType type, ReportFormat format, String from, String to, Long userId) {
+        List<YearMonth> months = archiveService.months(from, to);
+
+        ReportRun run = reportRunRepository.save(ReportRun.builder()
+            .type(type)
+            .format(format)
+            .periodFrom(months.get(0).toString())
+            .periodTo(months.get(months.size() - 1).toString())
+            .status(ReportStatus.PENDING)
+            .requestedBy(userId)
+            .createdAt(LocalDateTime.now())
+            .build());
+
+        try {
+            workers.execute(() -> run(run.getId(), months));
+        } catch (RejectedExecutionException e) {
+            run.setStatus(ReportStatus.FAILED);
+            run.setFinishedAt(LocalDateTime.now());
+            run.setError("Too many reports waiting");
+            reportRunRepository.save(run);
+            throw new IllegalStateException("Too many reports waiting, try again later");
+        }
+
+        log.debug(logHeader + "start: Report run {} ({} as {}, {} - {}) queued", run.getId(), type, format, from, to);
+        return toDTO(run);
+    }
+
+    public Optional<ReportRunDTO> getRun(Long id) {
+        return reportRunRepository.findById(id).map(this::toDTO);
+    }
+
+    // The latest 'limit' runs, newest first
+    public List<ReportRunDTO> getRuns(int limit) {
+        return reportRunRepository.findAllByOrderByIdDesc(PageRequest.of(0, Math.max(1, Math.min(limit, 200))))
+                                  .stream().map(this::toDTO).toList();
+    }
+
+    // The file of a DONE run, empty otherwise (or when it's gone)
+    public Optional<Path> getFile(Long id) {
+        return reportRunRepository.findById(id)
+            .filter(run -> run.getStatus() == ReportStatus.DONE && run.getFileName() != null)
+            .map(run -> Paths.get(dir, run.getFileName()))
+            .filter(Files::exists);
+    }
+
+    // Deletes the runs (and files) older than 'retention'
+    public void purge() {
+        List<ReportRun> expired = reportRunRepository.findByCreatedAtBefore(LocalDateTime.now().minus(retention));
+        for (ReportRun run : expired) {
+            if (run.getStatus() == ReportStatus.PENDING || run.getStatus() == ReportStatus.RUNNING) {
+                continue;
+            }
+            if (run.getFileName() != null) {
+                try {
+                    Files.deleteIfExists(Paths.get(dir, run.getFileName()));
+                } catch (IOException e) {
+                    log.warn(logHeader + "purge: Couldn't delete report file {}: {}", run.getFileName(), e.getMessage());
+                    continue;
+                }
+            }
+            reportRunRepository.delete(run);
+        }
+
+        if (!expired.isEmpty()) {
+            log.debug(logHeader + "purge: {} expired report runs checked", expired.size());
+        }
+    }
+
+    private void run(Long id, List<YearMonth> months) {
+        ReportRun run = reportRunRepository.findById(id).orElse(null);
+        if (run == null) {
+            return;
+        }
+
+        run.setStatus(ReportStatus.RUNNING);
+        run.setStartedAt(LocalDateTime.now());
+        reportRunRepository.save(run);
+
+        String fileName = "report-" + id + "." + run.getFormat().getExtension();
+        Path file = Paths.get(dir, fileName);
+        Path temp = Paths.get(dir, fileName + ".tmp");
+
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+
+            long rows;
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                rows = reportGenerator.generate(run.getType(), run.getFormat(), months, out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            run.setStatus(ReportStatus.DONE);
+            run.setFileName(fileName);
+            run.setRowCount(rows);
+            run.setSizeBytes(Files.size(file));
+
+        } catch (Exception e) {
+            log.error(logHeader + "run: Report run {} failed: {}", id, e.getMessage(), e);
+            run.setStatus(ReportStatus.FAILED);
+            run.setError(e.getMessage() == null ? e.getClass().getSimpleName() : truncate(e.getMessage()));
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Left for the next run of the same id to overwrite, ids aren't reused
+            }
+        }
+
+        run.setFinishedAt(LocalDateTime.now());
+        reportRunRepository.save(run);
+
+        log.info(logHeader + "run: Report run {} ({}) {} with {} rows in {} ms", id, run.getType(), run.getStatus(), run.getRowCount(),
+                 Duration.between(run.getStartedAt(), run.getFinishedAt()).toMillis());
+    }
+
+    private ReportRunDTO toDTO(ReportRun run) {
+        return ReportRunDTO.builder()
+            .id(run.getId())
+            .type(run.getType())
+            .format(run.getFormat())
+            .from(run.getPeriodFrom())
+            .to(run.getPeriodTo())
+            .status(run.getStatus())
+            .requestedBy(run.getRequestedBy())
+            .createdAt(run.getCreatedAt())
+            .startedAt(run.getStartedAt())
+            .finishedAt(run.getFinishedAt())
+            .rows(run.getRowCount())
+            .sizeBytes(run.getSizeBytes())
+            .error(run.getError())
+            .downloadUrl(run.getStatus() == ReportStatus.DONE ? "/api/stats/reports/" + run.getId() + "/download" : null)
+            .build();
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 1024 ? message : message.substring(0, 1024);
     }
 }
@@ -0,0 +1,336 @@
+package com.LIT.statistics.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+ * The shifts of one closed month, column by column in a read-only file mapped into memory: one row per employee
+ * working a shift (owner and confirmed assignments, like the statistics), sorted by employee and start.
+ *  - Columns are primitive arrays: shift id & employee (long), start & end (int, minutes since the month began; a
+ *    shift ending next month ends after the month's last minute), role (int, ids into a dictionary, -1: none).
+ *  - Roles are kept lower case (see ShiftStatsAggregator.normalizeKey). Titles aren't kept: the change feed doesn't
+ *    record title edits, an archived month couldn't tell its titles went stale.
+ *  - 'feedSeq' is the change feed position the month was read at: entries after it may have changed the month.
+ * Layout (little endian like the CPUs it runs on, columns 8 byte aligned): header, the five columns, role dictionary
+ * (count, then length & UTF-8 bytes per entry). A shift counts in the month it starts in, with all of its hours.
+ * Files are written once and never changed: a month that changes is written again (see ShiftArchiveService).
+ */
+public class ShiftArchiveFile {
+
+    private static final int MAGIC = 0x53484631; // "SHF1"
+    // 2: without the title column, files of version 1 are deleted and written again
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 64;
+
+    // Sums over a set of rows
+    public static final class Totals {
+        public long shifts;
+        public long minutes;
+
+        void add(long shifts, long minutes) {
+            this.shifts += shifts;
+            this.minutes += minutes;
+        }
+    }
+
+    // One employee on one shift, for write()
+    public record Row(long shiftId, long employeeId, LocalDateTime start, LocalDateTime end, String role) {
+    }
+
+    private final YearMonth month;
+    private final long feedSeq;
+    private final int rows;
+
+    private final LongBuffer shiftIds;
+    private final LongBuffer employees;
+    private final IntBuffer starts;
+    private final IntBuffer ends;
+    private final IntBuffer roleIds;
+
+    private final List<String> roles;
+
+    private ShiftArchiveFile(ByteBuffer content) {
+        ByteBuffer buffer = content.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Not a shift archive (version " + VERSION + ")");
+        }
+
+        month = YearMonth.of(buffer.getInt(8), buffer.getInt(12));
+        rows = buffer.getInt(16);
+        feedSeq = buffer.getLong(24);
+
+        int offset = HEADER_SIZE;
+        shiftIds = slice(buffer, offset, rows * 8).asLongBuffer();
+        offset += align(rows * 8);
+        employees = slice(buffer, offset, rows * 8).asLongBuffer();
+        offset += align(rows * 8);
+        starts = slice(buffer, offset, rows * 4).asIntBuffer();
+        offset += align(rows * 4);
+        ends = slice(buffer, offset, rows * 4).asIntBuffer();
+        offset += align(rows * 4);
+        roleIds = slice(buffer, offset, rows * 4).asIntBuffer();
+        offset += align(rows * 4);
+
+        ByteBuffer dictionaries = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN).position(offset);
+        roles = readDictionary(dictionaries);
+    }
+
+    // Maps an archive written by write()
+    public static ShiftArchiveFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new ShiftArchiveFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /*
+     * Writes the month's rows to 'file' (through a temporary file next to it, so a half written archive is never
+     * seen) and maps it. Rows outside the month or without a valid time span are left out.
+     */
+    public static ShiftArchiveFile write(Path file, YearMonth month, long feedSeq, List<Row> rows) throws IOException {
+        ByteBuffer buffer = encode(month, feedSeq, rows);
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        return open(file);
+    }
+
+    // The same columns on the heap, e.g. for a month that's still open: it's summed up exactly like an archived one
+    public static ShiftArchiveFile inMemory(YearMonth month, List<Row> rows) {
+        return new ShiftArchiveFile(encode(month, -1, rows));
+    }
+
+    private static ByteBuffer encode(YearMonth month, long feedSeq, List<Row> rows) {
+        LocalDateTime monthStart = month.atDay(1).atStartOfDay();
+        LocalDateTime monthEnd = month.plusMonths(1).atDay(1).atStartOfDay();
+
+        List<Row> kept = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            if (row.start() != null && row.end() != null && row.end().isAfter(row.start())
+                    && !row.start().isBefore(monthStart) && row.start().isBefore(monthEnd)) {
+                kept.add(row);
+            }
+        }
+        kept.sort((a, b) -> a.employeeId() != b.employeeId() ? Long.compare(a.employeeId(), b.employeeId()) : a.start().compareTo(b.start()));
+
+        int count = kept.size();
+        Map<String, Integer> roleIndex = new HashMap<>();
+        List<String> roleDictionary = new ArrayList<>();
+
+        long[] shiftIds = new long[count];
+        long[] employees = new long[count];
+        int[] starts = new int[count];
+        int[] ends = new int[count];
+        int[] roleIds = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            Row row = kept.get(i);
+            shiftIds[i] = row.shiftId();
+            employees[i] = row.employeeId();
+            starts[i] = Math.toIntExact(Duration.between(monthStart, row.start()).toMinutes());
+            ends[i] = Math.toIntExact(Duration.between(monthStart, row.end()).toMinutes());
+
+            String role = row.role() == null || row.role().isBlank() ? null : row.role().trim().toLowerCase(Locale.ROOT);
+            roleIds[i] = dictionaryId(role, roleIndex, roleDictionary);
+        }
+
+        byte[][] roleBytes = utf8(roleDictionary);
+
+        long size = HEADER_SIZE + 2L * align(count * 8) + 3L * align(count * 4) + dictionarySize(roleBytes);
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(size)).order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(month.getYear()).putInt(month.getMonthValue())
+              .putInt(count).putInt(roleDictionary.size()).putLong(feedSeq);
+        buffer.position(HEADER_SIZE);
+
+        buffer.asLongBuffer().put(shiftIds);
+        buffer.position(buffer.position() + align(count * 8));
+        buffer.asLongBuffer().put(employees);
+        buffer.position(buffer.position() + align(count * 8));
+        for (int[] column : new int[][] { starts, ends, roleIds }) {
+            buffer.asIntBuffer().put(column);
+            buffer.position(buffer.position() + align(count * 4));
+        }
+
+        writeDictionary(buffer, roleBytes);
+        return buffer.flip();
+    }
+
+    public YearMonth getMonth() {
+        return month;
+    }
+
+    public long getFeedSeq() {
+        return feedSeq;
+    }
+
+    public int size() {
+        return rows;
+    }
+
+    // Shifts & minutes per employee. Rows are sorted by employee, so each employee is one run of rows
+    public void sumByEmployee(Map<Long, Totals> totals) {
+        int i = 0;
+        while (i < rows) {
+            long employee = employees.get(i);
+            int runEnd = runEnd(employee, i);
+            totals.computeIfAbsent(employee, e -> new Totals()).add(runEnd - i, minutes(i, runEnd));
+            i = runEnd;
+        }
+    }
+
+    // Shifts & minutes per role (lower case), rows without a role left out
+    public void sumByRole(Map<String, Totals> totals) {
+        sumByDictionary(roleIds, roles, totals);
+    }
+
+    // Shifts & minutes of one employee, found by binary search
+    public void sumOfEmployee(long employeeId, Totals totals) {
+        int low = 0;
+        int high = rows;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (employees.get(middle) < employeeId) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        if (low < rows && employees.get(low) == employeeId) {
+            int runEnd = runEnd(employeeId, low);
+            totals.add(runEnd - low, minutes(low, runEnd));
+        }
+    }
+
+    // One counter per dictionary entry, indexed by the column's ids: a single pass without lookups
+    private void sumByDictionary(IntBuffer ids, List<String> dictionary, Map<String, Totals> totals) {
+        long[] shifts = new long[dictionary.size()];
+        long[] minutes = new long[dictionary.size()];
+
+        for (int i = 0; i < rows; i++) {
+            int id = ids.get(i);
+            if (id >= 0) {
+                shifts[id]++;
+                minutes[id] += ends.get(i) - starts.get(i);
+            }
+        }
+
+        for (int id = 0; id < shifts.length; id++) {
+            if (shifts[id] > 0) {
+                totals.computeIfAbsent(dictionary.get(id), key -> new Totals()).add(shifts[id], minutes[id]);
+            }
+        }
+    }
+
+    // Row access for the report pipeline (see ReportGenerator), rows 0 to size() - 1
+    long employeeAt(int row) {
+        return employees.get(row);
+    }
+
+    LocalDateTime startAt(int row) {
+        return month.atDay(1).atStartOfDay().plusMinutes(starts.get(row));
+    }
+
+    LocalDateTime endAt(int row) {
+        return month.atDay(1).atStartOfDay().plusMinutes(ends.get(row));
+    }
+
+    // First row after the employee's rows that include 'row'
+    int runEnd(int row) {
+        return runEnd(employees.get(row), row);
+    }
+
+    private int runEnd(long employee, int from) {
+        int end = from + 1;
+        while (end < rows && employees.get(end) == employee) {
+            end++;
+        }
+        return end;
+    }
+
+    private long minutes(int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += ends.get(i) - starts.get(i);
+        }
+        return sum;
+    }
+
+    private static int dictionaryId(String value, Map<String, Integer> index, List<String> dictionary) {
+        if (value == null) {
+            return -1;
+        }
+        return index.computeIfAbsent(value, v -> {
+            dictionary.add(v);
+            return dictionary.size() - 1;
+        });
+    }
+
+    private static byte[][] utf8(List<String> dictionary) {
+        byte[][] encoded = new byte[dictionary.size()][];
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = dictionary.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        return encoded;
+    }
+
+    private static long dictionarySize(byte[][] entries) {
+        long size = 4;
+        for (byte[] entry : entries) {
+            size += 4 + entry.length;
+        }
+        return size;
+    }
+
+    private static void writeDictionary(ByteBuffer buffer, byte[][] entries) {
+        buffer.putInt(entries.length);
+        for (byte[] entry : entries) {
+            buffer.putInt(entry.length).put(entry);
+        }
+    }
+
+    private static List<String> readDictionary(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        List<String> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            entries.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return entries;
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        return buffer.slice(offset, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int align(int bytes) {
+        return (bytes + 7) & ~7;
+    }
+}
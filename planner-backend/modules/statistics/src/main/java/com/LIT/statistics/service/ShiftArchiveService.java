@@ -0,0 +1,367 @@
+package com.LIT.statistics.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Service;
+
+import com.LIT.statistics.model.dto.HistoryTotalDTO;
+import com.LIT.statistics.model.enums.StatsDimension;
+import com.LIT.statistics.service.ChangeFeedReader.FeedEntry;
+import com.LIT.statistics.service.ShiftArchiveFile.Row;
+import com.LIT.statistics.service.ShiftArchiveFile.Totals;
+import com.LIT.statistics.service.ShiftStatsAggregator.ShiftFact;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Shift hours over months and years without going through the scheduler tables: every month that ended more than
+ * 'closed-after' ago is compacted into a columnar file in 'dir' (see ShiftArchiveFile), once, every 'interval'.
+ * Queries over a range of months sum up the archived months from their files and read only the others (the
+ * recent ones) from the database.
+ *  - The change feed is followed to see changes to archived months (a shift moved or deleted after the fact): the
+ *    month's file is dropped, its queries go to the database again until it's compacted anew with the next run.
+ *  - Gaps in the feed are skipped right away like for the totals (FeedGaps): an entry that shows up after it was
+ *    skipped drops its months whatever they were compacted at, the compaction may have read the tables before it
+ *    committed.
+ *  - Files are named like 2024-03.shifts and only read by this module; deleting them is always safe.
+ * Only one statistics instance should write the archive, like the totals (see ShiftStatsService).
+ */
+@Service
+@Slf4j
+public class ShiftArchiveService implements SchedulingConfigurer {
+
+    private final String logHeader = "[ShiftArchiveService] - ";
+
+    private static final String SUFFIX = ".shifts";
+
+    // Everyone working a shift: the owner and the confirmed assignments
+    private static final String MONTH_ROWS =
+        "SELECT id, shift_owner_id, start_time, end_time, shift_owner_role FROM shifts "
+      + "WHERE shift_owner_id IS NOT NULL AND start_time >= ? AND start_time < ? "
+      + "UNION ALL "
+      + "SELECT s.id, sa.user_id, s.start_time, s.end_time, s.shift_owner_role "
+      + "FROM shift_assignments sa JOIN shifts s ON s.id = sa.shift_id "
+      + "WHERE sa.status = 'CONFIRMED' AND s.start_time >= ? AND s.start_time < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChangeFeedReader feedReader;
+    private final FeedGaps gaps;
+
+    private final Map<YearMonth, ShiftArchiveFile> archives = new ConcurrentHashMap<>();
+
+    // Last feed entry checked against the archive, -1: archive not loaded yet
+    private volatile long position = -1;
+
+    @Value("${stats.archive.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${stats.archive.dir:data/shift-archive}")
+    private String dir = "data/shift-archive";
+
+    // A month is archived once it ended this long ago
+    @Value("${stats.archive.closed-after:7d}")
+    private Duration closedAfter = Duration.ofDays(7);
+
+    @Value("${stats.archive.interval:1h}")
+    private Duration interval = Duration.ofHours(1);
+
+    // Longest range (in months) a single query may ask for
+    @Value("${stats.archive.max-range:120}")
+    private int maxRange = 120;
+
+    @Value("${stats.feed.poll-interval:2s}")
+    private Duration pollInterval = Duration.ofSeconds(2);
+
+    @Value("${stats.feed.batch-size:500}")
+    private int batchSize = 500;
+
+    @Autowired
+    public ShiftArchiveService(JdbcTemplate jdbcTemplate, ChangeFeedReader feedReader, MeterRegistry meterRegistry,
+                               @Value("${stats.fetch-size:1000}") int fetchSize,
+                               @Value("${stats.feed.late-window:1h}") Duration lateWindow) {
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.feedReader = feedReader;
+        this.gaps = new FeedGaps("archive", lateWindow, meterRegistry);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        if (!enabled) {
+            log.info(logHeader + "configureTasks: Shift archive disabled, history queries read the scheduler tables");
+            return;
+        }
+
+        taskRegistrar.addFixedDelayTask(this::sync, pollInterval);
+        taskRegistrar.addFixedDelayTask(this::compact, interval);
+    }
+
+    // Drops the archived months changed by feed entries after the ones they were compacted at
+    public synchronized void sync() {
+        try {
+            if (position < 0) {
+                start();
+            }
+
+            for (FeedEntry entry : gaps.late(feedReader)) {
+                drop(entry, true);
+            }
+
+            List<FeedEntry> entries;
+            do {
+                entries = feedReader.read(position, batchSize);
+
+                for (FeedEntry entry : entries) {
+                    // A missing entry may still be committed, late() drops its months then
+                    if (entry.seq() != position + 1) {
+                        gaps.skip(position + 1, entry.seq() - 1, entry);
+                    }
+
+                    drop(entry, false);
+                    position = entry.seq();
+                }
+            } while (entries.size() == batchSize);
+
+        } catch (DataAccessException | UncheckedIOException e) {
+            log.warn(logHeader + "sync: Couldn't follow the change feed at position {}: {}", position, e.getMessage());
+        }
+    }
+
+    // Archives the closed months that aren't yet
+    public synchronized void compact() {
+        sync();
+        if (position < 0) {
+            return;
+        }
+
+        try {
+            Timestamp earliest = jdbcTemplate.queryForObject("SELECT MIN(start_time) FROM shifts", Timestamp.class);
+            if (earliest == null) {
+                return;
+            }
+
+            YearMonth lastClosed = YearMonth.from(LocalDateTime.now().minus(closedAfter)).minusMonths(1);
+            long started = System.currentTimeMillis();
+            int compacted = 0;
+            long rows = 0;
+
+            for (YearMonth month = YearMonth.from(earliest.toLocalDateTime()); !month.isAfter(lastClosed); month = month.plusMonths(1)) {
+                if (archives.containsKey(month)) {
+                    continue;
+                }
+
+                // Read after taking the position: a change the read misses comes after it in the feed and drops the file again
+                long feedSeq = position;
+                ShiftArchiveFile file = ShiftArchiveFile.write(file(month), month, feedSeq, readMonth(month));
+                archives.put(month, file);
+                compacted++;
+                rows += file.size();
+            }
+
+            if (compacted > 0) {
+                log.info(logHeader + "compact: {} months ({} rows) archived in {} ms", compacted, rows, System.currentTimeMillis() - started);
+            }
+
+        } catch (DataAccessException | IOException | UncheckedIOException e) {
+            log.warn(logHeader + "compact: Couldn't archive the closed months: {}", e.getMessage());
+        }
+    }
+
+    // Shifts & hours per employee from 'from' to 'to' (months like 2024-03, both included)
+    public List<HistoryTotalDTO> getEmployeeTotals(String from, String to) {
+        List<YearMonth> months = months(from, to);
+
+        Map<Long, Totals> totals = new HashMap<>();
+        int archived = scan(months, file -> file.sumByEmployee(totals));
+
+        List<HistoryTotalDTO> result = new ArrayList<>(totals.size());
+        totals.entrySet().stream()
+              .sorted(Map.Entry.comparingByKey())
+              .forEach(e -> result.add(toDTO(StatsDimension.EMPLOYEE, String.valueOf(e.getKey()), months, e.getValue(), archived)));
+        return result;
+    }
+
+    public HistoryTotalDTO getEmployeeTotal(Long employeeId, String from, String to) {
+        List<YearMonth> months = months(from, to);
+
+        Totals totals = new Totals();
+        int archived = scan(months, file -> file.sumOfEmployee(employeeId, totals));
+        return toDTO(StatsDimension.EMPLOYEE, String.valueOf(employeeId), months, totals, archived);
+    }
+
+    // Per role, lower case
+    public List<HistoryTotalDTO> getRoleTotals(String from, String to) {
+        List<YearMonth> months = months(from, to);
+
+        Map<String, Totals> totals = new HashMap<>();
+        int archived = scan(months, file -> file.sumByRole(totals));
+
+        List<HistoryTotalDTO> result = new ArrayList<>(totals.size());
+        totals.entrySet().stream()
+              .sorted(Map.Entry.comparingByKey())
+              .forEach(e -> result.add(toDTO(StatsDimension.ROLE, e.getKey(), months, e.getValue(), archived)));
+        return result;
+    }
+
+    public Set<YearMonth> getArchivedMonths() {
+        return new TreeSet<>(archives.keySet());
+    }
+
+    // The months from 'from' to 'to' (like 2024-03, both included), at most 'max-range' of them
+    public List<YearMonth> months(String from, String to) {
+        YearMonth first = month(from, "from");
+        YearMonth last = month(to, "to");
+
+        if (first.isAfter(last)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (first.plusMonths(maxRange).isBefore(last.plusMonths(1))) {
+            throw new IllegalArgumentException("At most " + maxRange + " months can be queried at once");
+        }
+
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        return months;
+    }
+
+    // The month's archive, or its rows read from the database into the same columns when it isn't archived
+    public ShiftArchiveFile getMonth(YearMonth month) {
+        ShiftArchiveFile file = archives.get(month);
+        return file != null ? file : ShiftArchiveFile.inMemory(month, readMonth(month));
+    }
+
+    // Runs 'sum' over every month, archived or read on the spot; returns how many were archived
+    private int scan(List<YearMonth> months, Consumer<ShiftArchiveFile> sum) {
+        long started = System.currentTimeMillis();
+        int archived = 0;
+
+        for (YearMonth month : months) {
+            ShiftArchiveFile file = archives.get(month);
+            if (file != null) {
+                archived++;
+            } else {
+                file = ShiftArchiveFile.inMemory(month, readMonth(month));
+            }
+            sum.accept(file);
+        }
+
+        log.debug(logHeader + "scan: {} months ({} archived) in {} ms", months.size(), archived, System.currentTimeMillis() - started);
+        return archived;
+    }
+
+    private List<Row> readMonth(YearMonth month) {
+        Timestamp start = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp end = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+
+        return jdbcTemplate.query(MONTH_ROWS, (rs, row) -> new Row(
+            rs.getLong(1), rs.getLong(2),
+            rs.getTimestamp(3).toLocalDateTime(), rs.getTimestamp(4).toLocalDateTime(),
+            rs.getString(5)), start, end, start, end);
+    }
+
+    // Maps the files already there; the feed is checked from the oldest of them on
+    private void start() {
+        Path directory = Paths.get(dir);
+        long oldest = Long.MAX_VALUE;
+
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+                for (Path path : files) {
+                    try {
+                        ShiftArchiveFile file = ShiftArchiveFile.open(path);
+                        archives.put(file.getMonth(), file);
+                        oldest = Math.min(oldest, file.getFeedSeq());
+                    } catch (IOException | RuntimeException e) {
+                        log.warn(logHeader + "start: Unreadable archive {} deleted: {}", path, e.getMessage());
+                        Files.deleteIfExists(path);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        position = oldest != Long.MAX_VALUE
+            ? oldest
+            : jdbcTemplate.queryForObject("SELECT COALESCE(MAX(seq), 0) FROM change_feed", Long.class);
+
+        log.info(logHeader + "start: {} archived months in {}, change feed checked from {}", archives.size(), directory.toAbsolutePath(), position);
+    }
+
+    // Drops the months 'entry' changes that were compacted before it ('late': any, see FeedGaps)
+    private void drop(FeedEntry entry, boolean late) {
+        for (List<ShiftFact> facts : List.of(entry.removedShifts(), entry.addedShifts())) {
+            for (ShiftFact fact : facts) {
+                if (fact.start() != null) {
+                    dropIfOlder(YearMonth.from(fact.start()), entry.seq(), late);
+                }
+            }
+        }
+    }
+
+    private void dropIfOlder(YearMonth month, long seq, boolean late) {
+        ShiftArchiveFile file = archives.get(month);
+        if (file == null || (!late && file.getFeedSeq() >= seq)) {
+            return;
+        }
+
+        archives.remove(month);
+        try {
+            Files.deleteIfExists(file(month));
+        } catch (IOException e) {
+            log.warn(logHeader + "dropIfOlder: Couldn't delete the archive of {}: {}", month, e.getMessage());
+        }
+        log.info(logHeader + "dropIfOlder: {} changed by feed entry {}, archived again with the next run", month, seq);
+    }
+
+    private Path file(YearMonth month) {
+        return Paths.get(dir, month + SUFFIX);
+    }
+
+    private static YearMonth month(String value, String name) {
+        try {
+            return YearMonth.parse(value.trim());
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new IllegalArgumentException("'" + name + "' must be a month like 2024-03, got '" + value + "'");
+        }
+    }
+
+    private static HistoryTotalDTO toDTO(StatsDimension dimension, String key, List<YearMonth> months, Totals totals, int archived) {
+        return HistoryTotalDTO.builder()
+            .dimension(dimension)
+            .key(key)
+            .from(months.get(0).toString())
+            .to(months.get(months.size() - 1).toString())
+            .shifts(totals.shifts)
+            .scheduledHours(totals.minutes / 60.0)
+            .archivedMonths(archived)
+            .build();
+    }
+}
@@ -0,0 +1,262 @@
+package com.LIT.statistics.service;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import com.LIT.statistics.model.enums.StatsDimension;
+import com.LIT.statistics.model.enums.StatsGranularity;
+
+/*
+ * The statistics as running totals per (dimension, key, granularity, period), e.g. (EMPLOYEE, "7", WEEK, "2025-W10").
+ * Every shift and proposal adds its contribution when it appears and takes it back when it changes or goes away,
+ * so a dashboard read is a single map lookup, however many years of shifts there are.
+ *  - Hours are split at midnight: a night shift from Sunday to Monday counts for both weeks.
+ *  - Night hours fall between 'nightStart' and 'nightEnd', weekend hours on Saturday and Sunday.
+ *  - Overtime is per employee and ISO week (hours above 'weeklyLimit'), added to the month the week starts in
+ *    and to the totals. Roles have no overtime: it belongs to the employee, not to the shifts.
+ *  - A shift counts once per employee on it (owner and confirmed assignments), in the period it starts in.
+ * The totals touched since the last clearChanged() are tracked, so only those have to be written to the database.
+ * Not thread-safe, ShiftStatsService guards it.
+ */
+public class ShiftStatsAggregator {
+
+    public static final String ALL = "all";
+
+    // One employee working one shift (its owner, or confirmed through an assignment). 'role' may be null
+    public record ShiftFact(Long shiftId, Long employeeId, String role, LocalDateTime start, LocalDateTime end) {
+    }
+
+    public enum ProposalKind { SHIFT, SWAP }
+
+    // A shift or swap proposal, counted in the period of its proposed start. 'role' may be null
+    public record ProposalFact(Long proposalId, ProposalKind kind, Long employeeId, String role, LocalDateTime start, String status) {
+    }
+
+    record Key(StatsDimension dimension, String key, StatsGranularity granularity, String period) {
+    }
+
+    private final Duration weeklyLimit;
+    private final LocalTime nightStart;
+    private final LocalTime nightEnd;
+
+    private final Map<Key, StatsCounters> counters = new HashMap<>();
+
+    private final Set<Key> changed = new HashSet<>();
+
+    public ShiftStatsAggregator(Duration weeklyLimit, LocalTime nightStart, LocalTime nightEnd) {
+        this.weeklyLimit = weeklyLimit;
+        this.nightStart = nightStart;
+        this.nightEnd = nightEnd;
+    }
+
+    public void addShift(ShiftFact fact) {
+        applyShift(fact, 1);
+    }
+
+    public void removeShift(ShiftFact fact) {
+        applyShift(fact, -1);
+    }
+
+    public void addProposal(ProposalFact fact) {
+        applyProposal(fact, 1);
+    }
+
+    public void removeProposal(ProposalFact fact) {
+        applyProposal(fact, -1);
+    }
+
+    // Copy of the totals, null when nothing happened in that period
+    public StatsCounters get(StatsDimension dimension, String key, StatsGranularity granularity, String period) {
+        StatsCounters found = counters.get(new Key(dimension, normalizeKey(dimension, key), granularity, period));
+        return found == null ? null : found.copy();
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    // Copies of the totals changed since the last clearChanged(), null for the ones back to nothing
+    Map<Key, StatsCounters> changes() {
+        Map<Key, StatsCounters> changes = new HashMap<>(changed.size() * 2);
+        for (Key key : changed) {
+            StatsCounters current = counters.get(key);
+            changes.put(key, current == null ? null : current.copy());
+        }
+        return changes;
+    }
+
+    void clearChanged() {
+        changed.clear();
+    }
+
+    void forEachTotal(BiConsumer<Key, StatsCounters> action) {
+        counters.forEach(action);
+    }
+
+    // Puts back totals saved earlier (see ShiftStatsStore)
+    void restore(Key key, StatsCounters saved) {
+        if (!saved.isEmpty()) {
+            counters.put(key, saved);
+        }
+    }
+
+    // Roles are compared case-insensitively
+    public static String normalizeKey(StatsDimension dimension, String key) {
+        return dimension == StatsDimension.ROLE ? key.trim().toLowerCase(Locale.ROOT) : key;
+    }
+
+    private void applyShift(ShiftFact fact, int sign) {
+        if (fact.employeeId() == null || fact.start() == null || fact.end() == null || !fact.end().isAfter(fact.start())) {
+            return;
+        }
+
+        String employee = String.valueOf(fact.employeeId());
+        String role = fact.role() == null || fact.role().isBlank() ? null : normalizeKey(StatsDimension.ROLE, fact.role());
+        Set<LocalDate> weeks = new LinkedHashSet<>();
+
+        LocalDate startDay = fact.start().toLocalDate();
+        forEach(employee, role, startDay, (c, s) -> c.shifts += s, sign);
+
+        forEachDay(fact.start(), fact.end(), (day, minutes, night, weekend) -> {
+            forEach(employee, role, day, (c, s) -> {
+                c.scheduledMinutes += s * minutes;
+                c.nightMinutes += s * night;
+                c.weekendMinutes += s * (weekend ? minutes : 0);
+            }, sign);
+
+            weeks.add(day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+        });
+
+        weeks.forEach(monday -> updateOvertime(employee, monday));
+    }
+
+    public interface DaySegment {
+        void accept(LocalDate day, long minutes, long nightMinutes, boolean weekend);
+    }
+
+    // Splits 'start' - 'end' at midnight, with the night & weekend rules of these statistics (see ReportGenerator too)
+    public void forEachDay(LocalDateTime start, LocalDateTime end, DaySegment segment) {
+        LocalDateTime segmentStart = start;
+        while (segmentStart.isBefore(end)) {
+            LocalDate day = segmentStart.toLocalDate();
+            LocalDateTime midnight = day.plusDays(1).atStartOfDay();
+            LocalDateTime segmentEnd = end.isBefore(midnight) ? end : midnight;
+
+            boolean weekend = day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY;
+            segment.accept(day, Duration.between(segmentStart, segmentEnd).toMinutes(), nightMinutes(day, segmentStart, segmentEnd), weekend);
+
+            segmentStart = segmentEnd;
+        }
+    }
+
+    public Duration getWeeklyLimit() {
+        return weeklyLimit;
+    }
+
+    private void applyProposal(ProposalFact fact, int sign) {
+        if (fact.employeeId() == null || fact.start() == null) {
+            return;
+        }
+
+        String role = fact.role() == null || fact.role().isBlank() ? null : normalizeKey(StatsDimension.ROLE, fact.role());
+        boolean accepted = "ACCEPTED".equals(fact.status());
+        boolean decided = accepted || "REJECTED".equals(fact.status()) || "ALTERNATIVE_PROPOSED".equals(fact.status());
+
+        forEach(String.valueOf(fact.employeeId()), role, fact.start().toLocalDate(), (c, s) -> {
+            if (fact.kind() == ProposalKind.SWAP) {
+                c.swapsRequested += s;
+                c.swapsAccepted += accepted ? s : 0;
+            } else {
+                c.proposalsSubmitted += s;
+                c.proposalsDecided += decided ? s : 0;
+                c.proposalsAccepted += accepted ? s : 0;
+            }
+        }, sign);
+    }
+
+    // Overtime of the employee in the week starting 'monday', recomputed from the week's hours; the change goes to the month & totals too
+    private void updateOvertime(String employee, LocalDate monday) {
+        String week = StatsGranularity.WEEK.period(monday);
+        StatsCounters weekCounters = counters.get(new Key(StatsDimension.EMPLOYEE, employee, StatsGranularity.WEEK, week));
+
+        long minutes = weekCounters == null ? 0 : weekCounters.scheduledMinutes;
+        long previous = weekCounters == null ? 0 : weekCounters.overtimeMinutes;
+        long overtime = Math.max(0, minutes - weeklyLimit.toMinutes());
+        long delta = overtime - previous;
+
+        if (delta == 0) {
+            return;
+        }
+
+        String month = StatsGranularity.MONTH.period(monday);
+        apply(new Key(StatsDimension.EMPLOYEE, employee, StatsGranularity.WEEK, week), c -> c.overtimeMinutes += delta);
+        apply(new Key(StatsDimension.EMPLOYEE, employee, StatsGranularity.MONTH, month), c -> c.overtimeMinutes += delta);
+        apply(new Key(StatsDimension.ALL, ALL, StatsGranularity.WEEK, week), c -> c.overtimeMinutes += delta);
+        apply(new Key(StatsDimension.ALL, ALL, StatsGranularity.MONTH, month), c -> c.overtimeMinutes += delta);
+    }
+
+    private interface Update {
+        void apply(StatsCounters counters, int sign);
+    }
+
+    // Applies the update to the employee, the role and the totals, for the week & month of 'day'
+    private void forEach(String employee, String role, LocalDate day, Update update, int sign) {
+        for (StatsGranularity granularity : StatsGranularity.values()) {
+            String period = granularity.period(day);
+
+            apply(new Key(StatsDimension.EMPLOYEE, employee, granularity, period), c -> update.apply(c, sign));
+            apply(new Key(StatsDimension.ALL, ALL, granularity, period), c -> update.apply(c, sign));
+
+            if (role != null) {
+                apply(new Key(StatsDimension.ROLE, role, granularity, period), c -> update.apply(c, sign));
+            }
+        }
+    }
+
+    private void apply(Key key, Consumer<StatsCounters> update) {
+        StatsCounters target = counters.computeIfAbsent(key, k -> new StatsCounters());
+        update.accept(target);
+        changed.add(key);
+
+        // Periods that are back to nothing don't take up memory
+        if (target.isEmpty()) {
+            counters.remove(key);
+        }
+    }
+
+    private long nightMinutes(LocalDate day, LocalDateTime from, LocalDateTime to) {
+        if (nightStart.equals(nightEnd)) {
+            return 0;
+        }
+
+        long minutes = 0;
+
+        if (nightStart.isAfter(nightEnd)) {
+            // Across midnight (22:00 - 06:00): the morning part and the evening part of the day
+            minutes += overlap(from, to, day.atStartOfDay(), day.atTime(nightEnd));
+            minutes += overlap(from, to, day.atTime(nightStart), day.plusDays(1).atStartOfDay());
+        } else {
+            minutes += overlap(from, to, day.atTime(nightStart), day.atTime(nightEnd));
+        }
+
+        return minutes;
+    }
+
+    private static long overlap(LocalDateTime from, LocalDateTime to, LocalDateTime windowStart, LocalDateTime windowEnd) {
+        LocalDateTime start = from.isAfter(windowStart) ? from : windowStart;
+        LocalDateTime end = to.isBefore(windowEnd) ? to : windowEnd;
+        return end.isAfter(start) ? Duration.between(start, end).toMinutes() : 0;
+    }
+}
@@ -1,16 +1,297 @@
 package com.LIT.statistics.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.stereotype.Service;
 
+import com.LIT.statistics.model.dto.StatsSummaryDTO;
+import com.LIT.statistics.model.enums.StatsDimension;
+import com.LIT.statistics.model.enums.StatsGranularity;
+import com.LIT.statistics.service.ChangeFeedReader.FeedEntry;
+import com.LIT.statistics.service.ShiftStatsAggregator.Key;
+
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 
+/*
+ * Shift statistics per employee, role and everyone, by ISO week and month, held as pre-aggregated totals in memory
+ * (see ShiftStatsAggregator): a summary is one lookup, a series one lookup per period.
+ *  - The totals follow the scheduler's change feed: every 'poll-interval' the entries after the last applied one are
+ *    read, 'batch-size' at a time, and applied in order. The changed totals are saved with the new position
+ *    (ShiftStatsStore), a restart carries on from there instead of reading the scheduler tables again.
+ *  - Feed sequence numbers are handed out before their transaction commits, so an entry can show up after a later
+ *    one. A missing number is skipped right away; if it still shows up within 'late-window' it's applied then (see
+ *    FeedGaps). The totals are sums, the order doesn't change them.
+ *  - rebuild(from) replays the feed after 'from' into fresh totals (0: everything, the same statistics every time)
+ *    and replaces the saved ones; reads keep using the old totals until it's done.
+ * Only one statistics instance should follow the feed: the saved totals and checkpoint are shared.
+ */
 @Service
 @Slf4j
-public class ShiftStatsService {
-    
+public class ShiftStatsService implements SchedulingConfigurer {
+
+    private final String logHeader = "[ShiftStatsService] - ";
+
+    private static final String CONSUMER = "statistics";
+
+    private final ChangeFeedReader feedReader;
+    private final ShiftStatsStore store;
+    private final FeedGaps gaps;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by 'lock'. Only changed by the feed thread (poll / rebuild, synchronized), which reads it without the lock
+    private ShiftStatsAggregator aggregator;
+
+    // Last feed entry in 'aggregator', -1: not loaded from the store yet
+    private volatile long position = -1;
+
+    private volatile LocalDateTime builtAt;
+
+    // Hours per week above which an employee works overtime
+    @Value("${stats.weekly-hours:40h}")
+    private Duration weeklyHours = Duration.ofHours(40);
+
+    @Value("${stats.night-start:22:00}")
+    private String nightStart = "22:00";
+
+    @Value("${stats.night-end:06:00}")
+    private String nightEnd = "06:00";
+
+    @Value("${stats.feed.poll-interval:2s}")
+    private Duration pollInterval = Duration.ofSeconds(2);
+
+    @Value("${stats.feed.batch-size:500}")
+    private int batchSize = 500;
+
+    // Longest series a single request may ask for
+    @Value("${stats.max-series:104}")
+    private int maxSeries = 104;
 
     @Autowired
-    public ShiftStatsService() {
-        log.info("ShiftStatsService created");
+    public ShiftStatsService(ChangeFeedReader feedReader, ShiftStatsStore store, MeterRegistry meterRegistry,
+                             @Value("${stats.feed.late-window:1h}") Duration lateWindow) {
+        this.feedReader = feedReader;
+        this.store = store;
+        this.gaps = new FeedGaps(CONSUMER, lateWindow, meterRegistry);
+        this.aggregator = newAggregator();
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(this::poll, pollInterval);
+    }
+
+    // Applies what's new in the feed and saves it
+    public synchronized void poll() {
+        try {
+            if (position < 0) {
+                start();
+            }
+
+            List<FeedEntry> late = gaps.late(feedReader);
+            if (!late.isEmpty()) {
+                lock.writeLock().lock();
+                try {
+                    late.forEach(entry -> entry.applyTo(aggregator));
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                save();
+            }
+
+            int read;
+            do {
+                List<FeedEntry> entries = feedReader.read(position, batchSize);
+                read = entries.size();
+
+                lock.writeLock().lock();
+                long applied;
+                try {
+                    applied = apply(aggregator, position, entries);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+
+                if (applied == position) {
+                    break;
+                }
+
+                position = applied;
+                save();
+            } while (read == batchSize);
+
+            builtAt = LocalDateTime.now();
+
+        } catch (DataAccessException e) {
+            // E.g. the scheduler hasn't created the feed yet; the unsaved totals are saved with the next batch
+            log.warn(logHeader + "poll: Couldn't follow the change feed at position {}: {}", position, e.getMessage());
+        }
+    }
+
+    // Replays the feed after 'from' into new totals, which replace the current (and saved) ones
+    public synchronized void rebuild(long from) {
+        if (from < 0) {
+            throw new IllegalArgumentException("'from' must not be negative");
+        }
+
+        long started = System.currentTimeMillis();
+        ShiftStatsAggregator fresh = newAggregator();
+        long replayed = from;
+        // What was missing before the replay is in it now or skipped again
+        gaps.clear();
+
+        List<FeedEntry> entries;
+        do {
+            entries = feedReader.read(replayed, batchSize);
+            long applied = apply(fresh, replayed, entries);
+            if (applied == replayed) {
+                break;
+            }
+            replayed = applied;
+        } while (entries.size() == batchSize);
+
+        store.replace(CONSUMER, fresh, replayed);
+
+        lock.writeLock().lock();
+        try {
+            aggregator = fresh;
+            position = replayed;
+            builtAt = LocalDateTime.now();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info(logHeader + "rebuild: Feed replayed from {} to {} into {} totals in {} ms", from, replayed, fresh.size(), System.currentTimeMillis() - started);
+    }
+
+    // Last feed entry the statistics include
+    public long getPosition() {
+        return Math.max(position, 0);
+    }
+
+    // 'period' null: the current one
+    public StatsSummaryDTO getSummary(StatsDimension dimension, String key, StatsGranularity granularity, String period) {
+        String resolved = period == null ? granularity.period(LocalDate.now()) : granularity.period(granularity.firstDay(period));
+
+        lock.readLock().lock();
+        try {
+            return toDTO(dimension, key, granularity, resolved, aggregator.get(dimension, key, granularity, resolved));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 'count' periods up to and including 'period' (null: the current one), oldest first
+    public List<StatsSummaryDTO> getSeries(StatsDimension dimension, String key, StatsGranularity granularity, String period, int count) {
+        if (count < 1 || count > maxSeries) {
+            throw new IllegalArgumentException("count must be between 1 and " + maxSeries);
+        }
+
+        String last = period == null ? granularity.period(LocalDate.now()) : granularity.period(granularity.firstDay(period));
+        List<StatsSummaryDTO> series = new ArrayList<>(count);
+
+        lock.readLock().lock();
+        try {
+            for (int i = count - 1; i >= 0; i--) {
+                String p = granularity.plus(last, -i);
+                series.add(toDTO(dimension, key, granularity, p, aggregator.get(dimension, key, granularity, p)));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return series;
+    }
+
+    private void start() {
+        ShiftStatsAggregator loaded = newAggregator();
+        long saved = store.load(CONSUMER, loaded);
+
+        lock.writeLock().lock();
+        try {
+            aggregator = loaded;
+            position = saved;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Applies 'entries' in order from 'after' on, skipping gaps; returns the last one applied
+    private long apply(ShiftStatsAggregator target, long after, List<FeedEntry> entries) {
+        long last = after;
+
+        for (FeedEntry entry : entries) {
+            if (entry.seq() != last + 1) {
+                gaps.skip(last + 1, entry.seq() - 1, entry);
+            }
+
+            entry.applyTo(target);
+            last = entry.seq();
+        }
+
+        return last;
+    }
+
+    private void save() {
+        Map<Key, StatsCounters> changes;
+        lock.readLock().lock();
+        try {
+            changes = aggregator.changes();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        store.save(CONSUMER, changes, position);
+
+        lock.writeLock().lock();
+        try {
+            aggregator.clearChanged();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private ShiftStatsAggregator newAggregator() {
+        return new ShiftStatsAggregator(weeklyHours, LocalTime.parse(nightStart), LocalTime.parse(nightEnd));
+    }
+
+    private StatsSummaryDTO toDTO(StatsDimension dimension, String key, StatsGranularity granularity, String period, StatsCounters counters) {
+        StatsCounters c = counters != null ? counters : new StatsCounters();
+
+        return StatsSummaryDTO.builder()
+            .dimension(dimension)
+            .key(ShiftStatsAggregator.normalizeKey(dimension, key))
+            .granularity(granularity)
+            .period(period)
+            .shifts(c.getShifts())
+            .scheduledHours(hours(c.getScheduledMinutes()))
+            .overtimeHours(hours(c.getOvertimeMinutes()))
+            .nightHours(hours(c.getNightMinutes()))
+            .weekendHours(hours(c.getWeekendMinutes()))
+            .swapsRequested(c.getSwapsRequested())
+            .swapsAccepted(c.getSwapsAccepted())
+            .proposalsSubmitted(c.getProposalsSubmitted())
+            .proposalsAccepted(c.getProposalsAccepted())
+            .proposalAcceptanceRate(c.getProposalsDecided() == 0 ? null : (double) c.getProposalsAccepted() / c.getProposalsDecided())
+            .builtAt(builtAt)
+            .build();
+    }
+
+    private static double hours(long minutes) {
+        return minutes / 60.0;
     }
 }
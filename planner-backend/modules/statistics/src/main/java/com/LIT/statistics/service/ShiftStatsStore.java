@@ -0,0 +1,133 @@
+package com.LIT.statistics.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.LIT.statistics.model.enums.StatsDimension;
+import com.LIT.statistics.model.enums.StatsGranularity;
+import com.LIT.statistics.service.ShiftStatsAggregator.Key;
+
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Keeps the aggregates in 'stats_totals' together with the feed position they include ('stats_feed_checkpoints'),
+ * both written in one transaction: after a restart the statistics are loaded as they were at the checkpoint and
+ * the feed is read on from there. Only the totals changed since the last save are written.
+ */
+@Component
+@Slf4j
+public class ShiftStatsStore {
+
+    private final String logHeader = "[ShiftStatsStore] - ";
+
+    private static final String COLUMNS = "id, dimension, stats_key, granularity, period, shifts, scheduled_minutes, overtime_minutes, "
+        + "night_minutes, weekend_minutes, swaps_requested, swaps_accepted, proposals_submitted, proposals_decided, proposals_accepted";
+
+    private static final String INSERT = "INSERT INTO stats_totals (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ShiftStatsStore(JdbcTemplate jdbcTemplate, @Value("${stats.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    // Fills 'aggregator' with the saved totals, returns the feed position they include (0: nothing saved yet)
+    @Transactional(readOnly = true)
+    public long load(String consumer, ShiftStatsAggregator aggregator) {
+        List<Long> checkpoint = jdbcTemplate.queryForList("SELECT last_seq FROM stats_feed_checkpoints WHERE consumer = ?", Long.class, consumer);
+        if (checkpoint.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.query("SELECT " + COLUMNS + " FROM stats_totals", rs -> {
+            StatsCounters counters = new StatsCounters();
+            counters.shifts = rs.getLong(6);
+            counters.scheduledMinutes = rs.getLong(7);
+            counters.overtimeMinutes = rs.getLong(8);
+            counters.nightMinutes = rs.getLong(9);
+            counters.weekendMinutes = rs.getLong(10);
+            counters.swapsRequested = rs.getLong(11);
+            counters.swapsAccepted = rs.getLong(12);
+            counters.proposalsSubmitted = rs.getLong(13);
+            counters.proposalsDecided = rs.getLong(14);
+            counters.proposalsAccepted = rs.getLong(15);
+
+            aggregator.restore(new Key(StatsDimension.valueOf(rs.getString(2)), rs.getString(3),
+                                       StatsGranularity.valueOf(rs.getString(4)), rs.getString(5)), counters);
+        });
+
+        aggregator.clearChanged();
+        log.info(logHeader + "load: {} totals loaded at feed position {}", aggregator.size(), checkpoint.get(0));
+        return checkpoint.get(0);
+    }
+
+    // The changed totals (null: gone) and the position that includes them
+    @Transactional
+    public void save(String consumer, Map<Key, StatsCounters> changes, long lastSeq) {
+        List<Object[]> deletes = new ArrayList<>(changes.size());
+        List<Object[]> inserts = new ArrayList<>(changes.size());
+
+        changes.forEach((key, counters) -> {
+            deletes.add(new Object[] { id(key) });
+            if (counters != null) {
+                inserts.add(row(key, counters));
+            }
+        });
+
+        batch("DELETE FROM stats_totals WHERE id = ?", deletes);
+        batch(INSERT, inserts);
+        checkpoint(consumer, lastSeq);
+    }
+
+    // Everything in 'aggregator' instead of what's saved, e.g. after replaying the feed
+    @Transactional
+    public void replace(String consumer, ShiftStatsAggregator aggregator, long lastSeq) {
+        List<Object[]> inserts = new ArrayList<>(aggregator.size());
+        aggregator.forEachTotal((key, counters) -> inserts.add(row(key, counters)));
+
+        jdbcTemplate.update("DELETE FROM stats_totals");
+        batch(INSERT, inserts);
+        checkpoint(consumer, lastSeq);
+        aggregator.clearChanged();
+    }
+
+    private void checkpoint(String consumer, long lastSeq) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        int updated = jdbcTemplate.update("UPDATE stats_feed_checkpoints SET last_seq = ?, updated_at = ? WHERE consumer = ?", lastSeq, now, consumer);
+        if (updated == 0) {
+            jdbcTemplate.update("INSERT INTO stats_feed_checkpoints (consumer, last_seq, updated_at) VALUES (?, ?, ?)", consumer, lastSeq, now);
+        }
+    }
+
+    private void batch(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE)));
+        }
+    }
+
+    private static String id(Key key) {
+        return key.dimension() + "|" + key.key() + "|" + key.granularity() + "|" + key.period();
+    }
+
+    private static Object[] row(Key key, StatsCounters c) {
+        return new Object[] {
+            id(key), key.dimension().name(), key.key(), key.granularity().name(), key.period(),
+            c.shifts, c.scheduledMinutes, c.overtimeMinutes, c.nightMinutes, c.weekendMinutes,
+            c.swapsRequested, c.swapsAccepted, c.proposalsSubmitted, c.proposalsDecided, c.proposalsAccepted
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package com.LIT.statistics.service;
+
+// Running totals of one (dimension, key, granularity, period), see ShiftStatsAggregator
+public class StatsCounters {
+    long shifts;
+    long scheduledMinutes;
+    long overtimeMinutes;
+    long nightMinutes;
+    long weekendMinutes;
+    long swapsRequested;
+    long swapsAccepted;
+    long proposalsSubmitted;
+    long proposalsDecided;
+    long proposalsAccepted;
+
+    public long getShifts() {
+        return shifts;
+    }
+
+    public long getScheduledMinutes() {
+        return scheduledMinutes;
+    }
+
+    public long getOvertimeMinutes() {
+        return overtimeMinutes;
+    }
+
+    public long getNightMinutes() {
+        return nightMinutes;
+    }
+
+    public long getWeekendMinutes() {
+        return weekendMinutes;
+    }
+
+    public long getSwapsRequested() {
+        return swapsRequested;
+    }
+
+    public long getSwapsAccepted() {
+        return swapsAccepted;
+    }
+
+    public long getProposalsSubmitted() {
+        return proposalsSubmitted;
+    }
+
+    public long getProposalsDecided() {
+        return proposalsDecided;
+    }
+
+    public long getProposalsAccepted() {
+        return proposalsAccepted;
+    }
+
+    boolean isEmpty() {
+        return shifts == 0 && scheduledMinutes == 0 && overtimeMinutes == 0 && nightMinutes == 0 && weekendMinutes == 0
+            && swapsRequested == 0 && swapsAccepted == 0 && proposalsSubmitted == 0 && proposalsDecided == 0 && proposalsAccepted == 0;
+    }
+
+    StatsCounters copy() {
+        StatsCounters copy = new StatsCounters();
+        copy.shifts = shifts;
+        copy.scheduledMinutes = scheduledMinutes;
+        copy.overtimeMinutes = overtimeMinutes;
+        copy.nightMinutes = nightMinutes;
+        copy.weekendMinutes = weekendMinutes;
+        copy.swapsRequested = swapsRequested;
+        copy.swapsAccepted = swapsAccepted;
+        copy.proposalsSubmitted = proposalsSubmitted;
+        copy.proposalsDecided = proposalsDecided;
+        copy.proposalsAccepted = proposalsAccepted;
+        return copy;
+    }
+}
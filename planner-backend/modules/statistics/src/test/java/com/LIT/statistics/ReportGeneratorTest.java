@@ -0,0 +1,122 @@
+package com.LIT.statistics;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.LIT.statistics.model.enums.ReportFormat;
+import com.LIT.statistics.model.enums.ReportType;
+import com.LIT.statistics.service.ReportGenerator;
+import com.LIT.statistics.service.ShiftArchiveFile;
+import com.LIT.statistics.service.ShiftArchiveFile.Row;
+import com.LIT.statistics.service.ShiftArchiveService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+public class ReportGeneratorTest {
+
+    @Mock
+    private ShiftArchiveService archiveService;
+
+    @Mock
+    private DataSource dataSource;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ReportGenerator reportGenerator;
+
+    private final YearMonth march = YearMonth.of(2025, 3);
+    private final YearMonth april = YearMonth.of(2025, 4);
+
+    @BeforeEach
+    public void setUp() {
+        reportGenerator = new ReportGenerator(archiveService, new JdbcTemplate(dataSource), objectMapper, 4, 100,
+                                              Duration.ofHours(40), "22:00", "06:00");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        reportGenerator.shutdown();
+    }
+
+    // 'employees' employees with 'days' 9 hour day shifts each, Monday to Friday from 'monday' on
+    private static List<Row> rows(int employees, int days, LocalDateTime monday) {
+        List<Row> rows = new ArrayList<>();
+        long shift = 0;
+        for (int day = 0; day < days; day++) {
+            LocalDateTime start = monday.plusDays(day % 5 + day / 5 * 7);
+            for (int employee = 1; employee <= employees; employee++) {
+                rows.add(new Row(++shift, employee, start, start.plusHours(9), "Nurse"));
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    public void testPayrollIsSummedUpInParallelSlices() throws Exception {
+        // 2000 employees x 10 shifts in March: 20000 rows, split into several slices
+        List<Row> marchRows = new ArrayList<>(rows(2000, 10, LocalDateTime.of(2025, 3, 3, 8, 0)));
+        // Employee 7 also works a night shift from Monday 31 March into April, and a Saturday in April
+        marchRows.add(new Row(99_001, 7, LocalDateTime.of(2025, 3, 31, 22, 0), LocalDateTime.of(2025, 4, 1, 6, 0), "Nurse"));
+        List<Row> aprilRows = List.of(new Row(99_002, 7, LocalDateTime.of(2025, 4, 5, 8, 0), LocalDateTime.of(2025, 4, 5, 12, 0), "Nurse"));
+
+        when(archiveService.getMonth(march)).thenReturn(ShiftArchiveFile.inMemory(march, marchRows));
+        when(archiveService.getMonth(april)).thenReturn(ShiftArchiveFile.inMemory(april, aprilRows));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = reportGenerator.generate(ReportType.PAYROLL_HOURS, ReportFormat.CSV, List.of(march, april), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2000, rows);
+        assertEquals(2001, lines.length);
+        assertEquals("employee_id,shifts,scheduled_hours,night_hours,weekend_hours,overtime_hours", lines[0]);
+
+        // Two weeks of 5 x 9 hours: 5 hours overtime each
+        assertEquals("1,10,90.00,0.00,0.00,10.00", lines[1]);
+        // + a night shift (8 night hours) and 4 hours on a Saturday, both in the week of 31 March: no overtime there
+        assertEquals("7,12,102.00,8.00,4.00,10.00", lines[7]);
+        assertEquals("2000,10,90.00,0.00,0.00,10.00", lines[2000]);
+    }
+
+    @Test
+    public void testJsonAndPdfAreWrittenRowByRow() throws Exception {
+        when(archiveService.getMonth(march)).thenReturn(ShiftArchiveFile.inMemory(march, rows(150, 1, LocalDateTime.of(2025, 3, 3, 8, 0))));
+
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        reportGenerator.generate(ReportType.PAYROLL_HOURS, ReportFormat.JSON, List.of(march), json);
+
+        JsonNode report = objectMapper.readTree(json.toByteArray());
+        assertEquals("Payroll hours 2025-03 - 2025-03", report.get("report").asText());
+        assertEquals(150, report.get("rows").size());
+        assertEquals(150, report.get("rowCount").asLong());
+        assertEquals(9.0, report.get("rows").get(0).get("scheduled_hours").asDouble());
+
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        reportGenerator.generate(ReportType.PAYROLL_HOURS, ReportFormat.PDF, List.of(march), pdf);
+
+        // 150 rows don't fit on one landscape page
+        try (PDDocument document = Loader.loadPDF(pdf.toByteArray())) {
+            assertTrue(document.getNumberOfPages() > 1);
+        }
+    }
+}
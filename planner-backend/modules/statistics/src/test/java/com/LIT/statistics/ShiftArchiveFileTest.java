@@ -0,0 +1,86 @@
+package com.LIT.statistics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.LIT.statistics.service.ShiftArchiveFile;
+import com.LIT.statistics.service.ShiftArchiveFile.Row;
+import com.LIT.statistics.service.ShiftArchiveFile.Totals;
+
+public class ShiftArchiveFileTest {
+
+    @TempDir
+    private Path dir;
+
+    private final YearMonth march = YearMonth.of(2025, 3);
+
+    private static Row row(long shift, long employee, LocalDateTime start, int hours, String role) {
+        return new Row(shift, employee, start, start.plusHours(hours), role);
+    }
+
+    private final List<Row> rows = List.of(
+        row(1, 8, LocalDateTime.of(2025, 3, 3, 8, 0), 8, "Nurse"),
+        row(1, 7, LocalDateTime.of(2025, 3, 3, 8, 0), 8, "Nurse"),
+        // Ends in April, counts in March with all of its hours
+        row(2, 7, LocalDateTime.of(2025, 3, 31, 22, 0), 8, "nurse "),
+        row(3, 9, LocalDateTime.of(2025, 3, 12, 9, 0), 6, null),
+        // Not in March, left out
+        row(4, 7, LocalDateTime.of(2025, 4, 1, 8, 0), 8, "Nurse"),
+        row(5, 7, LocalDateTime.of(2025, 3, 5, 8, 0), 0, "Nurse"));
+
+    @Test
+    public void testWrittenMonthIsReadBackThroughTheMapping() throws Exception {
+        Path path = dir.resolve("2025-03.shifts");
+        ShiftArchiveFile.write(path, march, 42, rows);
+
+        ShiftArchiveFile file = ShiftArchiveFile.open(path);
+        assertEquals(march, file.getMonth());
+        assertEquals(42, file.getFeedSeq());
+        assertEquals(4, file.size());
+
+        Map<Long, Totals> employees = new HashMap<>();
+        file.sumByEmployee(employees);
+        assertEquals(3, employees.size());
+        assertEquals(2, employees.get(7L).shifts);
+        assertEquals(16 * 60, employees.get(7L).minutes);
+        assertEquals(8 * 60, employees.get(8L).minutes);
+
+        Map<String, Totals> roles = new HashMap<>();
+        file.sumByRole(roles);
+        assertEquals(List.of("nurse"), List.copyOf(roles.keySet()));
+        assertEquals(3, roles.get("nurse").shifts);
+
+        Totals one = new Totals();
+        file.sumOfEmployee(9, one);
+        file.sumOfEmployee(10, one);
+        assertEquals(1, one.shifts);
+        assertEquals(6 * 60, one.minutes);
+    }
+
+    @Test
+    public void testOpenMonthIsSummedUpLikeAnArchivedOne() throws Exception {
+        ShiftArchiveFile archived = ShiftArchiveFile.write(dir.resolve("2025-03.shifts"), march, 1, rows);
+        ShiftArchiveFile open = ShiftArchiveFile.inMemory(march, rows);
+
+        Map<Long, Totals> fromFile = new HashMap<>();
+        Map<Long, Totals> fromMemory = new HashMap<>();
+        archived.sumByEmployee(fromFile);
+        open.sumByEmployee(fromMemory);
+
+        assertEquals(fromFile.keySet(), fromMemory.keySet());
+        fromFile.forEach((employee, totals) -> {
+            assertEquals(totals.shifts, fromMemory.get(employee).shifts);
+            assertEquals(totals.minutes, fromMemory.get(employee).minutes);
+        });
+        assertEquals(-1, open.getFeedSeq());
+    }
+}
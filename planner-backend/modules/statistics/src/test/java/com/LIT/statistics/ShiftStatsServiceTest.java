@@ -0,0 +1,242 @@
+package com.LIT.statistics;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.LIT.statistics.model.dto.StatsSummaryDTO;
+import com.LIT.statistics.model.enums.StatsDimension;
+import com.LIT.statistics.model.enums.StatsGranularity;
+import com.LIT.statistics.service.ChangeFeedReader;
+import com.LIT.statistics.service.ChangeFeedReader.FeedEntry;
+import com.LIT.statistics.service.ShiftStatsAggregator;
+import com.LIT.statistics.service.ShiftStatsAggregator.ProposalFact;
+import com.LIT.statistics.service.ShiftStatsAggregator.ProposalKind;
+import com.LIT.statistics.service.ShiftStatsAggregator.ShiftFact;
+import com.LIT.statistics.service.ShiftStatsService;
+import com.LIT.statistics.service.ShiftStatsStore;
+import com.LIT.statistics.service.StatsCounters;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class ShiftStatsServiceTest {
+
+    @Mock
+    private ChangeFeedReader feedReader;
+
+    @Mock
+    private ShiftStatsStore store;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ShiftStatsService shiftStatsService;
+
+    // Only parses, the entries come from the 'feedReader' mock
+    private final ChangeFeedReader parser = new ChangeFeedReader(null, new ObjectMapper());
+
+    private final ShiftStatsAggregator aggregator = new ShiftStatsAggregator(Duration.ofHours(40), LocalTime.of(22, 0), LocalTime.of(6, 0));
+
+    @BeforeEach
+    public void setUp() {
+        shiftStatsService = new ShiftStatsService(feedReader, store, meterRegistry, Duration.ofHours(1));
+    }
+
+    // Sunday 2025-03-09 is the last day of week 10, Monday 2025-03-10 starts week 11
+    private static ShiftFact shift(long id, long employee, String role, LocalDateTime start, int hours) {
+        return new ShiftFact(id, employee, role, start, start.plusHours(hours));
+    }
+
+    @Test
+    public void testNightShiftIsSplitAtMidnightAcrossWeeks() {
+        aggregator.addShift(shift(1, 7, "Nurse", LocalDateTime.of(2025, 3, 9, 20, 0), 10));
+
+        StatsCounters sunday = aggregator.get(StatsDimension.EMPLOYEE, "7", StatsGranularity.WEEK, "2025-W10");
+        StatsCounters monday = aggregator.get(StatsDimension.EMPLOYEE, "7", StatsGranularity.WEEK, "2025-W11");
+
+        assertEquals(1, sunday.getShifts());
+        assertEquals(4 * 60, sunday.getScheduledMinutes());
+        assertEquals(2 * 60, sunday.getNightMinutes());
+        assertEquals(4 * 60, sunday.getWeekendMinutes());
+
+        assertEquals(0, monday.getShifts());
+        assertEquals(6 * 60, monday.getScheduledMinutes());
+        assertEquals(6 * 60, monday.getNightMinutes());
+        assertEquals(0, monday.getWeekendMinutes());
+
+        assertEquals(10 * 60, aggregator.get(StatsDimension.ROLE, "NURSE", StatsGranularity.MONTH, "2025-03").getScheduledMinutes());
+    }
+
+    @Test
+    public void testOvertimeFollowsTheWeeklyHours() {
+        // 5 x 9 hours in week 11: 5 hours overtime
+        for (int day = 0; day < 5; day++) {
+            aggregator.addShift(shift(day, 7, "Nurse", LocalDateTime.of(2025, 3, 10 + day, 8, 0), 9));
+        }
+        aggregator.addShift(shift(10, 8, "Nurse", LocalDateTime.of(2025, 3, 10, 8, 0), 9));
+
+        assertEquals(5 * 60, aggregator.get(StatsDimension.EMPLOYEE, "7", StatsGranularity.WEEK, "2025-W11").getOvertimeMinutes());
+        assertEquals(5 * 60, aggregator.get(StatsDimension.EMPLOYEE, "7", StatsGranularity.MONTH, "2025-03").getOvertimeMinutes());
+        assertEquals(5 * 60, aggregator.get(StatsDimension.ALL, ShiftStatsAggregator.ALL, StatsGranularity.WEEK, "2025-W11").getOvertimeMinutes());
+
+        // The shift is moved to someone else: no overtime left
+        ShiftFact friday = shift(4, 7, "Nurse", LocalDateTime.of(2025, 3, 14, 8, 0), 9);
+        aggregator.removeShift(friday);
+        aggregator.addShift(new ShiftFact(4L, 9L, "Nurse", friday.start(), friday.end()));
+
+        assertEquals(0, aggregator.get(StatsDimension.EMPLOYEE, "7", StatsGranularity.WEEK, "2025-W11").getOvertimeMinutes());
+        assertEquals(0, aggregator.get(StatsDimension.ALL, ShiftStatsAggregator.ALL, StatsGranularity.MONTH, "2025-03").getOvertimeMinutes());
+        assertEquals(6 * 9 * 60, aggregator.get(StatsDimension.ALL, ShiftStatsAggregator.ALL, StatsGranularity.WEEK, "2025-W11").getScheduledMinutes());
+    }
+
+    private static String shiftJson(long id, Long owner, int endHour, String assignees) {
+        return "{\"id\":" + id + ",\"ownerId\":" + owner + ",\"role\":\"Nurse\",\"start\":\"2025-03-10T08:00:00\","
+             + "\"end\":\"2025-03-10T" + endHour + ":00:00\",\"assignees\":[" + assignees + "]}";
+    }
+
+    private FeedEntry entry(long seq, String entityType, String before, String after, LocalDateTime createdAt) {
+        return parser.parse(seq, entityType, "[{\"before\":" + before + ",\"after\":" + after + "}]", createdAt);
+    }
+
+    @Test
+    public void testFeedIsAppliedInOrderAndCheckpointed() {
+        LocalDateTime now = LocalDateTime.now();
+        String proposal = "{\"id\":1,\"employeeId\":7,\"role\":\"Nurse\",\"start\":\"2025-03-11T08:00:00\",\"status\":\"%s\"}";
+        String assignment = "{\"id\":1,\"shiftId\":1,\"userId\":8,\"status\":\"CONFIRMED\",\"role\":\"Nurse\","
+                          + "\"start\":\"2025-03-10T08:00:00\",\"end\":\"2025-03-10T18:00:00\"}";
+
+        when(store.load(eq("statistics"), any())).thenReturn(0L);
+        // Entry 3 isn't committed yet: 4 is applied without it
+        when(feedReader.read(0L, 500)).thenReturn(List.of(
+            entry(1, "SHIFT", "null", shiftJson(1, 7L, 16, ""), now),
+            entry(2, "SHIFT_PROPOSAL", "null", String.format(proposal, "PROPOSED"), now),
+            entry(4, "ASSIGNMENT", "null", assignment, now)));
+
+        shiftStatsService.poll();
+
+        assertEquals(4, shiftStatsService.getPosition());
+        verify(store).save(eq("statistics"), anyMap(), eq(4L));
+        StatsSummaryDTO week = shiftStatsService.getSummary(StatsDimension.EMPLOYEE, "7", StatsGranularity.WEEK, "2025-W11");
+        assertEquals(1, week.getShifts());
+        assertEquals(8.0, week.getScheduledHours());
+        assertEquals(1, week.getProposalsSubmitted());
+        assertNotNull(week.getBuiltAt());
+
+        // The shift got longer (3, committed late, the assignment already had the new times), then the proposal is accepted
+        when(feedReader.read(anyCollection())).thenReturn(List.of(
+            entry(3, "SHIFT", shiftJson(1, 7L, 16, ""), shiftJson(1, 7L, 18, ""), now)));
+        when(feedReader.read(4L, 500)).thenReturn(List.of(
+            entry(5, "SHIFT_PROPOSAL", String.format(proposal, "PROPOSED"), String.format(proposal, "ACCEPTED"), now)));
+
+        shiftStatsService.poll();
+
+        assertEquals(5, shiftStatsService.getPosition());
+        verify(store).save(eq("statistics"), anyMap(), eq(5L));
+        week = shiftStatsService.getSummary(StatsDimension.EMPLOYEE, "7", StatsGranularity.WEEK, "2025-W11");
+        assertEquals(10.0, week.getScheduledHours());
+        assertEquals(1.0, week.getProposalAcceptanceRate());
+        assertEquals(10.0, shiftStatsService.getSummary(StatsDimension.EMPLOYEE, "8", StatsGranularity.WEEK, "2025-W11").getScheduledHours());
+
+        List<StatsSummaryDTO> series = shiftStatsService.getSeries(StatsDimension.ROLE, "nurse", StatsGranularity.MONTH, "2025-04", 3);
+        assertEquals(List.of("2025-02", "2025-03", "2025-04"), series.stream().map(StatsSummaryDTO::getPeriod).toList());
+        assertEquals(2, series.get(1).getShifts());
+        assertEquals(20.0, series.get(1).getScheduledHours());
+        assertNull(series.get(0).getProposalAcceptanceRate());
+    }
+
+    @Test
+    public void testOldGapsAreSkippedAndRebuildReplaysTheFeed() {
+        LocalDateTime longAgo = LocalDateTime.now().minusMinutes(5);
+        // Entry 1 was rolled back; entry 3 moves the shift to employee 9
+        List<FeedEntry> feed = List.of(
+            entry(2, "SHIFT", "null", shiftJson(1, 7L, 16, ""), longAgo),
+            entry(3, "SHIFT", shiftJson(1, 7L, 16, ""), shiftJson(1, 9L, 16, ""), longAgo));
+        when(feedReader.read(0L, 500)).thenReturn(feed);
+
+        shiftStatsService.rebuild(0);
+
+        assertEquals(3, shiftStatsService.getPosition());
+        verify(store).replace(eq("statistics"), any(ShiftStatsAggregator.class), eq(3L));
+        assertEquals(0, shiftStatsService.getSummary(StatsDimension.EMPLOYEE, "7", StatsGranularity.MONTH, "2025-03").getShifts());
+        assertEquals(8.0, shiftStatsService.getSummary(StatsDimension.EMPLOYEE, "9", StatsGranularity.MONTH, "2025-03").getScheduledHours());
+        assertThrows(IllegalArgumentException.class, () -> shiftStatsService.rebuild(-1));
+    }
+
+    @Test
+    public void testRolledBackEntryDoesNotHoldUpTheFeed() {
+        // Entry 2 was rolled back (or its transaction still runs): the entries after it are applied right away
+        LocalDateTime now = LocalDateTime.now();
+        when(store.load(eq("statistics"), any())).thenReturn(0L);
+        when(feedReader.read(0L, 500)).thenReturn(List.of(
+            entry(1, "SHIFT", "null", shiftJson(1, 7L, 16, ""), now),
+            entry(3, "SHIFT", "null", shiftJson(3, 7L, 12, ""), now),
+            entry(4, "SHIFT", "null", shiftJson(4, 7L, 10, ""), now)));
+
+        shiftStatsService.poll();
+
+        assertEquals(4, shiftStatsService.getPosition());
+        verify(store).save(eq("statistics"), anyMap(), eq(4L));
+        assertEquals(3, shiftStatsService.getSummary(StatsDimension.EMPLOYEE, "7", StatsGranularity.MONTH, "2025-03").getShifts());
+        assertEquals(1, meterRegistry.get("stats.feed.skipped").counter().count());
+    }
+
+    @Test
+    public void testSkippedEntryIsAppliedWhenItShowsUp() {
+        LocalDateTime now = LocalDateTime.now();
+        // Its own registry, the gauge of the one from setUp() would shadow its gauge
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        shiftStatsService = new ShiftStatsService(feedReader, store, registry, Duration.ofHours(1));
+        when(store.load(eq("statistics"), any())).thenReturn(0L);
+        when(feedReader.read(0L, 500)).thenReturn(List.of(
+            entry(1, "SHIFT", "null", shiftJson(1, 7L, 16, ""), now),
+            entry(3, "SHIFT", "null", shiftJson(3, 7L, 12, ""), now)));
+
+        shiftStatsService.poll();
+
+        assertEquals(3, shiftStatsService.getPosition());
+        assertEquals(1, registry.get("stats.feed.skipped").counter().count());
+        assertEquals(1, registry.get("stats.feed.missing").gauge().value());
+
+        // Entry 2 commits after all
+        when(feedReader.read(3L, 500)).thenReturn(List.of());
+        when(feedReader.read(anyCollection())).thenReturn(List.of(entry(2, "SHIFT", "null", shiftJson(2, 7L, 10, ""), now)));
+
+        shiftStatsService.poll();
+
+        verify(feedReader).read(anyCollection());
+        verify(store, times(2)).save(eq("statistics"), anyMap(), eq(3L));
+        assertEquals(3, shiftStatsService.getSummary(StatsDimension.EMPLOYEE, "7", StatsGranularity.MONTH, "2025-03").getShifts());
+        assertEquals(1, registry.get("stats.feed.late").counter().count());
+        assertEquals(0, registry.get("stats.feed.missing").gauge().value());
+    }
+
+    @Test
+    public void testRemovingEverythingFreesTheTotals() {
+        ShiftFact shift = shift(1, 7, "Nurse", LocalDateTime.of(2025, 12, 31, 22, 0), 12);
+        ProposalFact swap = new ProposalFact(1L, ProposalKind.SWAP, 7L, null, LocalDateTime.of(2026, 1, 1, 8, 0), "ACCEPTED");
+
+        aggregator.addShift(shift);
+        aggregator.addProposal(swap);
+        // 2025-12-31 is in ISO week 1 of 2026
+        assertEquals(1, aggregator.get(StatsDimension.EMPLOYEE, "7", StatsGranularity.WEEK, "2026-W01").getShifts());
+        assertEquals(1, aggregator.get(StatsDimension.EMPLOYEE, "7", StatsGranularity.MONTH, "2025-12").getShifts());
+        assertEquals(1, aggregator.get(StatsDimension.EMPLOYEE, "7", StatsGranularity.WEEK, "2026-W01").getSwapsAccepted());
+
+        aggregator.removeShift(shift);
+        aggregator.removeProposal(swap);
+        assertEquals(0, aggregator.size());
+        assertThrows(IllegalArgumentException.class, () -> StatsGranularity.WEEK.firstDay("2025-W60"));
+    }
+}
@@ -3,6 +3,62 @@ import axios from 'axios';
 
 const baseUrl = process.env.REACT_APP_API_BASE_URL;
 
+/*
+ * Access tokens are short-lived: on a 401 the refresh token is exchanged for a new pair once and the request retried.
+ * Concurrent 401s share one refresh (a refresh token only works once, using it twice logs the user out).
+ */
+let refreshing: Promise<string | null> | null = null;
+
+const storeTokens = (data: any) => {
+  localStorage.setItem('token', data.token);
+  if (data.refreshToken) {
+    localStorage.setItem('refreshToken', data.refreshToken);
+  }
+};
+
+const refreshTokens = (): Promise<string | null> => {
+  const refreshToken = localStorage.getItem('refreshToken');
+  if (!refreshToken) {
+    return Promise.resolve(null);
+  }
+
+  if (!refreshing) {
+    refreshing = axios.post(`${baseUrl}/api/auth/refresh`, { refreshToken: refreshToken })
+      .then((response) => {
+        storeTokens(response.data);
+        return response.data.token as string;
+      })
+      .catch((error) => {
+        console.error('Session expired, please log in again', error);
+        localStorage.removeItem('token');
+        localStorage.removeItem('refreshToken');
+        return null;
+      })
+      .finally(() => {
+        refreshing = null;
+      });
+  }
+  return refreshing;
+};
+
+axios.interceptors.response.use(undefined, async (error) => {
+  const request = error.config;
+  const url: string = request?.url || '';
+
+  if (error.response?.status !== 401 || request._retried || url.endsWith('/refresh') || url.endsWith('/login') || url.endsWith('/logout')) {
+    return Promise.reject(error);
+  }
+
+  const token = await refreshTokens();
+  if (!token) {
+    return Promise.reject(error);
+  }
+
+  request._retried = true;
+  request.headers['Authorization'] = token;
+  return axios(request);
+});
+
 // Test logicGate
 export const testLogicGate = async (): Promise<void> => {
   console.log('Testing logicGate API Endpoint... URL:', `${baseUrl}/api/hello`);
@@ -68,7 +124,7 @@ export const login = async (email: string, password: string) => {
 
     const permissionsArray = data.permissions ? data.permissions.split(",") : [];
 
-    localStorage.setItem('token', data.token);
+    storeTokens(data);
     localStorage.setItem('userId', data.userId);
     localStorage.setItem('role', data.role);
     localStorage.setItem('permissions', JSON.stringify(permissionsArray));
@@ -114,7 +170,7 @@ export const register = async (email: string, password: string) => {
 
     const permissionsArray = data.permissions ? data.permissions.split(",") : [];
 
-    localStorage.setItem('token', data.token);
+    storeTokens(data);
     localStorage.setItem('userId', data.userId);
     localStorage.setItem('role', data.role);
     localStorage.setItem('permissions', JSON.stringify(permissionsArray));
@@ -130,6 +186,24 @@ export const register = async (email: string, password: string) => {
 };
 
 
+// Ends the session on the server too (refresh token & current access token revoked), local data is cleared either way
+export const logout = async () => {
+  try {
+    await axios.post(`${baseUrl}/api/auth/logout`, {
+      refreshToken: localStorage.getItem('refreshToken')
+    }, {
+      headers: {
+        'Content-Type': 'application/json',
+        'Authorization': localStorage.getItem('token') || ''
+      }
+    });
+
+  } catch (error) {
+    console.error('Error logging out', error);
+  }
+  localStorage.removeItem('refreshToken');
+};
+
 export const getAllUsers = async () => {
   try {
     const response = await axios.get(`${baseUrl}/api/auth/users`, {
@@ -3,6 +3,7 @@ import { Link, useNavigate } from "react-router-dom";
 import { useAuth } from "../AuthContext.tsx";
 import { useTranslation } from "react-i18next";
 import { FiLogOut } from "react-icons/fi";
+import { logout } from "../Services/api.ts";
 import "./GlobalSidebar.css";
 
 interface GlobalSidebarProps {
@@ -37,7 +38,8 @@ const GlobalSidebar: React.FC<GlobalSidebarProps> = ({ open, onClose }) => {
     onClose();
   };
 
-  const handleLogout = () => {
+  const handleLogout = async () => {
+    await logout();
     localStorage.removeItem("user");
     localStorage.removeItem("token");
     localStorage.removeItem("lang");
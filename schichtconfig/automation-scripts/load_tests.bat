@@ -0,0 +1,9 @@
+@echo off
+
+setlocal
+
+cd ../../planner-backend
+
+REM Services & the load test (options are passed on, e.g. --duration 5m --concurrency 64)
+call mvnw.cmd -Ploadtest package -DskipTests
+java -jar modules/loadtest/target/loadtest.jar %*
\ No newline at end of file
@@ -0,0 +1,10 @@
+#!/bin/bash
+
+cd ../../planner-backend
+
+# Ensure mvnw is executable
+chmod +x ./mvnw
+
+# Services & the load test (options are passed on, e.g. --duration 5m --concurrency 64)
+./mvnw -Ploadtest package -DskipTests
+java -jar modules/loadtest/target/loadtest.jar "$@"
\ No newline at end of file